@@ -27,6 +27,7 @@ import org.apache.samza.annotation.InterfaceStability;
 import org.apache.samza.operators.functions.AsyncFlatMapFunction;
 import org.apache.samza.operators.functions.FilterFunction;
 import org.apache.samza.operators.functions.FlatMapFunction;
+import org.apache.samza.operators.functions.IntervalJoinFunction;
 import org.apache.samza.operators.functions.JoinFunction;
 import org.apache.samza.operators.functions.MapFunction;
 import org.apache.samza.operators.functions.SinkFunction;
@@ -187,6 +188,40 @@ public interface MessageStream<M> {
       Serde<K> keySerde, Serde<M> messageSerde, Serde<OM> otherMessageSerde,
       Duration ttl, String id);
 
+  /**
+   * Joins this {@link MessageStream} with another {@link MessageStream} by key and event time using the provided
+   * pairwise {@link IntervalJoinFunction}.
+   * <p>
+   * Each message is joined with every message in the other stream that has the same key and an event time at most
+   * {@code window} apart from its own. All messages in each stream are buffered, not just the latest one for a key,
+   * and join results are emitted as matches are found. Buffered messages are evicted as the watermark of the other
+   * stream advances past their event time plus the {@code window}. Messages that arrive with an event time behind the
+   * watermark of their own stream are late, and are dropped.
+   * <p>
+   * Both inputs being joined must have the same number of partitions, and should be partitioned by the join key.
+   * <p>
+   * The {@code id} must be unique for each operator in this application. It is used as part of the unique ID
+   * for any state stores and streams created by this operator (the full ID also contains the job name, job id and
+   * operator type). If the application logic is changed, this ID must be reused in the new operator to retain
+   * state from the previous version, and changed for the new operator to discard the state from the previous version.
+   *
+   * @param otherStream the other {@link MessageStream} to be joined with
+   * @param joinFn the function to join messages from this and the other {@link MessageStream}
+   * @param keySerde the serde for the join key
+   * @param messageSerde the serde for messages in this stream
+   * @param otherMessageSerde the serde for messages in the other stream
+   * @param window the maximum difference in event time between joined messages
+   * @param id the unique id of this operator in this application
+   * @param <K> the type of join key
+   * @param <OM> the type of messages in the other stream
+   * @param <JM> the type of messages resulting from the {@code joinFn}
+   * @return the joined {@link MessageStream}
+   */
+  <K, OM, JM> MessageStream<JM> intervalJoin(MessageStream<OM> otherStream,
+      IntervalJoinFunction<? extends K, ? super M, ? super OM, ? extends JM> joinFn,
+      Serde<K> keySerde, Serde<M> messageSerde, Serde<OM> otherMessageSerde,
+      Duration window, String id);
+
   /**
    * Joins this {@link MessageStream} with another {@link Table} using the provided
    * pairwise {@link StreamTableJoinFunction}.
@@ -216,6 +251,26 @@ public interface MessageStream<M> {
   <K, R extends KV, JM> MessageStream<JM> join(Table<R> table,
       StreamTableJoinFunction<? extends K, ? super M, ? super R, ? extends JM> joinFn, Object ... args);
 
+  /**
+   * Joins this {@link MessageStream} with another {@link Table} using the provided
+   * pairwise {@link StreamTableJoinFunction}, like {@link #join(Table, StreamTableJoinFunction, Object...)}.
+   * <p>
+   * The join keeps up to {@link StreamTableJoinOptions#getMaxOutstandingLookups()} table lookups
+   * in flight to hide their latency, and by default emits the join results in the order of the input messages.
+   *
+   * @param table the table being joined
+   * @param joinFn the join function
+   * @param options the options of the join
+   * @param args additional arguments passed to the table
+   * @param <K> the type of join key
+   * @param <R> the type of table record
+   * @param <JM> the type of messages resulting from the {@code joinFn}
+   * @return the joined {@link MessageStream}
+   */
+  <K, R extends KV, JM> MessageStream<JM> join(Table<R> table,
+      StreamTableJoinFunction<? extends K, ? super M, ? super R, ? extends JM> joinFn, StreamTableJoinOptions options,
+      Object ... args);
+
   /**
    * Merges all {@code otherStreams} with this {@link MessageStream}.
    * <p>
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.operators;
+
+import com.google.common.base.Preconditions;
+import java.io.Serializable;
+import org.apache.samza.operators.functions.StreamTableJoinFunction;
+import org.apache.samza.table.Table;
+
+
+/**
+ * Options of a stream-table join, see {@link MessageStream#join(Table, StreamTableJoinFunction,
+ * StreamTableJoinOptions, Object...)}.
+ * <p>
+ * A join with options keeps up to {@link #getMaxOutstandingLookups()} table lookups in flight, and
+ * emits the join results in the order of the input messages unless unordered emission is enabled.
+ * Since the run loop only hands over as many messages of a task at a time as allowed by
+ * {@code task.max.concurrency}, it should be set at least as high as the maximum number of outstanding
+ * lookups for them to overlap.
+ */
+public class StreamTableJoinOptions implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private int maxOutstandingLookups = 1;
+  private boolean ordered = true;
+
+  /**
+   * Set the maximum number of table lookups the join keeps in flight. Further messages wait for a
+   * lookup to complete, which holds back the run loop once {@code task.max.concurrency} is reached.
+   * @param maxOutstandingLookups maximum number of outstanding lookups, default is 1
+   * @return this options
+   */
+  public StreamTableJoinOptions withMaxOutstandingLookups(int maxOutstandingLookups) {
+    Preconditions.checkArgument(maxOutstandingLookups > 0, "Max outstanding lookups must be positive");
+    this.maxOutstandingLookups = maxOutstandingLookups;
+    return this;
+  }
+
+  /**
+   * Emit join results as soon as their lookups complete, instead of in the order of the input messages.
+   * @return this options
+   */
+  public StreamTableJoinOptions withUnorderedEmission() {
+    this.ordered = false;
+    return this;
+  }
+
+  public int getMaxOutstandingLookups() {
+    return maxOutstandingLookups;
+  }
+
+  public boolean isOrdered() {
+    return ordered;
+  }
+}
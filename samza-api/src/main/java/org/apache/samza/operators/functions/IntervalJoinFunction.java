@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.operators.functions;
+
+import org.apache.samza.annotation.InterfaceStability;
+
+
+/**
+ * Joins incoming messages in two streams by key and event time.
+ * <p>
+ * A message in the first stream is joined with every message in the second stream that has the same key and an
+ * event time within the join window of its own event time.
+ * <p>
+ * Watermarks are handled by the join operator, which uses them to evict buffered messages that can no longer
+ * be joined. This function should therefore not implement {@link WatermarkFunction}.
+ *
+ * @param <K>  type of the join key
+ * @param <M>  type of the input message
+ * @param <JM>  type of the message to join with
+ * @param <RM>  type of the joined message
+ */
+@InterfaceStability.Unstable
+public interface IntervalJoinFunction<K, M, JM, RM> extends JoinFunction<K, M, JM, RM> {
+
+  /**
+   * Get the event time for messages in the first input stream.
+   *
+   * @param message  the message in the first input stream
+   * @return  the event time in milliseconds, which must not be negative
+   */
+  long getFirstTimestamp(M message);
+
+  /**
+   * Get the event time for messages in the second input stream.
+   *
+   * @param message  the message in the second input stream
+   * @return  the event time in milliseconds, which must not be negative
+   */
+  long getSecondTimestamp(JM message);
+
+}
@@ -20,6 +20,7 @@
 package org.apache.samza.storage.kv;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,6 +116,49 @@ public interface KeyValueStore<K, V> {
     }
   }
 
+  /**
+   * Deletes the mappings for a sorted range of keys specified by [{@code from}, {@code to}).
+   *
+   * <p>The default implementation iterates over the range and deletes each key. Stores that support range deletes
+   * natively can delete the range without reading it. Stores backed by a changelog still read every key in the range,
+   * since the changelog needs a tombstone for each of them, so a range delete on them costs as much as deleting the
+   * keys one by one.</p>
+   *
+   * @param from the key specifying the low endpoint (inclusive) of the keys to delete.
+   * @param to the key specifying the high endpoint (exclusive) of the keys to delete.
+   * @throws NullPointerException if null is used for {@code from} or {@code to}.
+   */
+  default void deleteRange(K from, K to) {
+    List<K> keys = new ArrayList<>();
+    KeyValueIterator<K, V> iterator = range(from, to);
+    try {
+      while (iterator.hasNext()) {
+        keys.add(iterator.next().getKey());
+      }
+    } finally {
+      iterator.close();
+    }
+    deleteAll(keys);
+  }
+
+  /**
+   * Merges the specified {@code delta} into the value associated with the specified {@code key}, using the merge
+   * operator configured for this key-value store. Unlike a {@link #get(Object)} followed by a {@link #put(Object, Object)},
+   * stores that support merge operators natively can apply the merge without reading the current value.
+   *
+   * <p><b>API Note:</b> The merge operator is applied to the serialized values, so the serde for values must produce
+   * the encoding expected by the configured merge operator. Stores that apply the merge by reading the current value
+   * and writing the merged value back do not make it atomic with respect to concurrent writes of the same key.</p>
+   *
+   * @param key the key with whose value the specified {@code delta} is to be merged.
+   * @param delta the value to merge into the value associated with the specified {@code key}.
+   * @throws NullPointerException if the specified {@code key} or {@code delta} is {@code null}.
+   * @throws UnsupportedOperationException if this key-value store does not support merges, or has no merge operator.
+   */
+  default void merge(K key, V delta) {
+    throw new UnsupportedOperationException("merge() is not supported in " + this.getClass().getName());
+  }
+
   /**
    * Returns an iterator for a sorted range of entries specified by [{@code from}, {@code to}).
    *
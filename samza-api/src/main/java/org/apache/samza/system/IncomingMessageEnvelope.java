@@ -65,12 +65,7 @@ public class IncomingMessageEnvelope {
    */
   public IncomingMessageEnvelope(SystemStreamPartition systemStreamPartition, String offset,
       Object key, Object message, int size) {
-    this.systemStreamPartition = systemStreamPartition;
-    this.offset = offset;
-    this.key = key;
-    this.message = message;
-    this.size = size;
-    this.arrivalTime = Instant.now().toEpochMilli();
+    this(systemStreamPartition, offset, key, message, size, 0L, Instant.now().toEpochMilli());
   }
 
   /**
@@ -86,7 +81,11 @@ public class IncomingMessageEnvelope {
    */
   public IncomingMessageEnvelope(SystemStreamPartition systemStreamPartition, String offset,
       Object key, Object message, int size, long eventTime, long arrivalTime) {
-    this(systemStreamPartition, offset, key, message, size);
+    this.systemStreamPartition = systemStreamPartition;
+    this.offset = offset;
+    this.key = key;
+    this.message = message;
+    this.size = size;
     this.eventTime = eventTime;
     this.arrivalTime = arrivalTime;
   }
@@ -131,7 +130,19 @@ public class IncomingMessageEnvelope {
   }
 
   public boolean isEndOfStream() {
-    return END_OF_STREAM_OFFSET.equals(offset);
+    return END_OF_STREAM_OFFSET.equals(getOffset());
+  }
+
+  /**
+   * Returns a copy of this envelope with the provided key and message, e.g. once they are deserialized. Subclasses
+   * that keep additional state override this method to return an envelope of their own type.
+   *
+   * @param key the key of the copy
+   * @param message the message of the copy
+   * @return a copy of this envelope with the provided key and message
+   */
+  public IncomingMessageEnvelope withKeyAndMessage(Object key, Object message) {
+    return new IncomingMessageEnvelope(systemStreamPartition, offset, key, message, size, eventTime, arrivalTime);
   }
 
   /**
@@ -154,6 +165,7 @@ public class IncomingMessageEnvelope {
     int result = 1;
     result = prime * result + ((key == null) ? 0 : key.hashCode());
     result = prime * result + ((message == null) ? 0 : message.hashCode());
+    String offset = getOffset();
     result = prime * result + ((offset == null) ? 0 : offset.hashCode());
     result = prime * result + ((systemStreamPartition == null) ? 0 : systemStreamPartition.hashCode());
     return result;
@@ -178,10 +190,11 @@ public class IncomingMessageEnvelope {
         return false;
     } else if (!message.equals(other.message))
       return false;
+    String offset = getOffset();
     if (offset == null) {
-      if (other.offset != null)
+      if (other.getOffset() != null)
         return false;
-    } else if (!offset.equals(other.offset))
+    } else if (!offset.equals(other.getOffset()))
       return false;
     if (systemStreamPartition == null) {
       if (other.systemStreamPartition != null)
@@ -193,7 +206,7 @@ public class IncomingMessageEnvelope {
 
   @Override
   public String toString() {
-    return "IncomingMessageEnvelope [systemStreamPartition=" + systemStreamPartition + ", offset=" + offset +
+    return "IncomingMessageEnvelope [systemStreamPartition=" + systemStreamPartition + ", offset=" + getOffset() +
         ", key=" + key + ", message=" + message + ", eventTime=" + eventTime +
         ", arrivalTime=" + arrivalTime + "]";
   }
@@ -181,4 +181,18 @@ public interface SystemAdmin {
   default String resolveStartpointToOffset(SystemStreamPartition systemStreamPartition, Startpoint startpoint) {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Resolves the startpoints of several system stream partitions to system specific offsets. Implementations may
+   * resolve them together, which is cheaper than resolving them one at a time with
+   * {@link #resolveStartpointToOffset(SystemStreamPartition, Startpoint)}.
+   * @param startpoints the startpoints to resolve, keyed by their system stream partition.
+   * @return the resolved offsets, keyed by system stream partition.
+   */
+  default Map<SystemStreamPartition, String> resolveStartpointsToOffsets(Map<SystemStreamPartition, Startpoint> startpoints) {
+    Map<SystemStreamPartition, String> resolvedOffsets = new HashMap<>();
+    startpoints.forEach((systemStreamPartition, startpoint) ->
+        resolvedOffsets.put(systemStreamPartition, resolveStartpointToOffset(systemStreamPartition, startpoint)));
+    return resolvedOffsets;
+  }
 }
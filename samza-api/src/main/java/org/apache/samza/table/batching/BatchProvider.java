@@ -29,6 +29,8 @@ public abstract class BatchProvider<K, V> implements TablePart, Serializable {
 
   private int maxBatchSize = 100;
   private Duration maxBatchDelay = Duration.ofMillis(100);
+  private int maxReadBatchSize = 0;
+  private Duration maxReadBatchDelay = Duration.ofMillis(10);
 
   public BatchProvider<K, V> withMaxBatchSize(int maxBatchSize) {
     this.maxBatchSize = maxBatchSize;
@@ -40,6 +42,21 @@ public abstract class BatchProvider<K, V> implements TablePart, Serializable {
     return this;
   }
 
+  /**
+   * Batch reads separately from writes. The keys of individual reads, including the keys of
+   * multi-key reads, are accumulated in read-only batches that are sent to the table as a single
+   * multi-key read of the distinct keys once they hold maxReadBatchSize keys, or maxReadBatchDelay
+   * after they were opened. The results are then handed back to each individual read.
+   * @param maxReadBatchSize the max number of distinct keys in a read batch
+   * @param maxReadBatchDelay the max time a read batch stays open
+   * @return this batch provider
+   */
+  public BatchProvider<K, V> withReadBatching(int maxReadBatchSize, Duration maxReadBatchDelay) {
+    this.maxReadBatchSize = maxReadBatchSize;
+    this.maxReadBatchDelay = maxReadBatchDelay;
+    return this;
+  }
+
   public int getMaxBatchSize() {
     return maxBatchSize;
   }
@@ -47,4 +64,16 @@ public abstract class BatchProvider<K, V> implements TablePart, Serializable {
   public Duration getMaxBatchDelay() {
     return maxBatchDelay;
   }
+
+  public boolean isReadBatchingEnabled() {
+    return maxReadBatchSize > 0;
+  }
+
+  public int getMaxReadBatchSize() {
+    return maxReadBatchSize;
+  }
+
+  public Duration getMaxReadBatchDelay() {
+    return maxReadBatchDelay;
+  }
 }
@@ -45,6 +45,7 @@ public class CachingTableDescriptor<K, V> extends HybridTableDescriptor<K, V, Ca
   public static final String WRITE_TTL_MS = "writeTtl";
   public static final String CACHE_SIZE = "cacheSize";
   public static final String WRITE_AROUND = "writeAround";
+  public static final String REFRESH_AFTER_WRITE_MS = "refreshAfterWrite";
 
   private Duration readTtl;
   private Duration writeTtl;
@@ -52,6 +53,7 @@ public class CachingTableDescriptor<K, V> extends HybridTableDescriptor<K, V, Ca
   private TableDescriptor<K, V, ?> cache;
   private TableDescriptor<K, V, ?> table;
   private boolean isWriteAround;
+  private Duration refreshAfterWrite;
 
   /**
    * Constructs a table descriptor instance with internal cache
@@ -134,6 +136,19 @@ public class CachingTableDescriptor<K, V> extends HybridTableDescriptor<K, V, Ca
     return this;
   }
 
+  /**
+   * Specify the refresh-ahead interval, ie. a cache hit for a record that was loaded
+   * from the table more than refreshAfterWrite ago returns the cached value and
+   * asynchronously reloads the record from the table. It should be shorter than the
+   * TTL of the cache so that hot records are reloaded before they expire.
+   * @param refreshAfterWrite refresh-ahead interval
+   * @return this descriptor
+   */
+  public CachingTableDescriptor<K, V> withRefreshAfterWrite(Duration refreshAfterWrite) {
+    this.refreshAfterWrite = refreshAfterWrite;
+    return this;
+  }
+
   @Override
   public String getProviderFactoryClassName() {
     return PROVIDER_FACTORY_CLASS_NAME;
@@ -160,6 +175,9 @@ public class CachingTableDescriptor<K, V> extends HybridTableDescriptor<K, V, Ca
 
     addTableConfig(REAL_TABLE_ID, table.getTableId(), tableConfig);
     addTableConfig(WRITE_AROUND, String.valueOf(isWriteAround), tableConfig);
+    if (refreshAfterWrite != null) {
+      addTableConfig(REFRESH_AFTER_WRITE_MS, String.valueOf(refreshAfterWrite.toMillis()), tableConfig);
+    }
 
     return Collections.unmodifiableMap(tableConfig);
   }
@@ -173,5 +191,9 @@ public class CachingTableDescriptor<K, V> extends HybridTableDescriptor<K, V, Ca
       Preconditions.checkArgument(readTtl == null && writeTtl == null && cacheSize == 0,
           "Invalid to specify both {cache} and {readTtl|writeTtl|cacheSize} at the same time.");
     }
+    if (refreshAfterWrite != null && writeTtl != null) {
+      Preconditions.checkArgument(refreshAfterWrite.compareTo(writeTtl) < 0,
+          "refreshAfterWrite must be shorter than writeTtl.");
+    }
   }
 }
@@ -26,6 +26,7 @@ import java.util.Collections;
 import org.apache.samza.annotation.InterfaceStability;
 import org.apache.samza.metrics.Timer;
 import org.apache.samza.storage.kv.Entry;
+import org.apache.samza.util.AdaptiveRateLimiter;
 import org.apache.samza.util.RateLimiter;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -103,6 +104,32 @@ public class TableRateLimiter<K, V> {
     this.waitTimeMetric = timer;
   }
 
+  /**
+   * @return whether the rate limiter adapts its rate to the outcome of the requests
+   */
+  public boolean isAdaptive() {
+    return rateLimiter instanceof AdaptiveRateLimiter;
+  }
+
+  /**
+   * Report the outcome of a throttled request to the rate limiter, if it is adaptive.
+   * @param latencyNs latency of the request in nanoseconds
+   * @param error the error the request failed with, or null if it succeeded
+   */
+  public void onRequestComplete(long latencyNs, Throwable error) {
+    if (isAdaptive()) {
+      ((AdaptiveRateLimiter) rateLimiter).onRequestComplete(tag, latencyNs, error != null);
+    }
+  }
+
+  /**
+   * @return the current rate of an adaptive rate limiter in credits per second
+   */
+  public double getRate() {
+    Preconditions.checkState(isAdaptive(), "Rate limiter is not adaptive");
+    return ((AdaptiveRateLimiter) rateLimiter).getRate(tag);
+  }
+
   int getCredits(K key, V value, Object ... args) {
     return (creditFn == null) ? 1 : creditFn.getCredits(key, value, args);
   }
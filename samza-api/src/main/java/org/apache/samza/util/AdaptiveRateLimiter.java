@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.util;
+
+import org.apache.samza.annotation.InterfaceStability;
+
+
+/**
+ * A {@link RateLimiter} that adapts its rates to the outcome of the requests it admits. Callers that
+ * support it, such as remote tables, report the latency and the success of each request with
+ * {@link #onRequestComplete(String, long, boolean)}.
+ */
+@InterfaceStability.Unstable
+public interface AdaptiveRateLimiter extends RateLimiter {
+
+  /**
+   * Record the outcome of a request admitted with credits of a tag.
+   *
+   * @param tag the tag the credits of the request were acquired for
+   * @param latencyNs the latency of the request in nanoseconds
+   * @param failed whether the request failed, e.g. because it timed out
+   */
+  void onRequestComplete(String tag, long latencyNs, boolean failed);
+
+  /**
+   * Get the current rate of a tag.
+   *
+   * @param tag the tag
+   * @return the current rate in credits per second
+   */
+  double getRate(String tag);
+}
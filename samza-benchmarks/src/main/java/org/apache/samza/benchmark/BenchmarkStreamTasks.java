@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.samza.Partition;
+import org.apache.samza.application.StreamApplication;
+import org.apache.samza.application.descriptors.StreamApplicationDescriptorImpl;
+import org.apache.samza.config.Config;
+import org.apache.samza.config.JobConfig;
+import org.apache.samza.config.MapConfig;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.context.ContainerContextImpl;
+import org.apache.samza.context.Context;
+import org.apache.samza.context.ContextImpl;
+import org.apache.samza.context.JobContextImpl;
+import org.apache.samza.context.TaskContextImpl;
+import org.apache.samza.job.model.TaskModel;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.operators.OperatorSpecGraph;
+import org.apache.samza.operators.spec.OperatorSpec;
+import org.apache.samza.operators.spec.StatefulOperatorSpec;
+import org.apache.samza.operators.spec.StoreDescriptor;
+import org.apache.samza.storage.kv.KeyValueStore;
+import org.apache.samza.storage.kv.KeyValueStoreMetrics;
+import org.apache.samza.storage.kv.SerializedKeyValueStore;
+import org.apache.samza.storage.kv.SerializedKeyValueStoreMetrics;
+import org.apache.samza.storage.kv.inmemory.InMemoryKeyValueStore;
+import org.apache.samza.system.SystemStreamPartition;
+import org.apache.samza.task.MessageCollector;
+import org.apache.samza.task.StreamOperatorTask;
+import org.apache.samza.task.TaskCallback;
+import org.apache.samza.util.Clock;
+
+
+/**
+ * Creates initialized {@link StreamOperatorTask}s for a {@link StreamApplication} without a container, with
+ * in-memory stores for the stateful operators of the application.
+ */
+final class BenchmarkStreamTasks {
+  static final String JOB_NAME = "benchmark-job";
+  static final String INPUT_STREAM = "input";
+  static final SystemStreamPartition INPUT_SSP =
+      new SystemStreamPartition(BenchmarkSystems.SYSTEM, INPUT_STREAM, new Partition(0));
+
+  static final MessageCollector NO_OP_COLLECTOR = envelope -> { };
+
+  static final TaskCallback NO_OP_CALLBACK = new TaskCallback() {
+    @Override
+    public void complete() {
+    }
+
+    @Override
+    public void failure(Throwable t) {
+      throw new IllegalStateException("Benchmark task failed", t);
+    }
+  };
+
+  private BenchmarkStreamTasks() {
+  }
+
+  static Config newConfig() {
+    Map<String, String> config = new HashMap<>();
+    config.put(JobConfig.JOB_NAME, JOB_NAME);
+    config.put(JobConfig.JOB_ID, "1");
+    config.put(JobConfig.JOB_DEFAULT_SYSTEM, BenchmarkSystems.SYSTEM);
+    return new MapConfig(config);
+  }
+
+  @SuppressWarnings("unchecked")
+  static StreamOperatorTask newTask(StreamApplication app, Clock clock) throws Exception {
+    Config config = newConfig();
+    OperatorSpecGraph specGraph = new StreamApplicationDescriptorImpl(app, config).getOperatorSpecGraph();
+
+    Map<String, KeyValueStore> stores = new HashMap<>();
+    for (OperatorSpec operatorSpec : specGraph.getAllOperatorSpecs()) {
+      if (operatorSpec instanceof StatefulOperatorSpec) {
+        for (StoreDescriptor storeDescriptor : ((StatefulOperatorSpec) operatorSpec).getStoreDescriptors()) {
+          String storeName = storeDescriptor.getStoreName();
+          MetricsRegistryMap registry = new MetricsRegistryMap();
+          stores.put(storeName, new SerializedKeyValueStore<>(
+              new InMemoryKeyValueStore(new KeyValueStoreMetrics(storeName, registry)),
+              storeDescriptor.getKeySerde(), storeDescriptor.getMsgSerde(),
+              new SerializedKeyValueStoreMetrics(storeName, registry)));
+        }
+      }
+    }
+
+    Set<SystemStreamPartition> ssps = Collections.singleton(INPUT_SSP);
+    TaskModel taskModel = new TaskModel(new TaskName("Partition 0"), ssps, new Partition(0));
+    TaskContextImpl taskContext = new TaskContextImpl(taskModel, new MetricsRegistryMap(), stores::get,
+        null, null, null, null, null, ssps);
+    Context context = new ContextImpl(JobContextImpl.fromConfigWithDefaults(config, null),
+        new ContainerContextImpl(null, new MetricsRegistryMap()), taskContext,
+        Optional.empty(), Optional.empty(), Optional.empty());
+
+    StreamOperatorTask task = new StreamOperatorTask(specGraph, clock);
+    task.init(context);
+    return task;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.SystemConsumer;
+import org.apache.samza.system.SystemStreamPartition;
+
+
+/**
+ * An in-memory {@link SystemConsumer} that never runs out of messages. Every poll returns a batch of
+ * pre-built envelopes for each requested {@link SystemStreamPartition}, so benchmarks measure the
+ * code consuming the messages rather than the system producing them.
+ */
+class BenchmarkSystemConsumer implements SystemConsumer {
+  private final int batchSize;
+  private final Object key;
+  private final Object message;
+  private final Map<SystemStreamPartition, List<IncomingMessageEnvelope>> batches = new HashMap<>();
+
+  /**
+   * @param batchSize the number of envelopes returned for each partition in a poll
+   * @param key the key of every envelope
+   * @param message the message of every envelope
+   */
+  BenchmarkSystemConsumer(int batchSize, Object key, Object message) {
+    this.batchSize = batchSize;
+    this.key = key;
+    this.message = message;
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public void stop() {
+  }
+
+  @Override
+  public void register(SystemStreamPartition systemStreamPartition, String offset) {
+    List<IncomingMessageEnvelope> batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(new IncomingMessageEnvelope(systemStreamPartition, String.valueOf(i), key, message));
+    }
+    batches.put(systemStreamPartition, Collections.unmodifiableList(batch));
+  }
+
+  @Override
+  public Map<SystemStreamPartition, List<IncomingMessageEnvelope>> poll(
+      Set<SystemStreamPartition> systemStreamPartitions, long timeout) {
+    Map<SystemStreamPartition, List<IncomingMessageEnvelope>> result = new HashMap<>();
+    for (SystemStreamPartition ssp : systemStreamPartitions) {
+      List<IncomingMessageEnvelope> batch = batches.get(ssp);
+      if (batch != null) {
+        result.put(ssp, batch);
+      }
+    }
+    return result;
+  }
+}
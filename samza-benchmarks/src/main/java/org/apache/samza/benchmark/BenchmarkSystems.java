@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import org.apache.samza.config.Config;
+import org.apache.samza.config.TaskConfig;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.serializers.Serde;
+import org.apache.samza.serializers.SerdeManager;
+import org.apache.samza.system.SystemAdmins;
+import org.apache.samza.system.SystemConsumer;
+import org.apache.samza.system.SystemConsumers;
+import org.apache.samza.system.SystemConsumersMetrics;
+import org.apache.samza.system.SystemStream;
+import org.apache.samza.system.SystemStreamPartition;
+import org.apache.samza.system.chooser.DefaultChooser;
+import org.apache.samza.system.chooser.MessageChooser;
+import org.apache.samza.system.chooser.RoundRobinChooserFactory;
+import org.apache.samza.util.ScalaJavaUtil;
+import org.apache.samza.util.SinglePartitionWithoutOffsetsSystemAdmin;
+import scala.collection.JavaConverters;
+
+
+/**
+ * Builds the container's consumer-side components on top of an in-memory {@link BenchmarkSystemConsumer}.
+ */
+final class BenchmarkSystems {
+  static final String SYSTEM = "benchmark";
+
+  private BenchmarkSystems() {
+  }
+
+  /**
+   * Creates and starts a {@link SystemConsumers} with a {@link DefaultChooser} that consumes all of {@code ssps} from
+   * {@code consumer}.
+   *
+   * @param ssps the partitions to consume, which must belong to the {@link #SYSTEM} system
+   * @param consumer the consumer of the {@link #SYSTEM} system
+   * @param config the config of the {@link DefaultChooser}, e.g. its batch size
+   * @param serdeManager the serde manager used to deserialize incoming messages
+   * @return the started {@link SystemConsumers}
+   */
+  static SystemConsumers newSystemConsumers(Set<SystemStreamPartition> ssps, SystemConsumer consumer, Config config,
+      SerdeManager serdeManager) {
+    SystemAdmins systemAdmins =
+        new SystemAdmins(Collections.singletonMap(SYSTEM, new SinglePartitionWithoutOffsetsSystemAdmin()));
+    MetricsRegistryMap registry = new MetricsRegistryMap();
+    MessageChooser chooser = DefaultChooser.apply(ScalaJavaUtil.toScalaMap(Collections.emptyMap()),
+        new RoundRobinChooserFactory(), config, registry, systemAdmins);
+    SystemConsumers consumers =
+        new SystemConsumers(chooser, ScalaJavaUtil.toScalaMap(Collections.singletonMap(SYSTEM, consumer)),
+            systemAdmins, serdeManager, new SystemConsumersMetrics(registry, ""),
+            SystemConsumers.DEFAULT_NO_NEW_MESSAGES_TIMEOUT(), SystemConsumers.DEFAULT_DROP_SERIALIZATION_ERROR(),
+            TaskConfig.DEFAULT_POLL_INTERVAL_MS, ScalaJavaUtil.toScalaFunction(() -> System.nanoTime()), null);
+    ssps.forEach(ssp -> consumers.register(ssp, "0"));
+    consumers.start();
+    return consumers;
+  }
+
+  /**
+   * Creates a {@link SerdeManager} with the given per-stream serdes and no other serdes.
+   *
+   * @param keySerdes the key serdes of each stream
+   * @param messageSerdes the message serdes of each stream
+   * @return the serde manager
+   */
+  static SerdeManager newSerdeManager(Map<SystemStream, Serde<Object>> keySerdes,
+      Map<SystemStream, Serde<Object>> messageSerdes) {
+    Set<SystemStream> changelogStreams = Collections.emptySet();
+    return new SerdeManager(
+        ScalaJavaUtil.toScalaMap(Collections.<String, Serde<Object>>emptyMap()),
+        ScalaJavaUtil.toScalaMap(Collections.<String, Serde<Object>>emptyMap()),
+        ScalaJavaUtil.toScalaMap(Collections.<String, Serde<Object>>emptyMap()),
+        ScalaJavaUtil.toScalaMap(keySerdes),
+        ScalaJavaUtil.toScalaMap(messageSerdes),
+        JavaConverters.asScalaSetConverter(changelogStreams).asScala().toSet(),
+        ScalaJavaUtil.toScalaMap(Collections.<SystemStream, Serde<String>>emptyMap()),
+        ScalaJavaUtil.toScalaMap(Collections.<SystemStream, Serde<Object>>emptyMap()));
+  }
+}
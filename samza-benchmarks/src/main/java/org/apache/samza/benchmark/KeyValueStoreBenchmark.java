@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.samza.config.MapConfig;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.serializers.StringSerde;
+import org.apache.samza.storage.kv.CachedStore;
+import org.apache.samza.storage.kv.CachedStoreMetrics;
+import org.apache.samza.storage.kv.Entry;
+import org.apache.samza.storage.kv.KeyValueIterator;
+import org.apache.samza.storage.kv.KeyValueStore;
+import org.apache.samza.storage.kv.KeyValueStoreMetrics;
+import org.apache.samza.storage.kv.RocksDbKeyValueStore;
+import org.apache.samza.storage.kv.SerializedKeyValueStore;
+import org.apache.samza.storage.kv.SerializedKeyValueStoreMetrics;
+import org.apache.samza.storage.kv.inmemory.InMemoryKeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rocksdb.FlushOptions;
+import org.rocksdb.Options;
+import org.rocksdb.WriteOptions;
+
+
+/**
+ * Measures reads, writes and range scans through the key-value store layers that the storage engine factories
+ * build: a {@link SerializedKeyValueStore}, optionally wrapped in a {@link CachedStore}, on top of a
+ * {@link RocksDbKeyValueStore} or an {@link InMemoryKeyValueStore}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class KeyValueStoreBenchmark {
+  private static final String STORE_NAME = "benchmark";
+  private static final int CACHE_SIZE = 10_000;
+  private static final int WRITE_BATCH_SIZE = 500;
+  private static final int RANGE_SIZE = 100;
+
+  /**
+   * The raw store: "rocksdb" or "inmemory".
+   */
+  @Param({"rocksdb", "inmemory"})
+  String rawStore;
+
+  /**
+   * Whether the serialized store is wrapped in a {@link CachedStore}.
+   */
+  @Param({"false", "true"})
+  boolean cached;
+
+  /**
+   * The number of keys in the store. Some fit in the cache and some do not.
+   */
+  @Param({"1000", "100000"})
+  int keys;
+
+  /**
+   * The size of each value in bytes.
+   */
+  @Param({"100"})
+  int valueSize;
+
+  private File storeDir;
+  private KeyValueStore<String, String> store;
+  private String[] keyNames;
+  private String value;
+  private Random random;
+
+  @Setup
+  public void setUp() throws IOException {
+    MetricsRegistryMap registry = new MetricsRegistryMap();
+    KeyValueStoreMetrics rawStoreMetrics = new KeyValueStoreMetrics(STORE_NAME, registry);
+    KeyValueStore<byte[], byte[]> bytesStore;
+    if ("rocksdb".equals(rawStore)) {
+      storeDir = Files.createTempDirectory("samza-benchmark-store").toFile();
+      Options options = new Options().setCreateIfMissing(true);
+      bytesStore = new RocksDbKeyValueStore(storeDir, options, new MapConfig(), false, STORE_NAME, new WriteOptions(),
+          new FlushOptions().setWaitForFlush(true), rawStoreMetrics);
+    } else {
+      bytesStore = new InMemoryKeyValueStore(rawStoreMetrics);
+    }
+    store = new SerializedKeyValueStore<>(bytesStore, new StringSerde(), new StringSerde(),
+        new SerializedKeyValueStoreMetrics(STORE_NAME, registry));
+    if (cached) {
+      store = new CachedStore<>(store, CACHE_SIZE, WRITE_BATCH_SIZE, new CachedStoreMetrics(STORE_NAME, registry));
+    }
+
+    value = StringUtils.repeat('v', valueSize);
+    keyNames = new String[keys];
+    List<Entry<String, String>> entries = new ArrayList<>(keys);
+    for (int i = 0; i < keys; i++) {
+      keyNames[i] = String.format("key-%08d", i);
+      entries.add(new Entry<>(keyNames[i], value));
+    }
+    store.putAll(entries);
+    store.flush();
+    random = new Random(42);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    store.close();
+    if (storeDir != null) {
+      FileUtils.deleteDirectory(storeDir);
+    }
+  }
+
+  @Benchmark
+  public String get() {
+    return store.get(keyNames[random.nextInt(keys)]);
+  }
+
+  @Benchmark
+  public void put() {
+    store.put(keyNames[random.nextInt(keys)], value);
+  }
+
+  @Benchmark
+  public void range(Blackhole blackhole) {
+    int from = random.nextInt(Math.max(1, keys - RANGE_SIZE));
+    int to = Math.min(keys - 1, from + RANGE_SIZE);
+    KeyValueIterator<String, String> iterator = store.range(keyNames[from], keyNames[to]);
+    try {
+      while (iterator.hasNext()) {
+        blackhole.consume(iterator.next());
+      }
+    } finally {
+      iterator.close();
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.samza.Partition;
+import org.apache.samza.checkpoint.OffsetManager;
+import org.apache.samza.config.MapConfig;
+import org.apache.samza.container.RunLoop;
+import org.apache.samza.container.RunLoopTask;
+import org.apache.samza.container.SamzaContainerMetrics;
+import org.apache.samza.container.TaskInstanceMetrics;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.scheduler.EpochTimeScheduler;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.SystemConsumers;
+import org.apache.samza.system.SystemStreamPartition;
+import org.apache.samza.task.ReadableCoordinator;
+import org.apache.samza.task.TaskCallback;
+import org.apache.samza.task.TaskCallbackFactory;
+import org.apache.samza.task.TaskCoordinator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the per-message overhead of {@link RunLoop} dispatch: choosing an envelope, routing it to its task,
+ * invoking the task and handling its callback. The tasks complete their callbacks immediately, so the result is the
+ * message rate of the run loop itself.
+ *
+ * <p>Each invocation runs a new run loop until its tasks have processed {@link #MESSAGES_PER_INVOCATION} messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RunLoopBenchmark {
+  private static final int MESSAGES_PER_INVOCATION = 100_000;
+
+  /**
+   * The number of tasks, each of which consumes one partition.
+   */
+  @Param({"1", "16"})
+  int tasks;
+
+  /**
+   * The maximum number of messages in flight for each task.
+   */
+  @Param({"1", "4"})
+  int maxMessagesInFlight;
+
+  private SystemConsumers consumers;
+  private RunLoop runLoop;
+  private int remainingMessages;
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    remainingMessages = MESSAGES_PER_INVOCATION;
+    Map<TaskName, RunLoopTask> runLoopTasks = new HashMap<>();
+    for (int i = 0; i < tasks; i++) {
+      SystemStreamPartition ssp = new SystemStreamPartition(BenchmarkSystems.SYSTEM, "input", new Partition(i));
+      TaskName taskName = new TaskName("Partition " + i);
+      runLoopTasks.put(taskName, new BenchmarkTask(taskName, ssp));
+    }
+    Set<SystemStreamPartition> ssps = new HashSet<>();
+    runLoopTasks.values().forEach(task -> ssps.addAll(task.systemStreamPartitions()));
+    // a new consumer multiplexer for each run loop, since a stopped run loop may leave chosen envelopes unprocessed
+    consumers = BenchmarkSystems.newSystemConsumers(ssps, new BenchmarkSystemConsumer(100, "key", "message"),
+        new MapConfig(), BenchmarkSystems.newSerdeManager(Collections.emptyMap(), Collections.emptyMap()));
+    runLoop = new RunLoop(runLoopTasks, null, consumers, maxMessagesInFlight, -1, -1, 0, 0, 10,
+        new SamzaContainerMetrics("container", new MetricsRegistryMap(), ""), System::nanoTime, false);
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDown() {
+    consumers.stop();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+  public void dispatch() {
+    runLoop.run();
+  }
+
+  /**
+   * A task that completes every message immediately, and shuts down the container once the benchmark has
+   * dispatched enough messages.
+   */
+  private class BenchmarkTask implements RunLoopTask {
+    private final TaskName taskName;
+    private final Set<SystemStreamPartition> ssps;
+    private final TaskInstanceMetrics metrics;
+
+    BenchmarkTask(TaskName taskName, SystemStreamPartition ssp) {
+      this.taskName = taskName;
+      this.ssps = Collections.singleton(ssp);
+      this.metrics = new TaskInstanceMetrics(taskName.getTaskName(), new MetricsRegistryMap(), "");
+    }
+
+    @Override
+    public TaskName taskName() {
+      return taskName;
+    }
+
+    @Override
+    public void process(IncomingMessageEnvelope envelope, ReadableCoordinator coordinator,
+        TaskCallbackFactory callbackFactory) {
+      TaskCallback callback = callbackFactory.createCallback();
+      if (--remainingMessages == 0) {
+        coordinator.shutdown(TaskCoordinator.RequestScope.ALL_TASKS_IN_CONTAINER);
+      }
+      callback.complete();
+    }
+
+    @Override
+    public void window(ReadableCoordinator coordinator) {
+    }
+
+    @Override
+    public void scheduler(ReadableCoordinator coordinator) {
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void endOfStream(ReadableCoordinator coordinator) {
+    }
+
+    @Override
+    public boolean isWindowableTask() {
+      return false;
+    }
+
+    @Override
+    public Set<String> intermediateStreams() {
+      return Collections.emptySet();
+    }
+
+    @Override
+    public Set<SystemStreamPartition> systemStreamPartitions() {
+      return ssps;
+    }
+
+    @Override
+    public OffsetManager offsetManager() {
+      return null;
+    }
+
+    @Override
+    public TaskInstanceMetrics metrics() {
+      return metrics;
+    }
+
+    @Override
+    public EpochTimeScheduler epochTimeScheduler() {
+      return null;
+    }
+  }
+}
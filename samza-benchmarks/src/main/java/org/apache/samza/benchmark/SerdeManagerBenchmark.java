@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.samza.Partition;
+import org.apache.samza.serializers.JsonSerdeV2;
+import org.apache.samza.serializers.Serde;
+import org.apache.samza.serializers.SerdeManager;
+import org.apache.samza.serializers.StringSerde;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.OutgoingMessageEnvelope;
+import org.apache.samza.system.SystemStream;
+import org.apache.samza.system.SystemStreamPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the {@link SerdeManager} serialization of outgoing envelopes and deserialization of incoming envelopes
+ * with per-stream key and message serdes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerdeManagerBenchmark {
+  private static final SystemStream STREAM = new SystemStream(BenchmarkSystems.SYSTEM, "stream");
+
+  /**
+   * The message serde of the stream: "string" or "json".
+   */
+  @Param({"string", "json"})
+  String messageSerde;
+
+  /**
+   * The number of fields in each message. A string message is as long as the JSON form of the message.
+   */
+  @Param({"4", "32"})
+  int fields;
+
+  private SerdeManager serdeManager;
+  private OutgoingMessageEnvelope outgoingEnvelope;
+  private IncomingMessageEnvelope incomingEnvelope;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    Map<String, Object> jsonMessage = new HashMap<>();
+    for (int i = 0; i < fields; i++) {
+      jsonMessage.put("field" + i, "value" + i);
+    }
+    JsonSerdeV2<Object> jsonSerde = new JsonSerdeV2<>();
+    Object message = "json".equals(messageSerde)
+        ? jsonMessage
+        : new String(jsonSerde.toBytes(jsonMessage), StandardCharsets.UTF_8);
+    Serde<?> serde = "json".equals(messageSerde) ? jsonSerde : new StringSerde();
+
+    serdeManager = BenchmarkSystems.newSerdeManager(
+        Collections.singletonMap(STREAM, (Serde<Object>) (Serde<?>) new StringSerde()),
+        Collections.singletonMap(STREAM, (Serde<Object>) serde));
+    outgoingEnvelope = new OutgoingMessageEnvelope(STREAM, "key", message);
+    OutgoingMessageEnvelope serialized = serdeManager.toBytes(outgoingEnvelope);
+    incomingEnvelope = new IncomingMessageEnvelope(new SystemStreamPartition(STREAM, new Partition(0)), "0",
+        serialized.getKey(), serialized.getMessage());
+  }
+
+  @Benchmark
+  public OutgoingMessageEnvelope toBytes() {
+    return serdeManager.toBytes(outgoingEnvelope);
+  }
+
+  @Benchmark
+  public IncomingMessageEnvelope fromBytes() {
+    return serdeManager.fromBytes(incomingEnvelope);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.samza.Partition;
+import org.apache.samza.config.Config;
+import org.apache.samza.config.MapConfig;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.SystemAdmins;
+import org.apache.samza.system.SystemConsumers;
+import org.apache.samza.system.SystemStreamPartition;
+import org.apache.samza.system.chooser.DefaultChooser;
+import org.apache.samza.system.chooser.MessageChooser;
+import org.apache.samza.system.chooser.RoundRobinChooserFactory;
+import org.apache.samza.util.ScalaJavaUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures how fast the container picks the next envelope to process, both through {@link SystemConsumers#choose}
+ * (chooser, buffering and polling) and through the {@link DefaultChooser} alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SystemConsumersBenchmark {
+  private static final String CHOOSER_BATCH_SIZE = "task.consumer.batch.size";
+
+  /**
+   * The number of input partitions.
+   */
+  @Param({"1", "16", "256"})
+  int partitions;
+
+  /**
+   * The batch size of the {@link DefaultChooser}, or 0 to disable batching.
+   */
+  @Param({"0", "100"})
+  int chooserBatchSize;
+
+  private SystemConsumers consumers;
+  private MessageChooser chooser;
+  private IncomingMessageEnvelope[] envelopes;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Config config = new MapConfig(Collections.singletonMap(CHOOSER_BATCH_SIZE, String.valueOf(chooserBatchSize)));
+    Set<SystemStreamPartition> ssps = new HashSet<>();
+    envelopes = new IncomingMessageEnvelope[partitions];
+    for (int i = 0; i < partitions; i++) {
+      SystemStreamPartition ssp = new SystemStreamPartition(BenchmarkSystems.SYSTEM, "input", new Partition(i));
+      ssps.add(ssp);
+      envelopes[i] = new IncomingMessageEnvelope(ssp, "0", "key", "message");
+    }
+
+    consumers = BenchmarkSystems.newSystemConsumers(ssps, new BenchmarkSystemConsumer(100, "key", "message"), config,
+        BenchmarkSystems.newSerdeManager(Collections.emptyMap(), Collections.emptyMap()));
+
+    SystemAdmins systemAdmins = SystemAdmins.empty();
+    chooser = DefaultChooser.apply(ScalaJavaUtil.toScalaMap(Collections.emptyMap()), new RoundRobinChooserFactory(),
+        config, new MetricsRegistryMap(), systemAdmins);
+    ssps.forEach(ssp -> chooser.register(ssp, "0"));
+    chooser.start();
+  }
+
+  @TearDown
+  public void tearDown() {
+    consumers.stop();
+    chooser.stop();
+  }
+
+  @Benchmark
+  public IncomingMessageEnvelope systemConsumersChoose() {
+    return consumers.choose(true);
+  }
+
+  @Benchmark
+  public IncomingMessageEnvelope defaultChooserUpdateAndChoose() {
+    chooser.update(envelopes[next]);
+    next = (next + 1) % envelopes.length;
+    return chooser.choose();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.apache.samza.application.StreamApplication;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.operators.KV;
+import org.apache.samza.operators.MessageStream;
+import org.apache.samza.operators.triggers.Triggers;
+import org.apache.samza.operators.windows.AccumulationMode;
+import org.apache.samza.operators.windows.Window;
+import org.apache.samza.operators.windows.Windows;
+import org.apache.samza.serializers.IntegerSerde;
+import org.apache.samza.serializers.KVSerde;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.descriptors.GenericSystemDescriptor;
+import org.apache.samza.task.ReadableCoordinator;
+import org.apache.samza.task.StreamOperatorTask;
+import org.apache.samza.util.SystemClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures a keyed tumbling window operator backed by an in-memory store. Windows fire through a repeating count
+ * trigger in discarding mode, so the store stays bounded while both the per-message update and the firing of
+ * panes are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WindowOperatorBenchmark {
+  private static final int NUM_ENVELOPES = 1024;
+
+  /**
+   * "fold" aggregates each pane into a running count, "collect" keeps every message of the pane in the store.
+   */
+  @Param({"fold", "collect"})
+  String aggregation;
+
+  /**
+   * The number of distinct keys in the input.
+   */
+  @Param({"16", "1024"})
+  int keys;
+
+  /**
+   * The number of messages per key after which a pane fires.
+   */
+  @Param({"100"})
+  int triggerCount;
+
+  private StreamOperatorTask task;
+  private ReadableCoordinator coordinator;
+  private IncomingMessageEnvelope[] envelopes;
+  private int next;
+
+  @Setup
+  public void setUp() throws Exception {
+    boolean fold = "fold".equals(aggregation);
+    long count = triggerCount;
+    StreamApplication app = appDesc -> {
+      KVSerde<Integer, Integer> kvSerde = KVSerde.of(new IntegerSerde(), new IntegerSerde());
+      GenericSystemDescriptor sd = new GenericSystemDescriptor(BenchmarkSystems.SYSTEM, "mockFactoryClass");
+      MessageStream<KV<Integer, Integer>> stream =
+          appDesc.getInputStream(sd.getInputDescriptor(BenchmarkStreamTasks.INPUT_STREAM, kvSerde));
+      Window<KV<Integer, Integer>, Integer, ?> window = fold
+          ? Windows.keyedTumblingWindow(KV::getKey, Duration.ofHours(1), () -> 0, (m, c) -> c + 1,
+              new IntegerSerde(), new IntegerSerde())
+          : Windows.keyedTumblingWindow(KV::getKey, Duration.ofHours(1), new IntegerSerde(), kvSerde);
+      stream.window(window.setEarlyTrigger(Triggers.repeat(Triggers.count(count)))
+              .setAccumulationMode(AccumulationMode.DISCARDING), "w1")
+          .sink((message, messageCollector, taskCoordinator) -> { });
+    };
+    task = BenchmarkStreamTasks.newTask(app, SystemClock.instance());
+    coordinator = new ReadableCoordinator(new TaskName("Partition 0"));
+    envelopes = new IncomingMessageEnvelope[NUM_ENVELOPES];
+    for (int i = 0; i < NUM_ENVELOPES; i++) {
+      envelopes[i] = new IncomingMessageEnvelope(BenchmarkStreamTasks.INPUT_SSP, String.valueOf(i), i % keys, i);
+    }
+  }
+
+  @Benchmark
+  public void processAsync() {
+    task.processAsync(envelopes[next], BenchmarkStreamTasks.NO_OP_COLLECTOR, coordinator,
+        BenchmarkStreamTasks.NO_OP_CALLBACK);
+    next = (next + 1) % NUM_ENVELOPES;
+  }
+}
@@ -63,6 +63,13 @@ public class JobConfig extends MapConfig {
   public static final String JOB_CONTAINER_COUNT = "job.container.count";
   static final int DEFAULT_JOB_CONTAINER_COUNT = 1;
   public static final String JOB_CONTAINER_THREAD_POOL_SIZE = "job.container.thread.pool.size";
+  // if > 0, incoming messages are deserialized on a separate thread pool of this size instead of the run loop thread.
+  // The input serdes are then called concurrently from several threads, so they must be thread-safe.
+  public static final String DESERIALIZATION_THREAD_POOL_SIZE = "job.container.deserialization.thread.pool.size";
+  static final int DEFAULT_DESERIALIZATION_THREAD_POOL_SIZE = 0;
+  // if > 1, the tasks of a container are partitioned across this many run loops, each on its own thread
+  public static final String RUN_LOOP_SHARDS = "job.container.run.loop.shards";
+  static final int DEFAULT_RUN_LOOP_SHARDS = 1;
   // num commit threads == min(max(2 * num tasks in container, thread pool size), max thread pool size)
   public static final String COMMIT_THREAD_POOL_SIZE = "job.container.commit.thread.pool.size";
   static final int DEFAULT_COMMIT_THREAD_POOL_SIZE = 2;
@@ -346,6 +353,14 @@ public class JobConfig extends MapConfig {
     }
   }
 
+  public int getDeserializationThreadPoolSize() {
+    return getInt(DESERIALIZATION_THREAD_POOL_SIZE, DEFAULT_DESERIALIZATION_THREAD_POOL_SIZE);
+  }
+
+  public int getRunLoopShards() {
+    return getInt(RUN_LOOP_SHARDS, DEFAULT_RUN_LOOP_SHARDS);
+  }
+
   public int getCommitThreadPoolSize() {
     return getInt(COMMIT_THREAD_POOL_SIZE, DEFAULT_COMMIT_THREAD_POOL_SIZE);
   }
@@ -61,6 +61,9 @@ public class StorageConfig extends MapConfig {
   public static final boolean DEFAULT_DISALLOW_LARGE_MESSAGES = false;
   public static final String DROP_LARGE_MESSAGES = STORE_PREFIX + "%s.drop.large.messages";
   public static final boolean DEFAULT_DROP_LARGE_MESSAGES = false;
+  public static final String CHANGELOG_COALESCE_WRITES = STORE_PREFIX + "%s.changelog.coalesce.writes";
+  public static final boolean DEFAULT_CHANGELOG_COALESCE_WRITES = false;
+  public static final String MERGE_OPERATOR = STORE_PREFIX + "%s.merge.operator";
   // The log compaction lag time for transactional state change log
   public static final String MIN_COMPACTION_LAG_MS = "min.compaction.lag.ms";
   public static final String CHANGELOG_MIN_COMPACTION_LAG_MS = STORE_PREFIX + "%s.changelog." + MIN_COMPACTION_LAG_MS;
@@ -252,6 +255,18 @@ public class StorageConfig extends MapConfig {
     return getBoolean(String.format(DROP_LARGE_MESSAGES, storeName), DEFAULT_DROP_LARGE_MESSAGES);
   }
 
+  public boolean getChangelogCoalesceWrites(String storeName) {
+    return getBoolean(String.format(CHANGELOG_COALESCE_WRITES, storeName), DEFAULT_CHANGELOG_COALESCE_WRITES);
+  }
+
+  /**
+   * Gets the merge operator used by KeyValueStore#merge for a store. This is either the name of a built-in merge
+   * operator, or the class name of a merge function.
+   */
+  public Optional<String> getMergeOperator(String storeName) {
+    return Optional.ofNullable(get(String.format(MERGE_OPERATOR, storeName)));
+  }
+
   public long getChangelogMinCompactionLagMs(String storeName) {
     String minCompactLagConfigName = String.format(CHANGELOG_MIN_COMPACTION_LAG_MS, storeName);
     // Avoid the inconsistency of overriding using stores.x.changelog.kafka...
@@ -35,6 +35,7 @@ import org.apache.samza.Partition;
 import org.apache.samza.checkpoint.CheckpointManager;
 import org.apache.samza.checkpoint.CheckpointManagerFactory;
 import org.apache.samza.container.grouper.task.GroupByContainerCountFactory;
+import org.apache.samza.container.grouper.task.GroupByTaskLoadFactory;
 import org.apache.samza.metrics.MetricsRegistry;
 import org.apache.samza.system.SystemStream;
 import org.apache.samza.system.SystemStreamPartition;
@@ -74,6 +75,15 @@ public class TaskConfig extends MapConfig {
   public static final String COMMAND_BUILDER = "task.command.class";
   // message chooser for controlling stream consumption
   public static final String MESSAGE_CHOOSER_CLASS_NAME = "task.chooser.class";
+  // maximum event time by which the EventTimeChooser lets an input partition run ahead of a partition that is behind
+  public static final String EVENT_TIME_CHOOSER_MAX_SKEW_MS = "task.chooser.event.time.max.skew.ms";
+  static final long DEFAULT_EVENT_TIME_CHOOSER_MAX_SKEW_MS = 60000L;
+  // how long the EventTimeChooser waits for an input partition with no messages before it stops holding others back
+  public static final String EVENT_TIME_CHOOSER_IDLE_TIMEOUT_MS = "task.chooser.event.time.idle.timeout.ms";
+  static final long DEFAULT_EVENT_TIME_CHOOSER_IDLE_TIMEOUT_MS = 1000L;
+  // how often the LagAwareChooser fetches the upcoming offsets of its input partitions to update their lag
+  public static final String LAG_AWARE_CHOOSER_REFRESH_MS = "task.chooser.lag.refresh.ms";
+  static final long DEFAULT_LAG_AWARE_CHOOSER_REFRESH_MS = 10000L;
   // define whether to drop the messages or not when deserialization fails
   public static final String DROP_DESERIALIZATION_ERRORS = "task.drop.deserialization.errors";
   // define whether to drop the messages or not when serialization fails
@@ -84,6 +94,12 @@ public class TaskConfig extends MapConfig {
   public static final String IGNORED_EXCEPTIONS = "task.ignored.exceptions";
   // class name for task grouper
   public static final String GROUPER_FACTORY = "task.name.grouper.factory";
+  // how much the load of a container may exceed the average before GroupByTaskLoad moves tasks off it
+  public static final String GROUPER_LOAD_TOLERANCE = "task.name.grouper.load.tolerance";
+  static final double DEFAULT_GROUPER_LOAD_TOLERANCE = 0.1;
+  // how often containers persist the load of their tasks for GroupByTaskLoad
+  public static final String GROUPER_LOAD_REPORT_MS = "task.name.grouper.load.report.ms";
+  static final long DEFAULT_GROUPER_LOAD_REPORT_MS = 60000L;
   // max number of messages to process concurrently
   public static final String MAX_CONCURRENCY = "task.max.concurrency";
   static final int DEFAULT_MAX_CONCURRENCY = 1;
@@ -128,6 +144,10 @@ public class TaskConfig extends MapConfig {
   public static final String CHECKPOINT_READ_VERSIONS = "task.checkpoint.read.versions";
   public static final List<String> DEFAULT_CHECKPOINT_READ_VERSIONS = ImmutableList.of("1");
 
+  // number of threads used to deserialize checkpoints during container startup. 0 replays every checkpoint in order
+  public static final String CHECKPOINT_READ_THREADS = "task.checkpoint.read.threads";
+  static final int DEFAULT_CHECKPOINT_READ_THREADS = 0;
+
   public static final String TRANSACTIONAL_STATE_CHECKPOINT_ENABLED = "task.transactional.state.checkpoint.enabled";
   private static final boolean DEFAULT_TRANSACTIONAL_STATE_CHECKPOINT_ENABLED = true;
   public static final String TRANSACTIONAL_STATE_RESTORE_ENABLED = "task.transactional.state.restore.enabled";
@@ -183,6 +203,18 @@ public class TaskConfig extends MapConfig {
     return Optional.ofNullable(get(MESSAGE_CHOOSER_CLASS_NAME)).orElse(RoundRobinChooserFactory.class.getName());
   }
 
+  public long getEventTimeChooserMaxSkewMs() {
+    return getLong(EVENT_TIME_CHOOSER_MAX_SKEW_MS, DEFAULT_EVENT_TIME_CHOOSER_MAX_SKEW_MS);
+  }
+
+  public long getEventTimeChooserIdleTimeoutMs() {
+    return getLong(EVENT_TIME_CHOOSER_IDLE_TIMEOUT_MS, DEFAULT_EVENT_TIME_CHOOSER_IDLE_TIMEOUT_MS);
+  }
+
+  public long getLagAwareChooserRefreshMs() {
+    return getLong(LAG_AWARE_CHOOSER_REFRESH_MS, DEFAULT_LAG_AWARE_CHOOSER_REFRESH_MS);
+  }
+
   public boolean getDropDeserializationErrors() {
     return getBoolean(DROP_DESERIALIZATION_ERRORS, false);
   }
@@ -214,6 +246,22 @@ public class TaskConfig extends MapConfig {
     }
   }
 
+  public double getTaskNameGrouperLoadTolerance() {
+    return getDouble(GROUPER_LOAD_TOLERANCE, DEFAULT_GROUPER_LOAD_TOLERANCE);
+  }
+
+  public long getTaskNameGrouperLoadReportMs() {
+    return getLong(GROUPER_LOAD_REPORT_MS, DEFAULT_GROUPER_LOAD_REPORT_MS);
+  }
+
+  /**
+   * @return whether containers should persist the load of their tasks, which is the case when the tasks are
+   * grouped by {@link org.apache.samza.container.grouper.task.GroupByTaskLoad}
+   */
+  public boolean isTaskLoadReportingEnabled() {
+    return GroupByTaskLoadFactory.class.getName().equals(getTaskNameGrouperFactory());
+  }
+
   public int getMaxConcurrency() {
     return getInt(MAX_CONCURRENCY, DEFAULT_MAX_CONCURRENCY);
   }
@@ -360,6 +408,15 @@ public class TaskConfig extends MapConfig {
     }
   }
 
+  public int getCheckpointReadThreads() {
+    int checkpointReadThreads = getInt(CHECKPOINT_READ_THREADS, DEFAULT_CHECKPOINT_READ_THREADS);
+    if (checkpointReadThreads < 0) {
+      throw new ConfigException(String.format("%s must not be negative, but is %d", CHECKPOINT_READ_THREADS,
+          checkpointReadThreads));
+    }
+    return checkpointReadThreads;
+  }
+
   public boolean getTransactionalStateCheckpointEnabled() {
     return getBoolean(TRANSACTIONAL_STATE_CHECKPOINT_ENABLED, DEFAULT_TRANSACTIONAL_STATE_CHECKPOINT_ENABLED);
   }
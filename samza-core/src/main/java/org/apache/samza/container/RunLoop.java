@@ -27,10 +27,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 import org.apache.samza.SamzaException;
 import org.apache.samza.system.IncomingMessageEnvelope;
@@ -60,17 +63,27 @@ import org.slf4j.LoggerFactory;
  *      If job.container.thread.pool.size &lt; 1 (single-threaded), operations for all tasks are multiplexed onto one execution thread.
  *    </p>.
  *    Note: In both models, process/processAsync for all tasks is invoked on the run loop thread.
+ *    <p>
+ *      The run loop only visits the tasks whose state has changed since they were last run: a task is added to the
+ *      ready queue when it receives an envelope, when its process callback completes, when its window, commit or
+ *      scheduler work completes or is due, and when a commit is requested for it. This keeps the cost of each
+ *      iteration independent of the number of tasks in the container.
+ *    </p>
  */
 public class RunLoop implements Runnable, Throttleable {
   private static final Logger log = LoggerFactory.getLogger(RunLoop.class);
 
   private final List<AsyncTaskWorker> taskWorkers;
+  private final Map<TaskName, AsyncTaskWorker> taskNameToTaskWorkerMapping;
   private final SystemConsumers consumerMultiplexer;
   private final Map<SystemStreamPartition, List<AsyncTaskWorker>> sspToTaskWorkerMapping;
+  // workers whose state changed since they were last run. A worker is in the queue at most once.
+  private final ConcurrentLinkedQueue<AsyncTaskWorker> readyWorkers = new ConcurrentLinkedQueue<>();
+  // workers taken from the ready queue in the current iteration. Only accessed by the run loop thread.
+  private final ArrayDeque<AsyncTaskWorker> runnableWorkers = new ArrayDeque<>();
 
   private final ExecutorService threadPool;
   private final CoordinatorRequests coordinatorRequests;
-  private final Object latch;
   private final int maxConcurrency;
   private final long windowMs;
   private final long commitMs;
@@ -85,6 +98,8 @@ public class RunLoop implements Runnable, Throttleable {
   private final HighResolutionClock clock;
   private final boolean isAsyncCommitEnabled;
   private volatile boolean runLoopResumedSinceLastChecked;
+  private volatile Thread runLoopThread;
+  private volatile Runnable coordinatorRequestsListener = () -> { };
 
   public RunLoop(Map<TaskName, RunLoopTask> runLoopTasks,
       ExecutorService threadPool,
@@ -98,6 +113,28 @@ public class RunLoop implements Runnable, Throttleable {
       SamzaContainerMetrics containerMetrics,
       HighResolutionClock clock,
       boolean isAsyncCommitEnabled) {
+    this(runLoopTasks, threadPool, consumerMultiplexer, maxConcurrency, windowMs, commitMs, callbackTimeoutMs,
+        maxThrottlingDelayMs, maxIdleMs, containerMetrics, clock, isAsyncCommitEnabled,
+        new CoordinatorRequests(runLoopTasks.keySet()));
+  }
+
+  /**
+   * Creates a run loop for the tasks of one shard of a {@link ShardedRunLoop}. The coordinator requests are shared by
+   * the shards of the container, so that commit and shutdown requests take effect across the shards.
+   */
+  RunLoop(Map<TaskName, RunLoopTask> runLoopTasks,
+      ExecutorService threadPool,
+      SystemConsumers consumerMultiplexer,
+      int maxConcurrency,
+      long windowMs,
+      long commitMs,
+      long callbackTimeoutMs,
+      long maxThrottlingDelayMs,
+      long maxIdleMs,
+      SamzaContainerMetrics containerMetrics,
+      HighResolutionClock clock,
+      boolean isAsyncCommitEnabled,
+      CoordinatorRequests coordinatorRequests) {
 
     this.threadPool = threadPool;
     this.consumerMultiplexer = consumerMultiplexer;
@@ -109,8 +146,7 @@ public class RunLoop implements Runnable, Throttleable {
     this.maxIdleMs = maxIdleMs;
     this.callbackTimer = (callbackTimeoutMs > 0) ? Executors.newSingleThreadScheduledExecutor() : null;
     this.callbackExecutor = new ThrottlingScheduler(maxThrottlingDelayMs);
-    this.coordinatorRequests = new CoordinatorRequests(runLoopTasks.keySet());
-    this.latch = new Object();
+    this.coordinatorRequests = coordinatorRequests;
     this.workerTimer = Executors.newSingleThreadScheduledExecutor();
     this.clock = clock;
     Map<TaskName, AsyncTaskWorker> workers = new HashMap<>();
@@ -120,6 +156,7 @@ public class RunLoop implements Runnable, Throttleable {
     // Partions and tasks assigned to the container will not change during the run loop life time
     this.sspToTaskWorkerMapping = Collections.unmodifiableMap(getSspToAsyncTaskWorkerMap(runLoopTasks, workers));
     this.taskWorkers = Collections.unmodifiableList(new ArrayList<>(workers.values()));
+    this.taskNameToTaskWorkerMapping = Collections.unmodifiableMap(workers);
     this.isAsyncCommitEnabled = isAsyncCommitEnabled;
   }
 
@@ -142,13 +179,16 @@ public class RunLoop implements Runnable, Throttleable {
   /**
    * The run loop chooses messages from the SystemConsumers, and run the ready tasks asynchronously.
    * Window and commit are run in a thread pool, and they are mutual exclusive with task process.
-   * The loop thread will block if all tasks are busy, and resume if any task finishes.
+   * The loop thread waits for a short time if there is no new work, and resumes as soon as any task changes state.
    */
   @Override
   public void run() {
+    runLoopThread = Thread.currentThread();
     try {
       for (AsyncTaskWorker taskWorker : taskWorkers) {
         taskWorker.init();
+        // run every task once to pick up the tasks that have no partitions left to process
+        taskWorker.schedule();
       }
 
       long prevNs = clock.nanoTime();
@@ -161,7 +201,7 @@ public class RunLoop implements Runnable, Throttleable {
         long chooseNs = clock.nanoTime();
         containerMetrics.chooseNs().update(chooseNs - startNs);
 
-        blockIfBusyOrNoNewWork(envelope);
+        blockIfNoNewWork(envelope);
 
         long blockNs = clock.nanoTime();
         containerMetrics.blockNs().update(blockNs - chooseNs);
@@ -211,6 +251,26 @@ public class RunLoop implements Runnable, Throttleable {
     resume();
   }
 
+  /**
+   * Sets the listener that is run when a task requests a commit of all the tasks in the container, and when this
+   * run loop shuts down because the tasks requested it. The {@link ShardedRunLoop} uses it to resume the other shards,
+   * so that they pick up the requests promptly.
+   */
+  void setCoordinatorRequestsListener(Runnable listener) {
+    this.coordinatorRequestsListener = listener;
+  }
+
+  /**
+   * Queues all the tasks of this run loop and resumes the run loop thread, so that the tasks pick up the coordinator
+   * requests made by the tasks of other shards.
+   */
+  void resumeAllTasks() {
+    for (AsyncTaskWorker worker : taskWorkers) {
+      worker.schedule();
+    }
+    resume();
+  }
+
   /**
    * Chooses an envelope from messageChooser without updating it. This enables flow control
    * on the SSP level, meaning the task will not get further messages for the SSP if it cannot
@@ -233,7 +293,8 @@ public class RunLoop implements Runnable, Throttleable {
   }
 
   /**
-   * Insert the envelope into the task pending queues and run all the tasks
+   * Insert the envelope into the task pending queues and run the tasks in the ready queue. Tasks that become ready
+   * while the tasks are run are run in the next iteration, after the next envelope is chosen.
    */
   private void runTasks(IncomingMessageEnvelope envelope) {
     if (!shutdownNow) {
@@ -241,10 +302,17 @@ public class RunLoop implements Runnable, Throttleable {
         PendingEnvelope pendingEnvelope = new PendingEnvelope(envelope);
         for (AsyncTaskWorker worker : sspToTaskWorkerMapping.get(envelope.getSystemStreamPartition())) {
           worker.state.insertEnvelope(pendingEnvelope);
+          worker.schedule();
         }
       }
 
-      for (AsyncTaskWorker worker: taskWorkers) {
+      AsyncTaskWorker worker;
+      while ((worker = readyWorkers.poll()) != null) {
+        runnableWorkers.add(worker);
+      }
+      while ((worker = runnableWorkers.poll()) != null) {
+        // clear the flag before reading the task state, so that any later state change queues the task again
+        worker.scheduled.set(false);
         worker.run();
       }
     }
@@ -252,49 +320,37 @@ public class RunLoop implements Runnable, Throttleable {
 
 
   /**
-   * Block the runloop thread if all tasks are busy. When a task worker finishes or window/commit completes,
-   * it will resume the runloop.
+   * Delay the RunLoop thread for a short time if there are no new messages to process, no task is in the ready queue
+   * and the run loop has not been resumed since the last time this code was run. This will prevent the main thread
+   * from spinning when it has no work to distribute. If a task worker finishes or window/commit completes before the
+   * timeout then resume the RunLoop thread immediately. That event may allow a task worker to start processing a
+   * message that has already been chosen.  In any event it should only delay for a short time.  It needs to
+   * periodically check for new messages.
    *
-   * In addition, delay the RunLoop thread for a short time if there are no new messages to process and the run loop
-   * has not been resumed since the last time this code was run. This will prevent the main thread from spinning when it
-   * has no work to distribute. If a task worker finishes or window/commit completes before the timeout then resume
-   * the RunLoop thread immediately. That event may allow a task worker to start processing a message that has already
-   * been chosen.  In any event it should only delay for a short time.  It needs to periodically check for new messages.
+   * The wait does not take a lock: {@link #resume()} sets runLoopResumedSinceLastChecked before it unparks the
+   * run loop thread, so a resume that races with this check makes the park return immediately.
    */
-  private void blockIfBusyOrNoNewWork(IncomingMessageEnvelope envelope) {
-    synchronized (latch) {
-
-      // First check to see if we should delay the run loop for a short time.  The runLoopResumedSinceLastChecked boolean
-      // is used to ensure we don't delay if there may already be a task ready to dequeue a previously chosen/pending
-      // message. It is better to occasionally make one additional loop when there is no work to do then delay the
-      // runloop when there is work that could be started immediately.
-      if ((envelope == null) && !runLoopResumedSinceLastChecked) {
-        try {
-          log.trace("Start no work wait");
-          latch.wait(maxIdleMs);
-          log.trace("End no work wait");
-        } catch (InterruptedException e) {
-          throw new SamzaException("Run loop is interrupted", e);
-        }
-      }
-      runLoopResumedSinceLastChecked = false;
-
-      // Next check to see if we should block if all the tasks are busy.
-      while (!shutdownNow && throwable == null) {
-        for (AsyncTaskWorker worker : taskWorkers) {
-          if (worker.state.isReady()) {
-            return;
+  private void blockIfNoNewWork(IncomingMessageEnvelope envelope) {
+    if ((envelope == null) && readyWorkers.isEmpty() && !runLoopResumedSinceLastChecked) {
+      log.trace("Start no work wait");
+      long deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+      while (!runLoopResumedSinceLastChecked && !shutdownNow && throwable == null) {
+        if (maxIdleMs > 0) {
+          long remainingNs = deadlineNs - System.nanoTime();
+          if (remainingNs <= 0) {
+            break;
           }
+          LockSupport.parkNanos(this, remainingNs);
+        } else {
+          LockSupport.park(this);
         }
-
-        try {
-          log.trace("Block loop thread");
-          latch.wait();
-        } catch (InterruptedException e) {
-          throw new SamzaException("Run loop is interrupted", e);
+        if (Thread.interrupted()) {
+          throw new SamzaException("Run loop is interrupted");
         }
       }
+      log.trace("End no work wait");
     }
+    runLoopResumedSinceLastChecked = false;
   }
 
   /**
@@ -305,12 +361,33 @@ public class RunLoop implements Runnable, Throttleable {
    */
   private void resume() {
     log.trace("Resume loop thread");
-    if (coordinatorRequests.shouldShutdownNow() && coordinatorRequests.commitRequests().isEmpty()) {
+    if (!shutdownNow && coordinatorRequests.shouldShutdownNow() && coordinatorRequests.commitRequests().isEmpty()) {
       shutdownNow = true;
+      coordinatorRequestsListener.run();
+    }
+    runLoopResumedSinceLastChecked = true;
+    Thread thread = runLoopThread;
+    if (thread != null && thread != Thread.currentThread()) {
+      LockSupport.unpark(thread);
     }
-    synchronized (latch) {
-      latch.notifyAll();
-      runLoopResumedSinceLastChecked = true;
+  }
+
+  /**
+   * Update the coordinator requests with the requests of a task, and queue the tasks that were asked to commit
+   * so that the run loop picks up the commit requests.
+   */
+  private void updateCoordinatorRequests(ReadableCoordinator coordinator) {
+    coordinatorRequests.update(coordinator);
+    if (coordinator.requestedCommitAll()) {
+      for (AsyncTaskWorker worker : taskWorkers) {
+        worker.schedule();
+      }
+      coordinatorRequestsListener.run();
+    } else if (coordinator.requestedCommitTask()) {
+      AsyncTaskWorker worker = taskNameToTaskWorkerMapping.get(coordinator.taskName());
+      if (worker != null) {
+        worker.schedule();
+      }
     }
   }
 
@@ -361,6 +438,7 @@ public class RunLoop implements Runnable, Throttleable {
   private class AsyncTaskWorker implements TaskCallbackListener {
     private final RunLoopTask task;
     private final TaskCallbackManager callbackManager;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
     private volatile AsyncTaskState state;
 
     AsyncTaskWorker(RunLoopTask task) {
@@ -378,7 +456,7 @@ public class RunLoop implements Runnable, Throttleable {
           public void run() {
             log.trace("Task {} need window", task.taskName());
             state.needWindow();
-            resume();
+            resumeWorker();
           }
         }, windowMs, windowMs, TimeUnit.MILLISECONDS);
       }
@@ -389,7 +467,7 @@ public class RunLoop implements Runnable, Throttleable {
           public void run() {
             log.trace("Task {} need commit", task.taskName());
             state.needCommit();
-            resume();
+            resumeWorker();
           }
         }, commitMs, commitMs, TimeUnit.MILLISECONDS);
       }
@@ -398,6 +476,7 @@ public class RunLoop implements Runnable, Throttleable {
       if (epochTimeScheduler != null) {
         epochTimeScheduler.registerListener(() -> {
           state.needScheduler();
+          resumeWorker();
         });
       }
     }
@@ -419,10 +498,29 @@ public class RunLoop implements Runnable, Throttleable {
     }
 
     /**
-     * Invoke next task operation based on its state
+     * Add this worker to the ready queue, unless it is already queued.
+     */
+    private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        readyWorkers.add(this);
+      }
+    }
+
+    /**
+     * Add this worker to the ready queue and resume the run loop thread.
+     */
+    private void resumeWorker() {
+      schedule();
+      resume();
+    }
+
+    /**
+     * Invoke next task operation based on its state. If an operation was started, the worker is queued again since
+     * it may be able to start another one, e.g. process the next pending envelope.
      */
     private void run() {
-      switch (state.nextOp()) {
+      WorkerOp op = state.nextOp();
+      switch (op) {
         case PROCESS:
           process();
           break;
@@ -442,6 +540,9 @@ public class RunLoop implements Runnable, Throttleable {
           //no op
           break;
       }
+      if (op != WorkerOp.NO_OP) {
+        schedule();
+      }
     }
 
     private void endOfStream() {
@@ -452,7 +553,7 @@ public class RunLoop implements Runnable, Throttleable {
         task.endOfStream(coordinator);
         // issue a request for shutdown of the task
         coordinator.shutdown(TaskCoordinator.RequestScope.CURRENT_TASK);
-        coordinatorRequests.update(coordinator);
+        updateCoordinatorRequests(coordinator);
 
         // invoke commit on the task - if the endOfStream callback had requested a final commit.
         boolean needFinalCommit = coordinatorRequests.commitRequests().remove(task.taskName());
@@ -460,7 +561,7 @@ public class RunLoop implements Runnable, Throttleable {
           task.commit();
         }
       } finally {
-        resume();
+        resumeWorker();
       }
 
     }
@@ -514,7 +615,7 @@ public class RunLoop implements Runnable, Throttleable {
                   new Object[]{averageWindowMs, windowMs, averageWindowMs});
             }
 
-            coordinatorRequests.update(coordinator);
+            updateCoordinatorRequests(coordinator);
 
             state.doneWindow();
           } catch (Throwable t) {
@@ -522,7 +623,7 @@ public class RunLoop implements Runnable, Throttleable {
             abort(t);
           } finally {
             log.trace("Task {} window completed", task.taskName());
-            resume();
+            resumeWorker();
           }
         }
       };
@@ -557,7 +658,7 @@ public class RunLoop implements Runnable, Throttleable {
             abort(t);
           } finally {
             log.trace("Task {} commit completed", task.taskName());
-            resume();
+            resumeWorker();
           }
         }
       };
@@ -583,14 +684,14 @@ public class RunLoop implements Runnable, Throttleable {
             task.scheduler(coordinator);
             containerMetrics.timerNs().update(clock.nanoTime() - startTime);
 
-            coordinatorRequests.update(coordinator);
+            updateCoordinatorRequests(coordinator);
             state.doneScheduler();
           } catch (Throwable t) {
             log.error("Task {} scheduler failed", task.taskName(), t);
             abort(t);
           } finally {
             log.trace("Task {} scheduler completed", task.taskName());
-            resume();
+            resumeWorker();
           }
         }
       };
@@ -618,6 +719,7 @@ public class RunLoop implements Runnable, Throttleable {
           try {
             state.doneProcess();
             state.taskMetrics.asyncCallbackCompleted().inc();
+            state.taskMetrics.totalProcessNs().inc(workNanos);
             TaskCallbackImpl callbackImpl = (TaskCallbackImpl) callback;
             containerMetrics.processNs().update(clock.nanoTime() - callbackImpl.getTimeCreatedNs());
             log.trace("Got callback complete for task {}, ssp {}",
@@ -635,13 +737,13 @@ public class RunLoop implements Runnable, Throttleable {
               }
 
               // update coordinator
-              coordinatorRequests.update(callbackToUpdate.getCoordinator());
+              updateCoordinatorRequests(callbackToUpdate.getCoordinator());
             }
           } catch (Throwable t) {
             log.error("Error marking process as complete.", t);
             abort(t);
           } finally {
-            resume();
+            resumeWorker();
           }
         }
       }, workNanos);
@@ -665,7 +767,7 @@ public class RunLoop implements Runnable, Throttleable {
       } catch (Throwable e) {
         log.error("Error marking process as failed.", e);
       } finally {
-        resume();
+        resumeWorker();
       }
     }
   }
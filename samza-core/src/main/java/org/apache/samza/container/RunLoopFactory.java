@@ -19,8 +19,15 @@
 
 package org.apache.samza.container;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.samza.config.TaskConfig;
 import org.apache.samza.system.SystemConsumers;
+import org.apache.samza.task.CoordinatorRequests;
 import org.apache.samza.util.HighResolutionClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +48,34 @@ public class RunLoopFactory {
       SamzaContainerMetrics containerMetrics,
       TaskConfig taskConfig,
       HighResolutionClock clock) {
+    return createRunLoop(taskInstances,
+        Collections.singletonList(JavaConverters.setAsJavaSetConverter(taskInstances.keySet()).asJava()),
+        Collections.singletonList(consumerMultiplexer), threadPool, maxThrottlingDelayMs, containerMetrics, taskConfig,
+        clock);
+  }
+
+  /**
+   * Creates a run loop for the tasks, or a {@link ShardedRunLoop} if the tasks are partitioned into more than one
+   * shard.
+   *
+   * @param taskInstances the tasks of the container
+   * @param shardTaskNames the task names of each shard
+   * @param shardConsumerMultiplexers the {@link SystemConsumers} of each shard, in the same order as the shards
+   * @param threadPool the container thread pool, or null
+   * @param maxThrottlingDelayMs the maximum delay of the process callbacks when throttled
+   * @param containerMetrics the container metrics
+   * @param taskConfig the task config
+   * @param clock the clock
+   * @return the run loop
+   */
+  public static Runnable createRunLoop(scala.collection.immutable.Map<TaskName, RunLoopTask> taskInstances,
+      List<Set<TaskName>> shardTaskNames,
+      List<SystemConsumers> shardConsumerMultiplexers,
+      ExecutorService threadPool,
+      long maxThrottlingDelayMs,
+      SamzaContainerMetrics containerMetrics,
+      TaskConfig taskConfig,
+      HighResolutionClock clock) {
 
     long taskWindowMs = taskConfig.getWindowMs();
 
@@ -64,18 +99,47 @@ public class RunLoopFactory {
 
     log.info("Run loop in asynchronous mode.");
 
-    return new RunLoop(
-      JavaConverters.mapAsJavaMapConverter(taskInstances).asJava(),
-      threadPool,
-      consumerMultiplexer,
-      taskMaxConcurrency,
-      taskWindowMs,
-      taskCommitMs,
-      callbackTimeout,
-      maxThrottlingDelayMs,
-      maxIdleMs,
-      containerMetrics,
-      clock,
-      isAsyncCommitEnabled);
+    Map<TaskName, RunLoopTask> runLoopTasks = JavaConverters.mapAsJavaMapConverter(taskInstances).asJava();
+    if (shardTaskNames.size() == 1) {
+      return new RunLoop(
+        runLoopTasks,
+        threadPool,
+        shardConsumerMultiplexers.get(0),
+        taskMaxConcurrency,
+        taskWindowMs,
+        taskCommitMs,
+        callbackTimeout,
+        maxThrottlingDelayMs,
+        maxIdleMs,
+        containerMetrics,
+        clock,
+        isAsyncCommitEnabled);
+    }
+
+    log.info("Got {} run loop shards.", shardTaskNames.size());
+
+    CoordinatorRequests coordinatorRequests = new CoordinatorRequests(runLoopTasks.keySet());
+    List<RunLoop> shards = new ArrayList<>(shardTaskNames.size());
+    for (int i = 0; i < shardTaskNames.size(); i++) {
+      Map<TaskName, RunLoopTask> shardTasks = new HashMap<>();
+      for (TaskName taskName : shardTaskNames.get(i)) {
+        shardTasks.put(taskName, runLoopTasks.get(taskName));
+      }
+      shards.add(new RunLoop(
+        shardTasks,
+        threadPool,
+        shardConsumerMultiplexers.get(i),
+        taskMaxConcurrency,
+        taskWindowMs,
+        taskCommitMs,
+        callbackTimeout,
+        maxThrottlingDelayMs,
+        maxIdleMs,
+        containerMetrics,
+        clock,
+        isAsyncCommitEnabled,
+        coordinatorRequests));
+    }
+    return new ShardedRunLoop(shards);
   }
 }
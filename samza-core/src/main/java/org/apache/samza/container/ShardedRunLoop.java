@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.samza.SamzaException;
+import org.apache.samza.system.SystemStreamPartition;
+import org.apache.samza.util.Throttleable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Runs the tasks of a container on several {@link RunLoop}s, each on its own thread and with its own
+ * {@link org.apache.samza.system.SystemConsumers} and message chooser, so that dispatching messages to the tasks is
+ * not limited to a single thread.
+ *    <p>
+ *      The shards share the coordinator requests of the container: a commit request for all tasks in the container
+ *      reaches the tasks of every shard, and the container shuts down once the tasks of all the shards requested it.
+ *      A failure in any shard shuts down all the shards, and is thrown from {@link #run()}.
+ *    </p>
+ */
+public class ShardedRunLoop implements Runnable, Throttleable {
+  private static final Logger log = LoggerFactory.getLogger(ShardedRunLoop.class);
+
+  private final List<RunLoop> shards;
+
+  public ShardedRunLoop(List<RunLoop> shards) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("A sharded run loop needs at least one shard.");
+    }
+    this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    for (RunLoop shard : this.shards) {
+      shard.setCoordinatorRequestsListener(() -> {
+        for (RunLoop otherShard : this.shards) {
+          if (otherShard != shard) {
+            otherShard.resumeAllTasks();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Runs the first shard on the calling thread and every other shard on a thread of its own, and returns once all
+   * the shards have stopped.
+   */
+  @Override
+  public void run() {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 1; i < shards.size(); i++) {
+      RunLoop shard = shards.get(i);
+      Thread thread = new Thread(() -> runShard(shard, failure), "Samza RunLoop Shard-" + i);
+      thread.setDaemon(true);
+      thread.start();
+      threads.add(thread);
+    }
+
+    runShard(shards.get(0), failure);
+
+    try {
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } catch (InterruptedException e) {
+      shutdown();
+      Thread.currentThread().interrupt();
+      throw new SamzaException("Interrupted while waiting for the run loop shards to stop", e);
+    }
+
+    Throwable t = failure.get();
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t != null) {
+      throw new SamzaException(t);
+    }
+  }
+
+  private void runShard(RunLoop shard, AtomicReference<Throwable> failure) {
+    try {
+      shard.run();
+    } catch (Throwable t) {
+      log.error("Run loop shard failed, shutting down all the shards", t);
+      failure.compareAndSet(null, t);
+      shutdown();
+    }
+  }
+
+  public void shutdown() {
+    for (RunLoop shard : shards) {
+      shard.shutdown();
+    }
+  }
+
+  @Override
+  public void setWorkFactor(double workFactor) {
+    for (RunLoop shard : shards) {
+      shard.setWorkFactor(workFactor);
+    }
+  }
+
+  @Override
+  public double getWorkFactor() {
+    return shards.get(0).getWorkFactor();
+  }
+
+  /**
+   * Partitions the tasks of a container into at most {@code maxShards} shards. Tasks that consume a common
+   * {@link SystemStreamPartition} are always in the same shard, since a shard consumes every message of its
+   * partitions. Groups of such tasks are assigned to the shard with the fewest partitions, largest group first.
+   *
+   * @param taskSSPs the input partitions of each task, excluding side inputs
+   * @param maxShards the maximum number of shards
+   * @return the task names of each shard; at least one shard, which is empty if there are no tasks
+   */
+  public static List<Set<TaskName>> assignTasksToShards(Map<TaskName, Set<SystemStreamPartition>> taskSSPs,
+      int maxShards) {
+    // union the tasks that share a partition, using the smallest task name as the representative of each group
+    Map<TaskName, TaskName> parents = new HashMap<>();
+    Map<SystemStreamPartition, TaskName> sspToTask = new HashMap<>();
+    for (Map.Entry<TaskName, Set<SystemStreamPartition>> entry : new TreeMap<>(taskSSPs).entrySet()) {
+      TaskName taskName = entry.getKey();
+      parents.putIfAbsent(taskName, taskName);
+      for (SystemStreamPartition ssp : entry.getValue()) {
+        TaskName other = sspToTask.putIfAbsent(ssp, taskName);
+        if (other != null) {
+          TaskName root = findGroup(parents, taskName);
+          TaskName otherRoot = findGroup(parents, other);
+          if (root.compareTo(otherRoot) < 0) {
+            parents.put(otherRoot, root);
+          } else {
+            parents.put(root, otherRoot);
+          }
+        }
+      }
+    }
+
+    Map<TaskName, Set<TaskName>> groups = new TreeMap<>();
+    Map<TaskName, Set<SystemStreamPartition>> groupSSPs = new HashMap<>();
+    for (Map.Entry<TaskName, Set<SystemStreamPartition>> entry : taskSSPs.entrySet()) {
+      TaskName root = findGroup(parents, entry.getKey());
+      groups.computeIfAbsent(root, k -> new TreeSet<>()).add(entry.getKey());
+      groupSSPs.computeIfAbsent(root, k -> new HashSet<>()).addAll(entry.getValue());
+    }
+
+    List<TaskName> roots = new ArrayList<>(groups.keySet());
+    roots.sort(Comparator.comparing((TaskName root) -> groupSSPs.get(root).size()).reversed()
+        .thenComparing(Comparator.naturalOrder()));
+
+    int numShards = Math.max(1, Math.min(maxShards, roots.size()));
+    List<Set<TaskName>> shards = new ArrayList<>(numShards);
+    int[] shardSSPs = new int[numShards];
+    for (int i = 0; i < numShards; i++) {
+      shards.add(new TreeSet<>());
+    }
+    for (TaskName root : roots) {
+      int shard = 0;
+      for (int i = 1; i < numShards; i++) {
+        if (shardSSPs[i] < shardSSPs[shard]) {
+          shard = i;
+        }
+      }
+      shards.get(shard).addAll(groups.get(root));
+      shardSSPs[shard] += groupSSPs.get(root).size();
+    }
+    if (numShards < maxShards) {
+      log.info("Using {} run loop shards instead of {}, since there are {} groups of tasks with no common input "
+          + "partitions.", numShards, maxShards, roots.size());
+    }
+    return shards;
+  }
+
+  private static TaskName findGroup(Map<TaskName, TaskName> parents, TaskName taskName) {
+    TaskName root = taskName;
+    while (!parents.get(root).equals(root)) {
+      root = parents.get(root);
+    }
+    // compress the path, so later lookups are short
+    TaskName current = taskName;
+    while (!current.equals(root)) {
+      TaskName next = parents.get(current);
+      parents.put(current, root);
+      current = next;
+    }
+    return root;
+  }
+}
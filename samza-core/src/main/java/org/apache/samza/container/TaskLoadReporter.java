@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.container;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.samza.container.grouper.task.TaskLoad;
+import org.apache.samza.container.grouper.task.TaskLoadManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Periodically writes the observed load of the active tasks in this container to the coordinator stream, so that
+ * the {@link org.apache.samza.container.grouper.task.GroupByTaskLoad} grouper can use it on the next job model
+ * generation. Rates are measured since the reporter was started.
+ */
+public class TaskLoadReporter {
+  private static final Logger LOG = LoggerFactory.getLogger(TaskLoadReporter.class);
+
+  private final TaskLoadManager taskLoadManager;
+  private final Map<TaskName, TaskInstanceMetrics> taskInstanceMetrics;
+  private final Map<TaskName, Set<Path>> taskStoreDirectoryPaths;
+  private final long reportIntervalMs;
+  private final ScheduledExecutorService scheduler;
+  private final Map<TaskName, Long> startMessages = new HashMap<>();
+  private final Map<TaskName, Long> startProcessNs = new HashMap<>();
+
+  private volatile long startNs;
+
+  public TaskLoadReporter(TaskLoadManager taskLoadManager, Map<TaskName, TaskInstanceMetrics> taskInstanceMetrics,
+      Map<TaskName, Set<Path>> taskStoreDirectoryPaths, long reportIntervalMs) {
+    this.taskLoadManager = taskLoadManager;
+    this.taskInstanceMetrics = taskInstanceMetrics;
+    this.taskStoreDirectoryPaths = taskStoreDirectoryPaths;
+    this.reportIntervalMs = reportIntervalMs;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("Samza TaskLoadReporter Thread-%d").setDaemon(true).build());
+  }
+
+  public void start() {
+    taskInstanceMetrics.forEach((taskName, metrics) -> {
+      startMessages.put(taskName, metrics.messagesActuallyProcessed().getCount());
+      startProcessNs.put(taskName, metrics.totalProcessNs().getCount());
+    });
+    startNs = System.nanoTime();
+    LOG.info("Starting task load reporter with interval {} ms for tasks {}", reportIntervalMs,
+        taskInstanceMetrics.keySet());
+    scheduler.scheduleAtFixedRate(this::report, reportIntervalMs, reportIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the periodic reporting and writes one final report, so that the loads observed since the last report
+   * are available when the job model is regenerated after this container stops.
+   */
+  public void stop() {
+    scheduler.shutdownNow();
+    report();
+  }
+
+  @VisibleForTesting
+  void report() {
+    double elapsedSec = (System.nanoTime() - startNs) / (double) TimeUnit.SECONDS.toNanos(1);
+    if (elapsedSec <= 0) {
+      return;
+    }
+    try {
+      Map<TaskName, TaskLoad> taskLoads = new HashMap<>();
+      taskInstanceMetrics.forEach((taskName, metrics) -> {
+        long messages = metrics.messagesActuallyProcessed().getCount() - startMessages.getOrDefault(taskName, 0L);
+        long processNs = metrics.totalProcessNs().getCount() - startProcessNs.getOrDefault(taskName, 0L);
+        long storeBytes = taskStoreDirectoryPaths.getOrDefault(taskName, Collections.emptySet()).stream()
+            .mapToLong(TaskLoadReporter::sizeOf)
+            .sum();
+        taskLoads.put(taskName, new TaskLoad(messages / elapsedSec, processNs / elapsedSec, storeBytes));
+      });
+      taskLoadManager.writeTaskLoads(taskLoads);
+      LOG.debug("Reported task loads {}", taskLoads);
+    } catch (Exception e) {
+      LOG.warn("Failed to report task loads", e);
+    }
+  }
+
+  private static long sizeOf(Path storeDirectory) {
+    File directory = storeDirectory.toFile();
+    if (!directory.isDirectory()) {
+      return 0L;
+    }
+    try {
+      return FileUtils.sizeOfDirectory(directory);
+    } catch (RuntimeException e) {
+      // files can be removed concurrently, e.g. by store compaction
+      LOG.debug("Failed to compute the size of store directory {}", directory, e);
+      return 0L;
+    }
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.container.grouper.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.job.model.ContainerModel;
+import org.apache.samza.job.model.TaskModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group the tasks into a fixed number of containers so that the containers carry a similar load,
+ * based on the {@link TaskLoad} observed for each task in previous runs of the job.
+ *
+ * The cost of a task is its average share of the total processing time, message rate and store size
+ * of the tasks that reported a load. Tasks that didn't report a load cost as much as an average task,
+ * so without any load the tasks are balanced by count.
+ *
+ * To avoid moving state, tasks stay in the container they were previously assigned to whenever it still
+ * exists. New tasks, and tasks of removed containers, go to the least loaded container. Then, as long as
+ * the most loaded container exceeds the average load by more than the tolerance, the task that best
+ * evens it out with the least loaded container is moved, favouring tasks with smaller stores.
+ */
+public class GroupByTaskLoad implements TaskNameGrouper {
+  private static final Logger LOG = LoggerFactory.getLogger(GroupByTaskLoad.class);
+  private final int containerCount;
+  private final double tolerance;
+
+  public GroupByTaskLoad(int containerCount, double tolerance) {
+    if (containerCount <= 0) {
+      throw new IllegalArgumentException("Must have at least one container");
+    }
+    if (tolerance < 0) {
+      throw new IllegalArgumentException("Load tolerance must not be negative");
+    }
+    this.containerCount = containerCount;
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<ContainerModel> group(Set<TaskModel> tasks) {
+    return group(tasks, new GrouperMetadataImpl(Collections.emptyMap(), Collections.emptyMap(),
+        Collections.emptyMap(), Collections.emptyMap()));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<ContainerModel> group(Set<TaskModel> tasks, GrouperMetadata grouperMetadata) {
+    validateTasks(tasks);
+
+    Map<TaskName, TaskLoad> taskLoads = grouperMetadata.getTaskLoads();
+    Map<TaskName, Double> taskCosts = getTaskCosts(tasks, taskLoads);
+    List<ContainerLoad> containers = new ArrayList<>(containerCount);
+    for (int i = 0; i < containerCount; i++) {
+      containers.add(new ContainerLoad(i));
+    }
+
+    // Keep tasks in their previous container, if it still exists
+    Map<TaskName, String> previousAssignment = grouperMetadata.getPreviousTaskToProcessorAssignment();
+    List<TaskModel> tasksToAssign = new ArrayList<>();
+    for (TaskModel task : tasks) {
+      int previousContainer = parseContainerId(previousAssignment.get(task.getTaskName()));
+      if (previousContainer >= 0 && previousContainer < containerCount) {
+        containers.get(previousContainer).add(task, taskCosts.get(task.getTaskName()));
+      } else {
+        tasksToAssign.add(task);
+      }
+    }
+
+    // Assign the remaining tasks, most expensive first, to the least loaded containers
+    tasksToAssign.sort(Comparator.comparing((TaskModel task) -> taskCosts.get(task.getTaskName())).reversed()
+        .thenComparing(TaskModel::getTaskName));
+    for (TaskModel task : tasksToAssign) {
+      ContainerLoad container = Collections.min(containers, ContainerLoad.BY_LOAD);
+      container.add(task, taskCosts.get(task.getTaskName()));
+      LOG.info("Assigned task {} to container {}", task.getTaskName(), container.id);
+    }
+
+    rebalance(containers, taskCosts, taskLoads);
+
+    Set<ContainerModel> containerModels = new HashSet<>();
+    for (ContainerLoad container : containers) {
+      LOG.info("Container {} has {} tasks with a load of {}", container.id, container.tasks.size(), container.load);
+      Map<TaskName, TaskModel> containerTasks = new HashMap<>();
+      container.tasks.forEach(task -> containerTasks.put(task.getTaskName(), task));
+      containerModels.add(new ContainerModel(String.valueOf(container.id), containerTasks));
+    }
+    return Collections.unmodifiableSet(containerModels);
+  }
+
+  /**
+   * Moves tasks from the most to the least loaded container until the load of every container is within the
+   * tolerance of the average, or no move reduces the load of the most loaded container. Then makes sure that
+   * no container is left without tasks.
+   */
+  private void rebalance(List<ContainerLoad> containers, Map<TaskName, Double> taskCosts,
+      Map<TaskName, TaskLoad> taskLoads) {
+    double totalLoad = containers.stream().mapToDouble(container -> container.load).sum();
+    double maxLoad = totalLoad / containerCount * (1 + tolerance);
+    ToDoubleFunction<TaskModel> storeBytes = task -> {
+      TaskLoad taskLoad = taskLoads.get(task.getTaskName());
+      return taskLoad != null ? taskLoad.getStoreBytes() : 0;
+    };
+
+    for (int moves = 0; moves < taskCosts.size(); moves++) {
+      ContainerLoad mostLoaded = Collections.max(containers, ContainerLoad.BY_LOAD);
+      ContainerLoad leastLoaded = Collections.min(containers, ContainerLoad.BY_LOAD);
+      if (mostLoaded.load <= maxLoad || mostLoaded.tasks.size() <= 1) {
+        break;
+      }
+      // A task improves the balance if the least loaded container stays below the load the most loaded one had
+      double gap = mostLoaded.load - leastLoaded.load;
+      TaskModel taskToMove = mostLoaded.tasks.stream()
+          .filter(task -> taskCosts.get(task.getTaskName()) < gap)
+          .min(Comparator.comparingDouble((TaskModel task) -> Math.abs(gap / 2 - taskCosts.get(task.getTaskName())))
+              .thenComparingDouble(storeBytes)
+              .thenComparing(TaskModel::getTaskName))
+          .orElse(null);
+      if (taskToMove == null) {
+        break;
+      }
+      move(taskToMove, mostLoaded, leastLoaded, taskCosts);
+    }
+
+    for (ContainerLoad container : containers) {
+      if (container.tasks.isEmpty()) {
+        ContainerLoad largest = Collections.max(containers, ContainerLoad.BY_TASK_COUNT);
+        TaskModel taskToMove = largest.tasks.stream()
+            .min(Comparator.comparingDouble((TaskModel task) -> taskCosts.get(task.getTaskName()))
+                .thenComparing(TaskModel::getTaskName))
+            .get();
+        move(taskToMove, largest, container, taskCosts);
+      }
+    }
+  }
+
+  private void move(TaskModel task, ContainerLoad from, ContainerLoad to, Map<TaskName, Double> taskCosts) {
+    double cost = taskCosts.get(task.getTaskName());
+    from.remove(task, cost);
+    to.add(task, cost);
+    LOG.info("Moved task {} with a load of {} from container {} to container {}",
+        new Object[]{task.getTaskName(), cost, from.id, to.id});
+  }
+
+  /**
+   * Computes the cost of each task as its average share of the total of each load dimension that was reported.
+   */
+  private Map<TaskName, Double> getTaskCosts(Set<TaskModel> tasks, Map<TaskName, TaskLoad> taskLoads) {
+    List<ToDoubleFunction<TaskLoad>> dimensions = new ArrayList<>();
+    dimensions.add(TaskLoad::getProcessNsPerSec);
+    dimensions.add(TaskLoad::getMessagesPerSec);
+    dimensions.add(TaskLoad::getStoreBytes);
+
+    List<TaskLoad> knownLoads = new ArrayList<>();
+    for (TaskModel task : tasks) {
+      TaskLoad taskLoad = taskLoads.get(task.getTaskName());
+      if (taskLoad != null) {
+        knownLoads.add(taskLoad);
+      }
+    }
+    List<ToDoubleFunction<TaskLoad>> reportedDimensions = new ArrayList<>();
+    List<Double> totals = new ArrayList<>();
+    for (ToDoubleFunction<TaskLoad> dimension : dimensions) {
+      double total = knownLoads.stream().mapToDouble(dimension).sum();
+      if (total > 0) {
+        reportedDimensions.add(dimension);
+        totals.add(total);
+      }
+    }
+
+    // Known loads add up to 1 in total, so an average task costs 1 / knownLoads.size()
+    double defaultCost = reportedDimensions.isEmpty() ? 1.0 : 1.0 / knownLoads.size();
+    Map<TaskName, Double> taskCosts = new HashMap<>();
+    for (TaskModel task : tasks) {
+      TaskLoad taskLoad = taskLoads.get(task.getTaskName());
+      double cost = defaultCost;
+      if (taskLoad != null && !reportedDimensions.isEmpty()) {
+        cost = 0;
+        for (int i = 0; i < reportedDimensions.size(); i++) {
+          cost += reportedDimensions.get(i).applyAsDouble(taskLoad) / totals.get(i);
+        }
+        cost /= reportedDimensions.size();
+      }
+      taskCosts.put(task.getTaskName(), cost);
+    }
+    return taskCosts;
+  }
+
+  private static int parseContainerId(String containerId) {
+    if (containerId == null) {
+      return -1;
+    }
+    try {
+      return Integer.parseInt(containerId);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Verifies the input tasks argument and throws {@link IllegalArgumentException} if it is invalid.
+   *
+   * @param tasks the tasks to validate.
+   */
+  private void validateTasks(Set<TaskModel> tasks) {
+    if (tasks.size() <= 0)
+      throw new IllegalArgumentException("No tasks found. Likely due to no input partitions. Can't run a job with no tasks.");
+
+    if (tasks.size() < containerCount) {
+      String msg = String.format(
+          "Your container count (%s) is larger than your task count (%s). Can't have containers with nothing to do, so aborting.",
+          containerCount, tasks.size());
+      LOG.error(msg);
+      LOG.info("List of all task models: {}", tasks);
+      throw new IllegalArgumentException(msg);
+    }
+  }
+
+  /**
+   * The tasks assigned to a container and their total cost.
+   */
+  private static class ContainerLoad {
+    static final Comparator<ContainerLoad> BY_LOAD =
+        Comparator.comparingDouble((ContainerLoad container) -> container.load)
+            .thenComparingInt(container -> container.tasks.size())
+            .thenComparingInt(container -> container.id);
+    static final Comparator<ContainerLoad> BY_TASK_COUNT =
+        Comparator.comparingInt((ContainerLoad container) -> container.tasks.size())
+            .thenComparingInt(container -> container.id);
+
+    private final int id;
+    private final List<TaskModel> tasks = new ArrayList<>();
+    private double load;
+
+    ContainerLoad(int id) {
+      this.id = id;
+    }
+
+    void add(TaskModel task, double cost) {
+      tasks.add(task);
+      load += cost;
+    }
+
+    void remove(TaskModel task, double cost) {
+      tasks.remove(task);
+      load -= cost;
+    }
+  }
+}
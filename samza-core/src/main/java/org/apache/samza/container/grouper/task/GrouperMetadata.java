@@ -22,6 +22,7 @@ import org.apache.samza.annotation.InterfaceStability;
 import org.apache.samza.container.TaskName;
 import org.apache.samza.runtime.LocationId;
 import org.apache.samza.system.SystemStreamPartition;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -55,4 +56,12 @@ public interface GrouperMetadata {
    * @return the previous task to processorId assignment.
    */
   Map<TaskName, String> getPreviousTaskToProcessorAssignment();
+
+  /**
+   * Gets the load observed for the tasks of the job in previous runs.
+   * @return the {@link TaskName} to {@link TaskLoad} of the tasks whose load was reported.
+   */
+  default Map<TaskName, TaskLoad> getTaskLoads() {
+    return Collections.emptyMap();
+  }
 }
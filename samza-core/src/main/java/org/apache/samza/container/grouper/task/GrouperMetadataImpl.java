@@ -43,11 +43,20 @@ public class GrouperMetadataImpl implements GrouperMetadata {
   // Map of TaskName to ProcessorId.
   private final Map<TaskName, String> previousTaskToProcessorAssignment;
 
+  // Map of TaskName to its observed TaskLoad.
+  private final Map<TaskName, TaskLoad> taskLoads;
+
   public GrouperMetadataImpl(Map<String, LocationId> processorLocality, Map<TaskName, LocationId> taskLocality, Map<TaskName, List<SystemStreamPartition>> previousTaskToSSPAssignments, Map<TaskName, String> previousTaskToProcessorAssignment) {
+    this(processorLocality, taskLocality, previousTaskToSSPAssignments, previousTaskToProcessorAssignment, Collections.emptyMap());
+  }
+
+  public GrouperMetadataImpl(Map<String, LocationId> processorLocality, Map<TaskName, LocationId> taskLocality, Map<TaskName, List<SystemStreamPartition>> previousTaskToSSPAssignments, Map<TaskName, String> previousTaskToProcessorAssignment,
+      Map<TaskName, TaskLoad> taskLoads) {
     this.processorLocality = Collections.unmodifiableMap(processorLocality);
     this.taskLocality = Collections.unmodifiableMap(taskLocality);
     this.previousTaskToSSPAssignment = Collections.unmodifiableMap(previousTaskToSSPAssignments);
     this.previousTaskToProcessorAssignment = Collections.unmodifiableMap(previousTaskToProcessorAssignment);
+    this.taskLoads = Collections.unmodifiableMap(taskLoads);
   }
 
   @Override
@@ -69,4 +78,9 @@ public class GrouperMetadataImpl implements GrouperMetadata {
   public Map<TaskName, String> getPreviousTaskToProcessorAssignment() {
     return this.previousTaskToProcessorAssignment;
   }
+
+  @Override
+  public Map<TaskName, TaskLoad> getTaskLoads() {
+    return taskLoads;
+  }
 }
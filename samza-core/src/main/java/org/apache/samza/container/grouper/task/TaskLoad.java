@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.container.grouper.task;
+
+import com.google.common.base.MoreObjects;
+import java.util.Objects;
+import org.apache.samza.annotation.InterfaceStability;
+
+
+/**
+ * The load observed for a task while it ran, as reported by its container.
+ */
+@InterfaceStability.Evolving
+public class TaskLoad {
+  private final double messagesPerSec;
+  private final double processNsPerSec;
+  private final long storeBytes;
+
+  /**
+   * @param messagesPerSec the number of messages processed per second
+   * @param processNsPerSec the time spent processing messages in nanoseconds per second
+   * @param storeBytes the size of the local stores of the task on disk in bytes
+   */
+  public TaskLoad(double messagesPerSec, double processNsPerSec, long storeBytes) {
+    this.messagesPerSec = messagesPerSec;
+    this.processNsPerSec = processNsPerSec;
+    this.storeBytes = storeBytes;
+  }
+
+  public double getMessagesPerSec() {
+    return messagesPerSec;
+  }
+
+  public double getProcessNsPerSec() {
+    return processNsPerSec;
+  }
+
+  public long getStoreBytes() {
+    return storeBytes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TaskLoad that = (TaskLoad) o;
+    return Double.compare(that.messagesPerSec, messagesPerSec) == 0
+        && Double.compare(that.processNsPerSec, processNsPerSec) == 0
+        && storeBytes == that.storeBytes;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(messagesPerSec, processNsPerSec, storeBytes);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("messagesPerSec", messagesPerSec)
+        .add("processNsPerSec", processNsPerSec)
+        .add("storeBytes", storeBytes)
+        .toString();
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.container.grouper.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.coordinator.stream.CoordinatorStreamValueSerde;
+import org.apache.samza.coordinator.stream.messages.SetTaskLoadMapping;
+import org.apache.samza.metadatastore.MetadataStore;
+import org.apache.samza.serializers.Serde;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Task load manager is used to persist and read the observed load of each task
+ * from the coordinator stream.
+ */
+public class TaskLoadManager {
+  private static final Logger LOG = LoggerFactory.getLogger(TaskLoadManager.class);
+  private static final String MESSAGES_PER_SEC = "messagesPerSec";
+  private static final String PROCESS_NS_PER_SEC = "processNsPerSec";
+  private static final String STORE_BYTES = "storeBytes";
+
+  private final MetadataStore taskLoadMetadataStore;
+  private final Serde<String> taskLoadSerde;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * Builds the TaskLoadManager based upon the provided {@link MetadataStore} that is instantiated.
+   * Uses the {@link CoordinatorStreamValueSerde} to serialize messages before reading/writing into metadata store.
+   *
+   * @param taskLoadMetadataStore an instance of {@link MetadataStore} used to read/write the task loads.
+   */
+  public TaskLoadManager(MetadataStore taskLoadMetadataStore) {
+    Preconditions.checkNotNull(taskLoadMetadataStore, "Metadata store cannot be null");
+    this.taskLoadMetadataStore = taskLoadMetadataStore;
+    this.taskLoadSerde = new CoordinatorStreamValueSerde(SetTaskLoadMapping.TYPE);
+  }
+
+  /**
+   * Reads the task loads from {@link MetadataStore}. Loads that can't be parsed are skipped.
+   *
+   * @return the map of taskName: load
+   */
+  public Map<TaskName, TaskLoad> readTaskLoads() {
+    Map<TaskName, TaskLoad> taskLoads = new HashMap<>();
+    taskLoadMetadataStore.all().forEach((taskName, valueBytes) -> {
+      String taskLoad = taskLoadSerde.fromBytes(valueBytes);
+      if (taskLoad != null) {
+        try {
+          Map<String, Number> values = objectMapper.readValue(taskLoad, Map.class);
+          taskLoads.put(new TaskName(taskName), new TaskLoad(values.get(MESSAGES_PER_SEC).doubleValue(),
+              values.get(PROCESS_NS_PER_SEC).doubleValue(), values.get(STORE_BYTES).longValue()));
+        } catch (IOException | RuntimeException e) {
+          LOG.warn("Ignoring invalid load for task {}: {}", taskName, taskLoad, e);
+        }
+      }
+      LOG.debug("Load of task {}: {}", taskName, taskLoad);
+    });
+    return Collections.unmodifiableMap(taskLoads);
+  }
+
+  /**
+   * Method to batch write task loads to {@link MetadataStore}.
+   * @param taskLoads the loads of the tasks
+   */
+  public void writeTaskLoads(Map<TaskName, TaskLoad> taskLoads) {
+    taskLoads.forEach((taskName, taskLoad) -> {
+      Map<String, Object> values = new HashMap<>();
+      values.put(MESSAGES_PER_SEC, taskLoad.getMessagesPerSec());
+      values.put(PROCESS_NS_PER_SEC, taskLoad.getProcessNsPerSec());
+      values.put(STORE_BYTES, taskLoad.getStoreBytes());
+      try {
+        taskLoadMetadataStore.put(taskName.getTaskName(),
+            taskLoadSerde.toBytes(objectMapper.writeValueAsString(values)));
+      } catch (IOException e) {
+        LOG.warn("Failed to serialize load of task {}: {}", taskName, taskLoad, e);
+      }
+    });
+    taskLoadMetadataStore.flush();
+  }
+
+  public void close() {
+    taskLoadMetadataStore.close();
+  }
+}
@@ -26,6 +26,7 @@ import org.apache.samza.coordinator.stream.messages.SetContainerHostMapping;
 import org.apache.samza.coordinator.stream.messages.SetExecutionEnvContainerIdMapping;
 import org.apache.samza.coordinator.stream.messages.SetJobCoordinatorMetadataMessage;
 import org.apache.samza.coordinator.stream.messages.SetTaskContainerMapping;
+import org.apache.samza.coordinator.stream.messages.SetTaskLoadMapping;
 import org.apache.samza.coordinator.stream.messages.SetConfig;
 import org.apache.samza.coordinator.stream.messages.SetTaskPartitionMapping;
 import org.apache.samza.SamzaException;
@@ -77,6 +78,9 @@ public class CoordinatorStreamValueSerde implements Serde<String> {
     } else if (type.equalsIgnoreCase(SetJobCoordinatorMetadataMessage.TYPE)) {
       SetJobCoordinatorMetadataMessage jobCoordinatorMetadataMessage = new SetJobCoordinatorMetadataMessage(message);
       return jobCoordinatorMetadataMessage.getJobCoordinatorMetadata();
+    } else if (type.equalsIgnoreCase(SetTaskLoadMapping.TYPE)) {
+      SetTaskLoadMapping setTaskLoadMapping = new SetTaskLoadMapping(message);
+      return setTaskLoadMapping.getTaskLoad();
     } else {
       throw new SamzaException(String.format("Unknown coordinator stream message type: %s", type));
     }
@@ -109,6 +113,9 @@ public class CoordinatorStreamValueSerde implements Serde<String> {
     } else if (type.equalsIgnoreCase(SetJobCoordinatorMetadataMessage.TYPE)) {
       SetJobCoordinatorMetadataMessage jobCoordinatorMetadataMessage = new SetJobCoordinatorMetadataMessage(SOURCE, "", value);
       return messageSerde.toBytes(jobCoordinatorMetadataMessage.getMessageMap());
+    } else if (type.equalsIgnoreCase(SetTaskLoadMapping.TYPE)) {
+      SetTaskLoadMapping setTaskLoadMapping = new SetTaskLoadMapping(SOURCE, "", value);
+      return messageSerde.toBytes(setTaskLoadMapping.getMessageMap());
     } else {
       throw new SamzaException(String.format("Unknown coordinator stream message type: %s", type));
     }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.coordinator.stream.messages;
+
+/**
+ * SetTaskLoadMapping is a {@link CoordinatorStreamMessage} used internally
+ * by the Samza framework to persist the observed load of each task.
+ *
+ * Structure of the message looks like:
+ *
+ * <pre>
+ * key =&gt; [1, "set-task-load", $TaskName]
+ *
+ * message =&gt; {
+ *     "host": "192.168.0.1",
+ *     "source": "SamzaContainer",
+ *     "username":"app",
+ *     "timestamp": 1456177487325,
+ *     "values": {
+ *         "taskLoad": "{\"messagesPerSec\":1200.0,\"processNsPerSec\":3.5E8,\"storeBytes\":1048576}"
+ *     }
+ * }
+ * </pre>
+ * */
+public class SetTaskLoadMapping extends CoordinatorStreamMessage {
+  public static final String TYPE = "set-task-load";
+  public static final String TASK_LOAD_KEY = "taskLoad";
+
+  /**
+   * SetTaskLoadMapping is used to set the task to load mapping information.
+   * @param message which holds the mapped information.
+   */
+  public SetTaskLoadMapping(CoordinatorStreamMessage message) {
+    super(message.getKeyArray(), message.getMessageMap());
+  }
+
+  /**
+   * SetTaskLoadMapping is used to set the task to load mapping information.
+   * @param source              the source of the message
+   * @param taskName            the taskName which is used to persist the message
+   * @param taskLoad            the serialized load of the task
+   */
+  public SetTaskLoadMapping(String source, String taskName, String taskLoad) {
+    super(source);
+    setType(TYPE);
+    setKey(taskName);
+    putMessageValue(TASK_LOAD_KEY, taskLoad);
+  }
+
+  public String getTaskLoad() {
+    return getMessageValue(TASK_LOAD_KEY);
+  }
+}
@@ -42,6 +42,7 @@ import org.apache.samza.config.StorageConfig;
 import org.apache.samza.config.StreamConfig;
 import org.apache.samza.config.TaskConfig;
 import org.apache.samza.operators.KV;
+import org.apache.samza.operators.spec.IntervalJoinOperatorSpec;
 import org.apache.samza.operators.spec.JoinOperatorSpec;
 import org.apache.samza.operators.spec.OperatorSpec;
 import org.apache.samza.operators.spec.StatefulOperatorSpec;
@@ -211,9 +212,10 @@ import org.slf4j.LoggerFactory;
         .map(spec -> ((WindowOperatorSpec) spec).getDefaultTriggerMs())
         .collect(Collectors.toList());
 
-    // Filter out the join operators, and obtain a list of their ttl values
+    // Filter out the join operators, and obtain a list of their ttl values. Interval joins evict by watermark
+    // and don't need timers.
     List<Long> joinTtlIntervals = reachableOperators.stream()
-        .filter(spec -> spec instanceof JoinOperatorSpec)
+        .filter(spec -> spec instanceof JoinOperatorSpec && !(spec instanceof IntervalJoinOperatorSpec))
         .map(spec -> ((JoinOperatorSpec) spec).getTtlMs())
         .collect(Collectors.toList());
 
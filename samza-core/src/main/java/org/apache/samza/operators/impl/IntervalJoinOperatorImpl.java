@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.operators.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.apache.samza.SamzaException;
+import org.apache.samza.context.Context;
+import org.apache.samza.operators.functions.IntervalJoinFunction;
+import org.apache.samza.operators.impl.store.BucketedTimeSeriesStoreImpl;
+import org.apache.samza.operators.spec.IntervalJoinOperatorSpec;
+import org.apache.samza.operators.spec.OperatorSpec;
+import org.apache.samza.storage.kv.ClosableIterator;
+import org.apache.samza.storage.kv.KeyValueStore;
+import org.apache.samza.task.MessageCollector;
+import org.apache.samza.task.TaskCoordinator;
+import org.apache.samza.util.TimestampedValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of one side of an {@link IntervalJoinOperatorSpec} that buffers its input messages of type
+ * {@code M} by key and event time, and joins them with the buffered messages of the other side whose event time
+ * is within the join window.
+ *
+ * <p>
+ * Messages on this side are needed by future messages on the other side. Since messages on the other side that are
+ * behind its watermark are dropped as late, buffered messages on this side are evicted when they fall behind the
+ * watermark of the other side by more than the join window. Each side therefore evicts the buffered messages of the
+ * other side as its own watermark advances.
+ *
+ * <p>
+ * The two sides of a join share the time series stores of both sides through {@link JoinStores}, so that the buckets
+ * one side writes to or expires from a store are visible to the other side.
+ *
+ * @param <K> the type of join key
+ * @param <M> the type of input messages on this side of the join
+ * @param <OM> the type of input message on the other side of the join
+ * @param <JM> the type of join result
+ */
+class IntervalJoinOperatorImpl<K, M, OM, JM> extends OperatorImpl<M, JM> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IntervalJoinOperatorImpl.class);
+
+  private final IntervalJoinOperatorSpec joinOpSpec;
+  private final boolean isLeftSide; // whether this operator impl is for the left side of the join
+  private final IntervalJoinFunction joinFn;
+  private final long windowMs;
+
+  private final JoinStores joinStores;
+  private BucketedTimeSeriesStoreImpl<K, M> thisState;
+  private BucketedTimeSeriesStoreImpl<K, OM> otherState;
+
+  IntervalJoinOperatorImpl(IntervalJoinOperatorSpec joinOpSpec, boolean isLeftSide, JoinStores joinStores) {
+    this.joinOpSpec = joinOpSpec;
+    this.isLeftSide = isLeftSide;
+    this.joinFn = joinOpSpec.getJoinFn();
+    this.windowMs = joinOpSpec.getWindowMs();
+    this.joinStores = joinStores;
+  }
+
+  @Override
+  protected void handleInit(Context context) {
+    joinStores.init(joinOpSpec, context);
+    this.thisState = isLeftSide ? joinStores.leftState : joinStores.rightState;
+    this.otherState = isLeftSide ? joinStores.rightState : joinStores.leftState;
+
+    // user-defined joinFn should only be initialized once, so we do it only in the left side.
+    if (isLeftSide) {
+      this.joinFn.init(context);
+    }
+  }
+
+  @Override
+  protected CompletionStage<Collection<JM>> handleMessageAsync(M message, MessageCollector collector,
+      TaskCoordinator coordinator) {
+    Collection<JM> output = Collections.emptyList();
+
+    try {
+      K key = (K) (isLeftSide ? joinFn.getFirstKey(message) : joinFn.getSecondKey(message));
+      long timestamp = isLeftSide ? joinFn.getFirstTimestamp(message) : joinFn.getSecondTimestamp(message);
+
+      long watermark = getInputWatermark();
+      if (watermark != WatermarkStates.WATERMARK_NOT_EXIST && timestamp < watermark) {
+        LOG.trace("Dropping late message with timestamp {} behind watermark {} in operator {}",
+            new Object[] {timestamp, watermark, getOpImplId()});
+        return CompletableFuture.completedFuture(output);
+      }
+
+      thisState.put(key, message, timestamp);
+
+      ClosableIterator<TimestampedValue<OM>> matches =
+          otherState.get(key, Math.max(0L, timestamp - windowMs), timestamp + windowMs + 1);
+      try {
+        List<JM> results = new ArrayList<>();
+        while (matches.hasNext()) {
+          OM otherMessage = matches.next().getValue();
+          results.add((JM) (isLeftSide ? joinFn.apply(message, otherMessage) : joinFn.apply(otherMessage, message)));
+        }
+        output = results;
+      } finally {
+        matches.close();
+      }
+    } catch (Exception e) {
+      throw new SamzaException("Error handling message in IntervalJoinOperatorImpl " + getOpImplId(), e);
+    }
+
+    return CompletableFuture.completedFuture(output);
+  }
+
+  @Override
+  protected Collection<JM> handleWatermark(long inputWatermark, MessageCollector collector,
+      TaskCoordinator coordinator) {
+    // messages on this side at or after the watermark only join with messages on the other side at or after
+    // (inputWatermark - windowMs)
+    long expiryTimestamp = inputWatermark - windowMs;
+    if (expiryTimestamp > 0) {
+      otherState.expire(expiryTimestamp);
+    }
+    return Collections.emptyList();
+  }
+
+  @Override
+  protected void handleClose() {
+    // joinFn#close() must only be called once, so we do it only in the left side.
+    if (isLeftSide) {
+      this.joinFn.close();
+    }
+  }
+
+  protected OperatorSpec<M, JM> getOperatorSpec() {
+    return (OperatorSpec<M, JM>) joinOpSpec;
+  }
+
+  /**
+   * The ID for this {@link IntervalJoinOperatorImpl} that includes information about which
+   * side of the join it is for.
+   *
+   * @return the {@link IntervalJoinOperatorImpl} ID.
+   */
+  @Override
+  protected String getOpImplId() {
+    return isLeftSide ? joinOpSpec.getLeftOpId() : joinOpSpec.getRightOpId();
+  }
+
+  /**
+   * The time series stores for both sides of an {@link IntervalJoinOperatorSpec} in a task. A single instance is
+   * shared by the two {@link IntervalJoinOperatorImpl}s of the join, since each store tracks its live buckets in
+   * memory and must see the puts of one side as well as the expiry by the other side.
+   */
+  static class JoinStores {
+    private BucketedTimeSeriesStoreImpl leftState;
+    private BucketedTimeSeriesStoreImpl rightState;
+
+    /**
+     * Creates the stores on the first call, i.e. the initialization of whichever side of the join is initialized first.
+     */
+    synchronized void init(IntervalJoinOperatorSpec joinOpSpec, Context context) {
+      if (leftState == null) {
+        KeyValueStore leftStore = (KeyValueStore) context.getTaskContext().getStore(joinOpSpec.getLeftOpId());
+        KeyValueStore rightStore = (KeyValueStore) context.getTaskContext().getStore(joinOpSpec.getRightOpId());
+        leftState = new BucketedTimeSeriesStoreImpl<>(leftStore, joinOpSpec.getBucketSizeMs(), true);
+        rightState = new BucketedTimeSeriesStoreImpl<>(rightStore, joinOpSpec.getBucketSizeMs(), true);
+      }
+    }
+  }
+}
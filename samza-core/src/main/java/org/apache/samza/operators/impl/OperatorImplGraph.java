@@ -34,6 +34,7 @@ import org.apache.samza.operators.functions.PartialJoinFunction;
 import org.apache.samza.operators.spec.AsyncFlatMapOperatorSpec;
 import org.apache.samza.operators.spec.BroadcastOperatorSpec;
 import org.apache.samza.operators.spec.InputOperatorSpec;
+import org.apache.samza.operators.spec.IntervalJoinOperatorSpec;
 import org.apache.samza.operators.spec.JoinOperatorSpec;
 import org.apache.samza.operators.spec.OperatorSpec;
 import org.apache.samza.operators.spec.OutputOperatorSpec;
@@ -85,6 +86,13 @@ public class OperatorImplGraph {
    */
   private final Map<String, KV<PartialJoinOperatorImpl, PartialJoinOperatorImpl>> joinOpImpls = new HashMap<>();
 
+  /**
+   * A mapping from {@link IntervalJoinOperatorSpec} IDs to their two {@link IntervalJoinOperatorImpl}s, which share
+   * the {@link IntervalJoinOperatorImpl.JoinStores} of the join.
+   */
+  private final Map<String, KV<IntervalJoinOperatorImpl, IntervalJoinOperatorImpl>> intervalJoinOpImpls =
+      new HashMap<>();
+
   private final Clock clock;
 
   private InternalTaskContext internalTaskContext;
@@ -229,6 +237,9 @@ public class OperatorImplGraph {
               internalTaskContext);
     } else if (operatorSpec instanceof WindowOperatorSpec) {
       return new WindowOperatorImpl((WindowOperatorSpec) operatorSpec, clock);
+    } else if (operatorSpec instanceof IntervalJoinOperatorSpec) {
+      return getOrCreateIntervalJoinOpImpls((IntervalJoinOperatorSpec) operatorSpec,
+          prevOperatorSpec.equals(((IntervalJoinOperatorSpec) operatorSpec).getLeftInputOpSpec()));
     } else if (operatorSpec instanceof JoinOperatorSpec) {
       return getOrCreatePartialJoinOpImpls((JoinOperatorSpec) operatorSpec,
           prevOperatorSpec.equals(((JoinOperatorSpec) operatorSpec).getLeftInputOpSpec()), clock);
@@ -265,6 +276,20 @@ public class OperatorImplGraph {
     }
   }
 
+  private IntervalJoinOperatorImpl getOrCreateIntervalJoinOpImpls(IntervalJoinOperatorSpec joinOpSpec,
+      boolean isLeft) {
+    // get the per task pair of IntervalJoinOperatorImpl for the corresponding {@code joinOpSpec}
+    KV<IntervalJoinOperatorImpl, IntervalJoinOperatorImpl> joinImpls =
+        intervalJoinOpImpls.computeIfAbsent(joinOpSpec.getOpId(),
+          joinOpId -> {
+            IntervalJoinOperatorImpl.JoinStores joinStores = new IntervalJoinOperatorImpl.JoinStores();
+            return new KV(new IntervalJoinOperatorImpl(joinOpSpec, true, joinStores),
+                new IntervalJoinOperatorImpl(joinOpSpec, false, joinStores));
+          });
+
+    return isLeft ? joinImpls.getKey() : joinImpls.getValue();
+  }
+
   private PartialJoinFunction<Object, Object, Object, Object> createLeftJoinFn(JoinOperatorSpec joinOpSpec) {
     return new PartialJoinFunction<Object, Object, Object, Object>() {
       private final JoinFunction joinFn = joinOpSpec.getJoinFn();
@@ -18,11 +18,15 @@
  */
 package org.apache.samza.operators.impl;
 
+import java.util.ArrayDeque;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.samza.context.Context;
 import org.apache.samza.operators.KV;
+import org.apache.samza.operators.StreamTableJoinOptions;
 import org.apache.samza.operators.spec.OperatorSpec;
 import org.apache.samza.operators.spec.StreamTableJoinOperatorSpec;
 import org.apache.samza.table.ReadWriteTable;
@@ -36,6 +40,12 @@ import java.util.Collections;
 /**
  * Implementation of a stream-table join operator that first retrieve the value of
  * the message key from incoming message, and then apply the join function.
+ * <p>
+ * When the join has {@link StreamTableJoinOptions}, up to
+ * {@link StreamTableJoinOptions#getMaxOutstandingLookups()} lookups are kept in flight. Messages beyond
+ * that wait for a lookup to complete, and since their results are pending so are their callbacks,
+ * which holds back the run loop once {@code task.max.concurrency} is reached. Results are emitted in
+ * the order of the input messages, unless unordered emission is enabled.
  *
  * @param <K> type of the join key
  * @param <M> type of input messages
@@ -46,10 +56,20 @@ class StreamTableJoinOperatorImpl<K, M, R extends KV, JM> extends OperatorImpl<M
 
   private final StreamTableJoinOperatorSpec<K, M, R, JM> joinOpSpec;
   private final ReadWriteTable<K, ?> table;
+  private final StreamTableJoinOptions options;
+
+  // Joins in the order of their input messages until their results are emitted, for ordered emission only
+  private final Queue<PendingJoin> pendingJoins = new ArrayDeque<>();
+  // Joins waiting for an outstanding lookup to complete before looking up their key
+  private final Queue<PendingJoin> waitingJoins = new ArrayDeque<>();
+  // Number of requests to emit completed joins; only the thread that raises it from 0 emits them
+  private final AtomicInteger emitRequests = new AtomicInteger();
+  private int numOutstandingLookups;
 
   StreamTableJoinOperatorImpl(StreamTableJoinOperatorSpec<K, M, R, JM> joinOpSpec, Context context) {
     this.joinOpSpec = joinOpSpec;
     this.table = context.getTaskContext().getTable(joinOpSpec.getTableId());
+    this.options = joinOpSpec.getOptions();
   }
 
   @Override
@@ -67,12 +87,89 @@ class StreamTableJoinOperatorImpl<K, M, R extends KV, JM> extends OperatorImpl<M
     K key = joinOpSpec.getJoinFn().getMessageKey(message);
     Object[] args = joinOpSpec.getArgs();
 
+    if (options != null) {
+      return pipelineJoin(key, message);
+    }
+
     return Optional.ofNullable(key)
         .map(joinKey -> table.getAsync(joinKey, args)
             .thenApply(val -> getJoinOutput(joinKey, val, message)))
         .orElseGet(() -> CompletableFuture.completedFuture(getJoinOutput(key, null, message)));
   }
 
+  private CompletionStage<Collection<JM>> pipelineJoin(K key, M message) {
+    PendingJoin join = new PendingJoin(key, message);
+    synchronized (this) {
+      if (options.isOrdered()) {
+        pendingJoins.add(join);
+      }
+      if (key != null) {
+        if (numOutstandingLookups == options.getMaxOutstandingLookups()) {
+          waitingJoins.add(join);
+          return join.result;
+        }
+        numOutstandingLookups++;
+      }
+    }
+    lookup(join);
+    return join.result;
+  }
+
+  private void lookup(PendingJoin join) {
+    if (join.key == null) {
+      complete(join, null, null);
+      return;
+    }
+
+    CompletableFuture<?> lookupFuture;
+    try {
+      lookupFuture = table.getAsync(join.key, joinOpSpec.getArgs());
+    } catch (Exception e) {
+      lookupFuture = new CompletableFuture<>();
+      lookupFuture.completeExceptionally(e);
+    }
+    lookupFuture.whenComplete((value, e) -> {
+      PendingJoin nextJoin;
+      synchronized (this) {
+        nextJoin = waitingJoins.poll();
+        if (nextJoin == null) {
+          numOutstandingLookups--;
+        }
+      }
+      complete(join, value, e);
+      if (nextJoin != null) {
+        lookup(nextJoin);
+      }
+    });
+  }
+
+  private void complete(PendingJoin join, Object value, Throwable error) {
+    join.value = value;
+    join.error = error;
+    join.done = true;
+    if (!options.isOrdered()) {
+      join.emit();
+      return;
+    }
+
+    if (emitRequests.getAndIncrement() > 0) {
+      return;
+    }
+    int requests = 1;
+    do {
+      PendingJoin completedJoin;
+      while ((completedJoin = pollCompletedJoin()) != null) {
+        completedJoin.emit();
+      }
+      requests = emitRequests.addAndGet(-requests);
+    } while (requests != 0);
+  }
+
+  private synchronized PendingJoin pollCompletedJoin() {
+    PendingJoin join = pendingJoins.peek();
+    return join != null && join.done ? pendingJoins.poll() : null;
+  }
+
   private Collection<JM> getJoinOutput(K key, Object value, M message) {
     R record = value == null ? null : (R) KV.of(key, value);
 
@@ -93,4 +190,33 @@ class StreamTableJoinOperatorImpl<K, M, R extends KV, JM> extends OperatorImpl<M
     return joinOpSpec;
   }
 
+  /**
+   * A message whose lookup is waiting, outstanding, or completed but whose result is not emitted yet.
+   */
+  private class PendingJoin {
+    private final K key;
+    private final M message;
+    private final CompletableFuture<Collection<JM>> result = new CompletableFuture<>();
+    private Object value;
+    private Throwable error;
+    private volatile boolean done;
+
+    PendingJoin(K key, M message) {
+      this.key = key;
+      this.message = message;
+    }
+
+    void emit() {
+      if (error != null) {
+        result.completeExceptionally(error);
+        return;
+      }
+      try {
+        result.complete(getJoinOutput(key, value, message));
+      } catch (Exception e) {
+        result.completeExceptionally(e);
+      }
+    }
+  }
+
 }
@@ -149,15 +149,14 @@ public class WindowOperatorImpl<M, K> extends OperatorImpl<M, WindowPane<K, Obje
     if (foldLeftFn == null) {
       timeSeriesStore.put(key, message, timestamp); // store is in append mode
     } else {
-      List<Object> existingState = getValues(key, timestamp);
-
-      Preconditions.checkState(existingState.size() <= 1, String.format("WindowState for aggregating windows " +
-          "must not contain more than one entry per window. Current size: %s", existingState.size()));
-
-      if (existingState.size() == 0) {
+      // The store is in over-write mode, so the aggregated value is looked up directly rather than with a range scan.
+      // If the store has an object cache, the aggregated values of active windows are read and folded in memory, and
+      // are only written to the underlying store when the cache is flushed on commit, or when it is full.
+      Object oldVal = timeSeriesStore.getValue(key, timestamp);
+      if (oldVal == null) {
         LOG.trace("No existing state found for key {} Invoking initializer.", key);
+        oldVal = initializer.get();
       }
-      Object oldVal = existingState.size() == 0 ? initializer.get() : existingState.get(0);
       Object aggregatedValue = foldLeftFn.apply(message, oldVal);
 
       timeSeriesStore.put(key, aggregatedValue, timestamp); // store is in over-write mode
@@ -257,15 +256,19 @@ public class WindowOperatorImpl<M, K> extends OperatorImpl<M, WindowPane<K, Obje
     TriggerImplHandler wrapper = triggers.get(triggerKey);
     long timestamp = triggerKey.getTimestamp();
     K key = triggerKey.getKey();
-    List<Object> existingState = getValues(key, timestamp);
+    Object windowVal;
+    if (foldLeftFn == null) {
+      List<Object> existingState = getValues(key, timestamp);
+      windowVal = existingState.isEmpty() ? null : existingState;
+    } else {
+      windowVal = timeSeriesStore.getValue(key, timestamp);
+    }
 
-    if (existingState == null || existingState.size() == 0) {
+    if (windowVal == null) {
       LOG.trace("No state found for triggerKey: {}", triggerKey);
       return Optional.empty();
     }
 
-    Object windowVal = window.getFoldLeftFunction() == null ? existingState : existingState.get(0);
-
     WindowPane<K, Object> paneOutput = computePaneOutput(triggerKey, windowVal);
 
     // Handle different accumulation modes.
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.samza.operators.impl.store;
+
+/**
+ * The store key used in the {@link BucketedTimeSeriesStoreImpl} to uniquely identify a row. In addition to the fields
+ * of a {@link TimeSeriesKey}, it holds the start timestamp of the time bucket that the row belongs to.
+ */
+public class BucketedTimeSeriesKey<K> extends TimeSeriesKey<K> {
+
+  private final long bucket;
+
+  public BucketedTimeSeriesKey(K k, long bucket, long time, long seq) {
+    super(k, time, seq);
+    this.bucket = bucket;
+  }
+
+  public long getBucket() {
+    return bucket;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return super.equals(o) && bucket == ((BucketedTimeSeriesKey<?>) o).bucket;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * super.hashCode() + (int) (bucket ^ (bucket >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("BucketedTimeSeriesKey {bucket: %s key: %s timestamp: %s seqNum: %s}", bucket, getKey(),
+        getTimestamp(), getSeqNum());
+  }
+}
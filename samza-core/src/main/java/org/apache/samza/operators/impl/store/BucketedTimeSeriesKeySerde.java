@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.samza.operators.impl.store;
+
+import org.apache.samza.SamzaException;
+import org.apache.samza.serializers.Serde;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Serde} for {@link BucketedTimeSeriesKey}s.
+ *
+ * <p>
+ * This prefixes a serialized {@link TimeSeriesKey} with the start timestamp of its time bucket, so that all rows in
+ * the same bucket are adjacent in the store, and buckets are ordered by their start timestamp.
+ *
+ * A {@link BucketedTimeSeriesKeySerde} serializes a key as follows:
+ *    +------------------+-------------------------+------------------+----------------+------------------+
+ *    |  bucket          |  serialized-key bytes   |  timestamp       | version (0)    | seqNum           |
+ *    |                  |(serialized by keySerde) |                  |                |                  |
+ *    +------------------+-------------------------+------------------+----------------+------------------+
+ *    +-------8 bytes----+---serialized key len----+-------8 bytes----+---1 byte-------+---7 bytes---------+
+ *
+ * A {@code null} key is serialized without any key bytes. Such keys sort before all other keys in their bucket.
+ *
+ * @param <K> the type of the wrapped key
+ */
+public class BucketedTimeSeriesKeySerde<K> implements Serde<BucketedTimeSeriesKey<K>> {
+
+  private static final long SEQUENCE_NUM_MASK = 0x00ffffffffffffffL;
+  private static final int BUCKET_SIZE = 8;
+  private static final int TIMESTAMP_SIZE = 8;
+  private static final int SEQNUM_SIZE = 8;
+
+  private final Serde<K> keySerde;
+
+  public BucketedTimeSeriesKeySerde(Serde<K> keySerde) {
+    this.keySerde = keySerde;
+  }
+
+  @Override
+  public byte[] toBytes(BucketedTimeSeriesKey<K> timeSeriesKey) {
+    K key = timeSeriesKey.getKey();
+
+    byte[] serializedKey = null;
+    if (key != null && keySerde != null) {
+      serializedKey = keySerde.toBytes(key);
+    }
+    int keySize = serializedKey == null ? 0 : serializedKey.length;
+
+    ByteBuffer buf = ByteBuffer.allocate(BUCKET_SIZE + keySize + TIMESTAMP_SIZE + SEQNUM_SIZE);
+    buf.putLong(timeSeriesKey.getBucket());
+    if (serializedKey != null) {
+      buf.put(serializedKey);
+    }
+    buf.putLong(timeSeriesKey.getTimestamp());
+    buf.putLong(timeSeriesKey.getSeqNum() & SEQUENCE_NUM_MASK);
+
+    return buf.array();
+  }
+
+  @Override
+  public BucketedTimeSeriesKey<K> fromBytes(byte[] timeSeriesKeyBytes) {
+    ByteBuffer buf = ByteBuffer.wrap(timeSeriesKeyBytes);
+    long bucket = buf.getLong();
+    int keySize = timeSeriesKeyBytes.length - BUCKET_SIZE - TIMESTAMP_SIZE - SEQNUM_SIZE;
+    K key = null;
+
+    if (keySize != 0) {
+      byte[] keyBytes = new byte[keySize];
+      buf.get(keyBytes);
+      key = keySerde.fromBytes(keyBytes);
+    }
+
+    long timeStamp = buf.getLong();
+    long seqNum = buf.getLong();
+    long version = seqNum & ~SEQUENCE_NUM_MASK;
+
+    if (version != TimeSeriesKey.VERSION) {
+      throw new SamzaException(String.format("Invalid version detected in BucketedTimeSeriesKey. " +
+          "Expected Version: %s Actual Version: %s Sequence number: %s", TimeSeriesKey.VERSION, version, seqNum));
+    }
+    return new BucketedTimeSeriesKey<>(key, bucket, timeStamp, seqNum);
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.samza.operators.impl.store;
+
+import org.apache.samza.storage.kv.ClosableIterator;
+import org.apache.samza.storage.kv.Entry;
+import org.apache.samza.storage.kv.KeyValueIterator;
+import org.apache.samza.storage.kv.KeyValueStore;
+import org.apache.samza.util.TimestampedValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TimeSeriesStore} that partitions its entries into fixed size time buckets, so that all entries older than
+ * a given timestamp can be expired with a single range delete on the underlying {@link KeyValueStore}.
+ *
+ * <p>
+ * Entries are stored under a {@link BucketedTimeSeriesKey}, i.e. the serialized {@link TimeSeriesKey} prefixed with
+ * the start timestamp of its bucket (see {@link BucketedTimeSeriesKeySerde}). Buckets are therefore laid out in time
+ * order in the store, and {@link #expire(long)} removes every bucket that ends at or before the given timestamp
+ * without reading any of its entries. Retention, like in a time-partitioned log, is at bucket granularity. Removing
+ * the entries of a single key deletes them one by one instead, since a range delete clears the caches of the caching
+ * stores and leaves a range tombstone in RocksDB, which only pays off for whole buckets.
+ *
+ * <p>
+ * Lookups by key and time range only visit the buckets overlapping the requested range that are known to contain
+ * data. The set of live buckets is tracked in memory; it is rebuilt lazily from the store on first access by seeking
+ * from one bucket to the next, which reads a single entry per bucket.
+ *
+ * <p>
+ * Like the {@link TimeSeriesStoreImpl}, this store supports an overwrite mode and an append mode, and range iterators
+ * return values for a key in the order of their timestamp, and within the same timestamp, in their order of insertion.
+ *
+ * <p> This class is thread-safe and concurrent reads/writes are expected.
+ *
+ * @param <K> the type of key in the store
+ * @param <V> the type of value in the store
+ */
+public class BucketedTimeSeriesStoreImpl<K, V> implements TimeSeriesStore<K, V> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BucketedTimeSeriesStoreImpl.class);
+
+  private final KeyValueStore<BucketedTimeSeriesKey<K>, V> kvStore;
+  private final long bucketSizeMs;
+  private final boolean appendMode;
+
+  /**
+   * Since timestamps are at the granularity of milliseconds, multiple entries added in the same
+   * millisecond are distinguished by a monotonically increasing sequence number.
+   */
+  private final AtomicLong seqNum = new AtomicLong();
+
+  /**
+   * Start timestamps of the buckets that may contain entries.
+   */
+  private final NavigableSet<Long> liveBuckets = new ConcurrentSkipListSet<>();
+  private volatile boolean liveBucketsLoaded = false;
+
+  /**
+   * Creates a {@link BucketedTimeSeriesStoreImpl}
+   *
+   * @param kvStore the backing kv store to use
+   * @param bucketSizeMs the size of each time bucket in milliseconds
+   * @param appendMode should the store be used in appendMode
+   */
+  public BucketedTimeSeriesStoreImpl(KeyValueStore<BucketedTimeSeriesKey<K>, V> kvStore, long bucketSizeMs,
+      boolean appendMode) {
+    if (bucketSizeMs <= 0) {
+      throw new IllegalArgumentException(String.format("Bucket size :%d must be greater than zero", bucketSizeMs));
+    }
+    this.kvStore = kvStore;
+    this.bucketSizeMs = bucketSizeMs;
+    this.appendMode = appendMode;
+  }
+
+  /**
+   * Creates a {@link BucketedTimeSeriesStoreImpl} in append mode.
+   *
+   * @param kvStore the backing kv store to use
+   * @param bucketSizeMs the size of each time bucket in milliseconds
+   */
+  public BucketedTimeSeriesStoreImpl(KeyValueStore<BucketedTimeSeriesKey<K>, V> kvStore, long bucketSizeMs) {
+    this(kvStore, bucketSizeMs, true);
+  }
+
+  @Override
+  public void put(K key, V val, long timestamp) {
+    validateRange(timestamp, timestamp);
+    loadLiveBuckets();
+    // For append mode, values are differentiated by an unique sequence number. For overwrite mode, the sequence
+    // number is always zero. This ensures that only the most recent value is retained.
+    if (appendMode) {
+      seqNum.getAndIncrement();
+    }
+    long bucket = bucketOf(timestamp);
+    BucketedTimeSeriesKey<K> timeSeriesKey = new BucketedTimeSeriesKey<>(key, bucket, timestamp, seqNum.get());
+
+    LOG.trace("Inserting {} -> {} into the store", timeSeriesKey, val);
+    kvStore.put(timeSeriesKey, val);
+    liveBuckets.add(bucket);
+  }
+
+  @Override
+  public ClosableIterator<TimestampedValue<V>> get(K key, long startTimestamp, long endTimestamp) {
+    validateRange(startTimestamp, endTimestamp);
+    LOG.trace("Getting entries in the store for {} from {} to {}", new Object[] {key, startTimestamp, endTimestamp});
+    return new BucketedStoreIterator(key, startTimestamp, endTimestamp, bucketsInRange(startTimestamp, endTimestamp));
+  }
+
+  @Override
+  public ClosableIterator<TimestampedValue<V>> get(K key, long startTimestamp, long endTimestamp, int maxValues) {
+    ClosableIterator<TimestampedValue<V>> iterator = get(key, startTimestamp, endTimestamp);
+    return new TimeSeriesStoreImpl.BoundedClosableIterator<>(iterator, maxValues);
+  }
+
+  @Override
+  public ClosableIterator<TimestampedValue<V>> get(K key, long timestamp) {
+    return get(key, timestamp, timestamp + 1);
+  }
+
+  @Override
+  public V getValue(K key, long timestamp) {
+    if (appendMode || !TimeSeriesStoreImpl.hasValueEquality(key)) {
+      return TimeSeriesStore.super.getValue(key, timestamp);
+    }
+    validateRange(timestamp, timestamp);
+    return kvStore.get(new BucketedTimeSeriesKey<>(key, bucketOf(timestamp), timestamp, 0));
+  }
+
+  @Override
+  public void remove(K key, long startTimestamp, long endTimeStamp) {
+    validateRange(startTimestamp, endTimeStamp);
+    List<BucketedTimeSeriesKey<K>> keysToDelete = new LinkedList<>();
+
+    for (long bucket : bucketsInRange(startTimestamp, endTimeStamp)) {
+      KeyValueIterator<BucketedTimeSeriesKey<K>, V> range =
+          kvStore.range(fromKey(key, bucket, startTimestamp), toKey(key, bucket, endTimeStamp));
+      try {
+        while (range.hasNext()) {
+          keysToDelete.add(range.next().getKey());
+        }
+      } finally {
+        range.close();
+      }
+    }
+    kvStore.deleteAll(keysToDelete);
+  }
+
+  @Override
+  public void remove(K key, long timestamp) {
+    if (appendMode || !TimeSeriesStoreImpl.hasValueEquality(key)) {
+      remove(key, timestamp, timestamp + 1);
+    } else {
+      validateRange(timestamp, timestamp);
+      kvStore.delete(new BucketedTimeSeriesKey<>(key, bucketOf(timestamp), timestamp, 0));
+    }
+  }
+
+  /**
+   * Removes all entries in buckets that end at or before the provided timestamp, for all keys. Entries in the bucket
+   * containing the timestamp are retained.
+   *
+   * <p> If the underlying store is backed by a changelog, the changelog still needs a tombstone for every expired
+   * entry, so the expired entries are read and logged one by one, and only the local delete is a range delete.
+   *
+   * @param timestamp the timestamp before which whole buckets are removed
+   */
+  public void expire(long timestamp) {
+    validateRange(timestamp, timestamp);
+    loadLiveBuckets();
+    long retainFrom = bucketOf(timestamp);
+    NavigableSet<Long> expired = liveBuckets.headSet(retainFrom, false);
+    if (expired.isEmpty()) {
+      return;
+    }
+
+    LOG.trace("Expiring buckets {} to {} from the store", expired.first(), expired.last());
+    kvStore.deleteRange(boundKey(expired.first()), boundKey(retainFrom));
+    expired.clear();
+  }
+
+  @Override
+  public void flush() {
+    kvStore.flush();
+  }
+
+  @Override
+  public void close() {
+  }
+
+  private long bucketOf(long timestamp) {
+    return timestamp - timestamp % bucketSizeMs;
+  }
+
+  /**
+   * Returns the live buckets overlapping [startTimestamp, endTimestamp).
+   */
+  private NavigableSet<Long> bucketsInRange(long startTimestamp, long endTimestamp) {
+    if (endTimestamp <= startTimestamp) {
+      return Collections.emptyNavigableSet();
+    }
+    loadLiveBuckets();
+    return liveBuckets.subSet(bucketOf(startTimestamp), true, bucketOf(endTimestamp - 1), true);
+  }
+
+  private BucketedTimeSeriesKey<K> fromKey(K key, long bucket, long startTimestamp) {
+    return new BucketedTimeSeriesKey<>(key, bucket, Math.max(startTimestamp, bucket), 0);
+  }
+
+  private BucketedTimeSeriesKey<K> toKey(K key, long bucket, long endTimestamp) {
+    return new BucketedTimeSeriesKey<>(key, bucket, Math.min(endTimestamp, bucket + bucketSizeMs), 0);
+  }
+
+  /**
+   * Returns a key that sorts before all entries of the provided bucket, and after all entries of earlier buckets.
+   */
+  private BucketedTimeSeriesKey<K> boundKey(long bucket) {
+    return new BucketedTimeSeriesKey<>(null, bucket, 0, 0);
+  }
+
+  private void loadLiveBuckets() {
+    if (liveBucketsLoaded) {
+      return;
+    }
+    synchronized (liveBuckets) {
+      if (liveBucketsLoaded) {
+        return;
+      }
+      long next = 0;
+      while (next < Long.MAX_VALUE) {
+        KeyValueIterator<BucketedTimeSeriesKey<K>, V> iterator = kvStore.range(boundKey(next), boundKey(Long.MAX_VALUE));
+        try {
+          if (!iterator.hasNext()) {
+            break;
+          }
+          long bucket = iterator.next().getKey().getBucket();
+          liveBuckets.add(bucket);
+          next = bucket + 1;
+        } finally {
+          iterator.close();
+        }
+      }
+      LOG.debug("Loaded {} live buckets from the store", liveBuckets.size());
+      liveBucketsLoaded = true;
+    }
+  }
+
+  private void validateRange(long startTimestamp, long endTimestamp) throws IllegalArgumentException {
+    if (startTimestamp < 0) {
+      throw new IllegalArgumentException(String.format("Start timestamp :%d is less than zero", startTimestamp));
+    }
+
+    if (endTimestamp < 0) {
+      throw new IllegalArgumentException(String.format("End timestamp :%d is less than zero", endTimestamp));
+    }
+
+    if (endTimestamp < startTimestamp) {
+      throw new IllegalArgumentException(String.format("End timestamp :%d is less than start timestamp: %d", endTimestamp, startTimestamp));
+    }
+  }
+
+  /**
+   * Iterates over the entries for a key in each of the provided buckets in turn, opening one range iterator on
+   * the underlying store at a time.
+   */
+  private class BucketedStoreIterator implements ClosableIterator<TimestampedValue<V>> {
+
+    private final K key;
+    private final long startTimestamp;
+    private final long endTimestamp;
+    private final Iterator<Long> buckets;
+    private KeyValueIterator<BucketedTimeSeriesKey<K>, V> current;
+
+    BucketedStoreIterator(K key, long startTimestamp, long endTimestamp, NavigableSet<Long> buckets) {
+      this.key = key;
+      this.startTimestamp = startTimestamp;
+      this.endTimestamp = endTimestamp;
+      this.buckets = buckets.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (current == null || !current.hasNext()) {
+        if (current != null) {
+          current.close();
+          current = null;
+        }
+        if (!buckets.hasNext()) {
+          return false;
+        }
+        long bucket = buckets.next();
+        current = kvStore.range(fromKey(key, bucket, startTimestamp), toKey(key, bucket, endTimestamp));
+      }
+      return true;
+    }
+
+    @Override
+    public TimestampedValue<V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Entry<BucketedTimeSeriesKey<K>, V> next = current.next();
+      return new TimestampedValue<>(next.getValue(), next.getKey().getTimestamp());
+    }
+
+    @Override
+    public void remove() {
+      if (current == null) {
+        throw new IllegalStateException();
+      }
+      current.remove();
+    }
+
+    @Override
+    public void close() {
+      if (current != null) {
+        current.close();
+        current = null;
+      }
+    }
+  }
+}
@@ -87,6 +87,31 @@ public interface TimeSeriesStore<K, V> {
    */
   ClosableIterator<TimestampedValue<V>> get(K key, long timestamp);
 
+  /**
+   * Returns the most recently inserted value for the given key and timestamp, or {@code null} if there is none.
+   *
+   * <p> This is intended for stores that retain a single value per key and timestamp. Implementations may look the
+   * value up directly instead of iterating over the values for the key and timestamp, if the key is equal to other
+   * instances with the same value.
+   *
+   * @param key the key to look up in the store
+   * @param timestamp the timestamp to look up in the store
+   * @return the most recently inserted value for the given key and timestamp, or {@code null} if there is none
+   * @throws IllegalArgumentException when the provided timestamp is negative
+   */
+  default V getValue(K key, long timestamp) {
+    ClosableIterator<TimestampedValue<V>> iterator = get(key, timestamp);
+    try {
+      V value = null;
+      while (iterator.hasNext()) {
+        value = iterator.next().getValue();
+      }
+      return value;
+    } finally {
+      iterator.close();
+    }
+  }
+
   /**
    * Removes all values for this key in the given time-range.
    *
@@ -71,6 +71,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * An 8 byte timestamp, a one byte version and a 7 byte sequence number are appended to the provided key and this
  * combination is used as the key in the k-v store. The provided value is stored as is.
  *
+ * <p> In overwrite mode the sequence number is always zero, so {@link #getValue} and {@link #remove(Object, long)}
+ * access the single value for a key and timestamp directly, without iterating over a range of the k-v store. This lets
+ * a caching k-v store serve and update recently used values in memory.
+ *
  * <p> This class is thread-safe and concurrent reads/writes are expected.
  *
  * @param <K> the type of key in the store
@@ -80,6 +84,20 @@ public class TimeSeriesStoreImpl<K, V> implements TimeSeriesStore<K, V> {
 
   private static final Logger LOG = LoggerFactory.getLogger(TimeSeriesStoreImpl.class);
 
+  private static final ClassValue<Boolean> HAS_VALUE_EQUALITY = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      if (type.isArray()) {
+        return false;
+      }
+      try {
+        return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+  };
+
   private final KeyValueStore<TimeSeriesKey<K>, V> kvStore;
 
   /**
@@ -145,6 +163,15 @@ public class TimeSeriesStoreImpl<K, V> implements TimeSeriesStore<K, V> {
     return get(key, timestamp, timestamp + 1);
   }
 
+  @Override
+  public V getValue(K key, long timestamp) {
+    if (appendMode || !hasValueEquality(key)) {
+      return TimeSeriesStore.super.getValue(key, timestamp);
+    }
+    validateRange(timestamp, timestamp);
+    return kvStore.get(new TimeSeriesKey<>(key, timestamp, 0));
+  }
+
   @Override
   public void remove(K key, long startTimestamp, long endTimeStamp) {
     validateRange(startTimestamp, endTimeStamp);
@@ -166,7 +193,12 @@ public class TimeSeriesStoreImpl<K, V> implements TimeSeriesStore<K, V> {
 
   @Override
   public void remove(K key, long timestamp) {
-    remove(key, timestamp, timestamp + 1);
+    if (appendMode || !hasValueEquality(key)) {
+      remove(key, timestamp, timestamp + 1);
+    } else {
+      validateRange(timestamp, timestamp);
+      kvStore.delete(new TimeSeriesKey<>(key, timestamp, 0));
+    }
   }
 
   @Override
@@ -178,6 +210,17 @@ public class TimeSeriesStoreImpl<K, V> implements TimeSeriesStore<K, V> {
   public void close() {
   }
 
+  /**
+   * Returns whether the provided key is equal to other instances with the same value. Point lookups and deletes
+   * create a new store key for the key, which a caching store only matches to its entries that are not written out
+   * yet if the keys are equal by value. Arrays, and classes that do not override {@link Object#equals}, are only
+   * equal to themselves, so their values are looked up and removed by iterating over the store instead, which writes
+   * out the entries of a caching store first.
+   */
+  static boolean hasValueEquality(Object key) {
+    return key == null || HAS_VALUE_EQUALITY.get(key.getClass());
+  }
+
   private void validateRange(long startTimestamp, long endTimestamp) throws IllegalArgumentException {
     if (startTimestamp < 0) {
       throw new IllegalArgumentException(String.format("Start timestamp :%d is less than zero", startTimestamp));
@@ -227,7 +270,7 @@ public class TimeSeriesStoreImpl<K, V> implements TimeSeriesStore<K, V> {
    *
    * @param <T> the type of values in the iterator
    */
-  private static class BoundedClosableIterator<T> implements ClosableIterator<T> {
+  static class BoundedClosableIterator<T> implements ClosableIterator<T> {
 
     private final AtomicInteger currentCount = new AtomicInteger(0);
     private final ClosableIterator<T> wrappedIterator;
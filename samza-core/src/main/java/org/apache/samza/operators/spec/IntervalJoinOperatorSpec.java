@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.operators.spec;
+
+import org.apache.samza.operators.functions.IntervalJoinFunction;
+import org.apache.samza.operators.functions.WatermarkFunction;
+import org.apache.samza.operators.impl.store.BucketedTimeSeriesKeySerde;
+import org.apache.samza.serializers.Serde;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+
+/**
+ * The spec for the interval join operator that buffers all messages from both streams by key and event time,
+ * and joins each message with the messages in the other stream within the join window of its event time.
+ * <p>
+ * Messages are buffered in time-bucketed stores, so that messages which can no longer be joined are evicted with
+ * range deletes as watermarks advance, rather than by a TTL on the stores.
+ *
+ * @param <K>  the type of join key
+ * @param <M>  the type of message in this stream
+ * @param <OM>  the type of message in the other stream
+ * @param <JM>  the type of join result
+ */
+public class IntervalJoinOperatorSpec<K, M, OM, JM> extends JoinOperatorSpec<K, M, OM, JM> {
+
+  private final long windowMs;
+
+  /**
+   * The following {@link Serde}s are serialized by the ExecutionPlanner when generating the store configs for a join, and
+   * deserialized once during startup in SamzaContainer. They don't need to be deserialized here on a per-task basis
+   */
+  private transient final Serde<K> keySerde;
+  private transient final Serde<M> messageSerde;
+  private transient final Serde<OM> otherMessageSerde;
+
+  /**
+   * Default constructor for an {@link IntervalJoinOperatorSpec}.
+   *
+   * @param leftInputOpSpec  the operator spec for the stream on the left side of the join
+   * @param rightInputOpSpec  the operator spec for the stream on the right side of the join
+   * @param joinFn  the user-defined join function to get join keys, event times and results
+   * @param windowMs  the maximum difference in event time in ms between joined messages
+   * @param opId  the unique ID for this operator
+   */
+  IntervalJoinOperatorSpec(OperatorSpec<?, M> leftInputOpSpec, OperatorSpec<?, OM> rightInputOpSpec,
+      IntervalJoinFunction<K, M, OM, JM> joinFn, Serde<K> keySerde, Serde<M> messageSerde, Serde<OM> otherMessageSerde,
+      long windowMs, String opId) {
+    super(leftInputOpSpec, rightInputOpSpec, joinFn, keySerde, messageSerde, otherMessageSerde, windowMs, opId);
+    this.keySerde = keySerde;
+    this.messageSerde = messageSerde;
+    this.otherMessageSerde = otherMessageSerde;
+    this.windowMs = windowMs;
+  }
+
+  @Override
+  public Collection<StoreDescriptor> getStoreDescriptors() {
+    String rocksDBStoreFactory = "org.apache.samza.storage.kv.RocksDbKeyValueStorageEngineFactory";
+    String leftStoreName = getLeftOpId();
+    String rightStoreName = getRightOpId();
+    Serde storeKeySerde = new BucketedTimeSeriesKeySerde<>(this.keySerde);
+
+    // Evicted messages are deleted from the stores and their changelogs, so the changelogs are compacted as usual
+    return Arrays.asList(
+        new StoreDescriptor(leftStoreName, rocksDBStoreFactory, storeKeySerde, this.messageSerde,
+            leftStoreName, Collections.emptyMap()),
+        new StoreDescriptor(rightStoreName, rocksDBStoreFactory, storeKeySerde, this.otherMessageSerde,
+            rightStoreName, Collections.emptyMap()));
+  }
+
+  /**
+   * Watermarks are always handled by the operator, since it evicts buffered messages as they advance.
+   *
+   * @return null
+   */
+  @Override
+  public WatermarkFunction getWatermarkFn() {
+    return null;
+  }
+
+  @Override
+  public IntervalJoinFunction<K, M, OM, JM> getJoinFn() {
+    return (IntervalJoinFunction<K, M, OM, JM>) super.getJoinFn();
+  }
+
+  public long getWindowMs() {
+    return windowMs;
+  }
+
+  /**
+   * Messages are evicted by watermark in buckets of the join window, so a message is buffered for at most
+   * twice the join window after the watermark passes its event time.
+   *
+   * @return the size of the time buckets in the stores in ms
+   */
+  public long getBucketSizeMs() {
+    return Math.max(windowMs, 1L);
+  }
+}
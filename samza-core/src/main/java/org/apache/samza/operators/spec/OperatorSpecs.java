@@ -20,10 +20,12 @@
 package org.apache.samza.operators.spec;
 
 import org.apache.samza.operators.KV;
+import org.apache.samza.operators.StreamTableJoinOptions;
 import org.apache.samza.operators.functions.AsyncFlatMapFunction;
 import org.apache.samza.operators.functions.FilterFunction;
 import org.apache.samza.operators.functions.FlatMapFunction;
 import org.apache.samza.system.descriptors.InputTransformer;
+import org.apache.samza.operators.functions.IntervalJoinFunction;
 import org.apache.samza.operators.functions.JoinFunction;
 import org.apache.samza.operators.functions.MapFunction;
 import org.apache.samza.operators.functions.SinkFunction;
@@ -192,6 +194,31 @@ public class OperatorSpecs {
         keySerde, messageSerde, otherMessageSerde, ttlMs, opId);
   }
 
+  /**
+   * Creates an {@link IntervalJoinOperatorSpec}.
+   *
+   * @param leftInputOpSpec  the operator spec for the stream on the left side of the join
+   * @param rightInputOpSpec  the operator spec for the stream on the right side of the join
+   * @param joinFn  the user-defined join function to get join keys, event times and results
+   * @param keySerde  the serde for the join key
+   * @param messageSerde  the serde for messages in the stream on the left side of the join
+   * @param otherMessageSerde  the serde for messages in the stream on the right side of the join
+   * @param windowMs  the maximum difference in event time in ms between joined messages
+   * @param opId  the unique ID of the operator
+   * @param <K>  the type of join key
+   * @param <M>  the type of input message
+   * @param <OM>  the type of message in the other stream
+   * @param <JM>  the type of join result
+   * @return  the {@link IntervalJoinOperatorSpec}
+   */
+  public static <K, M, OM, JM> IntervalJoinOperatorSpec<K, M, OM, JM> createIntervalJoinOperatorSpec(
+      OperatorSpec<?, M> leftInputOpSpec, OperatorSpec<?, OM> rightInputOpSpec,
+      IntervalJoinFunction<K, M, OM, JM> joinFn, Serde<K> keySerde, Serde<M> messageSerde,
+      Serde<OM> otherMessageSerde, long windowMs, String opId) {
+    return new IntervalJoinOperatorSpec<>(leftInputOpSpec, rightInputOpSpec, joinFn,
+        keySerde, messageSerde, otherMessageSerde, windowMs, opId);
+  }
+
   /**
    * Creates a {@link StreamOperatorSpec} with a merger function.
    *
@@ -221,6 +248,26 @@ public class OperatorSpecs {
     return new StreamTableJoinOperatorSpec(tableId, joinFn, opId, args);
   }
 
+  /**
+   * Creates a {@link StreamTableJoinOperatorSpec} with a join function and join options.
+   *
+   * @param tableId the table Id for the table on the right side of the join
+   * @param joinFn the user-defined join function to get join keys and results
+   * @param options the options of the join
+   * @param opId the unique ID of the operator
+   * @param <K> the type of join key
+   * @param <M> the type of input messages
+   * @param <R> the type of table record
+   * @param <JM> the type of the join result
+   * @param args additional arguments passed to the table
+   * @return the {@link StreamTableJoinOperatorSpec}
+   */
+  public static <K, M, R, JM> StreamTableJoinOperatorSpec<K, M, R, JM> createStreamTableJoinOperatorSpec(
+      String tableId, StreamTableJoinFunction<K, M, R, JM> joinFn, StreamTableJoinOptions options, String opId,
+      Object ... args) {
+    return new StreamTableJoinOperatorSpec(tableId, joinFn, options, opId, args);
+  }
+
   /**
    * Creates a {@link SendToTableOperatorSpec} with a key extractor and a value extractor function,
    * the type of incoming message is expected to be KV&#60;K, V&#62;.
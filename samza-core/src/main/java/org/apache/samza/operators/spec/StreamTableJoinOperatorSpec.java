@@ -19,6 +19,7 @@
 package org.apache.samza.operators.spec;
 
 import org.apache.samza.annotation.InterfaceStability;
+import org.apache.samza.operators.StreamTableJoinOptions;
 import org.apache.samza.operators.functions.ScheduledFunction;
 import org.apache.samza.operators.functions.StreamTableJoinFunction;
 import org.apache.samza.operators.functions.WatermarkFunction;
@@ -36,10 +37,11 @@ public class StreamTableJoinOperatorSpec<K, M, R, JM> extends OperatorSpec<M, JM
 
   private final String tableId;
   private final StreamTableJoinFunction<K, M, R, JM> joinFn;
+  private final StreamTableJoinOptions options;
   private final Object[] args;
 
   /**
-   * Constructor for {@link StreamTableJoinOperatorSpec}.
+   * Constructor for {@link StreamTableJoinOperatorSpec} that looks up one message at a time.
    *
    * @param tableId  the Id of the table on the right side of the join
    * @param joinFn  the user-defined join function to get join keys and results
@@ -47,9 +49,24 @@ public class StreamTableJoinOperatorSpec<K, M, R, JM> extends OperatorSpec<M, JM
    * @param args additional arguments passed to the table
    */
   StreamTableJoinOperatorSpec(String tableId, StreamTableJoinFunction<K, M, R, JM> joinFn, String opId, Object ... args) {
+    this(tableId, joinFn, (StreamTableJoinOptions) null, opId, args);
+  }
+
+  /**
+   * Constructor for {@link StreamTableJoinOperatorSpec}.
+   *
+   * @param tableId  the Id of the table on the right side of the join
+   * @param joinFn  the user-defined join function to get join keys and results
+   * @param options  the options of the join, or null to look up one message at a time
+   * @param opId  the unique ID for this operator
+   * @param args additional arguments passed to the table
+   */
+  StreamTableJoinOperatorSpec(String tableId, StreamTableJoinFunction<K, M, R, JM> joinFn,
+      StreamTableJoinOptions options, String opId, Object ... args) {
     super(OpCode.JOIN, opId);
     this.tableId = tableId;
     this.joinFn = joinFn;
+    this.options = options;
     this.args = args;
   }
 
@@ -65,6 +82,10 @@ public class StreamTableJoinOperatorSpec<K, M, R, JM> extends OperatorSpec<M, JM
     return args;
   }
 
+  public StreamTableJoinOptions getOptions() {
+    return options;
+  }
+
   @Override
   public WatermarkFunction getWatermarkFn() {
     return joinFn instanceof WatermarkFunction ? (WatermarkFunction) joinFn : null;
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.system;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Shares a {@link SystemConsumer} between the {@link SystemConsumers} of the run loop shards of a container.
+ * <p>
+ * Each shard registers its own {@link SystemStreamPartition}s and starts and stops its consumers independently,
+ * while the underlying consumer must be started once, after all the partitions of the container are registered,
+ * and stopped once. The underlying consumer is started when the last shard starts it, and stopped when the first
+ * shard stops it. Calls to the underlying consumer are serialized, since a {@link SystemConsumer} is not required
+ * to be thread safe.
+ * <p>
+ * The underlying consumer is always polled with a zero timeout, so that a shard waiting for new messages does not
+ * hold up the other shards. If there are no new messages, {@link #poll(Set, long)} waits for the timeout outside the
+ * lock, polling again every millisecond.
+ */
+public class SharedSystemConsumer implements SystemConsumer {
+  private static final Logger LOG = LoggerFactory.getLogger(SharedSystemConsumer.class);
+  private static final long POLL_INTERVAL_MS = 1;
+
+  private final SystemConsumer consumer;
+  private final int numShards;
+  private int startRequests = 0;
+  private boolean started = false;
+  private boolean stopped = false;
+
+  /**
+   * @param consumer the consumer to share
+   * @param numShards the number of shards that start the consumer
+   */
+  public SharedSystemConsumer(SystemConsumer consumer, int numShards) {
+    this.consumer = consumer;
+    this.numShards = numShards;
+  }
+
+  @Override
+  public synchronized void start() {
+    startRequests++;
+    if (startRequests == numShards) {
+      LOG.info("Starting consumer shared by {} run loop shards.", numShards);
+      consumer.start();
+      started = true;
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (started && !stopped) {
+      LOG.info("Stopping consumer shared by {} run loop shards.", numShards);
+      consumer.stop();
+      stopped = true;
+    }
+  }
+
+  @Override
+  public synchronized void register(SystemStreamPartition systemStreamPartition, String offset) {
+    consumer.register(systemStreamPartition, offset);
+  }
+
+  /**
+   * Polls the underlying consumer until it returns messages or the timeout expires. There are no messages while the
+   * underlying consumer is not started yet or already stopped.
+   */
+  @Override
+  public Map<SystemStreamPartition, List<IncomingMessageEnvelope>> poll(
+      Set<SystemStreamPartition> systemStreamPartitions, long timeout) throws InterruptedException {
+    long deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    Map<SystemStreamPartition, List<IncomingMessageEnvelope>> envelopes = pollNow(systemStreamPartitions);
+    while (envelopes.isEmpty() && deadlineNs - System.nanoTime() > 0) {
+      Thread.sleep(POLL_INTERVAL_MS);
+      envelopes = pollNow(systemStreamPartitions);
+    }
+    return envelopes;
+  }
+
+  private synchronized Map<SystemStreamPartition, List<IncomingMessageEnvelope>> pollNow(
+      Set<SystemStreamPartition> systemStreamPartitions) throws InterruptedException {
+    if (!started || stopped) {
+      return Collections.emptyMap();
+    }
+    return consumer.poll(systemStreamPartitions, 0);
+  }
+}
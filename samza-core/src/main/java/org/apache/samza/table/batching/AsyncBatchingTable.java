@@ -47,6 +47,11 @@ import org.apache.samza.util.HighResolutionClock;
  * If the table is used by a single thread, there will be at most one operation in the batch, and the
  * batch will be performed when the TTL of the batch window expires. Batching does not make sense in this scenario.
  *
+ * With read batching enabled (see {@link BatchProvider#withReadBatching}), gets and the keys of
+ * getAll operations are batched separately from updates, in read-only batches with their own size
+ * and delay. Each read batch issues a single getAll for its distinct keys, and hands the results back
+ * to the individual operations. Reads with extra arguments are batched with the updates instead.
+ *
  * The Batch implementation class can throw {@link BatchingNotSupportedException} if it thinks the operation is
  * not batch-able. When receiving this exception, {@link AsyncBatchingTable} will send the operation to the
  * {@link AsyncReadWriteTable}.
@@ -60,6 +65,8 @@ public class AsyncBatchingTable<K, V> implements AsyncReadWriteTable<K, V> {
   private final BatchProvider<K, V> batchProvider;
   private final ScheduledExecutorService batchTimerExecutorService;
   private BatchProcessor<K, V> batchProcessor;
+  // null unless read batching is enabled
+  private BatchProcessor<K, V> readBatchProcessor;
 
   /**
    * @param tableId The id of the table.
@@ -82,8 +89,10 @@ public class AsyncBatchingTable<K, V> implements AsyncReadWriteTable<K, V> {
 
   @Override
   public CompletableFuture<V> getAsync(K key, Object... args) {
+    final BatchProcessor<K, V> processor = readBatchProcessor != null && args.length == 0
+        ? readBatchProcessor : batchProcessor;
     try {
-      return batchProcessor.processQueryOperation(new GetOperation<>(key, args));
+      return processor.processQueryOperation(new GetOperation<>(key, args));
     } catch (BatchingNotSupportedException e) {
       return table.getAsync(key, args);
     } catch (Exception e) {
@@ -93,6 +102,13 @@ public class AsyncBatchingTable<K, V> implements AsyncReadWriteTable<K, V> {
 
   @Override
   public CompletableFuture<Map<K, V>> getAllAsync(List<K> keys, Object... args) {
+    if (readBatchProcessor != null && args.length == 0) {
+      try {
+        return readBatchProcessor.processQueryOperations(keys);
+      } catch (Exception e) {
+        throw new SamzaException(e);
+      }
+    }
     return table.getAllAsync(keys);
   }
 
@@ -139,7 +155,8 @@ public class AsyncBatchingTable<K, V> implements AsyncReadWriteTable<K, V> {
     final TableMetricsUtil metricsUtil = new TableMetricsUtil(context, this, tableId);
 
     createBatchProcessor(TableMetricsUtil.mayCreateHighResolutionClock(context.getJobContext().getConfig()),
-        new BatchMetrics(metricsUtil));
+        new BatchMetrics(metricsUtil),
+        batchProvider.isReadBatchingEnabled() ? new BatchMetrics(metricsUtil, "read-") : null);
   }
 
   @Override
@@ -155,17 +172,37 @@ public class AsyncBatchingTable<K, V> implements AsyncReadWriteTable<K, V> {
   @Override
   public void close() {
     batchProcessor.stop();
+    if (readBatchProcessor != null) {
+      readBatchProcessor.stop();
+    }
     table.close();
   }
 
   @VisibleForTesting
   void createBatchProcessor(HighResolutionClock clock, BatchMetrics batchMetrics) {
+    createBatchProcessor(clock, batchMetrics, batchMetrics);
+  }
+
+  private void createBatchProcessor(HighResolutionClock clock, BatchMetrics batchMetrics,
+      BatchMetrics readBatchMetrics) {
     batchProcessor = new BatchProcessor<>(batchMetrics, new TableBatchHandler<>(table),
         batchProvider, clock, batchTimerExecutorService);
+    if (batchProvider.isReadBatchingEnabled()) {
+      final BatchProvider<K, V> readBatchProvider = new CompactBatchProvider<K, V>()
+          .withMaxBatchSize(batchProvider.getMaxReadBatchSize())
+          .withMaxBatchDelay(batchProvider.getMaxReadBatchDelay());
+      readBatchProcessor = new BatchProcessor<>(readBatchMetrics, new TableBatchHandler<>(table),
+          readBatchProvider, clock, batchTimerExecutorService);
+    }
   }
 
   @VisibleForTesting
   BatchProcessor<K, V> getBatchProcessor() {
     return batchProcessor;
   }
+
+  @VisibleForTesting
+  BatchProcessor<K, V> getReadBatchProcessor() {
+    return readBatchProcessor;
+  }
 }
@@ -39,8 +39,16 @@ class BatchMetrics {
   final Timer batchDuration;
 
   public BatchMetrics(TableMetricsUtil metricsUtil) {
-    batchCount = metricsUtil.newCounter("num-batches");
-    batchDuration = metricsUtil.newTimer("batch-ns");
+    this(metricsUtil, "");
+  }
+
+  /**
+   * @param metricsUtil The metrics util of the table.
+   * @param prefix Prefix of the batch metric names, to tell apart the batch processors of a table.
+   */
+  public BatchMetrics(TableMetricsUtil metricsUtil, String prefix) {
+    batchCount = metricsUtil.newCounter("num-" + prefix + "batches");
+    batchDuration = metricsUtil.newTimer(prefix + "batch-ns");
   }
 
   public void incBatchCount() {
@@ -21,8 +21,12 @@ package org.apache.samza.table.batching;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -100,6 +104,42 @@ public class BatchProcessor<K, V> {
     }
   }
 
+  /**
+   * Add a query operation to the batch for each key.
+   *
+   * @param keys The keys to be queried.
+   * @return A {@link CompletableFuture} of the records found for the keys.
+   */
+  CompletableFuture<Map<K, V>> processQueryOperations(List<K> keys) {
+    Preconditions.checkNotNull(keys);
+
+    final List<GetOperation<K, V>> getOperations = new ArrayList<>(keys.size());
+    lock.lock();
+    try {
+      for (K key : keys) {
+        final GetOperation<K, V> getOperation = new GetOperation<>(key);
+        addOperation(getOperation);
+        getOperations.add(getOperation);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    return CompletableFuture.allOf(getOperations.stream()
+        .map(GetOperation::getCompletableFuture)
+        .toArray(CompletableFuture[]::new))
+        .thenApply(ignored -> {
+          final Map<K, V> records = new HashMap<>();
+          getOperations.forEach(getOperation -> {
+            final V value = getOperation.getCompletableFuture().join();
+            if (value != null) {
+              records.put(getOperation.getKey(), value);
+            }
+          });
+          return records;
+        });
+  }
+
   /**
    * @param operation The update operation to be added to the batch.
    * @return A {@link CompletableFuture} to indicate whether the operation is finished.
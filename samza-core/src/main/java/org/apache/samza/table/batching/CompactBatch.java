@@ -21,8 +21,10 @@ package org.apache.samza.table.batching;
 
 import com.google.common.base.Preconditions;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -38,7 +40,7 @@ import java.util.stream.Stream;
  */
 class CompactBatch<K, V> extends AbstractBatch<K, V> {
   private final Map<K, Operation<K, V>> updates = new LinkedHashMap<>();
-  private final Map<K, Operation<K, V>> queries = new LinkedHashMap<>();
+  private final Map<K, List<Operation<K, V>>> queries = new LinkedHashMap<>();
 
   public CompactBatch(int maxBatchSize, Duration maxBatchDelay) {
     super(maxBatchSize, maxBatchDelay);
@@ -67,7 +69,7 @@ class CompactBatch<K, V> extends AbstractBatch<K, V> {
     }
 
     if (operation instanceof GetOperation) {
-      queries.putIfAbsent(operation.getKey(), operation);
+      queries.computeIfAbsent(operation.getKey(), k -> new ArrayList<>()).add(operation);
     } else {
       updates.put(operation.getKey(), operation);
     }
@@ -79,6 +81,7 @@ class CompactBatch<K, V> extends AbstractBatch<K, V> {
 
   @Override
   public Collection<Operation<K, V>> getOperations() {
-    return Stream.of(queries.values(), updates.values()).flatMap(Collection::stream).collect(Collectors.toList());
+    return Stream.concat(queries.values().stream().flatMap(Collection::stream), updates.values().stream())
+        .collect(Collectors.toList());
   }
 }
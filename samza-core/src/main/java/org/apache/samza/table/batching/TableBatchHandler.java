@@ -54,12 +54,16 @@ public class TableBatchHandler<K, V> implements BatchHandler<K, V> {
    */
   private CompletableFuture<?> handleBatchGet(Collection<Operation<K, V>> operations) {
     Preconditions.checkNotNull(operations);
-    final List<K> gets = getOperationKeys(operations);
-    if (gets.isEmpty()) {
+    if (operations.isEmpty()) {
       return CompletableFuture.completedFuture(Collections.EMPTY_MAP);
     }
 
     final Object[] args = getOperationArgs(operations);
+    // Several operations may query the same key. Unless the operations have arguments,
+    // each key is only read once and its value is handed to all of them.
+    final List<K> gets = args == null
+        ? getOperationKeys(operations).stream().distinct().collect(Collectors.toList())
+        : getOperationKeys(operations);
     final CompletableFuture<Map<K, V>> getsFuture = args == null ?
         table.getAllAsync(gets) : table.getAllAsync(gets, args);
 
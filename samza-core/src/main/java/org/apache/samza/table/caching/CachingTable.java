@@ -20,6 +20,8 @@
 package org.apache.samza.table.caching;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.samza.SamzaException;
 import org.apache.samza.context.Context;
 import org.apache.samza.storage.kv.Entry;
@@ -32,6 +34,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -59,6 +63,17 @@ import static org.apache.samza.table.utils.TableMetricsUtil.updateTimer;
  * for the data in table and cache to be temporarily out-of-sync. Moreover, unsynchronized
  * operations in {@link CachingTable} also deliver higher performance when there is contention.
  *
+ * Concurrent cache misses for the same key share a single read from the table, both for
+ * {@link #getAsync} and for the missing keys of {@link #getAllAsync}. Reads with additional
+ * arguments are not shared, since the arguments may change the result. A write of a key
+ * invalidates its read in flight, whose value is then returned to its readers but not cached,
+ * so that a read that started before the write does not overwrite the written value in the cache.
+ *
+ * With refresh-ahead enabled, a cache hit for a key that was loaded more than refreshAfterWrite
+ * ago returns the cached value and asynchronously reloads the key from the table, so hot keys
+ * are reloaded before they expire instead of missing the cache. The refresh interval should be
+ * shorter than the TTL of the cache.
+ *
  * @param <K> type of the table key
  * @param <V> type of the table value
  */
@@ -69,15 +84,41 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
   private final ReadWriteTable<K, V> cache;
   private final boolean isWriteAround;
 
+  // Reads from the table in flight for keys that missed the cache or are refreshed, shared by all readers of the key.
+  // A read is only cached if it is still the pending read of its key when it completes, i.e. if it was not
+  // invalidated by a write of the key in the meantime.
+  private final ConcurrentHashMap<K, CompletableFuture<V>> pendingReads = new ConcurrentHashMap<>();
+
+  // Keys loaded within the last refreshAfterWrite, null if refresh-ahead is disabled
+  private final Cache<K, Boolean> freshKeys;
+
   // Common caching stats
   private AtomicLong hitCount = new AtomicLong();
   private AtomicLong missCount = new AtomicLong();
+  private AtomicLong coalescedCount = new AtomicLong();
+  private AtomicLong refreshCount = new AtomicLong();
 
   public CachingTable(String tableId, ReadWriteTable<K, V> table, ReadWriteTable<K, V> cache, boolean isWriteAround) {
+    this(tableId, table, cache, isWriteAround, -1);
+  }
+
+  /**
+   * @param tableId Id of the table
+   * @param table the actual table
+   * @param cache the cache
+   * @param isWriteAround whether writes bypass the cache
+   * @param refreshAfterWriteMs how long after a key is loaded a cache hit reloads it asynchronously,
+   *                            refresh-ahead is disabled if it is not positive
+   */
+  public CachingTable(String tableId, ReadWriteTable<K, V> table, ReadWriteTable<K, V> cache, boolean isWriteAround,
+      long refreshAfterWriteMs) {
     super(tableId);
     this.table = table;
     this.cache = cache;
     this.isWriteAround = isWriteAround;
+    this.freshKeys = refreshAfterWriteMs > 0
+        ? CacheBuilder.newBuilder().expireAfterWrite(refreshAfterWriteMs, TimeUnit.MILLISECONDS).build()
+        : null;
   }
 
   @Override
@@ -87,6 +128,8 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
     tableMetricsUtil.newGauge("hit-rate", () -> hitRate());
     tableMetricsUtil.newGauge("miss-rate", () -> missRate());
     tableMetricsUtil.newGauge("req-count", () -> requestCount());
+    tableMetricsUtil.newGauge("coalesced-count", () -> coalescedCount.get());
+    tableMetricsUtil.newGauge("refresh-count", () -> refreshCount.get());
   }
 
   /**
@@ -121,25 +164,129 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
     V value = cache.get(key, args);
     if (value != null) {
       hitCount.incrementAndGet();
+      if (args.length == 0) {
+        maybeRefresh(key);
+      }
       return CompletableFuture.completedFuture(value);
     }
 
     long startNs = clock.nanoTime();
     missCount.incrementAndGet();
 
-    return table.getAsync(key, args).handle((result, e) -> {
-      if (e != null) {
-        throw new SamzaException("Failed to get the record for " + key, e);
-      } else {
-        if (result != null) {
-          cache.put(key, result, args);
+    if (args.length > 0) {
+      return table.getAsync(key, args).handle((result, e) -> {
+        if (e != null) {
+          throw new SamzaException("Failed to get the record for " + key, e);
+        } else {
+          if (result != null) {
+            cache.put(key, result, args);
+          }
+          updateTimer(metrics.getNs, clock.nanoTime() - startNs);
+          return result;
+        }
+      });
+    }
+
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> pending = pendingReads.putIfAbsent(key, future);
+    if (pending != null) {
+      coalescedCount.incrementAndGet();
+      future = pending;
+    } else {
+      readIntoCache(key, future, false);
+    }
+    return future.thenApply(result -> {
+      updateTimer(metrics.getNs, clock.nanoTime() - startNs);
+      return result;
+    });
+  }
+
+  /**
+   * Reloads a key that hit the cache if it was not loaded within the last refreshAfterWrite,
+   * unless a read of the key is already in flight.
+   * @param key the key that hit the cache
+   */
+  private void maybeRefresh(K key) {
+    if (freshKeys == null || freshKeys.getIfPresent(key) != null) {
+      return;
+    }
+    CompletableFuture<V> future = new CompletableFuture<>();
+    if (pendingReads.putIfAbsent(key, future) == null) {
+      refreshCount.incrementAndGet();
+      readIntoCache(key, future, true);
+      future.exceptionally(e -> {
+        logger.warn("Failed to refresh the record for " + key + ", keeping the cached value.", e);
+        return null;
+      });
+    }
+  }
+
+  /**
+   * Reads a key from the table into the cache and completes the pending read of the key.
+   * @param key the key to read
+   * @param future the pending read of the key, it is removed from the pending reads before it completes
+   * @param isRefresh whether the key is being refreshed, in which case it is removed from the cache
+   *                  if it no longer exists in the table
+   */
+  private void readIntoCache(K key, CompletableFuture<V> future, boolean isRefresh) {
+    table.getAsync(key).whenComplete((result, e) -> {
+      Throwable error = e;
+      if (error == null) {
+        try {
+          cacheIfNotInvalidated(key, future, result, isRefresh);
+        } catch (Exception ex) {
+          error = ex;
         }
-        updateTimer(metrics.getNs, clock.nanoTime() - startNs);
-        return result;
+      }
+      pendingReads.remove(key, future);
+      if (error != null) {
+        future.completeExceptionally(new SamzaException("Failed to get the record for " + key, error));
+      } else {
+        future.complete(result);
       }
     });
   }
 
+  /**
+   * Caches the result of a pending read and removes it from the pending reads, unless the key was written since
+   * the read started, in which case the write removed the read from the pending reads and the result may be older
+   * than the value written. The check and the cache update are atomic with respect to {@link #invalidatePendingRead}.
+   * @param key the key that was read
+   * @param read the pending read of the key
+   * @param result the value read from the table
+   * @param isRefresh whether the key is being refreshed, in which case it is removed from the cache
+   *                  if it no longer exists in the table
+   */
+  private void cacheIfNotInvalidated(K key, CompletableFuture<V> read, V result, boolean isRefresh) {
+    pendingReads.computeIfPresent(key, (k, pending) -> {
+      if (pending != read) {
+        return pending;
+      }
+      if (result != null) {
+        cache.put(key, result);
+      } else if (isRefresh) {
+        cache.delete(key);
+      }
+      markFresh(key);
+      return null;
+    });
+  }
+
+  /**
+   * Invalidates the read of a key in flight, if any, before a write of the key updates the cache, so that the
+   * value read is not cached after the value written.
+   * @param key the key that is written
+   */
+  private void invalidatePendingRead(K key) {
+    pendingReads.remove(key);
+  }
+
+  private void markFresh(K key) {
+    if (freshKeys != null) {
+      freshKeys.put(key, Boolean.TRUE);
+    }
+  }
+
   @Override
   public Map<K, V> getAll(List<K> keys, Object ... args) {
     try {
@@ -155,25 +302,84 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
     // Make a copy of entries which might be immutable
     Map<K, V> getAllResult = new HashMap<>();
     List<K> missingKeys = lookupCache(keys, getAllResult);
+    if (args.length == 0) {
+      getAllResult.keySet().forEach(this::maybeRefresh);
+    }
 
     if (missingKeys.isEmpty()) {
       return CompletableFuture.completedFuture(getAllResult);
     }
 
     long startNs = clock.nanoTime();
-    return table.getAllAsync(missingKeys, args).handle((records, e) -> {
-      if (e != null) {
-        throw new SamzaException("Failed to get records for " + keys, e);
+    if (args.length > 0) {
+      return table.getAllAsync(missingKeys, args).handle((records, e) -> {
+        if (e != null) {
+          throw new SamzaException("Failed to get records for " + keys, e);
+        } else {
+          if (records != null) {
+            cache.putAll(records.entrySet().stream()
+                .map(r -> new Entry<>(r.getKey(), r.getValue()))
+                .collect(Collectors.toList()), args);
+            getAllResult.putAll(records);
+          }
+          updateTimer(metrics.getAllNs, clock.nanoTime() - startNs);
+          return getAllResult;
+        }
+      });
+    }
+
+    // Share the reads in flight for some of the missing keys, and read the rest in one batch
+    Map<K, CompletableFuture<V>> readsByKey = new HashMap<>();
+    Map<K, CompletableFuture<V>> newReads = new HashMap<>();
+    for (K key : missingKeys) {
+      CompletableFuture<V> future = new CompletableFuture<>();
+      CompletableFuture<V> pending = pendingReads.putIfAbsent(key, future);
+      if (pending != null) {
+        if (!readsByKey.containsKey(key)) {
+          coalescedCount.incrementAndGet();
+          readsByKey.put(key, pending);
+        }
       } else {
-        if (records != null) {
-          cache.putAll(records.entrySet().stream()
-              .map(r -> new Entry<>(r.getKey(), r.getValue()))
-              .collect(Collectors.toList()), args);
-          getAllResult.putAll(records);
+        readsByKey.put(key, future);
+        newReads.put(key, future);
+      }
+    }
+
+    if (!newReads.isEmpty()) {
+      List<K> keysToRead = new ArrayList<>(newReads.keySet());
+      table.getAllAsync(keysToRead).whenComplete((records, e) -> {
+        for (Map.Entry<K, CompletableFuture<V>> read : newReads.entrySet()) {
+          Throwable error = e;
+          V value = error == null && records != null ? records.get(read.getKey()) : null;
+          if (value != null) {
+            try {
+              cacheIfNotInvalidated(read.getKey(), read.getValue(), value, false);
+            } catch (Exception ex) {
+              error = ex;
+            }
+          }
+          pendingReads.remove(read.getKey(), read.getValue());
+          if (error != null) {
+            read.getValue().completeExceptionally(new SamzaException("Failed to get records for " + keysToRead, error));
+          } else {
+            read.getValue().complete(value);
+          }
         }
-        updateTimer(metrics.getAllNs, clock.nanoTime() - startNs);
-        return getAllResult;
+      });
+    }
+
+    return CompletableFuture.allOf(readsByKey.values().toArray(new CompletableFuture[0])).handle((v, e) -> {
+      if (e != null) {
+        throw new SamzaException("Failed to get records for " + keys, e);
       }
+      readsByKey.forEach((key, read) -> {
+        V value = read.join();
+        if (value != null) {
+          getAllResult.put(key, value);
+        }
+      });
+      updateTimer(metrics.getAllNs, clock.nanoTime() - startNs);
+      return getAllResult;
     });
   }
 
@@ -193,6 +399,7 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
 
     long startNs = clock.nanoTime();
     return table.putAsync(key, value, args).handle((result, e) -> {
+      invalidatePendingRead(key);
       if (e != null) {
         throw new SamzaException("Failed to put a record, key=" + key + ", value=" + value, e);
       } else if (!isWriteAround) {
@@ -200,6 +407,7 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
           cache.delete(key, args);
         } else {
           cache.put(key, value, args);
+          markFresh(key);
         }
       }
       updateTimer(metrics.putNs, clock.nanoTime() - startNs);
@@ -222,6 +430,7 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
     long startNs = clock.nanoTime();
     Preconditions.checkNotNull(table, "Cannot write to a read-only table: " + table);
     return table.putAllAsync(records, args).handle((result, e) -> {
+      records.forEach(record -> invalidatePendingRead(record.getKey()));
       if (e != null) {
         throw new SamzaException("Failed to put records " + records, e);
       } else if (!isWriteAround) {
@@ -248,6 +457,7 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
     long startNs = clock.nanoTime();
     Preconditions.checkNotNull(table, "Cannot delete from a read-only table: " + table);
     return table.deleteAsync(key, args).handle((result, e) -> {
+      invalidatePendingRead(key);
       if (e != null) {
         throw new SamzaException("Failed to delete the record for " + key, e);
       } else if (!isWriteAround) {
@@ -273,6 +483,7 @@ public class CachingTable<K, V> extends BaseReadWriteTable<K, V>
     long startNs = clock.nanoTime();
     Preconditions.checkNotNull(table, "Cannot delete from a read-only table: " + table);
     return table.deleteAllAsync(keys, args).handle((result, e) -> {
+      keys.forEach(this::invalidatePendingRead);
       if (e != null) {
         throw new SamzaException("Failed to delete the record for " + keys, e);
       } else if (!isWriteAround) {
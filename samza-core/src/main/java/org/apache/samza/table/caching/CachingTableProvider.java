@@ -63,7 +63,9 @@ public class CachingTableProvider extends BaseTableProvider {
     }
 
     boolean isWriteAround = Boolean.parseBoolean(tableConfig.getForTable(tableId, CachingTableDescriptor.WRITE_AROUND));
-    CachingTable cachingTable = new CachingTable(tableId, table, cache, isWriteAround);
+    long refreshAfterWriteMs = Long.parseLong(
+        tableConfig.getForTable(tableId, CachingTableDescriptor.REFRESH_AFTER_WRITE_MS, "-1"));
+    CachingTable cachingTable = new CachingTable(tableId, table, cache, isWriteAround, refreshAfterWriteMs);
     cachingTable.init(this.context);
     return cachingTable;
   }
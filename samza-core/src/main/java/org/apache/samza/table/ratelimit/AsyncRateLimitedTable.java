@@ -122,9 +122,15 @@ public class AsyncRateLimitedTable<K, V> implements AsyncReadWriteTable<K, V> {
   @Override
   public void init(Context context) {
     table.init(context);
+    TableMetricsUtil tableMetricsUtil = new TableMetricsUtil(context, this, tableId);
+    if (isReadRateLimited() && readRateLimiter.isAdaptive()) {
+      tableMetricsUtil.newGauge("get-rate-limit", () -> readRateLimiter.getRate());
+    }
+    if (isWriteRateLimited() && writeRateLimiter.isAdaptive()) {
+      tableMetricsUtil.newGauge("put-rate-limit", () -> writeRateLimiter.getRate());
+    }
     MetricsConfig metricsConfig = new MetricsConfig(context.getJobContext().getConfig());
     if (metricsConfig.getMetricsTimerEnabled()) {
-      TableMetricsUtil tableMetricsUtil = new TableMetricsUtil(context, this, tableId);
       if (isReadRateLimited()) {
         readRateLimiter.setTimerMetric(tableMetricsUtil.newTimer("get-throttle-ns"));
       }
@@ -156,7 +162,7 @@ public class AsyncRateLimitedTable<K, V> implements AsyncReadWriteTable<K, V> {
     return isReadRateLimited()
         ? CompletableFuture
             .runAsync(() -> throttleFunc.apply(), rateLimitingExecutor)
-            .thenCompose((r) -> func.apply())
+            .thenCompose((r) -> apply(readRateLimiter, func))
         : func.apply();
   }
 
@@ -164,8 +170,20 @@ public class AsyncRateLimitedTable<K, V> implements AsyncReadWriteTable<K, V> {
     return isWriteRateLimited()
         ? CompletableFuture
             .runAsync(() -> throttleFunc.apply(), rateLimitingExecutor)
-            .thenCompose((r) -> func.apply())
+            .thenCompose((r) -> apply(writeRateLimiter, func))
         : func.apply();
   }
 
+  /**
+   * Apply a throttled function, and report its outcome to the rate limiter if it adapts to it. Retries
+   * of {@link org.apache.samza.table.retry.AsyncRetriableTable} are throttled and reported individually.
+   */
+  private <T> CompletableFuture<T> apply(TableRateLimiter<K, V> rateLimiter, Func1<T> func) {
+    if (!rateLimiter.isAdaptive()) {
+      return func.apply();
+    }
+    long startNs = System.nanoTime();
+    return func.apply().whenComplete((result, e) -> rateLimiter.onRequestComplete(System.nanoTime() - startNs, e));
+  }
+
 }
@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.context.Context;
+import org.apache.samza.context.TaskContextImpl;
+import org.apache.samza.job.model.JobModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+
+/**
+ * An embedded rate limiter that adapts the rate of each tag with additive increase and multiplicative
+ * decrease (AIMD), based on the outcome of the requests reported with {@link #onRequestComplete}.
+ * <p>
+ * Outcomes are aggregated over an adjustment interval. At the end of an interval the rate of a tag is
+ * multiplied by the decrease factor if any request failed, or if more than 1% of the requests were slower
+ * than the latency threshold, i.e. the p99 latency exceeded it. Otherwise, the rate is raised by the
+ * additive increase if the rate limiter was binding during the interval, i.e. an acquire had to wait or
+ * was denied, and is left unchanged if it was not, so that the rate does not grow beyond what is used.
+ * Rates stay within the configured minimum and maximum.
+ * <p>
+ * Like {@link EmbeddedTaggedRateLimiter}, all rates are specified for the whole job and are divided
+ * evenly among all task instances.
+ */
+public class AimdRateLimiter implements AdaptiveRateLimiter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AimdRateLimiter.class);
+  private static final String DEFAULT_TAG = "default-tag";
+  private static final Map<String, Integer> DEFAULT_TAG_MAP = Collections.singletonMap(DEFAULT_TAG, 0);
+  private static final double SLOW_REQUEST_RATIO = 0.01;
+
+  private final Map<String, Integer> tagToInitialRateMap;
+  private int minCreditsPerSecond = 1;
+  private int maxCreditsPerSecond = Integer.MAX_VALUE;
+  private int additiveIncrease = 10;
+  private double multiplicativeDecrease = 0.5;
+  private long latencyThresholdNs = -1;
+  private long adjustmentIntervalNs = TimeUnit.SECONDS.toNanos(1);
+
+  private transient HighResolutionClock clock;
+  private transient Map<String, TagState> tagToStateMap;
+  private transient boolean initialized;
+
+  public AimdRateLimiter(int creditsPerSecond) {
+    this(Collections.singletonMap(DEFAULT_TAG, creditsPerSecond));
+  }
+
+  public AimdRateLimiter(Map<String, Integer> tagToInitialCreditsPerSecondMap) {
+    Preconditions.checkArgument(tagToInitialCreditsPerSecondMap.size() > 0, "Map of tags can't be empty");
+    tagToInitialCreditsPerSecondMap.values().forEach(c ->
+        Preconditions.checkArgument(c > 0, "Credits must be positive"));
+    this.tagToInitialRateMap = new HashMap<>(tagToInitialCreditsPerSecondMap);
+  }
+
+  /**
+   * Set the lowest rate a tag can be decreased to.
+   * @param creditsPerSecond minimum rate for the job, default is 1
+   * @return this rate limiter
+   */
+  public AimdRateLimiter withMinRate(int creditsPerSecond) {
+    Preconditions.checkArgument(creditsPerSecond > 0, "Minimum rate must be positive");
+    this.minCreditsPerSecond = creditsPerSecond;
+    return this;
+  }
+
+  /**
+   * Set the highest rate a tag can be increased to.
+   * @param creditsPerSecond maximum rate for the job, unbounded by default
+   * @return this rate limiter
+   */
+  public AimdRateLimiter withMaxRate(int creditsPerSecond) {
+    Preconditions.checkArgument(creditsPerSecond > 0, "Maximum rate must be positive");
+    this.maxCreditsPerSecond = creditsPerSecond;
+    return this;
+  }
+
+  /**
+   * Set the amount a rate is raised by after a healthy adjustment interval in which it was binding.
+   * @param creditsPerSecond increase of the rate for the job, default is 10
+   * @return this rate limiter
+   */
+  public AimdRateLimiter withAdditiveIncrease(int creditsPerSecond) {
+    Preconditions.checkArgument(creditsPerSecond > 0, "Additive increase must be positive");
+    this.additiveIncrease = creditsPerSecond;
+    return this;
+  }
+
+  /**
+   * Set the factor a rate is multiplied by after an unhealthy adjustment interval.
+   * @param factor decrease factor between 0 and 1 (exclusive), default is 0.5
+   * @return this rate limiter
+   */
+  public AimdRateLimiter withMultiplicativeDecrease(double factor) {
+    Preconditions.checkArgument(factor > 0 && factor < 1, "Multiplicative decrease must be between 0 and 1");
+    this.multiplicativeDecrease = factor;
+    return this;
+  }
+
+  /**
+   * Set the p99 latency above which an adjustment interval is considered unhealthy. By default,
+   * only failed requests decrease the rate.
+   * @param threshold latency threshold
+   * @return this rate limiter
+   */
+  public AimdRateLimiter withLatencyThreshold(Duration threshold) {
+    Preconditions.checkArgument(threshold.toNanos() > 0, "Latency threshold must be positive");
+    this.latencyThresholdNs = threshold.toNanos();
+    return this;
+  }
+
+  /**
+   * Set the interval over which request outcomes are aggregated before a rate is adjusted.
+   * @param interval adjustment interval, default is 1 second
+   * @return this rate limiter
+   */
+  public AimdRateLimiter withAdjustmentInterval(Duration interval) {
+    Preconditions.checkArgument(interval.toNanos() > 0, "Adjustment interval must be positive");
+    this.adjustmentIntervalNs = interval.toNanos();
+    return this;
+  }
+
+  @Override
+  public void acquire(Map<String, Integer> tagToCreditsMap) {
+    ensureTagsAreValid(tagToCreditsMap);
+    tagToCreditsMap.forEach((tag, numberOfCredits) -> tagToStateMap.get(tag).acquire(numberOfCredits));
+  }
+
+  @Override
+  public Map<String, Integer> acquire(Map<String, Integer> tagToCreditsMap, long timeout, TimeUnit unit) {
+    ensureTagsAreValid(tagToCreditsMap);
+
+    long deadlineNs = System.nanoTime() + NANOSECONDS.convert(timeout, unit);
+    Map<String, Integer> tagToAvailableCreditsMap = new HashMap<>();
+    tagToCreditsMap.forEach((tag, requiredCredits) -> {
+      long remainingTimeoutNs = Math.max(0L, deadlineNs - System.nanoTime());
+      boolean acquired = tagToStateMap.get(tag).tryAcquire(requiredCredits, remainingTimeoutNs);
+      tagToAvailableCreditsMap.put(tag, acquired ? requiredCredits : 0);
+    });
+    return tagToAvailableCreditsMap;
+  }
+
+  @Override
+  public Set<String> getSupportedTags() {
+    return Collections.unmodifiableSet(tagToInitialRateMap.keySet());
+  }
+
+  @Override
+  public void acquire(int numberOfCredits) {
+    ensureTagsAreValid(DEFAULT_TAG_MAP);
+    tagToStateMap.get(DEFAULT_TAG).acquire(numberOfCredits);
+  }
+
+  @Override
+  public int acquire(int numberOfCredit, long timeout, TimeUnit unit) {
+    ensureTagsAreValid(DEFAULT_TAG_MAP);
+    return tagToStateMap.get(DEFAULT_TAG).tryAcquire(numberOfCredit, NANOSECONDS.convert(timeout, unit))
+        ? numberOfCredit
+        : 0;
+  }
+
+  @Override
+  public void onRequestComplete(String tag, long latencyNs, boolean failed) {
+    ensureTagsAreValid(Collections.singletonMap(tag, 0));
+    tagToStateMap.get(tag).record(latencyNs, failed, clock.nanoTime());
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The rate returned is the one of the current task instance.
+   */
+  @Override
+  public double getRate(String tag) {
+    ensureTagsAreValid(Collections.singletonMap(tag, 0));
+    return tagToStateMap.get(tag).rateLimiter.getRate();
+  }
+
+  @Override
+  public void init(Context context) {
+    Preconditions.checkState(minCreditsPerSecond <= maxCreditsPerSecond,
+        "Minimum rate must not be greater than the maximum rate");
+    if (clock == null) {
+      clock = System::nanoTime;
+    }
+    JobModel jobModel = ((TaskContextImpl) context.getTaskContext()).getJobModel();
+    int numTasks = jobModel.getContainers().values().stream()
+        .mapToInt(cm -> cm.getTasks().size())
+        .sum();
+    TaskName taskName = context.getTaskContext().getTaskModel().getTaskName();
+    Map<String, TagState> tagToState = new HashMap<>();
+    tagToInitialRateMap.forEach((tag, initialRate) -> {
+      double effectiveRate = clamp((double) initialRate, minCreditsPerSecond, maxCreditsPerSecond) / numTasks;
+      LOGGER.info(String.format("Initial effective rate limit for task %s and tag %s is %f", taskName, tag,
+          effectiveRate));
+      tagToState.put(tag, new TagState(tag, effectiveRate, (double) minCreditsPerSecond / numTasks,
+          (double) maxCreditsPerSecond / numTasks, (double) additiveIncrease / numTasks, clock.nanoTime()));
+    });
+    this.tagToStateMap = Collections.unmodifiableMap(tagToState);
+    initialized = true;
+  }
+
+  @VisibleForTesting
+  void setClock(HighResolutionClock clock) {
+    this.clock = clock;
+  }
+
+  private void ensureInitialized() {
+    Preconditions.checkState(initialized, "Not initialized");
+  }
+
+  private void ensureTagsAreValid(Map<String, ?> tagMap) {
+    ensureInitialized();
+    tagMap.keySet().forEach(tag ->
+        Preconditions.checkArgument(tagToStateMap.containsKey(tag), "Invalid tag: " + tag));
+  }
+
+  private static double clamp(double rate, double min, double max) {
+    return Math.max(min, Math.min(max, rate));
+  }
+
+  /**
+   * Rate limiter and request outcomes of the current adjustment interval of a tag.
+   */
+  private class TagState {
+    private final String tag;
+    private final com.google.common.util.concurrent.RateLimiter rateLimiter;
+    private final double minRate;
+    private final double maxRate;
+    private final double increase;
+    private long intervalStartNs;
+    private long numRequests;
+    private long numFailures;
+    private long numSlowRequests;
+    // true once an acquire had to wait or was denied during the current interval
+    private volatile boolean binding;
+
+    TagState(String tag, double rate, double minRate, double maxRate, double increase, long nowNs) {
+      this.tag = tag;
+      this.rateLimiter = com.google.common.util.concurrent.RateLimiter.create(rate);
+      this.minRate = minRate;
+      this.maxRate = maxRate;
+      this.increase = increase;
+      this.intervalStartNs = nowNs;
+    }
+
+    void acquire(int credits) {
+      if (rateLimiter.acquire(credits) > 0) {
+        binding = true;
+      }
+    }
+
+    boolean tryAcquire(int credits, long timeoutNs) {
+      if (rateLimiter.tryAcquire(credits)) {
+        return true;
+      }
+      binding = true;
+      return timeoutNs > 0 && rateLimiter.tryAcquire(credits, timeoutNs, NANOSECONDS);
+    }
+
+    synchronized void record(long latencyNs, boolean failed, long nowNs) {
+      numRequests++;
+      if (failed) {
+        numFailures++;
+      } else if (latencyThresholdNs > 0 && latencyNs > latencyThresholdNs) {
+        numSlowRequests++;
+      }
+      if (nowNs - intervalStartNs >= adjustmentIntervalNs) {
+        adjust();
+        intervalStartNs = nowNs;
+        numRequests = 0;
+        numFailures = 0;
+        numSlowRequests = 0;
+        binding = false;
+      }
+    }
+
+    private void adjust() {
+      double rate = rateLimiter.getRate();
+      double newRate;
+      if (numFailures > 0 || numSlowRequests > numRequests * SLOW_REQUEST_RATIO) {
+        newRate = clamp(rate * multiplicativeDecrease, minRate, maxRate);
+        LOGGER.debug(String.format("Decreasing rate limit of tag %s from %f to %f after %d failures and %d slow"
+            + " requests out of %d", tag, rate, newRate, numFailures, numSlowRequests, numRequests));
+      } else if (binding) {
+        newRate = clamp(rate + increase, minRate, maxRate);
+      } else {
+        newRate = rate;
+      }
+      if (newRate != rate) {
+        rateLimiter.setRate(newRate);
+      }
+    }
+  }
+}
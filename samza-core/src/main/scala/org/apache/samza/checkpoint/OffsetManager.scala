@@ -569,22 +569,19 @@ class OffsetManager(
     * Overwrite starting offsets with resolved offsets from startpoints
     */
   private def resolveStartpointsToStartingOffsets: Unit = {
+    val resolvedStartpoints = resolveStartpoints
+
     startpoints.foreach {
       case (taskName, sspToStartpoint) => {
         var resolvedOffsets: Map[SystemStreamPartition, String] = Map()
         sspToStartpoint.foreach {
           case (ssp, startpoint) => {
-            try {
-              val systemAdmin: SystemAdmin = systemAdmins.getSystemAdmin(ssp.getSystem)
-              val resolvedOffset: String = systemAdmin.resolveStartpointToOffset(ssp, startpoint)
-              if (StringUtils.isNotBlank(resolvedOffset)) {
+            resolvedStartpoints.get((ssp, startpoint)) match {
+              case Some(resolvedOffset) if StringUtils.isNotBlank(resolvedOffset) => {
                 resolvedOffsets += ssp -> resolvedOffset
                 info("Resolved the startpoint: %s of system stream partition: %s to offset: %s." format(startpoint, ssp, resolvedOffset))
               }
-            } catch {
-              case e: Exception => {
-                error("Exception occurred when resolving startpoint: %s of system stream partition: %s to offset." format(startpoint, ssp), e)
-              }
+              case _ =>
             }
           }
         }
@@ -601,6 +598,59 @@ class OffsetManager(
     }
   }
 
+  /**
+    * Resolves the distinct startpoints of all tasks to offsets, with one bulk request to the
+    * [[SystemAdmin]] of each system. Startpoints that the bulk request does not resolve are resolved one at a time.
+    *
+    * @return the resolved offset of each (system stream partition, startpoint), if any
+    */
+  private def resolveStartpoints: Map[(SystemStreamPartition, Startpoint), String] = {
+    val resolvedStartpoints = mutable.Map[(SystemStreamPartition, Startpoint), String]()
+    val distinctStartpoints = startpoints.values.flatMap(_.toSeq).toSeq.distinct
+
+    distinctStartpoints.groupBy(_._1.getSystem).foreach {
+      case (systemName, systemStartpoints) => {
+        val systemAdmin: SystemAdmin = systemAdmins.getSystemAdmin(systemName)
+        // the same partition may have different startpoints in different tasks, e.g. for broadcast streams,
+        // so the startpoints are resolved in rounds which contain each partition at most once
+        var remainingStartpoints = systemStartpoints
+        while (remainingStartpoints.nonEmpty) {
+          val round: Map[SystemStreamPartition, Startpoint] = remainingStartpoints.groupBy(_._1).map(_._2.head)
+          remainingStartpoints = remainingStartpoints.filterNot {
+            case (ssp, startpoint) => round.get(ssp).contains(startpoint)
+          }
+
+          val bulkResolvedOffsets: Map[SystemStreamPartition, String] = try {
+            Option(systemAdmin.resolveStartpointsToOffsets(round.asJava)).map(_.asScala).getOrElse(Map())
+          } catch {
+            case e: Exception => {
+              warn("Exception occurred when resolving the startpoints of system: %s together. Resolving them one at a time." format systemName, e)
+              Map()
+            }
+          }
+
+          round.foreach {
+            case (ssp, startpoint) => {
+              if (bulkResolvedOffsets.contains(ssp)) {
+                resolvedStartpoints.put((ssp, startpoint), bulkResolvedOffsets(ssp))
+              } else {
+                try {
+                  resolvedStartpoints.put((ssp, startpoint), systemAdmin.resolveStartpointToOffset(ssp, startpoint))
+                } catch {
+                  case e: Exception => {
+                    error("Exception occurred when resolving startpoint: %s of system stream partition: %s to offset." format(startpoint, ssp), e)
+                  }
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+
+    resolvedStartpoints
+  }
+
   /**
    * Use defaultOffsets to get a next offset for every SystemStreamPartition
    * that was registered, but has no offset.
@@ -35,6 +35,7 @@ import org.apache.samza.clustermanager.StandbyTaskUtil
 import org.apache.samza.config.{StreamConfig, _}
 import org.apache.samza.container.disk.DiskSpaceMonitor.Listener
 import org.apache.samza.container.disk.{DiskQuotaPolicyFactory, DiskSpaceMonitor, NoThrottlingDiskQuotaPolicyFactory, PollingScanDiskSpaceMonitor}
+import org.apache.samza.container.grouper.task.TaskLoadManager
 import org.apache.samza.container.host.{StatisticsMonitorImpl, SystemMemoryStatistics, SystemStatisticsMonitor}
 import org.apache.samza.context._
 import org.apache.samza.diagnostics.DiagnosticsManager
@@ -131,7 +132,8 @@ object SamzaContainer extends Logging {
     externalContextOption: Option[ExternalContext],
     localityManager: LocalityManager = null,
     startpointManager: StartpointManager = null,
-    diagnosticsManager: Option[DiagnosticsManager] = Option.empty) = {
+    diagnosticsManager: Option[DiagnosticsManager] = Option.empty,
+    taskLoadManager: TaskLoadManager = null) = {
     val config = if (StandbyTaskUtil.isStandbyContainer(containerId)) {
       // standby containers will need to continually poll checkpoint messages
       val newConfig = new util.HashMap[String, String](jobContext.getConfig)
@@ -389,8 +391,6 @@ object SamzaContainer extends Logging {
 
     val chooserFactory = ReflectionUtil.getObj(chooserFactoryClassName, classOf[MessageChooserFactory])
 
-    val chooser = DefaultChooser(inputStreamMetadata, chooserFactory, config, samzaContainerMetrics.registry, systemAdmins)
-
     info("Setting up metrics reporters.")
 
     val reporters =
@@ -422,15 +422,51 @@ object SamzaContainer extends Logging {
 
     val pollIntervalMs = taskConfig.getPollIntervalMs
 
-    val consumerMultiplexer = new SystemConsumers(
-      chooser = chooser,
-      consumers = consumers,
+    val deserializationThreadPoolSize = jobConfig.getDeserializationThreadPoolSize
+    info("Got deserialization thread pool size: " + deserializationThreadPoolSize)
+
+    val deserializationThreadPool = if (deserializationThreadPoolSize > 0) {
+      Executors.newFixedThreadPool(deserializationThreadPoolSize,
+        new ThreadFactoryBuilder().setNameFormat("Samza Deserialization Thread-%d").setDaemon(true).build())
+    } else {
+      null
+    }
+
+    val maxRunLoopShards = jobConfig.getRunLoopShards
+    val runLoopShards = ShardedRunLoop.assignTasksToShards(
+      containerModel.getTasks.values.asScala
+        .filter(taskModel => taskModel.getTaskMode.eq(TaskMode.Active))
+        .map(taskModel => (taskModel.getTaskName, taskModel.getSystemStreamPartitions.asScala
+          .filterNot(ssp => sideInputSystemStreams.contains(ssp.getSystemStream)).asJava))
+        .toMap.asJava,
+      maxRunLoopShards)
+    info("Got %d run loop shards for max run loop shards %d" format (runLoopShards.size, maxRunLoopShards))
+
+    // the run loop shards share the system consumers, each shard polls the partitions of its own tasks
+    val shardConsumers: Map[String, SystemConsumer] = if (runLoopShards.size > 1) {
+      consumers.map { case (systemName, consumer) => (systemName, new SharedSystemConsumer(consumer, runLoopShards.size)) }
+    } else {
+      consumers
+    }
+
+    val consumerMultiplexers = runLoopShards.asScala.map(shardTaskNames => new SystemConsumers(
+      chooser = DefaultChooser(inputStreamMetadata, chooserFactory, config, samzaContainerMetrics.registry, systemAdmins,
+        shardTaskNames.asScala
+          .map(taskName => (taskName, containerModel.getTasks.get(taskName).getSystemStreamPartitions))
+          .toMap.asJava),
+      consumers = shardConsumers,
       systemAdmins = systemAdmins,
       serdeManager = serdeManager,
       metrics = systemConsumersMetrics,
       dropDeserializationError = dropDeserializationError,
       pollIntervalMs = pollIntervalMs,
-      clock = () => clock.nanoTime())
+      clock = () => clock.nanoTime(),
+      deserializationExecutor = deserializationThreadPool)).toList
+
+    val taskConsumerMultiplexers: Map[TaskName, SystemConsumers] = runLoopShards.asScala.zip(consumerMultiplexers)
+      .flatMap { case (shardTaskNames, shardConsumerMultiplexer) =>
+        shardTaskNames.asScala.map(taskName => (taskName, shardConsumerMultiplexer)) }
+      .toMap
 
     val producerMultiplexer = new SystemProducers(
       producers = producers,
@@ -541,6 +577,15 @@ object SamzaContainer extends Logging {
 
     storeWatchPaths.addAll(containerStorageManager.getStoreDirectoryPaths)
 
+    val taskLoadReporter = if (taskLoadManager != null) {
+      val activeTaskInstanceMetrics = taskInstanceMetrics
+        .filterKeys(taskName => containerModel.getTasks.get(taskName).getTaskMode.eq(TaskMode.Active))
+      new TaskLoadReporter(taskLoadManager, activeTaskInstanceMetrics.asJava,
+        containerStorageManager.getTaskStoreDirectoryPaths, taskConfig.getTaskNameGrouperLoadReportMs)
+    } else {
+      null
+    }
+
 
 
     // Create taskInstances
@@ -591,7 +636,7 @@ object SamzaContainer extends Logging {
           taskModel = taskModel,
           metrics = taskInstanceMetrics.get(taskName).get,
           systemAdmins = systemAdmins,
-          consumerMultiplexer = consumerMultiplexer,
+          consumerMultiplexer = taskConsumerMultiplexers(taskName),
           collector = taskCollectors.get(taskName).get,
           offsetManager = offsetManager,
           commitManager = commitManager,
@@ -619,7 +664,8 @@ object SamzaContainer extends Logging {
 
     val runLoop = RunLoopFactory.createRunLoop(
       taskInstances,
-      consumerMultiplexer,
+      runLoopShards,
+      consumerMultiplexers.asJava,
       taskThreadPool,
       maxThrottlingDelayMs,
       samzaContainerMetrics,
@@ -674,7 +720,7 @@ object SamzaContainer extends Logging {
       taskInstanceMetrics = taskInstanceMetrics,
       runLoop = runLoop,
       systemAdmins = systemAdmins,
-      consumerMultiplexer = consumerMultiplexer,
+      consumerMultiplexer = consumerMultiplexers.head,
       producerMultiplexer = producerMultiplexer,
       localityManager = localityManager,
       offsetManager = offsetManager,
@@ -686,12 +732,15 @@ object SamzaContainer extends Logging {
       hostStatisticsMonitor = memoryStatisticsMonitor,
       taskThreadPool = taskThreadPool,
       commitThreadPool = commitThreadPool,
+      deserializationThreadPool = deserializationThreadPool,
       timerExecutor = timerExecutor,
       containerContext = containerContext,
       applicationContainerContextOption = applicationContainerContextOption,
       externalContextOption = externalContextOption,
       containerStorageManager = containerStorageManager,
-      diagnosticsManager = diagnosticsManager)
+      diagnosticsManager = diagnosticsManager,
+      taskLoadReporter = taskLoadReporter,
+      shardConsumerMultiplexers = consumerMultiplexers.tail)
   }
 }
 
@@ -713,12 +762,20 @@ class SamzaContainer(
   jvm: JvmMetrics = null,
   taskThreadPool: ExecutorService = null,
   commitThreadPool: ExecutorService = null,
+  deserializationThreadPool: ExecutorService = null,
   timerExecutor: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor,
   containerContext: ContainerContext,
   applicationContainerContextOption: Option[ApplicationContainerContext],
   externalContextOption: Option[ExternalContext],
   containerStorageManager: ContainerStorageManager,
-  diagnosticsManager: Option[DiagnosticsManager] = Option.empty) extends Runnable with Logging {
+  diagnosticsManager: Option[DiagnosticsManager] = Option.empty,
+  taskLoadReporter: TaskLoadReporter = null,
+
+  /**
+   * The consumer multiplexers of the run loop shards other than the first, whose multiplexer is
+   * consumerMultiplexer. They are started and stopped along with consumerMultiplexer.
+   */
+  shardConsumerMultiplexers: Seq[SystemConsumers] = Seq()) extends Runnable with Logging {
 
   private val jobConfig = new JobConfig(config)
   private val taskConfig = new TaskConfig(config)
@@ -775,6 +832,7 @@ class SamzaContainer(
       startTask
       startConsumers
       startSecurityManger
+      startTaskLoadReporter
 
       info("Entering run loop.")
       status = SamzaContainerStatus.STARTED
@@ -825,6 +883,7 @@ class SamzaContainer(
       }
 
       shutdownConsumers
+      shutdownTaskLoadReporter
       shutdownTask
       shutdownTableManager
       shutdownStores
@@ -891,7 +950,17 @@ class SamzaContainer(
 
   // Shutdown Runloop
   def shutdownRunLoop() = {
-    runLoop.asInstanceOf[RunLoop].shutdown
+    runLoop match {
+      case shardedRunLoop: ShardedRunLoop => shardedRunLoop.shutdown
+      case _ => runLoop.asInstanceOf[RunLoop].shutdown
+    }
+  }
+
+  def startTaskLoadReporter: Unit = {
+    if (taskLoadReporter != null) {
+      info("Starting task load reporter.")
+      taskLoadReporter.start()
+    }
   }
 
   def startDiskSpaceMonitor: Unit = {
@@ -1010,6 +1079,7 @@ class SamzaContainer(
     if (taskInstances.size > 0) {
       info("Starting consumer multiplexer.")
       consumerMultiplexer.start
+      shardConsumerMultiplexers.foreach(_.start)
     }
   }
 
@@ -1025,6 +1095,12 @@ class SamzaContainer(
     info("Shutting down consumer multiplexer.")
 
     consumerMultiplexer.stop
+    shardConsumerMultiplexers.foreach(_.stop)
+
+    if (deserializationThreadPool != null) {
+      info("Shutting down deserialization thread pool")
+      deserializationThreadPool.shutdownNow()
+    }
   }
 
   def shutdownAdmins {
@@ -1125,6 +1201,13 @@ class SamzaContainer(
     }
   }
 
+  def shutdownTaskLoadReporter: Unit = {
+    if (taskLoadReporter != null) {
+      info("Shutting down task load reporter.")
+      taskLoadReporter.stop()
+    }
+  }
+
   def shutdownDiskSpaceMonitor: Unit = {
     if (diskSpaceMonitor != null) {
       info("Shutting down disk space monitor.")
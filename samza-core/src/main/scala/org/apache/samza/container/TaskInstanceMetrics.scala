@@ -38,6 +38,7 @@ class TaskInstanceMetrics(
   val pendingMessages = newGauge("pending-messages", 0)
   val messagesInFlight = newGauge("messages-in-flight", 0)
   val asyncCallbackCompleted = newCounter("async-callback-complete-calls")
+  val totalProcessNs = newCounter("total-process-ns")
   val commitsTimedOut = newGauge("commits-timed-out", 0)
   val commitsSkipped = newGauge("commits-skipped", 0)
   val commitNs = newTimer("commit-ns")
@@ -30,6 +30,7 @@ import org.apache.samza.container.grouper.stream.SystemStreamPartitionGrouperFac
 import org.apache.samza.container.grouper.task._
 import org.apache.samza.coordinator.metadatastore.NamespaceAwareCoordinatorStreamStore
 import org.apache.samza.coordinator.stream.messages.SetTaskContainerMapping
+import org.apache.samza.coordinator.stream.messages.SetTaskLoadMapping
 import org.apache.samza.coordinator.stream.messages.SetTaskModeMapping
 import org.apache.samza.coordinator.stream.messages.SetTaskPartitionMapping
 import org.apache.samza.container.LocalityManager
@@ -86,12 +87,13 @@ object JobModelManager extends Logging {
     val localityManager = new LocalityManager(new NamespaceAwareCoordinatorStreamStore(metadataStore, SetContainerHostMapping.TYPE))
     val taskAssignmentManager = new TaskAssignmentManager(new NamespaceAwareCoordinatorStreamStore(metadataStore, SetTaskContainerMapping.TYPE), new NamespaceAwareCoordinatorStreamStore(metadataStore, SetTaskModeMapping.TYPE))
     val taskPartitionAssignmentManager = new TaskPartitionAssignmentManager(new NamespaceAwareCoordinatorStreamStore(metadataStore, SetTaskPartitionMapping.TYPE))
+    val taskLoadManager = new TaskLoadManager(new NamespaceAwareCoordinatorStreamStore(metadataStore, SetTaskLoadMapping.TYPE))
 
     val systemAdmins = new SystemAdmins(config, this.getClass.getSimpleName)
     try {
       systemAdmins.start()
       val streamMetadataCache = new StreamMetadataCache(systemAdmins, 0)
-      val grouperMetadata: GrouperMetadata = getGrouperMetadata(config, localityManager, taskAssignmentManager, taskPartitionAssignmentManager)
+      val grouperMetadata: GrouperMetadata = getGrouperMetadata(config, localityManager, taskAssignmentManager, taskPartitionAssignmentManager, taskLoadManager)
 
       val jobModel = readJobModel(config, changelogPartitionMapping, streamMetadataCache, grouperMetadata)
       val jobModelToServe = new JobModel(jobModel.getConfig, jobModel.getContainers)
@@ -121,7 +123,21 @@ object JobModelManager extends Logging {
     * @param taskPartitionAssignmentManager provides the task to partition assignments persisted to the metadata store.
     * @return the instantiated {@see GrouperMetadata}.
     */
-  def getGrouperMetadata(config: Config, localityManager: LocalityManager, taskAssignmentManager: TaskAssignmentManager, taskPartitionAssignmentManager: TaskPartitionAssignmentManager) = {
+  def getGrouperMetadata(config: Config, localityManager: LocalityManager, taskAssignmentManager: TaskAssignmentManager, taskPartitionAssignmentManager: TaskPartitionAssignmentManager): GrouperMetadataImpl = {
+    getGrouperMetadata(config, localityManager, taskAssignmentManager, taskPartitionAssignmentManager, null)
+  }
+
+  /**
+    * Builds the {@see GrouperMetadataImpl} for the samza job, including the task loads persisted by the containers.
+    * @param config represents the configurations defined by the user.
+    * @param localityManager provides the processor to host mapping persisted to the metadata store.
+    * @param taskAssignmentManager provides the processor to task assignments persisted to the metadata store.
+    * @param taskPartitionAssignmentManager provides the task to partition assignments persisted to the metadata store.
+    * @param taskLoadManager provides the task loads persisted to the metadata store, or null if they aren't needed.
+    * @return the instantiated {@see GrouperMetadata}.
+    */
+  def getGrouperMetadata(config: Config, localityManager: LocalityManager, taskAssignmentManager: TaskAssignmentManager, taskPartitionAssignmentManager: TaskPartitionAssignmentManager,
+    taskLoadManager: TaskLoadManager): GrouperMetadataImpl = {
     val processorLocality: util.Map[String, LocationId] = getProcessorLocality(config, localityManager)
     val taskModes: util.Map[TaskName, TaskMode] = taskAssignmentManager.readTaskModes()
 
@@ -159,7 +175,9 @@ object JobModelManager extends Logging {
         }
       }
     }
-    new GrouperMetadataImpl(processorLocality, taskLocality, taskPartitionAssignments, taskNameToProcessorId)
+    val taskLoads: util.Map[TaskName, TaskLoad] =
+      if (taskLoadManager != null) taskLoadManager.readTaskLoads() else util.Collections.emptyMap[TaskName, TaskLoad]()
+    new GrouperMetadataImpl(processorLocality, taskLocality, taskPartitionAssignments, taskNameToProcessorId, taskLoads)
   }
 
   /**
@@ -144,14 +144,7 @@ class SerdeManager(
     if ((key eq envelope.getKey) && (message eq envelope.getMessage)) {
       envelope
     } else {
-      new IncomingMessageEnvelope(
-        envelope.getSystemStreamPartition,
-        envelope.getOffset,
-        key,
-        message,
-        envelope.getSize,
-        envelope.getEventTime(),
-        envelope.getArrivalTime)
+      envelope.withKeyAndMessage(key, message)
     }
   }
 }
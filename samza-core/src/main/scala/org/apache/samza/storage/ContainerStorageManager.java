@@ -146,6 +146,7 @@ public class ContainerStorageManager {
   private final File loggedStoreBaseDirectory;
   private final File nonLoggedStoreBaseDirectory;
   private final Set<Path> storeDirectoryPaths; // the set of store directory paths, used by SamzaContainer to initialize its disk-space-monitor
+  private final Map<TaskName, Set<Path>> taskStoreDirectoryPaths; // store directory paths per task, used to report task load
 
   /* Sideinput related parameters */
   private final boolean hasSideInputs;
@@ -233,6 +234,7 @@ public class ContainerStorageManager {
 
     // initializing the set of store directory paths
     this.storeDirectoryPaths = new HashSet<>();
+    this.taskStoreDirectoryPaths = new HashMap<>();
 
     this.streamMetadataCache = streamMetadataCache;
     this.systemAdmins = systemAdmins;
@@ -301,7 +303,7 @@ public class ContainerStorageManager {
       sideInputSystemConsumers =
           new SystemConsumers(chooser, ScalaJavaUtil.toScalaMap(sideInputConsumers), systemAdmins, serdeManager,
               sideInputSystemConsumersMetrics, SystemConsumers.DEFAULT_NO_NEW_MESSAGES_TIMEOUT(), SystemConsumers.DEFAULT_DROP_SERIALIZATION_ERROR(),
-              TaskConfig.DEFAULT_POLL_INTERVAL_MS, ScalaJavaUtil.toScalaFunction(() -> System.nanoTime()));
+              TaskConfig.DEFAULT_POLL_INTERVAL_MS, ScalaJavaUtil.toScalaFunction(() -> System.nanoTime()), null);
     }
 
   }
@@ -522,6 +524,7 @@ public class ContainerStorageManager {
         File storeDirectory = storageManagerUtil.getTaskStoreDir(storeBaseDir, storeName, taskName,
             taskModel.getTaskMode());
         this.storeDirectoryPaths.add(storeDirectory.toPath());
+        this.taskStoreDirectoryPaths.computeIfAbsent(taskName, name -> new HashSet<>()).add(storeDirectory.toPath());
 
         // if taskInstanceMetrics are specified use those for store metrics,
         // otherwise (in case of StorageRecovery) use a blank MetricsRegistryMap
@@ -958,6 +961,14 @@ public class ContainerStorageManager {
     return this.storeDirectoryPaths;
   }
 
+  /**
+   * Directory paths of the stores restored by this {@link ContainerStorageManager}, grouped by task.
+   * @return the map of task name to its store directory paths
+   */
+  public Map<TaskName, Set<Path>> getTaskStoreDirectoryPaths() {
+    return this.taskStoreDirectoryPaths;
+  }
+
   @VisibleForTesting
   public void stopStores() {
     this.taskStores.forEach((taskName, storeMap) -> storeMap.forEach((storeName, store) -> store.stop()));
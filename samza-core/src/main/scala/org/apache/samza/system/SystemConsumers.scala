@@ -22,7 +22,7 @@ package org.apache.samza.system
 
 import java.util
 import java.util.ArrayDeque
-import java.util.concurrent.TimeUnit
+import java.util.concurrent.{Callable, ExecutionException, ExecutorService, Future, TimeUnit}
 import java.util.Collections
 import java.util.HashMap
 import java.util.HashSet
@@ -112,7 +112,22 @@ class SystemConsumers (
    * Clock can be used to inject a custom clock when mocking this class in
    * tests. The default implementation returns the current system clock time.
    */
-  val clock: () => Long = () => System.nanoTime()) extends Logging with TimerUtil {
+  val clock: () => Long = () => System.nanoTime(),
+
+  /**
+   * <p>Optional executor used to deserialize incoming messages off the caller's
+   * thread. When set, every batch of envelopes returned by a SystemConsumer
+   * poll is deserialized as a single unit of work on this executor, so
+   * batches for different SystemStreamPartitions are deserialized in
+   * parallel while the order within each SystemStreamPartition is
+   * preserved. The MessageChooser is only ever updated with envelopes that
+   * have already been deserialized.</p>
+   *
+   * <p>The executor is owned by the caller, and is not shut down by
+   * SystemConsumers. If null (the default), messages are deserialized on the
+   * caller's thread as they are handed to the MessageChooser.</p>
+   */
+  deserializationExecutor: ExecutorService = null) extends Logging with TimerUtil {
 
   /**
    * Mapping from the {@see SystemStreamPartition} to the registered offsets.
@@ -125,6 +140,17 @@ class SystemConsumers (
    */
   private val unprocessedMessagesBySSP = new HashMap[SystemStreamPartition, Queue[IncomingMessageEnvelope]]()
 
+  /**
+   * Batches of incoming messages that are being deserialized on the
+   * deserializationExecutor, along with the number of raw messages in each
+   * batch. Batches stay pending across calls to choose, so that they are
+   * deserialized while the chooser hands out messages that are already
+   * available. A batch is moved into unprocessedMessagesBySSP once its
+   * deserialization has finished, or once the chooser has nothing else to
+   * offer. Only used when a deserializationExecutor is set.
+   */
+  private val pendingDeserializationBySSP = new HashMap[SystemStreamPartition, (Future[Queue[IncomingMessageEnvelope]], Int)]()
+
   /**
    * Set of SSPs that are currently at end-of-stream.
    */
@@ -245,7 +271,20 @@ class SystemConsumers (
   }
 
   def choose (updateChooser: Boolean = true): IncomingMessageEnvelope = {
-    val envelopeFromChooser = chooser.choose
+    val envelopeFromChooser = if (pendingDeserializationBySSP.isEmpty) {
+      chooser.choose
+    } else {
+      // Hand the chooser the batches that have finished deserializing, and
+      // only wait for the others when there is nothing else to choose from.
+      updateDeserialized(waitForCompletion = false)
+      val envelope = chooser.choose
+      if (envelope == null && !pendingDeserializationBySSP.isEmpty) {
+        updateDeserialized(waitForCompletion = true)
+        chooser.choose
+      } else {
+        envelope
+      }
+    }
 
     updateTimer(metrics.deserializationNs) {
       if (envelopeFromChooser == null) {
@@ -333,14 +372,31 @@ class SystemConsumers (
         totalUnprocessedMessages += numEnvelopes
 
         if (numEnvelopes > 0) {
-          unprocessedMessagesBySSP.put(systemStreamPartition, envelopes)
-
-          // Update the chooser if it needs a message for this SSP.
-          if (emptySystemStreamPartitionsBySystem.get(systemStreamPartition.getSystem).remove(systemStreamPartition)) {
-            tryUpdate(systemStreamPartition)
+          if (deserializationExecutor != null) {
+            pendingDeserializationBySSP.put(systemStreamPartition,
+              (deserializationExecutor.submit(new Callable[Queue[IncomingMessageEnvelope]] {
+                override def call() = deserialize(systemStreamPartition, envelopes)
+              }), numEnvelopes))
+          } else {
+            unprocessedMessagesBySSP.put(systemStreamPartition, envelopes)
           }
         }
       }
+
+      val sspIterator = systemStreamPartitionEnvelopes.keySet.iterator
+
+      while (sspIterator.hasNext) {
+        val systemStreamPartition = sspIterator.next
+
+        // Update the chooser if it needs a message for this SSP. Batches that
+        // are still being deserialized are handed to the chooser by a later
+        // call to choose instead, see updateDeserialized.
+        if (!systemStreamPartitionEnvelopes.get(systemStreamPartition).isEmpty &&
+          emptySystemStreamPartitionsBySystem.get(systemStreamPartition.getSystem).remove(systemStreamPartition) &&
+          !pendingDeserializationBySSP.containsKey(systemStreamPartition)) {
+          tryUpdate(systemStreamPartition)
+        }
+      }
     } else {
       trace("Skipping polling for %s. Already have messages available for all registered SystemStreamPartitions." format systemName)
     }
@@ -373,22 +429,20 @@ class SystemConsumers (
    */
   private def update(systemStreamPartition: SystemStreamPartition) = {
     var updated = false
+
+    if (deserializationExecutor != null) {
+      awaitDeserialization(systemStreamPartition)
+    }
+
     val q = unprocessedMessagesBySSP.get(systemStreamPartition)
 
     while (q.size > 0 && !updated) {
       val rawEnvelope = q.remove
-      val deserializedEnvelope = try {
-        Some(serdeManager.fromBytes(rawEnvelope))
-      } catch {
-        case e: Throwable if !dropDeserializationError =>
-          throw new SystemConsumersException(
-            "Cannot deserialize an incoming message for %s"
-              .format(systemStreamPartition.getSystemStream.toString), e)
-        case ex: Throwable =>
-          debug("Cannot deserialize an incoming message for %s. Dropping the error message."
-                .format(systemStreamPartition.getSystemStream.toString), ex)
-          metrics.deserializationError.inc
-          None
+      val deserializedEnvelope = if (deserializationExecutor != null) {
+        // Already deserialized by the deserializationExecutor.
+        Some(rawEnvelope)
+      } else {
+        deserialize(systemStreamPartition, rawEnvelope)
       }
 
       if (deserializedEnvelope.isDefined) {
@@ -401,6 +455,82 @@ class SystemConsumers (
 
     updated
   }
+
+  /**
+   * Updates the chooser for every SystemStreamPartition whose batch of
+   * envelopes has finished deserializing. If waitForCompletion is set, waits
+   * for the batches that are still being deserialized as well.
+   */
+  private def updateDeserialized(waitForCompletion: Boolean) {
+    val deserializedSSPs = pendingDeserializationBySSP
+      .asScala
+      .collect { case (ssp, (future, _)) if waitForCompletion || future.isDone => ssp }
+      .toList
+
+    deserializedSSPs.foreach(tryUpdate)
+  }
+
+  /**
+   * Moves the batch of envelopes being deserialized for the supplied
+   * SystemStreamPartition, if any, into unprocessedMessagesBySSP, blocking
+   * until its deserialization has finished.
+   */
+  private def awaitDeserialization(systemStreamPartition: SystemStreamPartition) {
+    val pending = pendingDeserializationBySSP.remove(systemStreamPartition)
+
+    if (pending != null) {
+      val (future, numEnvelopes) = pending
+      val envelopes = updateTimer(metrics.deserializationWaitNs) {
+        try {
+          future.get
+        } catch {
+          case e: ExecutionException => e.getCause match {
+            case se: SystemConsumersException => throw se
+            case t => throw new SystemConsumersException(
+              "Deserialization failed for %s" format systemStreamPartition, t)
+          }
+        }
+      }
+
+      // Messages that were dropped due to deserialization errors are no longer unprocessed.
+      totalUnprocessedMessages -= numEnvelopes - envelopes.size
+      unprocessedMessagesBySSP.put(systemStreamPartition, envelopes)
+    }
+  }
+
+  /**
+   * Deserializes a batch of envelopes on the deserializationExecutor,
+   * preserving their order and skipping any that fail to deserialize if
+   * dropDeserializationError is set.
+   */
+  private def deserialize(systemStreamPartition: SystemStreamPartition,
+    rawEnvelopes: Queue[IncomingMessageEnvelope]): Queue[IncomingMessageEnvelope] = {
+    val deserializedEnvelopes = new ArrayDeque[IncomingMessageEnvelope](rawEnvelopes.size)
+    val iterator = rawEnvelopes.iterator
+
+    while (iterator.hasNext) {
+      deserialize(systemStreamPartition, iterator.next).foreach(deserializedEnvelopes.add)
+    }
+
+    deserializedEnvelopes
+  }
+
+  private def deserialize(systemStreamPartition: SystemStreamPartition,
+    rawEnvelope: IncomingMessageEnvelope): Option[IncomingMessageEnvelope] = {
+    try {
+      Some(serdeManager.fromBytes(rawEnvelope))
+    } catch {
+      case e: Throwable if !dropDeserializationError =>
+        throw new SystemConsumersException(
+          "Cannot deserialize an incoming message for %s"
+            .format(systemStreamPartition.getSystemStream.toString), e)
+      case ex: Throwable =>
+        debug("Cannot deserialize an incoming message for %s. Dropping the error message."
+              .format(systemStreamPartition.getSystemStream.toString), ex)
+        metrics.deserializationError.inc
+        None
+    }
+  }
 }
 
 /**
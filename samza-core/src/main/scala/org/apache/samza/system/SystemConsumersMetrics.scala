@@ -35,6 +35,7 @@ class SystemConsumersMetrics(val registry: ReadableMetricsRegistry = new Metrics
   val systemStreamMessagesChosen = scala.collection.mutable.Map[SystemStreamPartition, Counter]()
   val pollNs = newTimer("poll-ns")
   val deserializationNs = newTimer("deserialization-ns")
+  val deserializationWaitNs = newTimer("deserialization-wait-ns")
 
   def setNeededByChooser(getValue: () => Int) {
     newGauge("ssps-needed-by-chooser", getValue)
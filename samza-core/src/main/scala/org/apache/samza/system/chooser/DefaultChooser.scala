@@ -21,6 +21,7 @@ package org.apache.samza.system.chooser
 
 import org.apache.samza.SamzaException
 import org.apache.samza.config.{Config, DefaultChooserConfig, TaskConfig}
+import org.apache.samza.container.TaskName
 import org.apache.samza.metrics.{MetricsRegistry, MetricsRegistryMap}
 import org.apache.samza.system._
 import org.apache.samza.util.Logging
@@ -33,7 +34,16 @@ object DefaultChooser extends Logging {
             chooserFactory: MessageChooserFactory,
             config: Config,
             registry: MetricsRegistry,
-            systemAdmins: SystemAdmins) = {
+            systemAdmins: SystemAdmins,
+            taskSystemStreamPartitions: java.util.Map[TaskName, java.util.Set[SystemStreamPartition]] =
+              java.util.Collections.emptyMap()) = {
+    // Task aware choosers are told which task each input partition belongs to.
+    def getChooser = chooserFactory match {
+      case taskAwareChooserFactory: TaskAwareMessageChooserFactory =>
+        taskAwareChooserFactory.getChooser(config, registry, taskSystemStreamPartitions)
+      case _ => chooserFactory.getChooser(config, registry)
+    }
+
     val chooserConfig = new DefaultChooserConfig(config)
     val batchSize = if (chooserConfig.getChooserBatchSize > 0) Some(chooserConfig.getChooserBatchSize) else None
 
@@ -82,11 +92,11 @@ object DefaultChooser extends Logging {
     val prioritizedChoosers = priorities
       .values
       .toSet
-      .map((_: Int, chooserFactory.getChooser(config, registry)))
+      .map((_: Int, getChooser))
       .toMap
 
     new DefaultChooser(
-      chooserFactory.getChooser(config, registry),
+      getChooser,
       batchSize,
       priorities,
       prioritizedChoosers,
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.system.chooser
+
+import java.util
+import java.util.{Collections, Comparator, HashMap, TreeSet}
+import java.util.concurrent.TimeUnit
+
+import org.apache.samza.config.{Config, TaskConfig}
+import org.apache.samza.container.TaskName
+import org.apache.samza.metrics.{MetricsHelper, MetricsRegistry, MetricsRegistryMap}
+import org.apache.samza.system.{IncomingMessageEnvelope, SystemStreamPartition}
+import org.apache.samza.util.Logging
+
+import scala.collection.JavaConverters._
+
+/**
+ * A chooser that aligns input partitions by event time. It always chooses the
+ * buffered envelope with the lowest event time, and holds envelopes back while
+ * another partition, which may still deliver older envelopes, is behind by
+ * more than maxSkewMs. This keeps a lagging input and its partners close in
+ * event time, which bounds the state that joins and windows buffer while an
+ * input catches up.
+ *
+ * <p>A partition without a buffered envelope holds the others back until its
+ * next envelope arrives, or until it has had no envelope for idleTimeoutMs,
+ * after which it is considered idle until its next envelope arrives.
+ * Envelopes without an event time (an event time of 0 or less) and
+ * end-of-stream envelopes are never held back, and a partition that delivers
+ * them no longer holds back other partitions, until it delivers an envelope
+ * with an event time again.</p>
+ *
+ * <p>Partitions are aligned with the other input partitions of the same
+ * task, so a lagging partition never holds back the tasks it is not an input
+ * of. A partition that is an input of several tasks, e.g. a broadcast
+ * partition, is aligned with the partitions of each of them. Partitions that
+ * are not assigned to any task in taskSystemStreamPartitions are aligned with
+ * each other, so without a task assignment the chooser aligns all the
+ * partitions it is registered with. Like the RoundRobinChooser, it relies on
+ * receiving at most one envelope per SystemStreamPartition at a time.</p>
+ *
+ * @param maxSkewMs the maximum event time by which a partition may run ahead
+ *                  of a partition that is behind.
+ * @param idleTimeoutMs how long to wait for a partition with no envelopes
+ *                      before it stops holding back the other partitions.
+ * @param taskSystemStreamPartitions the input partitions of each task.
+ */
+class EventTimeChooser(
+  maxSkewMs: Long,
+  idleTimeoutMs: Long,
+  metrics: EventTimeChooserMetrics = new EventTimeChooserMetrics,
+  clock: () => Long = () => System.nanoTime,
+  taskSystemStreamPartitions: util.Map[TaskName, util.Set[SystemStreamPartition]] = Collections.emptyMap())
+  extends BaseMessageChooser with Logging {
+
+  private val idleTimeoutNs = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs)
+
+  /**
+   * The alignment state of a partition.
+   */
+  private class PartitionState(
+    val systemStreamPartition: SystemStreamPartition,
+    val id: Int,
+    val waitingSets: Seq[TreeSet[PartitionState]]) {
+    // the event time of the last envelope chosen from the partition, or Long.MinValue if none was chosen yet
+    var lastEventTime = Long.MinValue
+    // the time at which the last envelope was chosen from the partition
+    var emptySinceNs = 0L
+  }
+
+  private val partitions = new HashMap[SystemStreamPartition, PartitionState]()
+
+  /**
+   * The buffered envelopes, ordered by event time and then by arrival.
+   */
+  private val buffered = new TreeSet[(IncomingMessageEnvelope, Long)](new Comparator[(IncomingMessageEnvelope, Long)] {
+    override def compare(a: (IncomingMessageEnvelope, Long), b: (IncomingMessageEnvelope, Long)): Int = {
+      val byEventTime = java.lang.Long.compare(a._1.getEventTime, b._1.getEventTime)
+      if (byEventTime != 0) byEventTime else java.lang.Long.compare(a._2, b._2)
+    }
+  })
+
+  /**
+   * For each task, the aligned partitions of the task that have no buffered
+   * envelope and are not idle, ordered by the event time of their last chosen
+   * envelope. The state of a partition is never modified while it is in one
+   * of these sets.
+   */
+  private val waitingByTask = new HashMap[TaskName, TreeSet[PartitionState]]()
+
+  /**
+   * The waiting partitions that are not assigned to any task.
+   */
+  private val unassignedWaiting = newWaitingSet
+
+  private val tasksBySystemStreamPartition = taskSystemStreamPartitions.asScala.toSeq
+    .flatMap { case (taskName, ssps) => ssps.asScala.map(ssp => (ssp, taskName)) }
+    .groupBy(_._1)
+    .mapValues(_.map(_._2))
+
+  private var nextSequence = 0L
+
+  private def newWaitingSet = new TreeSet[PartitionState](new Comparator[PartitionState] {
+    override def compare(a: PartitionState, b: PartitionState): Int = {
+      val byEventTime = java.lang.Long.compare(a.lastEventTime, b.lastEventTime)
+      if (byEventTime != 0) byEventTime else Integer.compare(a.id, b.id)
+    }
+  })
+
+  override def register(systemStreamPartition: SystemStreamPartition, offset: String) {
+    if (!partitions.containsKey(systemStreamPartition)) {
+      val waitingSets = tasksBySystemStreamPartition.get(systemStreamPartition) match {
+        case Some(taskNames) => taskNames.map(taskName => {
+          if (!waitingByTask.containsKey(taskName)) {
+            waitingByTask.put(taskName, newWaitingSet)
+          }
+          waitingByTask.get(taskName)
+        })
+        case None => Seq(unassignedWaiting)
+      }
+      partitions.put(systemStreamPartition, new PartitionState(systemStreamPartition, partitions.size, waitingSets))
+    }
+  }
+
+  override def start {
+    val now = clock()
+    val states = partitions.values.iterator
+    while (states.hasNext) {
+      val state = states.next
+      state.emptySinceNs = now
+      state.waitingSets.foreach(_.add(state))
+    }
+    metrics.setBufferedMessages(() => buffered.size)
+    metrics.setWaitingPartitions(() => waitingByTask.values.asScala.map(_.size).sum + unassignedWaiting.size)
+  }
+
+  def update(envelope: IncomingMessageEnvelope) {
+    val state = partitions.get(envelope.getSystemStreamPartition)
+    if (state != null) {
+      state.waitingSets.foreach(_.remove(state))
+    }
+    buffered.add((envelope, nextSequence))
+    nextSequence += 1
+  }
+
+  /**
+   * Chooses the envelope with the lowest event time that is not held back.
+   * An envelope of one task may be held back while an envelope of another
+   * task with a higher event time is not, so the envelopes are checked in
+   * event time order until one can be chosen.
+   */
+  def choose: IncomingMessageEnvelope = {
+    val envelopes = buffered.iterator
+    var envelope: IncomingMessageEnvelope = null
+    while (envelope == null && envelopes.hasNext) {
+      val next = envelopes.next._1
+      if (!isHeldBack(next)) {
+        envelopes.remove
+        chosen(next)
+        envelope = next
+      }
+    }
+    if (envelope == null && !buffered.isEmpty) {
+      metrics.heldBack.inc
+    }
+    envelope
+  }
+
+  private def isHeldBack(envelope: IncomingMessageEnvelope) = {
+    if (envelope.isEndOfStream || envelope.getEventTime <= 0) {
+      false
+    } else {
+      val state = partitions.get(envelope.getSystemStreamPartition)
+      state != null && state.waitingSets.exists(waiting => {
+        expireIdlePartitions(waiting)
+        if (waiting.isEmpty) {
+          false
+        } else {
+          val slowest = waiting.first
+          slowest.lastEventTime == Long.MinValue || slowest.lastEventTime + maxSkewMs < envelope.getEventTime
+        }
+      })
+    }
+  }
+
+  /**
+   * Stops waiting for the slowest partitions of a task once they have had no
+   * envelope for longer than the idle timeout. Only the slowest partition can
+   * hold back an envelope, so the other partitions are checked once they
+   * become the slowest.
+   */
+  private def expireIdlePartitions(waiting: TreeSet[PartitionState]) {
+    val now = clock()
+    while (!waiting.isEmpty && now - waiting.first.emptySinceNs > idleTimeoutNs) {
+      val idle = waiting.pollFirst
+      debug("No envelope from %s for %s ms, no longer waiting for it." format (idle.systemStreamPartition, idleTimeoutMs))
+      metrics.idlePartitions.inc
+    }
+  }
+
+  /**
+   * Waits for the partition of the chosen envelope again, unless the envelope
+   * has no event time or ends the stream. The partition then stays out of the
+   * waiting sets until the next envelope with an event time is chosen from it.
+   */
+  private def chosen(envelope: IncomingMessageEnvelope) {
+    val state = partitions.get(envelope.getSystemStreamPartition)
+    if (state != null && !envelope.isEndOfStream && envelope.getEventTime > 0) {
+      state.lastEventTime = math.max(state.lastEventTime, envelope.getEventTime)
+      state.emptySinceNs = clock()
+      state.waitingSets.foreach(_.add(state))
+    }
+  }
+}
+
+class EventTimeChooserMetrics(val registry: MetricsRegistry = new MetricsRegistryMap) extends MetricsHelper {
+  val heldBack = newCounter("held-back")
+  val idlePartitions = newCounter("idle-partitions")
+
+  def setBufferedMessages(getValue: () => Int) {
+    newGauge("buffered-messages", getValue)
+  }
+
+  def setWaitingPartitions(getValue: () => Int) {
+    newGauge("waiting-partitions", getValue)
+  }
+}
+
+class EventTimeChooserFactory extends TaskAwareMessageChooserFactory {
+  def getChooser(config: Config, registry: MetricsRegistry) = {
+    getChooser(config, registry, Collections.emptyMap())
+  }
+
+  def getChooser(
+    config: Config,
+    registry: MetricsRegistry,
+    taskSystemStreamPartitions: util.Map[TaskName, util.Set[SystemStreamPartition]]) = {
+    val taskConfig = new TaskConfig(config)
+    new EventTimeChooser(
+      taskConfig.getEventTimeChooserMaxSkewMs,
+      taskConfig.getEventTimeChooserIdleTimeoutMs,
+      new EventTimeChooserMetrics(registry),
+      taskSystemStreamPartitions = taskSystemStreamPartitions)
+  }
+}
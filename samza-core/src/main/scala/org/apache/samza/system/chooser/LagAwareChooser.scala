@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.system.chooser
+
+import java.util.{HashMap, LinkedHashMap}
+import java.util.concurrent.{Executors, ScheduledExecutorService, TimeUnit}
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder
+import org.apache.samza.config.{Config, TaskConfig}
+import org.apache.samza.metrics.{MetricsHelper, MetricsRegistry, MetricsRegistryMap}
+import org.apache.samza.system.{IncomingMessageEnvelope, SystemAdmins, SystemStreamPartition}
+import org.apache.samza.util.Logging
+
+import scala.collection.JavaConverters._
+
+/**
+ * A chooser that prefers the partitions that are furthest behind. Each
+ * partition's lag is the number of messages between the offset of its
+ * buffered envelope and the partition's upcoming offset, which is fetched
+ * from the system admin every lagRefreshMs. Partitions are chosen by smooth
+ * weighted round robin with a weight of 1 + lag, so a partition that is a
+ * million messages behind is chosen a million times as often as one that is
+ * caught up. The most lagging partitions catch up first, and all partitions
+ * reach the head at about the same time after a backlog, instead of every
+ * partition progressing at the same rate until the worst one finishes.
+ *
+ * <p>Lag is only computed for systems with numeric offsets, such as Kafka.
+ * Partitions with other offsets, or whose upcoming offset could not be
+ * fetched, have a lag of 0 and are chosen round robin.</p>
+ *
+ * <p>Each choice is linear in the number of partitions with a buffered
+ * envelope, which is at most the number of input partitions of the
+ * container.</p>
+ *
+ * @param systemAdmins the admins used to fetch upcoming offsets. They are
+ *                     started and stopped with the chooser.
+ * @param lagRefreshMs how often to fetch upcoming offsets. If it is 0 or
+ *                     less, they are only fetched when the chooser starts.
+ */
+class LagAwareChooser(
+  systemAdmins: SystemAdmins,
+  lagRefreshMs: Long,
+  metrics: LagAwareChooserMetrics = new LagAwareChooserMetrics) extends BaseMessageChooser with Logging {
+
+  private class PartitionState(val systemStreamPartition: SystemStreamPartition) {
+    // the upcoming offset of the partition as of the last refresh, or -1 if it is not known
+    @volatile var upcomingOffset = -1L
+    // the lag of the buffered envelope, or of the last chosen one if none is buffered
+    @volatile var lag = 0L
+    // the smooth weighted round robin credit of the partition
+    var credit = 0L
+    var envelope: IncomingMessageEnvelope = null
+  }
+
+  private val partitions = new HashMap[SystemStreamPartition, PartitionState]()
+
+  /**
+   * The partitions with a buffered envelope, in the order their envelopes arrived.
+   */
+  private val buffered = new LinkedHashMap[SystemStreamPartition, PartitionState]()
+
+  private var executor: ScheduledExecutorService = null
+
+  override def register(systemStreamPartition: SystemStreamPartition, offset: String) {
+    if (!partitions.containsKey(systemStreamPartition)) {
+      val state = new PartitionState(systemStreamPartition)
+      partitions.put(systemStreamPartition, state)
+      metrics.setLag(systemStreamPartition, () => state.lag)
+    }
+  }
+
+  override def start {
+    metrics.setBufferedPartitions(() => buffered.size)
+    metrics.setTotalLag(() => partitions.values.asScala.map(_.lag).sum)
+    systemAdmins.start
+    refreshUpcomingOffsets
+    if (lagRefreshMs > 0) {
+      executor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("Samza LagAwareChooser Thread-%d").setDaemon(true).build())
+      executor.scheduleWithFixedDelay(new Runnable {
+        def run = refreshUpcomingOffsets
+      }, lagRefreshMs, lagRefreshMs, TimeUnit.MILLISECONDS)
+    }
+  }
+
+  override def stop {
+    if (executor != null) {
+      executor.shutdownNow
+    }
+    systemAdmins.stop
+  }
+
+  def update(envelope: IncomingMessageEnvelope) {
+    val state = partitions.get(envelope.getSystemStreamPartition)
+    if (state == null) {
+      throw new IllegalStateException("Got an envelope for an unregistered partition %s." format envelope.getSystemStreamPartition)
+    }
+    state.envelope = envelope
+    state.lag = lag(envelope, state.upcomingOffset)
+    buffered.put(state.systemStreamPartition, state)
+  }
+
+  def choose: IncomingMessageEnvelope = {
+    var chosen: PartitionState = null
+    var totalWeight = 0L
+    val states = buffered.values.iterator
+    while (states.hasNext) {
+      val state = states.next
+      val weight = 1 + state.lag
+      state.credit += weight
+      totalWeight += weight
+      if (chosen == null || state.credit > chosen.credit) {
+        chosen = state
+      }
+    }
+
+    if (chosen == null) {
+      null
+    } else {
+      chosen.credit -= totalWeight
+      buffered.remove(chosen.systemStreamPartition)
+      val envelope = chosen.envelope
+      chosen.envelope = null
+      envelope
+    }
+  }
+
+  /**
+   * Fetches the upcoming offset of every registered partition. Failures are
+   * logged, and the affected partitions keep their previous upcoming offsets.
+   */
+  private[chooser] def refreshUpcomingOffsets {
+    partitions.keySet.asScala.groupBy(_.getSystem).foreach { case (system, systemStreamPartitions) =>
+      try {
+        val metadata = systemAdmins.getSystemAdmin(system).getSSPMetadata(systemStreamPartitions.asJava)
+        metadata.asScala.foreach { case (systemStreamPartition, partitionMetadata) =>
+          partitions.get(systemStreamPartition).upcomingOffset = toLong(partitionMetadata.getUpcomingOffset)
+        }
+      } catch {
+        case e: Exception =>
+          metrics.refreshFailures.inc
+          warn("Failed to fetch upcoming offsets for system %s, keeping the previous lag." format system, e)
+      }
+    }
+  }
+
+  private def lag(envelope: IncomingMessageEnvelope, upcomingOffset: Long) = {
+    val offset = toLong(envelope.getOffset)
+    if (offset < 0 || upcomingOffset < 0) 0L else math.max(0L, upcomingOffset - offset - 1)
+  }
+
+  private def toLong(offset: String) = {
+    try {
+      if (offset == null) -1L else offset.toLong
+    } catch {
+      case _: NumberFormatException => -1L
+    }
+  }
+}
+
+class LagAwareChooserMetrics(val registry: MetricsRegistry = new MetricsRegistryMap) extends MetricsHelper {
+  val refreshFailures = newCounter("lag-refresh-failures")
+
+  def setBufferedPartitions(getValue: () => Int) {
+    newGauge("buffered-partitions", getValue)
+  }
+
+  def setTotalLag(getValue: () => Long) {
+    newGauge("total-lag", getValue)
+  }
+
+  def setLag(systemStreamPartition: SystemStreamPartition, getValue: () => Long) {
+    newGauge("%s-%s-%s-lag" format (systemStreamPartition.getSystem, systemStreamPartition.getStream,
+      systemStreamPartition.getPartition.getPartitionId), getValue)
+  }
+}
+
+class LagAwareChooserFactory extends MessageChooserFactory {
+  def getChooser(config: Config, registry: MetricsRegistry) = {
+    new LagAwareChooser(
+      new SystemAdmins(config),
+      new TaskConfig(config).getLagAwareChooserRefreshMs,
+      new LagAwareChooserMetrics(registry))
+  }
+}
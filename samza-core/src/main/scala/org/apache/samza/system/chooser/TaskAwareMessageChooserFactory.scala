@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.system.chooser
+
+import java.util
+
+import org.apache.samza.config.Config
+import org.apache.samza.container.TaskName
+import org.apache.samza.metrics.MetricsRegistry
+import org.apache.samza.system.SystemStreamPartition
+
+/**
+ * A MessageChooserFactory for choosers that need to know which task each
+ * input partition belongs to. The container builds its choosers with the
+ * input partitions of its tasks, and falls back to
+ * MessageChooserFactory.getChooser when the assignment is not known.
+ */
+trait TaskAwareMessageChooserFactory extends MessageChooserFactory {
+  /**
+   * @param config the job config
+   * @param registry the registry for the chooser's metrics
+   * @param taskSystemStreamPartitions the input partitions of each task the
+   *                                   chooser chooses envelopes for
+   */
+  def getChooser(
+    config: Config,
+    registry: MetricsRegistry,
+    taskSystemStreamPartitions: util.Map[TaskName, util.Set[SystemStreamPartition]]): MessageChooser
+}
@@ -416,6 +416,16 @@ public class TestJobConfig {
     assertEquals(0, jobConfig.getThreadPoolSize());
   }
 
+  @Test
+  public void testGetDeserializationThreadPoolSize() {
+    JobConfig jobConfig = new JobConfig(new MapConfig(
+        ImmutableMap.of(JobConfig.DESERIALIZATION_THREAD_POOL_SIZE, "4")));
+    assertEquals(4, jobConfig.getDeserializationThreadPoolSize());
+
+    jobConfig = new JobConfig(new MapConfig());
+    assertEquals(JobConfig.DEFAULT_DESERIALIZATION_THREAD_POOL_SIZE, jobConfig.getDeserializationThreadPoolSize());
+  }
+
   @Test
   public void testGetDebounceTimeMs() {
     JobConfig jobConfig =
@@ -401,6 +401,26 @@ public class TestStorageConfig {
     assertEquals(true, storageConfig.getDropLargeMessages(STORE_NAME0));
   }
 
+  @Test
+  public void testGetChangelogCoalesceWrites() {
+    // empty config, return default
+    assertEquals(StorageConfig.DEFAULT_CHANGELOG_COALESCE_WRITES,
+        new StorageConfig(new MapConfig()).getChangelogCoalesceWrites(STORE_NAME0));
+
+    StorageConfig storageConfig = new StorageConfig(
+        new MapConfig(ImmutableMap.of(String.format(StorageConfig.CHANGELOG_COALESCE_WRITES, STORE_NAME0), "true")));
+    assertEquals(true, storageConfig.getChangelogCoalesceWrites(STORE_NAME0));
+  }
+
+  @Test
+  public void testGetMergeOperator() {
+    assertEquals(Optional.empty(), new StorageConfig(new MapConfig()).getMergeOperator(STORE_NAME0));
+
+    StorageConfig storageConfig = new StorageConfig(
+        new MapConfig(ImmutableMap.of(String.format(StorageConfig.MERGE_OPERATOR, STORE_NAME0), "long-add")));
+    assertEquals(Optional.of("long-add"), storageConfig.getMergeOperator(STORE_NAME0));
+  }
+
   @Test
   public void testGetChangelogMinCompactionLagMs() {
     // empty config, return default lag ms
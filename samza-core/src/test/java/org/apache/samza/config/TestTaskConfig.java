@@ -334,6 +334,20 @@ public class TestTaskConfig {
     assertEquals(TaskConfig.DEFAULT_TASK_SHUTDOWN_MS, new TaskConfig(new MapConfig()).getShutdownMs());
   }
 
+  @Test
+  public void testGetCheckpointReadThreads() {
+    assertEquals(TaskConfig.DEFAULT_CHECKPOINT_READ_THREADS, new TaskConfig(new MapConfig()).getCheckpointReadThreads());
+
+    Config config = new MapConfig(ImmutableMap.of(TaskConfig.CHECKPOINT_READ_THREADS, "4"));
+    assertEquals(4, new TaskConfig(config).getCheckpointReadThreads());
+  }
+
+  @Test(expected = ConfigException.class)
+  public void testGetCheckpointReadThreadsMustNotBeNegative() {
+    Config config = new MapConfig(ImmutableMap.of(TaskConfig.CHECKPOINT_READ_THREADS, "-1"));
+    new TaskConfig(config).getCheckpointReadThreads();
+  }
+
   @Test
   public void testGetTransactionalStateRestoreEnabled() {
     Map<String, String> configMap = new HashMap<>();
@@ -20,13 +20,17 @@
 package org.apache.samza.container;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import org.apache.samza.Partition;
 import org.apache.samza.SamzaException;
 import org.apache.samza.checkpoint.OffsetManager;
@@ -44,6 +48,7 @@ import org.junit.rules.Timeout;
 import org.mockito.InOrder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 
@@ -519,6 +524,194 @@ public class TestRunLoop {
     runLoop.run();
   }
 
+  @Test
+  public void testCallbackCompletedWhileParkedResumesRunLoop() {
+    ExecutorService taskExecutor = Executors.newSingleThreadExecutor();
+    SystemConsumers consumerMultiplexer = mock(SystemConsumers.class);
+    RunLoopTask task0 = getMockRunLoopTask(taskName0, ssp0);
+
+    // the run loop thread parks until it is resumed, so a lost wake up makes the test time out
+    long maxIdleMs = 0;
+    int maxMessagesInFlight = 1;
+    RunLoop runLoop = new RunLoop(ImmutableMap.of(taskName0, task0), executor, consumerMultiplexer, maxMessagesInFlight,
+        windowMs, commitMs, callbackTimeoutMs, maxThrottlingDelayMs, maxIdleMs, containerMetrics, () -> 0L, false);
+    Thread runLoopThread = Thread.currentThread();
+
+    doAnswer(invocation -> {
+      TaskCallback callback = invocation.getArgumentAt(2, TaskCallbackFactory.class).createCallback();
+      taskExecutor.submit(() -> {
+        // envelope01 can't be processed until this callback completes, so the run loop has no work and parks
+        awaitParked(runLoopThread, runLoop);
+        callback.complete();
+        return null;
+      });
+      return null;
+    }).when(task0).process(eq(envelope00), any(), any());
+
+    doAnswer(invocation -> {
+      ReadableCoordinator coordinator = invocation.getArgumentAt(1, ReadableCoordinator.class);
+      TaskCallback callback = invocation.getArgumentAt(2, TaskCallbackFactory.class).createCallback();
+      coordinator.shutdown(TaskCoordinator.RequestScope.CURRENT_TASK);
+      callback.complete();
+      return null;
+    }).when(task0).process(eq(envelope01), any(), any());
+
+    when(consumerMultiplexer.choose(false)).thenReturn(envelope00).thenReturn(envelope01).thenReturn(null);
+    runLoop.run();
+
+    InOrder inOrder = inOrder(task0);
+    inOrder.verify(task0).process(eq(envelope00), any(), any());
+    inOrder.verify(task0).process(eq(envelope01), any(), any());
+    assertEquals(2L, containerMetrics.processes().getCount());
+  }
+
+  @Test
+  public void testResumeRacingWithScheduleIsNotLost() {
+    int numEnvelopes = 1000;
+    ExecutorService taskExecutor = Executors.newFixedThreadPool(2);
+    SystemConsumers consumerMultiplexer = mock(SystemConsumers.class);
+    RunLoopTask task0 = getMockRunLoopTask(taskName0, ssp0);
+
+    // every callback completes on another thread while the run loop thread runs the task, clears its scheduled flag
+    // or parks. Each envelope waits for the callback of the previous one, so a lost wake up makes the test time out.
+    doAnswer(invocation -> {
+      IncomingMessageEnvelope envelope = invocation.getArgumentAt(0, IncomingMessageEnvelope.class);
+      ReadableCoordinator coordinator = invocation.getArgumentAt(1, ReadableCoordinator.class);
+      TaskCallback callback = invocation.getArgumentAt(2, TaskCallbackFactory.class).createCallback();
+      taskExecutor.submit(() -> {
+        if (envelope.getOffset().equals(String.valueOf(numEnvelopes - 1))) {
+          coordinator.shutdown(TaskCoordinator.RequestScope.CURRENT_TASK);
+        }
+        callback.complete();
+      });
+      return null;
+    }).when(task0).process(any(), any(), any());
+
+    AtomicInteger nextOffset = new AtomicInteger();
+    when(consumerMultiplexer.choose(false)).thenAnswer(invocation -> {
+      int offset = nextOffset.getAndIncrement();
+      return offset < numEnvelopes ? new IncomingMessageEnvelope(ssp0, String.valueOf(offset), "key0", "value0") : null;
+    });
+
+    long maxIdleMs = 0;
+    int maxMessagesInFlight = 1;
+    RunLoop runLoop = new RunLoop(ImmutableMap.of(taskName0, task0), executor, consumerMultiplexer, maxMessagesInFlight,
+        windowMs, commitMs, callbackTimeoutMs, maxThrottlingDelayMs, maxIdleMs, containerMetrics, () -> 0L, false);
+    runLoop.run();
+
+    verify(task0, times(numEnvelopes)).process(any(), any(), any());
+    assertEquals(numEnvelopes, containerMetrics.processes().getCount());
+  }
+
+  @Test
+  public void testShutdownWhileParked() throws Exception {
+    ExecutorService shutdownExecutor = Executors.newSingleThreadExecutor();
+    SystemConsumers consumerMultiplexer = mock(SystemConsumers.class);
+    RunLoopTask task0 = getMockRunLoopTask(taskName0, ssp0);
+
+    long maxIdleMs = 0;
+    int maxMessagesInFlight = 1;
+    RunLoop runLoop = new RunLoop(ImmutableMap.of(taskName0, task0), executor, consumerMultiplexer, maxMessagesInFlight,
+        windowMs, commitMs, callbackTimeoutMs, maxThrottlingDelayMs, maxIdleMs, containerMetrics, () -> 0L, false);
+    when(consumerMultiplexer.choose(false)).thenReturn(null);
+
+    Thread runLoopThread = Thread.currentThread();
+    Future<?> shutdown = shutdownExecutor.submit(() -> {
+      awaitParked(runLoopThread, runLoop);
+      runLoop.shutdown();
+      return null;
+    });
+    runLoop.run();
+
+    shutdown.get();
+    verify(task0, never()).process(any(), any(), any());
+  }
+
+  @Test
+  public void testCommitAndWindowWaitForInFlightMessagesWithMaxConcurrency() {
+    int numEnvelopes = 100;
+    int maxMessagesInFlight = 2;
+    long windowMs = 5;
+    long commitMs = 7;
+    ExecutorService threadPool = Executors.newFixedThreadPool(2);
+    ExecutorService taskExecutor = Executors.newFixedThreadPool(maxMessagesInFlight);
+    SystemConsumers consumerMultiplexer = mock(SystemConsumers.class);
+    RunLoopTask task0 = getMockRunLoopTask(taskName0, ssp0);
+    when(task0.isWindowableTask()).thenReturn(true);
+
+    AtomicInteger messagesInFlight = new AtomicInteger();
+    AtomicInteger maxMessagesInFlightSeen = new AtomicInteger();
+    AtomicInteger opsInFlight = new AtomicInteger();
+    AtomicInteger processed = new AtomicInteger();
+    AtomicInteger commits = new AtomicInteger();
+    List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+    doAnswer(invocation -> {
+      if (opsInFlight.get() > 0) {
+        violations.add("process started during window or commit");
+      }
+      TaskCallback callback = invocation.getArgumentAt(2, TaskCallbackFactory.class).createCallback();
+      maxMessagesInFlightSeen.accumulateAndGet(messagesInFlight.incrementAndGet(), Math::max);
+      taskExecutor.submit(() -> {
+        Thread.sleep(1);
+        processed.incrementAndGet();
+        messagesInFlight.decrementAndGet();
+        callback.complete();
+        return null;
+      });
+      return null;
+    }).when(task0).process(any(), any(), any());
+
+    doAnswer(invocation -> {
+      if (opsInFlight.incrementAndGet() > 1) {
+        violations.add("window overlapped with commit");
+      }
+      if (messagesInFlight.get() > 0) {
+        violations.add("window started with messages in flight");
+      }
+      if (processed.get() == numEnvelopes && commits.get() > 0) {
+        invocation.getArgumentAt(0, ReadableCoordinator.class).shutdown(TaskCoordinator.RequestScope.CURRENT_TASK);
+      }
+      opsInFlight.decrementAndGet();
+      return null;
+    }).when(task0).window(any());
+
+    doAnswer(invocation -> {
+      if (opsInFlight.incrementAndGet() > 1) {
+        violations.add("commit overlapped with window");
+      }
+      if (messagesInFlight.get() > 0) {
+        violations.add("commit started with messages in flight");
+      }
+      commits.incrementAndGet();
+      opsInFlight.decrementAndGet();
+      return null;
+    }).when(task0).commit();
+
+    AtomicInteger nextOffset = new AtomicInteger();
+    when(consumerMultiplexer.choose(false)).thenAnswer(invocation -> {
+      int offset = nextOffset.getAndIncrement();
+      return offset < numEnvelopes ? new IncomingMessageEnvelope(ssp0, String.valueOf(offset), "key0", "value0") : null;
+    });
+
+    RunLoop runLoop = new RunLoop(ImmutableMap.of(taskName0, task0), threadPool, consumerMultiplexer,
+        maxMessagesInFlight, windowMs, commitMs, callbackTimeoutMs, maxThrottlingDelayMs, maxIdleMs, containerMetrics,
+        () -> 0L, false);
+    runLoop.run();
+
+    assertTrue(violations.toString(), violations.isEmpty());
+    assertEquals(numEnvelopes, processed.get());
+    assertEquals(maxMessagesInFlight, maxMessagesInFlightSeen.get());
+    assertTrue(commits.get() > 0);
+  }
+
+  // Waits until the run loop thread is parked because it has no work
+  private static void awaitParked(Thread runLoopThread, RunLoop runLoop) throws InterruptedException {
+    while (LockSupport.getBlocker(runLoopThread) != runLoop) {
+      Thread.sleep(1);
+    }
+  }
+
   private RunLoopTask getMockRunLoopTask(TaskName taskName, SystemStreamPartition ssp0) {
     RunLoopTask task0 = mock(RunLoopTask.class);
     when(task0.systemStreamPartitions()).thenReturn(Collections.singleton(ssp0));
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.container;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.samza.Partition;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.SystemConsumers;
+import org.apache.samza.system.SystemStreamPartition;
+import org.apache.samza.task.CoordinatorRequests;
+import org.apache.samza.task.ReadableCoordinator;
+import org.apache.samza.task.TaskCallback;
+import org.apache.samza.task.TaskCallbackFactory;
+import org.apache.samza.task.TaskCoordinator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+
+public class TestShardedRunLoop {
+  private final SamzaContainerMetrics containerMetrics = new SamzaContainerMetrics("container", new MetricsRegistryMap(), "");
+  private final TaskName taskName0 = new TaskName("Partition 0");
+  private final TaskName taskName1 = new TaskName("Partition 1");
+  private final TaskName taskName2 = new TaskName("Partition 2");
+  private final TaskName taskName3 = new TaskName("Partition 3");
+  private final SystemStreamPartition ssp0 = new SystemStreamPartition("testSystem", "testStream", new Partition(0));
+  private final SystemStreamPartition ssp1 = new SystemStreamPartition("testSystem", "testStream", new Partition(1));
+  private final SystemStreamPartition ssp2 = new SystemStreamPartition("testSystem", "testStream", new Partition(2));
+  private final SystemStreamPartition ssp3 = new SystemStreamPartition("testSystem", "testStream", new Partition(3));
+  private final SystemStreamPartition broadcastSsp =
+      new SystemStreamPartition("testSystem", "broadcastStream", new Partition(0));
+  private final IncomingMessageEnvelope envelope0 = new IncomingMessageEnvelope(ssp0, "0", "key0", "value0");
+  private final IncomingMessageEnvelope envelope1 = new IncomingMessageEnvelope(ssp1, "0", "key1", "value1");
+
+  @Rule
+  public Timeout maxTestDurationInSeconds = Timeout.seconds(120);
+
+  @Test
+  public void testAssignTasksToShardsBalancesPartitions() {
+    Map<TaskName, Set<SystemStreamPartition>> taskSSPs = ImmutableMap.of(
+        taskName0, ImmutableSet.of(ssp0, ssp1),
+        taskName1, ImmutableSet.of(ssp2),
+        taskName2, ImmutableSet.of(ssp3));
+
+    List<Set<TaskName>> shards = ShardedRunLoop.assignTasksToShards(taskSSPs, 2);
+
+    assertEquals(Arrays.asList(ImmutableSet.of(taskName0), ImmutableSet.of(taskName1, taskName2)), shards);
+  }
+
+  @Test
+  public void testTasksSharingAPartitionAreInTheSameShard() {
+    Map<TaskName, Set<SystemStreamPartition>> taskSSPs = ImmutableMap.of(
+        taskName0, ImmutableSet.of(ssp0, broadcastSsp),
+        taskName1, ImmutableSet.of(ssp1),
+        taskName2, ImmutableSet.of(ssp2, broadcastSsp),
+        taskName3, ImmutableSet.of(ssp3));
+
+    List<Set<TaskName>> shards = ShardedRunLoop.assignTasksToShards(taskSSPs, 4);
+
+    assertEquals(3, shards.size());
+    assertEquals(ImmutableSet.of(taskName0, taskName2), shards.get(0));
+  }
+
+  @Test
+  public void testAssignTasksToShardsWithoutTasks() {
+    List<Set<TaskName>> shards = ShardedRunLoop.assignTasksToShards(Collections.emptyMap(), 4);
+
+    assertEquals(Collections.singletonList(Collections.emptySet()), shards);
+  }
+
+  @Test
+  public void testShutdownOnConsensusAcrossShards() {
+    RunLoopTask task0 = getMockRunLoopTask(taskName0, ssp0);
+    RunLoopTask task1 = getMockRunLoopTask(taskName1, ssp1);
+    requestOnProcess(task0, envelope0, null, TaskCoordinator.RequestScope.CURRENT_TASK);
+    requestOnProcess(task1, envelope1, null, TaskCoordinator.RequestScope.CURRENT_TASK);
+
+    SystemConsumers consumerMultiplexer0 = mock(SystemConsumers.class);
+    when(consumerMultiplexer0.choose(false)).thenReturn(envelope0).thenReturn(null);
+    SystemConsumers consumerMultiplexer1 = mock(SystemConsumers.class);
+    when(consumerMultiplexer1.choose(false)).thenReturn(envelope1).thenReturn(null);
+
+    CoordinatorRequests coordinatorRequests = new CoordinatorRequests(ImmutableSet.of(taskName0, taskName1));
+    ShardedRunLoop runLoop = new ShardedRunLoop(Arrays.asList(
+        createShard(ImmutableMap.of(taskName0, task0), consumerMultiplexer0, coordinatorRequests),
+        createShard(ImmutableMap.of(taskName1, task1), consumerMultiplexer1, coordinatorRequests)));
+    runLoop.run();
+
+    verify(task0).process(eq(envelope0), any(), any());
+    verify(task1).process(eq(envelope1), any(), any());
+    assertEquals(2L, containerMetrics.processes().getCount());
+  }
+
+  @Test
+  public void testCommitAllTasksAcrossShards() {
+    RunLoopTask task0 = getMockRunLoopTask(taskName0, ssp0);
+    RunLoopTask task1 = getMockRunLoopTask(taskName1, ssp1);
+    requestOnProcess(task0, envelope0, TaskCoordinator.RequestScope.ALL_TASKS_IN_CONTAINER,
+        TaskCoordinator.RequestScope.ALL_TASKS_IN_CONTAINER);
+
+    SystemConsumers consumerMultiplexer0 = mock(SystemConsumers.class);
+    when(consumerMultiplexer0.choose(false)).thenReturn(envelope0).thenReturn(null);
+    // the second shard has no messages, so it only commits if the first shard resumes it
+    SystemConsumers consumerMultiplexer1 = mock(SystemConsumers.class);
+    when(consumerMultiplexer1.choose(false)).thenReturn(null);
+
+    CoordinatorRequests coordinatorRequests = new CoordinatorRequests(ImmutableSet.of(taskName0, taskName1));
+    ShardedRunLoop runLoop = new ShardedRunLoop(Arrays.asList(
+        createShard(ImmutableMap.of(taskName0, task0), consumerMultiplexer0, coordinatorRequests),
+        createShard(ImmutableMap.of(taskName1, task1), consumerMultiplexer1, coordinatorRequests)));
+    runLoop.run();
+
+    verify(task0).commit();
+    verify(task1).commit();
+  }
+
+  @Test
+  public void testShutdownStopsAllShards() throws Exception {
+    SystemConsumers consumerMultiplexer0 = mock(SystemConsumers.class);
+    SystemConsumers consumerMultiplexer1 = mock(SystemConsumers.class);
+    CoordinatorRequests coordinatorRequests = new CoordinatorRequests(ImmutableSet.of(taskName0, taskName1));
+    ShardedRunLoop runLoop = new ShardedRunLoop(Arrays.asList(
+        createShard(ImmutableMap.of(taskName0, getMockRunLoopTask(taskName0, ssp0)), consumerMultiplexer0,
+            coordinatorRequests),
+        createShard(ImmutableMap.of(taskName1, getMockRunLoopTask(taskName1, ssp1)), consumerMultiplexer1,
+            coordinatorRequests)));
+
+    Thread thread = new Thread(runLoop);
+    thread.start();
+    runLoop.shutdown();
+    thread.join();
+  }
+
+  private RunLoop createShard(Map<TaskName, RunLoopTask> tasks, SystemConsumers consumerMultiplexer,
+      CoordinatorRequests coordinatorRequests) {
+    return new RunLoop(tasks, null, consumerMultiplexer, 1, -1, -1, 0, 0, 10, containerMetrics, () -> 0L, false,
+        coordinatorRequests);
+  }
+
+  private void requestOnProcess(RunLoopTask task, IncomingMessageEnvelope envelope,
+      TaskCoordinator.RequestScope commitScope, TaskCoordinator.RequestScope shutdownScope) {
+    doAnswer(invocation -> {
+      ReadableCoordinator coordinator = invocation.getArgumentAt(1, ReadableCoordinator.class);
+      TaskCallbackFactory callbackFactory = invocation.getArgumentAt(2, TaskCallbackFactory.class);
+      TaskCallback callback = callbackFactory.createCallback();
+      if (commitScope != null) {
+        coordinator.commit(commitScope);
+      }
+      coordinator.shutdown(shutdownScope);
+      callback.complete();
+      return null;
+    }).when(task).process(eq(envelope), any(), any());
+  }
+
+  private RunLoopTask getMockRunLoopTask(TaskName taskName, SystemStreamPartition ssp) {
+    RunLoopTask task = mock(RunLoopTask.class);
+    when(task.systemStreamPartitions()).thenReturn(Collections.singleton(ssp));
+    when(task.metrics()).thenReturn(new TaskInstanceMetrics("test", new MetricsRegistryMap(), ""));
+    when(task.taskName()).thenReturn(taskName);
+    return task;
+  }
+}
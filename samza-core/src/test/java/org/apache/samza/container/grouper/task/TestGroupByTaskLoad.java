@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.container.grouper.task;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.job.model.ContainerModel;
+import org.apache.samza.job.model.TaskModel;
+import org.junit.Test;
+
+import static org.apache.samza.container.mock.ContainerMocks.*;
+import static org.junit.Assert.*;
+
+public class TestGroupByTaskLoad {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGroupFewerTasksThanContainers() {
+    new GroupByTaskLoad(3, 0.1).group(generateTaskModels(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTolerance() {
+    new GroupByTaskLoad(1, -0.1);
+  }
+
+  @Test
+  public void testGroupWithoutLoadsBalancesTaskCount() {
+    Set<ContainerModel> containers = new GroupByTaskLoad(2, 0.1).group(generateTaskModels(5));
+
+    Map<String, ContainerModel> containersMap = getContainersMap(containers);
+    assertEquals(2, containers.size());
+    assertEquals(5, containersMap.get("0").getTasks().size() + containersMap.get("1").getTasks().size());
+    assertTrue(Math.abs(containersMap.get("0").getTasks().size() - containersMap.get("1").getTasks().size()) <= 1);
+  }
+
+  @Test
+  public void testGroupBalancesByLoad() {
+    Set<TaskModel> taskModels = generateTaskModels(4);
+    Map<TaskName, TaskLoad> taskLoads = ImmutableMap.of(
+        getTaskName(0), new TaskLoad(1000, 100, 0),
+        getTaskName(1), new TaskLoad(100, 10, 0),
+        getTaskName(2), new TaskLoad(100, 10, 0),
+        getTaskName(3), new TaskLoad(800, 80, 0));
+
+    Set<ContainerModel> containers = new GroupByTaskLoad(2, 0.1).group(taskModels, getMetadata(taskLoads,
+        Collections.emptyMap()));
+
+    // The heaviest task gets a container of its own, the other tasks together have the same load
+    ContainerModel heavyContainer = getContainerOf(containers, getTaskName(0));
+    assertEquals(1, heavyContainer.getTasks().size());
+    ContainerModel otherContainer = getContainerOf(containers, getTaskName(3));
+    assertNotEquals(heavyContainer.getId(), otherContainer.getId());
+    assertEquals(3, otherContainer.getTasks().size());
+  }
+
+  @Test
+  public void testGroupKeepsPreviousAssignmentWhenBalanced() {
+    Set<TaskModel> taskModels = generateTaskModels(4);
+    Map<TaskName, TaskLoad> taskLoads = new HashMap<>();
+    taskModels.forEach(task -> taskLoads.put(task.getTaskName(), new TaskLoad(100, 100, 100)));
+    Map<TaskName, String> previousAssignment = ImmutableMap.of(
+        getTaskName(0), "1", getTaskName(1), "0", getTaskName(2), "1", getTaskName(3), "0");
+
+    Set<ContainerModel> containers = new GroupByTaskLoad(2, 0.1).group(taskModels, getMetadata(taskLoads,
+        previousAssignment));
+
+    previousAssignment.forEach((taskName, containerId) ->
+        assertEquals(containerId, getContainerOf(containers, taskName).getId()));
+  }
+
+  @Test
+  public void testGroupMovesTasksOffOverloadedContainer() {
+    Set<TaskModel> taskModels = generateTaskModels(4);
+    Map<TaskName, TaskLoad> taskLoads = new HashMap<>();
+    Map<TaskName, String> previousAssignment = new HashMap<>();
+    taskModels.forEach(task -> {
+      taskLoads.put(task.getTaskName(), new TaskLoad(100, 100, 0));
+      previousAssignment.put(task.getTaskName(), "0");
+    });
+
+    Set<ContainerModel> containers = new GroupByTaskLoad(2, 0.1).group(taskModels, getMetadata(taskLoads,
+        previousAssignment));
+
+    // only as many tasks as needed are moved, the others stay in their previous container
+    Map<String, ContainerModel> containersMap = getContainersMap(containers);
+    assertEquals(2, containersMap.get("0").getTasks().size());
+    assertEquals(2, containersMap.get("1").getTasks().size());
+    assertTrue(containersMap.get("0").getTasks().containsKey(getTaskName(2)));
+    assertTrue(containersMap.get("0").getTasks().containsKey(getTaskName(3)));
+  }
+
+  @Test
+  public void testGroupFillsNewContainers() {
+    Set<TaskModel> taskModels = generateTaskModels(4);
+    Map<TaskName, String> previousAssignment = ImmutableMap.of(
+        getTaskName(0), "0", getTaskName(1), "0", getTaskName(2), "1", getTaskName(3), "1");
+
+    Set<ContainerModel> containers = new GroupByTaskLoad(3, 0.1).group(taskModels, getMetadata(Collections.emptyMap(),
+        previousAssignment));
+
+    assertEquals(3, containers.size());
+    containers.forEach(container -> assertFalse(container.getTasks().isEmpty()));
+  }
+
+  private static GrouperMetadata getMetadata(Map<TaskName, TaskLoad> taskLoads,
+      Map<TaskName, String> previousAssignment) {
+    return new GrouperMetadataImpl(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+        previousAssignment, taskLoads);
+  }
+
+  private static Map<String, ContainerModel> getContainersMap(Set<ContainerModel> containers) {
+    Map<String, ContainerModel> containersMap = new HashMap<>();
+    containers.forEach(container -> containersMap.put(container.getId(), container));
+    return containersMap;
+  }
+
+  private static ContainerModel getContainerOf(Set<ContainerModel> containers, TaskName taskName) {
+    return containers.stream()
+        .filter(container -> container.getTasks().containsKey(taskName))
+        .findFirst()
+        .get();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.container.grouper.task;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.apache.samza.config.Config;
+import org.apache.samza.config.MapConfig;
+import org.apache.samza.container.TaskName;
+import org.apache.samza.coordinator.metadatastore.CoordinatorStreamStore;
+import org.apache.samza.coordinator.metadatastore.CoordinatorStreamStoreTestUtil;
+import org.apache.samza.coordinator.metadatastore.NamespaceAwareCoordinatorStreamStore;
+import org.apache.samza.coordinator.stream.CoordinatorStreamValueSerde;
+import org.apache.samza.coordinator.stream.MockCoordinatorStreamSystemFactory;
+import org.apache.samza.coordinator.stream.messages.SetTaskLoadMapping;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestTaskLoadManager {
+
+  private static final Config CONFIG = new MapConfig(ImmutableMap.of("job.name", "test-job", "job.coordinator.system", "test-kafka"));
+
+  private CoordinatorStreamStore coordinatorStreamStore;
+  private TaskLoadManager taskLoadManager;
+
+  @Before
+  public void setup() {
+    CoordinatorStreamStoreTestUtil coordinatorStreamStoreTestUtil = new CoordinatorStreamStoreTestUtil(CONFIG);
+    coordinatorStreamStore = coordinatorStreamStoreTestUtil.getCoordinatorStreamStore();
+    taskLoadManager = new TaskLoadManager(new NamespaceAwareCoordinatorStreamStore(coordinatorStreamStore, SetTaskLoadMapping.TYPE));
+  }
+
+  @After
+  public void tearDown() {
+    MockCoordinatorStreamSystemFactory.disableMockConsumerCache();
+  }
+
+  @Test
+  public void testWriteAndReadTaskLoads() {
+    Map<TaskName, TaskLoad> taskLoads = ImmutableMap.of(
+        new TaskName("Task0"), new TaskLoad(1000.5, 2000000, 4096),
+        new TaskName("Task1"), new TaskLoad(0, 0, 0));
+
+    taskLoadManager.writeTaskLoads(taskLoads);
+
+    assertEquals(taskLoads, taskLoadManager.readTaskLoads());
+
+    taskLoadManager.close();
+  }
+
+  @Test
+  public void testReadSkipsInvalidTaskLoads() {
+    Map<TaskName, TaskLoad> taskLoads = ImmutableMap.of(new TaskName("Task0"), new TaskLoad(10, 20, 30));
+    taskLoadManager.writeTaskLoads(taskLoads);
+    new NamespaceAwareCoordinatorStreamStore(coordinatorStreamStore, SetTaskLoadMapping.TYPE)
+        .put("Task1", new CoordinatorStreamValueSerde(SetTaskLoadMapping.TYPE).toBytes("not-a-load"));
+
+    assertEquals(taskLoads, taskLoadManager.readTaskLoads());
+
+    taskLoadManager.close();
+  }
+}
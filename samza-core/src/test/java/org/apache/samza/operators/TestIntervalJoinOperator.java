@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.operators;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.samza.Partition;
+import org.apache.samza.application.descriptors.StreamApplicationDescriptorImpl;
+import org.apache.samza.config.Config;
+import org.apache.samza.config.MapConfig;
+import org.apache.samza.context.Context;
+import org.apache.samza.context.MockContext;
+import org.apache.samza.job.model.TaskModel;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.operators.functions.IntervalJoinFunction;
+import org.apache.samza.operators.impl.store.BucketedTimeSeriesKeySerde;
+import org.apache.samza.operators.impl.store.TestInMemoryStore;
+import org.apache.samza.operators.spec.IntervalJoinOperatorSpec;
+import org.apache.samza.operators.spec.OperatorSpec;
+import org.apache.samza.operators.spec.StoreDescriptor;
+import org.apache.samza.serializers.IntegerSerde;
+import org.apache.samza.serializers.KVSerde;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.OutgoingMessageEnvelope;
+import org.apache.samza.system.SystemStream;
+import org.apache.samza.system.SystemStreamPartition;
+import org.apache.samza.system.descriptors.GenericInputDescriptor;
+import org.apache.samza.system.descriptors.GenericSystemDescriptor;
+import org.apache.samza.task.MessageCollector;
+import org.apache.samza.task.StreamOperatorTask;
+import org.apache.samza.task.TaskCallback;
+import org.apache.samza.task.TaskCoordinator;
+import org.apache.samza.testUtils.StreamTestUtils;
+import org.apache.samza.util.SystemClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestIntervalJoinOperator {
+  private static final Duration JOIN_WINDOW = Duration.ofMillis(10);
+  private static final SystemStreamPartition FIRST_SSP =
+      new SystemStreamPartition("insystem", "instream", new Partition(0));
+  private static final SystemStreamPartition SECOND_SSP =
+      new SystemStreamPartition("insystem", "instream2", new Partition(0));
+
+  private final TaskCoordinator taskCoordinator = mock(TaskCoordinator.class);
+  private final TaskCallback taskCallback = mock(TaskCallback.class);
+  private final List<Integer> output = new ArrayList<>();
+  private final MessageCollector messageCollector = envelope -> output.add((Integer) envelope.getMessage());
+
+  private TestInMemoryStore leftStore;
+  private TestInMemoryStore rightStore;
+  private StreamOperatorTask sot;
+
+  @Before
+  public void setup() throws Exception {
+    IntegerSerde integerSerde = new IntegerSerde();
+    leftStore = new TestInMemoryStore(new BucketedTimeSeriesKeySerde<>(integerSerde), KVSerde.of(integerSerde, integerSerde));
+    rightStore = new TestInMemoryStore(new BucketedTimeSeriesKeySerde<>(integerSerde), KVSerde.of(integerSerde, integerSerde));
+    sot = createStreamOperatorTask(getTestJoinStreamGraph());
+  }
+
+  @Test
+  public void joinWithinWindow() {
+    // messages are KV(key, event time)
+    send(FIRST_SSP, 1, 100);
+    send(SECOND_SSP, 1, 105);
+    send(SECOND_SSP, 1, 111);
+    send(SECOND_SSP, 2, 100);
+
+    assertEquals(1, output.size());
+    assertEquals(205, (int) output.get(0));
+  }
+
+  @Test
+  public void joinAllMatchesForKey() {
+    send(FIRST_SSP, 1, 100);
+    send(FIRST_SSP, 1, 102);
+    send(FIRST_SSP, 1, 130);
+    send(SECOND_SSP, 1, 105);
+
+    assertEquals(2, output.size());
+    assertEquals(205 + 207, output.stream().reduce(0, (s, m) -> s + m).intValue());
+
+    output.clear();
+    // the earlier messages on both sides are still buffered
+    send(FIRST_SSP, 1, 95);
+    assertEquals(1, output.size());
+    assertEquals(200, (int) output.get(0));
+  }
+
+  @Test
+  public void joinEvictsOtherSideByWatermark() {
+    send(FIRST_SSP, 1, 100);
+    send(SECOND_SSP, 1, 100);
+    assertTrue(leftStore.all().hasNext());
+    assertTrue(rightStore.all().hasNext());
+
+    // the watermark of the first stream evicts messages in the second stream that it can no longer join with
+    sot.processAsync(IncomingMessageEnvelope.buildWatermarkEnvelope(FIRST_SSP, 200L), messageCollector,
+        taskCoordinator, taskCallback);
+    assertTrue(leftStore.all().hasNext());
+    assertFalse(rightStore.all().hasNext());
+
+    sot.processAsync(IncomingMessageEnvelope.buildWatermarkEnvelope(SECOND_SSP, 200L), messageCollector,
+        taskCoordinator, taskCallback);
+    assertFalse(leftStore.all().hasNext());
+  }
+
+  @Test
+  public void joinDropsLateMessages() {
+    send(SECOND_SSP, 1, 195);
+    sot.processAsync(IncomingMessageEnvelope.buildWatermarkEnvelope(FIRST_SSP, 200L), messageCollector,
+        taskCoordinator, taskCallback);
+    output.clear();
+
+    // behind the watermark of the first stream
+    send(FIRST_SSP, 1, 199);
+    assertTrue(output.isEmpty());
+    assertFalse(leftStore.all().hasNext());
+
+    send(FIRST_SSP, 1, 200);
+    assertEquals(1, output.size());
+  }
+
+  @Test
+  public void intervalJoinStoresUseBucketedKeys() {
+    OperatorSpec joinSpec = getTestJoinStreamGraph().getOperatorSpecGraph().getAllOperatorSpecs().stream()
+        .filter(spec -> spec instanceof IntervalJoinOperatorSpec)
+        .findFirst().get();
+    Collection<StoreDescriptor> storeDescriptors = ((IntervalJoinOperatorSpec) joinSpec).getStoreDescriptors();
+
+    assertEquals(2, storeDescriptors.size());
+    storeDescriptors.forEach(descriptor -> {
+      assertTrue(descriptor.getKeySerde() instanceof BucketedTimeSeriesKeySerde);
+      assertNull(descriptor.getStorageConfigs().get(
+          String.format("stores.%s.rocksdb.ttl.ms", descriptor.getStoreName())));
+    });
+    assertNull(joinSpec.getWatermarkFn());
+  }
+
+  private void send(SystemStreamPartition ssp, int key, int timestamp) {
+    sot.processAsync(new IncomingMessageEnvelope(ssp, "1", key, timestamp), messageCollector, taskCoordinator,
+        taskCallback);
+  }
+
+  private StreamOperatorTask createStreamOperatorTask(StreamApplicationDescriptorImpl graphSpec) throws Exception {
+    Map<String, String> mapConfig = new HashMap<>();
+    mapConfig.put("job.name", "jobName");
+    mapConfig.put("job.id", "jobId");
+    StreamTestUtils.addStreamConfigs(mapConfig, "inStream", "insystem", "instream");
+    StreamTestUtils.addStreamConfigs(mapConfig, "inStream2", "insystem", "instream2");
+    Context context = new MockContext(new MapConfig(mapConfig));
+    TaskModel taskModel = mock(TaskModel.class);
+    when(taskModel.getSystemStreamPartitions()).thenReturn(ImmutableSet.of(FIRST_SSP, SECOND_SSP));
+    when(context.getTaskContext().getTaskModel()).thenReturn(taskModel);
+    when(context.getTaskContext().getTaskMetricsRegistry()).thenReturn(new MetricsRegistryMap());
+    when(context.getContainerContext().getContainerMetricsRegistry()).thenReturn(new MetricsRegistryMap());
+    when(context.getTaskContext().getStore(eq("jobName-jobId-join-j1-L"))).thenReturn(leftStore);
+    when(context.getTaskContext().getStore(eq("jobName-jobId-join-j1-R"))).thenReturn(rightStore);
+
+    StreamOperatorTask sot = new StreamOperatorTask(graphSpec.getOperatorSpecGraph(), new SystemClock());
+    sot.init(context);
+    return sot;
+  }
+
+  private StreamApplicationDescriptorImpl getTestJoinStreamGraph() {
+    Map<String, String> mapConfig = new HashMap<>();
+    mapConfig.put("job.name", "jobName");
+    mapConfig.put("job.id", "jobId");
+    StreamTestUtils.addStreamConfigs(mapConfig, "inStream", "insystem", "instream");
+    StreamTestUtils.addStreamConfigs(mapConfig, "inStream2", "insystem", "instream2");
+    Config config = new MapConfig(mapConfig);
+
+    return new StreamApplicationDescriptorImpl(appDesc -> {
+      IntegerSerde integerSerde = new IntegerSerde();
+      KVSerde<Integer, Integer> kvSerde = KVSerde.of(integerSerde, integerSerde);
+      GenericSystemDescriptor sd = new GenericSystemDescriptor("insystem", "mockFactoryClassName");
+      GenericInputDescriptor<KV<Integer, Integer>> inputDescriptor1 = sd.getInputDescriptor("inStream", kvSerde);
+      GenericInputDescriptor<KV<Integer, Integer>> inputDescriptor2 = sd.getInputDescriptor("inStream2", kvSerde);
+
+      MessageStream<KV<Integer, Integer>> inStream = appDesc.getInputStream(inputDescriptor1);
+      MessageStream<KV<Integer, Integer>> inStream2 = appDesc.getInputStream(inputDescriptor2);
+
+      inStream
+          .intervalJoin(inStream2, new TestIntervalJoinFunction(), integerSerde, kvSerde, kvSerde, JOIN_WINDOW, "j1")
+          .sink((message, messageCollector, taskCoordinator) -> {
+            SystemStream outputSystemStream = new SystemStream("outputSystem", "outputStream");
+            messageCollector.send(new OutgoingMessageEnvelope(outputSystemStream, message));
+          });
+    }, config);
+  }
+
+  private static class TestIntervalJoinFunction
+      implements IntervalJoinFunction<Integer, KV<Integer, Integer>, KV<Integer, Integer>, Integer> {
+
+    @Override
+    public Integer apply(KV<Integer, Integer> message, KV<Integer, Integer> otherMessage) {
+      return message.value + otherMessage.value;
+    }
+
+    @Override
+    public Integer getFirstKey(KV<Integer, Integer> message) {
+      return message.key;
+    }
+
+    @Override
+    public Integer getSecondKey(KV<Integer, Integer> message) {
+      return message.key;
+    }
+
+    @Override
+    public long getFirstTimestamp(KV<Integer, Integer> message) {
+      return message.value;
+    }
+
+    @Override
+    public long getSecondTimestamp(KV<Integer, Integer> message) {
+      return message.value;
+    }
+  }
+}
@@ -18,13 +18,18 @@
  */
 package org.apache.samza.operators.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CountDownLatch;
 import junit.framework.Assert;
 import org.apache.samza.SamzaException;
 import org.apache.samza.context.Context;
 import org.apache.samza.context.MockContext;
 import org.apache.samza.operators.KV;
+import org.apache.samza.operators.StreamTableJoinOptions;
 import org.apache.samza.operators.data.TestMessageEnvelope;
 import org.apache.samza.operators.functions.StreamTableJoinFunction;
 import org.apache.samza.operators.spec.StreamTableJoinOperatorSpec;
@@ -141,4 +146,89 @@ public class TestStreamTableJoinOperatorImpl {
     assertEquals("Join function should only be invoked once", 0, joinInvokedLatch.getCount());
   }
 
+  @Test
+  public void testPipelinedJoinEmitsInOrder() {
+    List<CompletableFuture<String>> lookups = new ArrayList<>();
+    ReadWriteTable table = mock(ReadWriteTable.class);
+    when(table.getAsync(any())).thenAnswer(invocation -> {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        lookups.add(lookup);
+        return lookup;
+      });
+    StreamTableJoinOperatorImpl<String, KV<String, String>, KV<String, String>, String> joinOperator =
+        createPipelinedJoinOperator(table, new StreamTableJoinOptions().withMaxOutstandingLookups(2));
+
+    List<String> results = new ArrayList<>();
+    List<CompletionStage<Collection<String>>> futures = new ArrayList<>();
+    for (String key : Arrays.asList("1", "2", "3")) {
+      CompletionStage<Collection<String>> future = joinOperator.handleMessageAsync(KV.of(key, "m" + key),
+          mock(MessageCollector.class), mock(TaskCoordinator.class));
+      future.thenAccept(results::addAll);
+      futures.add(future);
+    }
+    // The third message waits for one of the two outstanding lookups
+    assertEquals(2, lookups.size());
+
+    lookups.get(1).complete("r2");
+    assertTrue(results.isEmpty());
+    assertEquals(3, lookups.size());
+    lookups.get(2).complete("r3");
+    assertTrue(results.isEmpty());
+    lookups.get(0).complete("r1");
+    assertEquals(Arrays.asList("m1r1", "m2r2", "m3r3"), results);
+    futures.forEach(future -> assertTrue(future.toCompletableFuture().isDone()));
+  }
+
+  @Test
+  public void testPipelinedJoinEmitsUnordered() {
+    List<CompletableFuture<String>> lookups = new ArrayList<>();
+    ReadWriteTable table = mock(ReadWriteTable.class);
+    when(table.getAsync(any())).thenAnswer(invocation -> {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        lookups.add(lookup);
+        return lookup;
+      });
+    StreamTableJoinOperatorImpl<String, KV<String, String>, KV<String, String>, String> joinOperator =
+        createPipelinedJoinOperator(table,
+            new StreamTableJoinOptions().withMaxOutstandingLookups(2).withUnorderedEmission());
+
+    List<String> results = new ArrayList<>();
+    for (String key : Arrays.asList("1", "2")) {
+      joinOperator.handleMessageAsync(KV.of(key, "m" + key), mock(MessageCollector.class), mock(TaskCoordinator.class))
+          .thenAccept(results::addAll);
+    }
+    lookups.get(1).complete("r2");
+    assertEquals(Arrays.asList("m2r2"), results);
+    lookups.get(0).complete("r1");
+    assertEquals(Arrays.asList("m2r2", "m1r1"), results);
+  }
+
+  private StreamTableJoinOperatorImpl<String, KV<String, String>, KV<String, String>, String>
+      createPipelinedJoinOperator(ReadWriteTable table, StreamTableJoinOptions options) {
+    String tableId = "t1";
+    StreamTableJoinOperatorSpec mockJoinOpSpec = mock(StreamTableJoinOperatorSpec.class);
+    when(mockJoinOpSpec.getTableId()).thenReturn(tableId);
+    when(mockJoinOpSpec.getArgs()).thenReturn(new Object[0]);
+    when(mockJoinOpSpec.getOptions()).thenReturn(options);
+    when(mockJoinOpSpec.getJoinFn()).thenReturn(
+        new StreamTableJoinFunction<String, KV<String, String>, KV<String, String>, String>() {
+          @Override
+          public String apply(KV<String, String> message, KV<String, String> record) {
+            return message.getValue() + record.getValue();
+          }
+
+          @Override
+          public String getMessageKey(KV<String, String> message) {
+            return message.getKey();
+          }
+
+          @Override
+          public String getRecordKey(KV<String, String> record) {
+            return record.getKey();
+          }
+        });
+    Context context = new MockContext();
+    when(context.getTaskContext().getTable(tableId)).thenReturn(table);
+    return new StreamTableJoinOperatorImpl(mockJoinOpSpec, context);
+  }
 }
@@ -46,6 +46,7 @@ import org.apache.samza.operators.MessageStream;
 import org.apache.samza.operators.OperatorSpecGraph;
 import org.apache.samza.operators.functions.MapFunction;
 import org.apache.samza.operators.impl.store.TestInMemoryStore;
+import org.apache.samza.operators.impl.store.TimeSeriesKey;
 import org.apache.samza.operators.impl.store.TimeSeriesKeySerde;
 import org.apache.samza.operators.triggers.FiringType;
 import org.apache.samza.operators.triggers.Trigger;
@@ -69,7 +70,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -190,6 +194,29 @@ public class TestWindowOperator {
     Assert.assertEquals(windowPanes.get(4).getMessage(), new Integer(1));
   }
 
+  @Test
+  public void testTumblingAggregatingWindowsDoNotScanTheStore() throws Exception {
+    TestInMemoryStore<TimeSeriesKey<Integer>, Integer> store =
+        spy(new TestInMemoryStore<>(new TimeSeriesKeySerde<>(new IntegerSerde()), new IntegerSerde()));
+    when(this.context.getTaskContext().getStore("jobName-jobId-window-w1")).thenReturn(store);
+
+    OperatorSpecGraph sgb = this.getAggregateTumblingWindowStreamGraph(AccumulationMode.DISCARDING,
+        Duration.ofSeconds(1), Triggers.repeat(Triggers.count(2))).getOperatorSpecGraph();
+    List<WindowPane<Integer, Integer>> windowPanes = new ArrayList<>();
+
+    TestClock testClock = new TestClock();
+    StreamOperatorTask task = new StreamOperatorTask(sgb, testClock);
+    task.init(this.context);
+    MessageCollector messageCollector = envelope -> windowPanes.add((WindowPane<Integer, Integer>) envelope.getMessage());
+    integers.forEach(n -> task.processAsync(new IntegerEnvelope(n), messageCollector, taskCoordinator, taskCallback));
+    testClock.advanceTime(Duration.ofSeconds(1));
+    task.window(messageCollector, taskCoordinator);
+
+    Assert.assertEquals(5, windowPanes.size());
+    // the aggregated value of each window is read, updated and removed with point lookups
+    verify(store, never()).range(any(), any());
+  }
+
   @Test
   public void testTumblingWindowsAccumulatingMode() throws Exception {
     OperatorSpecGraph sgb = this.getKeyedTumblingWindowStreamGraph(AccumulationMode.ACCUMULATING,
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.samza.operators.impl.store;
+
+import com.google.common.primitives.UnsignedBytes;
+import org.apache.samza.serializers.LongSerde;
+import org.apache.samza.serializers.StringSerde;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class TestBucketedTimeSeriesKeySerde {
+
+  @Test
+  public void testStringBucketedTimeSeriesKey() {
+    BucketedTimeSeriesKey<String> storeKey = new BucketedTimeSeriesKey<>("test", 100, 101, 23);
+    BucketedTimeSeriesKeySerde<String> serde = new BucketedTimeSeriesKeySerde<>(new StringSerde("UTF-8"));
+
+    byte[] serializedBytes = serde.toBytes(storeKey);
+    BucketedTimeSeriesKey<String> deserializedKey = serde.fromBytes(serializedBytes);
+
+    assertEquals(storeKey.getKey(), deserializedKey.getKey());
+    assertEquals(storeKey.getBucket(), deserializedKey.getBucket());
+    assertEquals(storeKey.getSeqNum(), deserializedKey.getSeqNum());
+    assertEquals(storeKey.getTimestamp(), deserializedKey.getTimestamp());
+    assertEquals(storeKey, deserializedKey);
+  }
+
+  @Test
+  public void testNullBucketedTimeSeriesKey() {
+    BucketedTimeSeriesKey<String> storeKey = new BucketedTimeSeriesKey<>(null, 100, 101, 23);
+    BucketedTimeSeriesKeySerde<String> serde = new BucketedTimeSeriesKeySerde<>(new StringSerde("UTF-8"));
+
+    byte[] serializedBytes = serde.toBytes(storeKey);
+    BucketedTimeSeriesKey<String> deserializedKey = serde.fromBytes(serializedBytes);
+
+    assertEquals(24, serializedBytes.length);
+    assertEquals(storeKey, deserializedKey);
+  }
+
+  @Test
+  public void testLongBucketedTimeSeriesKey() {
+    BucketedTimeSeriesKey<Long> storeKey = new BucketedTimeSeriesKey<>(30L, 0, 1, 23);
+    BucketedTimeSeriesKeySerde<Long> serde = new BucketedTimeSeriesKeySerde<>(new LongSerde());
+
+    byte[] serializedBytes = serde.toBytes(storeKey);
+    BucketedTimeSeriesKey<Long> deserializedKey = serde.fromBytes(serializedBytes);
+
+    assertEquals(storeKey, deserializedKey);
+  }
+
+  @Test
+  public void testKeysAreOrderedByBucketFirst() {
+    BucketedTimeSeriesKeySerde<String> serde = new BucketedTimeSeriesKeySerde<>(new StringSerde("UTF-8"));
+
+    byte[] earlierBucket = serde.toBytes(new BucketedTimeSeriesKey<>("zzz", 0, 99, 5));
+    byte[] laterBucketBound = serde.toBytes(new BucketedTimeSeriesKey<>(null, 100, 0, 0));
+    byte[] laterBucket = serde.toBytes(new BucketedTimeSeriesKey<>("aaa", 100, 100, 0));
+
+    assertTrue(UnsignedBytes.lexicographicalComparator().compare(earlierBucket, laterBucketBound) < 0);
+    assertTrue(UnsignedBytes.lexicographicalComparator().compare(laterBucketBound, laterBucket) < 0);
+  }
+}
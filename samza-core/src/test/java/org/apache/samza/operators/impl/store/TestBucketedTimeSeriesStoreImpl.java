@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.samza.operators.impl.store;
+
+import org.apache.samza.serializers.ByteSerde;
+import org.apache.samza.serializers.StringSerde;
+import org.apache.samza.storage.kv.ClosableIterator;
+import org.apache.samza.storage.kv.KeyValueStore;
+import org.apache.samza.util.TimestampedValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TestBucketedTimeSeriesStoreImpl {
+
+  @Test
+  public void testGetAcrossBuckets() {
+    BucketedTimeSeriesStoreImpl<String, byte[]> timeSeriesStore = newTimeSeriesStore(newKvStore(), true);
+
+    timeSeriesStore.put("hello", "world-1".getBytes(), 5L);
+    timeSeriesStore.put("hello", "world-2".getBytes(), 15L);
+    timeSeriesStore.put("hello", "world-3".getBytes(), 15L);
+    timeSeriesStore.put("hello", "world-4".getBytes(), 35L);
+    timeSeriesStore.put("other", "world-5".getBytes(), 15L);
+
+    List<TimestampedValue<byte[]>> values = readStore(timeSeriesStore, "hello", 0L, 100L);
+    Assert.assertEquals(4, values.size());
+    Assert.assertEquals("world-1", new String(values.get(0).getValue()));
+    Assert.assertEquals("world-2", new String(values.get(1).getValue()));
+    Assert.assertEquals("world-3", new String(values.get(2).getValue()));
+    Assert.assertEquals("world-4", new String(values.get(3).getValue()));
+    Assert.assertEquals(35L, values.get(3).getTimestamp());
+
+    // time-range [15,16) only spans a single bucket
+    values = readStore(timeSeriesStore, "hello", 15L, 16L);
+    Assert.assertEquals(2, values.size());
+
+    // time-range [6,35) excludes both of its end points
+    values = readStore(timeSeriesStore, "hello", 6L, 35L);
+    Assert.assertEquals(2, values.size());
+
+    values = readStore(timeSeriesStore, "hello", 16L, 35L);
+    Assert.assertEquals(0, values.size());
+
+    ClosableIterator<TimestampedValue<byte[]>> bounded = timeSeriesStore.get("hello", 0L, 100L, 3);
+    int count = 0;
+    while (bounded.hasNext()) {
+      bounded.next();
+      count++;
+    }
+    bounded.close();
+    Assert.assertEquals(3, count);
+  }
+
+  @Test
+  public void testGetOnlyScansLiveBuckets() {
+    KeyValueStore<BucketedTimeSeriesKey<String>, byte[]> kvStore = spy(newKvStore());
+    BucketedTimeSeriesStoreImpl<String, byte[]> timeSeriesStore = newTimeSeriesStore(kvStore, true);
+
+    timeSeriesStore.put("hello", "world-1".getBytes(), 5L);
+    timeSeriesStore.put("hello", "world-2".getBytes(), 995L);
+
+    List<TimestampedValue<byte[]>> values = readStore(timeSeriesStore, "hello", 0L, 1000L);
+    Assert.assertEquals(2, values.size());
+    // one range for the initial load of live buckets, and one for each of the two live buckets
+    verify(kvStore, times(3)).range(any(), any());
+  }
+
+  @Test
+  public void testRemove() {
+    KeyValueStore<BucketedTimeSeriesKey<String>, byte[]> kvStore = spy(newKvStore());
+    BucketedTimeSeriesStoreImpl<String, byte[]> timeSeriesStore = newTimeSeriesStore(kvStore, true);
+
+    timeSeriesStore.put("hello", "world-1".getBytes(), 5L);
+    timeSeriesStore.put("hello", "world-2".getBytes(), 15L);
+    timeSeriesStore.put("hello", "world-3".getBytes(), 25L);
+    timeSeriesStore.put("other", "world-4".getBytes(), 15L);
+
+    timeSeriesStore.remove("hello", 0L, 20L);
+    List<TimestampedValue<byte[]>> values = readStore(timeSeriesStore, "hello", 0L, 100L);
+    Assert.assertEquals(1, values.size());
+    Assert.assertEquals("world-3", new String(values.get(0).getValue()));
+    Assert.assertEquals(1, readStore(timeSeriesStore, "other", 0L, 100L).size());
+
+    timeSeriesStore.remove("hello", 25L);
+    Assert.assertEquals(0, readStore(timeSeriesStore, "hello", 0L, 100L).size());
+    // entries of a single key are deleted one by one, range deletes are only used to expire whole buckets
+    verify(kvStore, never()).deleteRange(any(), any());
+  }
+
+  @Test
+  public void testExpireDropsWholeBuckets() {
+    KeyValueStore<BucketedTimeSeriesKey<String>, byte[]> kvStore = spy(newKvStore());
+    BucketedTimeSeriesStoreImpl<String, byte[]> timeSeriesStore = newTimeSeriesStore(kvStore, true);
+
+    timeSeriesStore.put("hello", "world-1".getBytes(), 5L);
+    timeSeriesStore.put("other", "world-2".getBytes(), 15L);
+    timeSeriesStore.put("hello", "world-3".getBytes(), 25L);
+    timeSeriesStore.put("other", "world-4".getBytes(), 28L);
+
+    // buckets [0,10) and [10,20) are expired, the bucket containing 25 is retained
+    timeSeriesStore.expire(25L);
+    verify(kvStore, times(1)).deleteRange(any(), any());
+    Assert.assertEquals(1, readStore(timeSeriesStore, "hello", 0L, 100L).size());
+    Assert.assertEquals(1, readStore(timeSeriesStore, "other", 0L, 100L).size());
+    Assert.assertEquals(28L, readStore(timeSeriesStore, "other", 0L, 100L).get(0).getTimestamp());
+
+    // nothing left to expire
+    timeSeriesStore.expire(19L);
+    verify(kvStore, times(1)).deleteRange(any(), any());
+  }
+
+  @Test
+  public void testLiveBucketsAreLoadedFromTheStore() {
+    KeyValueStore<BucketedTimeSeriesKey<String>, byte[]> kvStore = newKvStore();
+    BucketedTimeSeriesStoreImpl<String, byte[]> timeSeriesStore = newTimeSeriesStore(kvStore, true);
+    timeSeriesStore.put("hello", "world-1".getBytes(), 5L);
+    timeSeriesStore.put("hello", "world-2".getBytes(), 15L);
+    timeSeriesStore.put("other", "world-3".getBytes(), 35L);
+
+    // a new store over the same data, e.g. after a restart
+    BucketedTimeSeriesStoreImpl<String, byte[]> restoredStore = newTimeSeriesStore(kvStore, true);
+    Assert.assertEquals(2, readStore(restoredStore, "hello", 0L, 100L).size());
+
+    restoredStore.expire(20L);
+    Assert.assertEquals(0, readStore(restoredStore, "hello", 0L, 100L).size());
+    Assert.assertEquals(1, readStore(restoredStore, "other", 0L, 100L).size());
+  }
+
+  @Test
+  public void testGetValueInOverwriteMode() {
+    KeyValueStore<BucketedTimeSeriesKey<String>, byte[]> kvStore = spy(newKvStore());
+    BucketedTimeSeriesStoreImpl<String, byte[]> timeSeriesStore = newTimeSeriesStore(kvStore, false);
+
+    Assert.assertNull(timeSeriesStore.getValue("hello", 15L));
+    timeSeriesStore.put("hello", "world-1".getBytes(), 15L);
+    timeSeriesStore.put("hello", "world-2".getBytes(), 15L);
+    Assert.assertEquals("world-2", new String(timeSeriesStore.getValue("hello", 15L)));
+
+    timeSeriesStore.remove("hello", 15L);
+    Assert.assertNull(timeSeriesStore.getValue("hello", 15L));
+    verify(kvStore, never()).deleteRange(any(), any());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBucketSize() {
+    new BucketedTimeSeriesStoreImpl<>(newKvStore(), 0L);
+  }
+
+  private static <K, V> List<TimestampedValue<V>> readStore(
+      TimeSeriesStore<K, V> store, K key, long startTimestamp, long endTimestamp) {
+    List<TimestampedValue<V>> list = new ArrayList<>();
+    ClosableIterator<TimestampedValue<V>> storeValuesIterator = store.get(key, startTimestamp, endTimestamp);
+
+    while (storeValuesIterator.hasNext()) {
+      TimestampedValue<V> next = storeValuesIterator.next();
+      list.add(next);
+    }
+
+    storeValuesIterator.close();
+    return list;
+  }
+
+  private static KeyValueStore<BucketedTimeSeriesKey<String>, byte[]> newKvStore() {
+    return new TestInMemoryStore<>(new BucketedTimeSeriesKeySerde<>(new StringSerde("UTF-8")), new ByteSerde());
+  }
+
+  private static BucketedTimeSeriesStoreImpl<String, byte[]> newTimeSeriesStore(
+      KeyValueStore<BucketedTimeSeriesKey<String>, byte[]> kvStore, boolean appendMode) {
+    return new BucketedTimeSeriesStoreImpl<>(kvStore, 10L, appendMode);
+  }
+}
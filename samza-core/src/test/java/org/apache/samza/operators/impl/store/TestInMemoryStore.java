@@ -97,6 +97,11 @@ public class TestInMemoryStore<K, V> implements KeyValueStore<K, V> {
     }
   }
 
+  @Override
+  public void deleteRange(K from, K to) {
+    map.subMap(keySerde.toBytes(from), keySerde.toBytes(to)).clear();
+  }
+
   @Override
   public KeyValueIterator<K, V> range(K from, K to) {
     ConcurrentNavigableMap<byte[], byte[]> values = map.subMap(keySerde.toBytes(from), keySerde.toBytes(to));
@@ -31,6 +31,11 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
 public class TestTimeSeriesStoreImpl {
 
   @Test
@@ -169,6 +174,63 @@ public class TestTimeSeriesStoreImpl {
     Assert.assertEquals(0, values.size());
   }
 
+  @Test
+  public void testGetValueAndRemoveInOverwriteMode() {
+    KeyValueStore<TimeSeriesKey<String>, byte[]> kvStore =
+        spy(new TestInMemoryStore<>(new TimeSeriesKeySerde<>(new StringSerde("UTF-8")), new ByteSerde()));
+    TimeSeriesStore<String, byte[]> timeSeriesStore = new TimeSeriesStoreImpl<>(kvStore, false);
+
+    Assert.assertNull(timeSeriesStore.getValue("hello", 1L));
+    timeSeriesStore.put("hello", "world-1".getBytes(), 1L);
+    timeSeriesStore.put("hello", "world-2".getBytes(), 1L);
+    timeSeriesStore.put("hello", "world-3".getBytes(), 2L);
+    Assert.assertEquals("world-2", new String(timeSeriesStore.getValue("hello", 1L)));
+
+    timeSeriesStore.remove("hello", 1L);
+    Assert.assertNull(timeSeriesStore.getValue("hello", 1L));
+    Assert.assertEquals("world-3", new String(timeSeriesStore.getValue("hello", 2L)));
+
+    // values are looked up and removed directly, without iterating over the store
+    verify(kvStore, never()).range(any(), any());
+  }
+
+  @Test
+  public void testGetValueAndRemoveOfArrayKeysInOverwriteMode() {
+    KeyValueStore<TimeSeriesKey<byte[]>, byte[]> kvStore =
+        spy(new TestInMemoryStore<>(new TimeSeriesKeySerde<>(new ByteSerde()), new ByteSerde()));
+    TimeSeriesStore<byte[], byte[]> timeSeriesStore = new TimeSeriesStoreImpl<>(kvStore, false);
+
+    timeSeriesStore.put("hello".getBytes(), "world-1".getBytes(), 1L);
+    // array keys are only equal to themselves, so a cached entry for a different instance would not be found by a
+    // point lookup; such keys are looked up and removed by iterating over the store instead
+    Assert.assertEquals("world-1", new String(timeSeriesStore.getValue("hello".getBytes(), 1L)));
+    timeSeriesStore.remove("hello".getBytes(), 1L);
+    Assert.assertNull(timeSeriesStore.getValue("hello".getBytes(), 1L));
+
+    verify(kvStore, never()).get(any());
+    verify(kvStore).deleteAll(any());
+  }
+
+  @Test
+  public void testHasValueEquality() {
+    Assert.assertTrue(TimeSeriesStoreImpl.hasValueEquality(null));
+    Assert.assertTrue(TimeSeriesStoreImpl.hasValueEquality("hello"));
+    Assert.assertTrue(TimeSeriesStoreImpl.hasValueEquality(1L));
+    Assert.assertFalse(TimeSeriesStoreImpl.hasValueEquality("hello".getBytes()));
+    Assert.assertFalse(TimeSeriesStoreImpl.hasValueEquality(new Object()));
+  }
+
+  @Test
+  public void testGetValueInAppendMode() {
+    TimeSeriesStore<String, byte[]> timeSeriesStore = newTimeSeriesStore(new StringSerde("UTF-8"), true);
+
+    Assert.assertNull(timeSeriesStore.getValue("hello", 1L));
+    timeSeriesStore.put("hello", "world-1".getBytes(), 1L);
+    timeSeriesStore.put("hello", "world-2".getBytes(), 1L);
+    // the most recently inserted value is returned
+    Assert.assertEquals("world-2", new String(timeSeriesStore.getValue("hello", 1L)));
+  }
+
   private static <K, V> List<TimestampedValue<V>> readStore(
       TimeSeriesStore<K, V> store, K key, long startTimestamp, long endTimestamp) {
     List<TimestampedValue<V>> list = new ArrayList<>();
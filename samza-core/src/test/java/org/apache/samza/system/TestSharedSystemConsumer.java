@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.system;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.samza.Partition;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+public class TestSharedSystemConsumer {
+  private final SystemStreamPartition idleSsp = new SystemStreamPartition("system", "stream", new Partition(0));
+  private final SystemStreamPartition busySsp = new SystemStreamPartition("system", "stream", new Partition(1));
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testIdleShardDoesNotHoldUpTheOtherShard() throws Exception {
+    BlockingConsumer underlying = new BlockingConsumer();
+    SharedSystemConsumer consumer = startedConsumer(underlying);
+
+    Future<Map<SystemStreamPartition, List<IncomingMessageEnvelope>>> idlePoll =
+        executor.submit(() -> consumer.poll(Collections.singleton(idleSsp), 10000));
+    assertTrue(underlying.polled.await(10, TimeUnit.SECONDS));
+
+    IncomingMessageEnvelope busyEnvelope = underlying.add(busySsp);
+    Map<SystemStreamPartition, List<IncomingMessageEnvelope>> busyPoll =
+        consumer.poll(Collections.singleton(busySsp), 10000);
+    assertEquals(Collections.singletonList(busyEnvelope), busyPoll.get(busySsp));
+    assertFalse(idlePoll.isDone());
+
+    // the idle shard still gets its messages before its timeout expires
+    IncomingMessageEnvelope idleEnvelope = underlying.add(idleSsp);
+    assertEquals(Collections.singletonList(idleEnvelope), idlePoll.get(10, TimeUnit.SECONDS).get(idleSsp));
+    assertTrue(underlying.timeouts.stream().allMatch(timeout -> timeout == 0));
+  }
+
+  @Test
+  public void testPollWaitsForTheTimeoutWithoutMessages() throws Exception {
+    BlockingConsumer underlying = new BlockingConsumer();
+    SharedSystemConsumer consumer = startedConsumer(underlying);
+
+    long startNs = System.nanoTime();
+    assertTrue(consumer.poll(ImmutableSet.of(idleSsp, busySsp), 20).isEmpty());
+    assertTrue(System.nanoTime() - startNs >= TimeUnit.MILLISECONDS.toNanos(20));
+    assertTrue(underlying.timeouts.size() > 1);
+    assertTrue(underlying.timeouts.stream().allMatch(timeout -> timeout == 0));
+  }
+
+  @Test
+  public void testPollReturnsNoMessagesUntilAllShardsStarted() throws Exception {
+    BlockingConsumer underlying = new BlockingConsumer();
+    SharedSystemConsumer consumer = new SharedSystemConsumer(underlying, 2);
+    consumer.register(busySsp, "0");
+    consumer.start();
+    underlying.add(busySsp);
+
+    assertTrue(consumer.poll(Collections.singleton(busySsp), 0).isEmpty());
+    assertTrue(underlying.timeouts.isEmpty());
+  }
+
+  private SharedSystemConsumer startedConsumer(SystemConsumer underlying) {
+    SharedSystemConsumer consumer = new SharedSystemConsumer(underlying, 2);
+    consumer.register(idleSsp, "0");
+    consumer.register(busySsp, "0");
+    consumer.start();
+    consumer.start();
+    return consumer;
+  }
+
+  /**
+   * A consumer that blocks for the whole timeout if there are no messages to return.
+   */
+  private static class BlockingConsumer implements SystemConsumer {
+    private final Map<SystemStreamPartition, List<IncomingMessageEnvelope>> pending = new ConcurrentHashMap<>();
+    private final List<Long> timeouts = new CopyOnWriteArrayList<>();
+    private final CountDownLatch polled = new CountDownLatch(1);
+
+    IncomingMessageEnvelope add(SystemStreamPartition ssp) {
+      IncomingMessageEnvelope envelope = new IncomingMessageEnvelope(ssp, "0", null, "message");
+      pending.put(ssp, Collections.singletonList(envelope));
+      return envelope;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void register(SystemStreamPartition systemStreamPartition, String offset) {
+    }
+
+    @Override
+    public Map<SystemStreamPartition, List<IncomingMessageEnvelope>> poll(
+        Set<SystemStreamPartition> systemStreamPartitions, long timeout) throws InterruptedException {
+      timeouts.add(timeout);
+      polled.countDown();
+      Map<SystemStreamPartition, List<IncomingMessageEnvelope>> envelopes = new HashMap<>();
+      for (SystemStreamPartition ssp : systemStreamPartitions) {
+        List<IncomingMessageEnvelope> sspEnvelopes = pending.remove(ssp);
+        if (sspEnvelopes != null) {
+          envelopes.put(ssp, new ArrayList<>(sspEnvelopes));
+        }
+      }
+      if (envelopes.isEmpty() && timeout > 0) {
+        Thread.sleep(timeout);
+      }
+      return envelopes;
+    }
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.samza.table.batching;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -221,6 +222,35 @@ public class TestBatchTable {
     verify(table, times(1)).getAllAsync(anyList());
   }
 
+  @Test
+  public void testReadBatching() throws Exception {
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      tableDb.put(i, i);
+    }
+    final AsyncBatchingTable<Integer, Integer> readBatchingTable = new AsyncBatchingTable("id", table,
+        new CompactBatchProvider().withReadBatching(BATCH_SIZE, BATCH_DELAY), Executors.newSingleThreadScheduledExecutor());
+    readBatchingTable.createBatchProcessor(() -> 0, mock(BatchMetrics.class));
+
+    // Gets and getAlls share read batches, and the same key is only read once.
+    final CompletableFuture<Integer> get1 = readBatchingTable.getAsync(0);
+    final CompletableFuture<Integer> get2 = readBatchingTable.getAsync(0);
+    final CompletableFuture<Map<Integer, Integer>> getAll = readBatchingTable.getAllAsync(Arrays.asList(1, 2, 3));
+    Assert.assertEquals(4, readBatchingTable.getReadBatchProcessor().size());
+    Assert.assertEquals(0, readBatchingTable.getBatchProcessor().size());
+    verify(table, never()).getAllAsync(anyList());
+
+    final CompletableFuture<Integer> get3 = readBatchingTable.getAsync(4);
+    sleep();
+
+    Assert.assertEquals(Integer.valueOf(0), get1.get());
+    Assert.assertEquals(Integer.valueOf(0), get2.get());
+    Assert.assertEquals(3, getAll.get().size());
+    Assert.assertEquals(Integer.valueOf(3), getAll.get().get(3));
+    Assert.assertEquals(Integer.valueOf(4), get3.get());
+    verify(table, times(1)).getAllAsync(Arrays.asList(0, 1, 2, 3, 4));
+    readBatchingTable.close();
+  }
+
   @Test
   public void testDeleteAsync() throws Exception {
     for (int i = 0; i < BATCH_SIZE; i++) {
@@ -88,7 +88,8 @@ public class TestCachingTable {
       desc = new CachingTableDescriptor("1", table)
           .withReadTtl(Duration.ofMinutes(3))
           .withWriteTtl(Duration.ofMinutes(4))
-          .withCacheSize(1000);
+          .withCacheSize(1000)
+          .withRefreshAfterWrite(Duration.ofMinutes(1));
     } else {
       desc = new CachingTableDescriptor("1", table, cache);
     }
@@ -102,6 +103,7 @@ public class TestCachingTable {
     if (cache == null) {
       assertEquals("180000", CachingTableDescriptor.READ_TTL_MS, "1", tableConfig);
       assertEquals("240000", CachingTableDescriptor.WRITE_TTL_MS, "1", tableConfig);
+      assertEquals("60000", CachingTableDescriptor.REFRESH_AFTER_WRITE_MS, "1", tableConfig);
     } else {
       assertEquals(cache.getTableId(), CachingTableDescriptor.CACHE_TABLE_ID, "1", tableConfig);
     }
@@ -269,6 +271,92 @@ public class TestCachingTable {
     verify(table, times(2)).getAsync(any());
   }
 
+  @Test
+  public void testConcurrentMissesShareOneRead() throws Exception {
+    ReadWriteTable<String, String> table = mock(ReadWriteTable.class);
+    CompletableFuture<String> readFuture = new CompletableFuture<>();
+    doReturn(readFuture).when(table).getAsync(any());
+    Map<String, String> records = new HashMap<>();
+    records.put("bar", "bar-value");
+    doReturn(CompletableFuture.completedFuture(records)).when(table).getAllAsync(any());
+    Pair<ReadWriteTable<String, String>, Map<String, String>> cache = getMockCache();
+    CachingTable<String, String> cachingTable = new CachingTable<>("myTable", table, cache.getLeft(), false);
+    initTables(cachingTable);
+
+    CompletableFuture<String> get1 = cachingTable.getAsync("foo");
+    CompletableFuture<String> get2 = cachingTable.getAsync("foo");
+    CompletableFuture<Map<String, String>> getAll = cachingTable.getAllAsync(Arrays.asList("foo", "bar"));
+    verify(table, times(1)).getAsync(any());
+    // only the key that is not being read already is read in a batch
+    verify(table, times(1)).getAllAsync(Collections.singletonList("bar"));
+    Assert.assertFalse(getAll.isDone());
+
+    readFuture.complete("foo-value");
+    Assert.assertEquals("foo-value", get1.get());
+    Assert.assertEquals("foo-value", get2.get());
+    Assert.assertEquals("foo-value", getAll.get().get("foo"));
+    Assert.assertEquals("bar-value", getAll.get().get("bar"));
+    Assert.assertEquals("foo-value", cache.getRight().get("foo"));
+
+    // the read is no longer shared once it completed
+    cache.getRight().clear();
+    cachingTable.getAsync("foo");
+    verify(table, times(2)).getAsync(any());
+  }
+
+  @Test
+  public void testRefreshAhead() throws Exception {
+    ReadWriteTable<String, String> table = mock(ReadWriteTable.class);
+    doReturn(CompletableFuture.completedFuture("v1")).when(table).getAsync(any());
+    Pair<ReadWriteTable<String, String>, Map<String, String>> cache = getMockCache();
+    CachingTable<String, String> cachingTable = new CachingTable<>("myTable", table, cache.getLeft(), false, 1);
+    initTables(cachingTable);
+
+    Assert.assertEquals("v1", cachingTable.get("foo"));
+    doReturn(CompletableFuture.completedFuture("v2")).when(table).getAsync(any());
+    Thread.sleep(10);
+
+    // the stale value is served while it is refreshed
+    Assert.assertEquals("v1", cachingTable.get("foo"));
+    verify(table, times(2)).getAsync(any());
+    Assert.assertEquals("v2", cache.getRight().get("foo"));
+    Assert.assertEquals("v2", cachingTable.get("foo"));
+  }
+
+  @Test
+  public void testWriteDuringRefreshIsNotOverwritten() throws Exception {
+    ReadWriteTable<String, String> table = mock(ReadWriteTable.class);
+    doReturn(CompletableFuture.completedFuture("v1")).when(table).getAsync(any());
+    doReturn(CompletableFuture.completedFuture(null)).when(table).putAsync(any(), any());
+    doReturn(CompletableFuture.completedFuture(null)).when(table).deleteAsync(any());
+    Pair<ReadWriteTable<String, String>, Map<String, String>> cache = getMockCache();
+    CachingTable<String, String> cachingTable = new CachingTable<>("myTable", table, cache.getLeft(), false, 1);
+    initTables(cachingTable);
+
+    Assert.assertEquals("v1", cachingTable.get("foo"));
+    CompletableFuture<String> refresh = new CompletableFuture<>();
+    doReturn(refresh).when(table).getAsync(any());
+    Thread.sleep(10);
+
+    // the key is put while it is refreshed, the refresh completes with the value read before the put
+    Assert.assertEquals("v1", cachingTable.get("foo"));
+    cachingTable.put("foo", "v3");
+    refresh.complete("v2");
+    Assert.assertEquals("v3", cache.getRight().get("foo"));
+    Assert.assertEquals("v3", cachingTable.get("foo"));
+
+    CompletableFuture<String> refreshAfterPut = new CompletableFuture<>();
+    doReturn(refreshAfterPut).when(table).getAsync(any());
+    Thread.sleep(10);
+
+    // the key is deleted while it is refreshed
+    Assert.assertEquals("v3", cachingTable.get("foo"));
+    cachingTable.delete("foo");
+    refreshAfterPut.complete("v3");
+    Assert.assertNull(cache.getRight().get("foo"));
+    verify(table, times(3)).getAsync(any());
+  }
+
   /**
    * Testing caching in a more realistic scenario with Guava cache + remote table
    */
@@ -305,8 +393,8 @@ public class TestCachingTable {
     verify(metricsRegistry, times(29)).newTimer(any(), anyString());
 
     // 1 per guava table (1)
-    // 3 per caching table (2)
-    verify(metricsRegistry, times(4)).newGauge(anyString(), any());
+    // 5 per caching table (5)
+    verify(metricsRegistry, times(6)).newGauge(anyString(), any());
 
     // GET
     doReturn(CompletableFuture.completedFuture("bar")).when(readFn).getAsync(any());
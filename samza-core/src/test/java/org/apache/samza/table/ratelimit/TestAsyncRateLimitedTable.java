@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -311,6 +312,30 @@ public class TestAsyncRateLimitedTable {
     verify(writeFn, times(1)).close();
   }
 
+  @Test
+  public void testAdaptiveRateLimiterFeedback() {
+    TableRateLimiter<String, String> rateLimiter = mock(TableRateLimiter.class);
+    doReturn(true).when(rateLimiter).isAdaptive();
+    TableReadFunction<String, String> readFn = mock(TableReadFunction.class);
+    CompletableFuture<String> failedFuture = new CompletableFuture<>();
+    failedFuture.completeExceptionally(new RuntimeException("Expected test exception"));
+    doReturn(CompletableFuture.completedFuture("bar")).when(readFn).getAsync("foo");
+    doReturn(failedFuture).when(readFn).getAsync("baz");
+    AsyncReadWriteTable<String, String> table = new AsyncRateLimitedTable("t1", new AsyncRemoteTable(readFn, null),
+        rateLimiter, null, schedExec);
+    table.init(TestRemoteTable.getMockContext());
+
+    Assert.assertEquals("bar", table.getAsync("foo").join());
+    verify(rateLimiter, times(1)).onRequestComplete(anyLong(), isNull(Throwable.class));
+    try {
+      table.getAsync("baz").join();
+      Assert.fail("Exception should have been thrown");
+    } catch (CompletionException e) {
+      // expected
+    }
+    verify(rateLimiter, times(1)).onRequestComplete(anyLong(), isA(RuntimeException.class));
+  }
+
   private void verifyReadPartNotCalled() {
     verify(readFn, times(0)).getAsync(any());
     verify(readFn, times(0)).getAsync(any(), any());
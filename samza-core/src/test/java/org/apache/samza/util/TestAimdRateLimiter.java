@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.util;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.apache.samza.util.TestEmbeddedTaggedRateLimiter.initRateLimiter;
+
+
+public class TestAimdRateLimiter {
+
+  private static final double DELTA = 1e-6;
+  private static final long INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong nowNs = new AtomicLong();
+
+  // Rates are divided among the 2 tasks set up by initRateLimiter
+  private AimdRateLimiter createRateLimiter(AimdRateLimiter rateLimiter) {
+    rateLimiter.setClock(nowNs::get);
+    initRateLimiter(rateLimiter);
+    return rateLimiter;
+  }
+
+  // Acquires more credits than the rate allows without waiting, so that the rate limiter is binding
+  private void exhaust(AdaptiveRateLimiter rateLimiter, String tag) {
+    Map<String, Integer> tagToCredits = Collections.singletonMap(tag, 1000);
+    rateLimiter.acquire(tagToCredits, 0, TimeUnit.SECONDS);
+    rateLimiter.acquire(tagToCredits, 0, TimeUnit.SECONDS);
+  }
+
+  private void completeInterval(AdaptiveRateLimiter rateLimiter, String tag, long latencyNs, boolean failed) {
+    nowNs.addAndGet(INTERVAL_NS);
+    rateLimiter.onRequestComplete(tag, latencyNs, failed);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFailsWhenUninitialized() {
+    new AimdRateLimiter(100).acquire(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFailsWithInvalidTag() {
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(100));
+    rateLimiter.onRequestComplete("red", 0, false);
+  }
+
+  @Test
+  public void testInitialRate() {
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(100));
+    Assert.assertEquals(50, rateLimiter.getRate("default-tag"), DELTA);
+    Assert.assertEquals(1, rateLimiter.acquire(1, 1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAdditiveIncrease() {
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(100).withAdditiveIncrease(20));
+
+    // Outcomes within an interval don't change the rate
+    rateLimiter.onRequestComplete("default-tag", 0, false);
+    Assert.assertEquals(50, rateLimiter.getRate("default-tag"), DELTA);
+
+    exhaust(rateLimiter, "default-tag");
+    completeInterval(rateLimiter, "default-tag", 0, false);
+    Assert.assertEquals(60, rateLimiter.getRate("default-tag"), DELTA);
+    exhaust(rateLimiter, "default-tag");
+    completeInterval(rateLimiter, "default-tag", 0, false);
+    Assert.assertEquals(70, rateLimiter.getRate("default-tag"), DELTA);
+  }
+
+  @Test
+  public void testRateIsHeldWhenNotBinding() {
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(100).withAdditiveIncrease(20));
+
+    // Acquires within the rate don't make the rate limiter binding
+    Assert.assertEquals(1, rateLimiter.acquire(1, 0, TimeUnit.SECONDS));
+    completeInterval(rateLimiter, "default-tag", 0, false);
+    Assert.assertEquals(50, rateLimiter.getRate("default-tag"), DELTA);
+
+    // A denied acquire does
+    exhaust(rateLimiter, "default-tag");
+    completeInterval(rateLimiter, "default-tag", 0, false);
+    Assert.assertEquals(60, rateLimiter.getRate("default-tag"), DELTA);
+
+    // Binding only counts toward the interval it happened in
+    completeInterval(rateLimiter, "default-tag", 0, false);
+    Assert.assertEquals(60, rateLimiter.getRate("default-tag"), DELTA);
+  }
+
+  @Test
+  public void testMultiplicativeDecreaseOnFailure() {
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(100).withMultiplicativeDecrease(0.8));
+
+    rateLimiter.onRequestComplete("default-tag", 0, true);
+    completeInterval(rateLimiter, "default-tag", 0, false);
+    Assert.assertEquals(40, rateLimiter.getRate("default-tag"), DELTA);
+
+    // The failure counts toward the interval it completes
+    completeInterval(rateLimiter, "default-tag", 0, true);
+    Assert.assertEquals(32, rateLimiter.getRate("default-tag"), DELTA);
+  }
+
+  @Test
+  public void testMultiplicativeDecreaseOnLatency() {
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(100)
+        .withLatencyThreshold(Duration.ofMillis(10)));
+    long slowNs = TimeUnit.MILLISECONDS.toNanos(20);
+
+    // A slow request out of 200 keeps the p99 latency below the threshold
+    for (int i = 0; i < 199; i++) {
+      rateLimiter.onRequestComplete("default-tag", 0, false);
+    }
+    exhaust(rateLimiter, "default-tag");
+    completeInterval(rateLimiter, "default-tag", slowNs, false);
+    Assert.assertEquals(55, rateLimiter.getRate("default-tag"), DELTA);
+
+    // Two slow requests out of 100 don't
+    for (int i = 0; i < 98; i++) {
+      rateLimiter.onRequestComplete("default-tag", 0, false);
+    }
+    rateLimiter.onRequestComplete("default-tag", slowNs, false);
+    completeInterval(rateLimiter, "default-tag", slowNs, false);
+    Assert.assertEquals(27.5, rateLimiter.getRate("default-tag"), DELTA);
+  }
+
+  @Test
+  public void testRateIsBounded() {
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(100)
+        .withMinRate(60)
+        .withMaxRate(120)
+        .withAdditiveIncrease(100));
+
+    exhaust(rateLimiter, "default-tag");
+    completeInterval(rateLimiter, "default-tag", 0, false);
+    Assert.assertEquals(60, rateLimiter.getRate("default-tag"), DELTA);
+    completeInterval(rateLimiter, "default-tag", 0, true);
+    Assert.assertEquals(30, rateLimiter.getRate("default-tag"), DELTA);
+    completeInterval(rateLimiter, "default-tag", 0, true);
+    Assert.assertEquals(30, rateLimiter.getRate("default-tag"), DELTA);
+  }
+
+  @Test
+  public void testTagsAreAdjustedIndependently() {
+    Map<String, Integer> tagToCredits = new HashMap<>();
+    tagToCredits.put("red", 100);
+    tagToCredits.put("green", 200);
+    AimdRateLimiter rateLimiter = createRateLimiter(new AimdRateLimiter(tagToCredits));
+
+    Map<String, Integer> tagToCreditsToAcquire = new HashMap<>();
+    tagToCreditsToAcquire.put("red", 1);
+    tagToCreditsToAcquire.put("green", 1);
+    Assert.assertEquals(tagToCreditsToAcquire, rateLimiter.acquire(tagToCreditsToAcquire, 1, TimeUnit.SECONDS));
+
+    exhaust(rateLimiter, "green");
+    completeInterval(rateLimiter, "red", 0, true);
+    rateLimiter.onRequestComplete("green", 0, false);
+    Assert.assertEquals(25, rateLimiter.getRate("red"), DELTA);
+    Assert.assertEquals(105, rateLimiter.getRate("green"), DELTA);
+  }
+}
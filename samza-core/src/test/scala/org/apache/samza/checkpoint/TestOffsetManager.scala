@@ -162,6 +162,42 @@ class TestOffsetManager {
     assertEquals(testStartpoint.getSpecificOffset, offsetManager.getStartingOffset(taskName1, systemStreamPartition).get)
   }
 
+  @Test
+  def testStartpointsAreResolvedTogether: Unit = {
+    val taskName1 = new TaskName("c")
+    val systemStream1 = new SystemStream("test-system", "test-stream")
+    val partition0 = new Partition(0)
+    val partition1 = new Partition(1)
+    val systemStreamPartition0 = new SystemStreamPartition(systemStream1, partition0)
+    val systemStreamPartition1 = new SystemStreamPartition(systemStream1, partition1)
+    val testStreamMetadata = new SystemStreamMetadata(systemStream1.getStream, Map(
+      partition0 -> new SystemStreamPartitionMetadata("0", "51", "52"),
+      partition1 -> new SystemStreamPartitionMetadata("0", "51", "52")).asJava)
+    val systemStreamMetadata = Map(systemStream1 -> testStreamMetadata)
+    val config = new MapConfig
+    val checkpointManager = getCheckpointManager(systemStreamPartition0, taskName1)
+    val startpointManagerUtil = getStartpointManagerUtil()
+    val systemAdmins = mock(classOf[SystemAdmins])
+    val systemAdmin = mock(classOf[SystemAdmin])
+    when(systemAdmins.getSystemAdmin("test-system")).thenReturn(systemAdmin)
+    val testStartpoint0 = new StartpointSpecific("23")
+    val testStartpoint1 = new StartpointSpecific("24")
+    Mockito.doReturn(ImmutableMap.of(systemStreamPartition0, "23", systemStreamPartition1, "24"))
+      .when(systemAdmin).resolveStartpointsToOffsets(any[util.Map[SystemStreamPartition, Startpoint]])
+    val offsetManager = OffsetManager(systemStreamMetadata, config, checkpointManager, startpointManagerUtil.getStartpointManager, systemAdmins, Map(), new OffsetManagerMetrics)
+
+    offsetManager.register(taskName1, Set(systemStreamPartition0, systemStreamPartition1))
+    val startpointManager = startpointManagerUtil.getStartpointManager
+    startpointManager.writeStartpoint(systemStreamPartition0, testStartpoint0)
+    startpointManager.writeStartpoint(systemStreamPartition1, testStartpoint1)
+    startpointManager.fanOut(asTaskToSSPMap(taskName1, systemStreamPartition0, systemStreamPartition1))
+    offsetManager.start
+    assertEquals("23", offsetManager.getStartingOffset(taskName1, systemStreamPartition0).get)
+    assertEquals("24", offsetManager.getStartingOffset(taskName1, systemStreamPartition1).get)
+    Mockito.verify(systemAdmin, Mockito.times(1)).resolveStartpointsToOffsets(any[util.Map[SystemStreamPartition, Startpoint]])
+    Mockito.verify(systemAdmin, Mockito.never()).resolveStartpointToOffset(any[SystemStreamPartition], any[Startpoint])
+  }
+
   @Test
   def testGetStartingOffsetWhenResolveStartpointToOffsetIsNull: Unit = {
     val taskName1 = new TaskName("c")
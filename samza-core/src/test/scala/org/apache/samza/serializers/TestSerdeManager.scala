@@ -51,6 +51,21 @@ class TestSerdeManager {
     assertSame(original, deserialized)
   }
 
+  @Test
+  def testDeserializedEnvelopeKeepsItsType {
+    val ssp = new SystemStreamPartition("my-system", "my-stream", new Partition(0))
+    val serde = new StringSerde("UTF-8").asInstanceOf[Serde[Object]]
+    val serdeManager = new SerdeManager(systemKeySerdes = Map("my-system" -> serde),
+                                        systemMessageSerdes = Map("my-system" -> serde))
+
+    val original = new LongOffsetEnvelope(ssp, 123L, "key".getBytes("UTF-8"), "message".getBytes("UTF-8"))
+    val deserialized = serdeManager.fromBytes(original)
+    assertTrue(deserialized.isInstanceOf[LongOffsetEnvelope])
+    assertEquals(123L, deserialized.asInstanceOf[LongOffsetEnvelope].longOffset)
+    assertEquals("key", deserialized.getKey)
+    assertEquals("message", deserialized.getMessage)
+  }
+
   @Test
   def testIntermediateMessageSerde {
     val output = new SystemStream("my-system", "output")
@@ -105,4 +120,10 @@ class TestSerdeManager {
     assertEquals(watermarkMsg.getTimestamp, timestamp)
     assertEquals(watermarkMsg.getTaskName, taskName)
   }
-}
\ No newline at end of file
+}
+
+class LongOffsetEnvelope(ssp: SystemStreamPartition, val longOffset: Long, key: Object, message: Object)
+  extends IncomingMessageEnvelope(ssp, longOffset.toString, key, message) {
+
+  override def withKeyAndMessage(key: Object, message: Object) = new LongOffsetEnvelope(ssp, longOffset, key, message)
+}
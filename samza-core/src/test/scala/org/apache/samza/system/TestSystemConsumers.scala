@@ -21,6 +21,7 @@ package org.apache.samza.system
 
 import java.util
 import java.util.Collections
+import java.util.concurrent.{CountDownLatch, Executors}
 
 import org.junit.Assert._
 import org.junit.Test
@@ -301,6 +302,114 @@ class TestSystemConsumers {
 
   }
 
+  @Test
+  def testDeserializationOnExecutorPreservesOrderPerSSP {
+    val system = "test-system"
+    val stream = "some-stream"
+    val systemStreamPartition1 = new SystemStreamPartition(system, stream, new Partition(1))
+    val systemStreamPartition2 = new SystemStreamPartition(system, stream, new Partition(2))
+    val consumer = new CustomPollResponseSystemConsumer(null)
+    val systemMessageSerdes = Map(system -> (new StringSerde("UTF-8")).asInstanceOf[Serde[Object]])
+    val serdeManager = new SerdeManager(systemMessageSerdes = systemMessageSerdes)
+    val systemAdmins = Mockito.mock(classOf[SystemAdmins])
+    Mockito.when(systemAdmins.getSystemAdmin(system)).thenReturn(Mockito.mock(classOf[SystemAdmin]))
+    val executor = Executors.newFixedThreadPool(2)
+    val chooser = new MockMessageChooser
+    val metrics = new SystemConsumersMetrics
+    val consumers = new SystemConsumers(chooser, Map(system -> consumer),
+      systemAdmins, serdeManager, metrics,
+      SystemConsumers.DEFAULT_NO_NEW_MESSAGES_TIMEOUT,
+      true,
+      TaskConfig.DEFAULT_POLL_INTERVAL_MS, clock = () => 0,
+      deserializationExecutor = executor)
+
+    def rawEnvelopes(ssp: SystemStreamPartition, messages: Seq[Object]) = {
+      val envelopes = new util.ArrayList[IncomingMessageEnvelope]()
+      messages.zipWithIndex.foreach { case (message, offset) =>
+        envelopes.add(new IncomingMessageEnvelope(ssp, offset.toString, null, message))
+      }
+      envelopes
+    }
+
+    try {
+      consumers.register(systemStreamPartition1, "0")
+      consumers.register(systemStreamPartition2, "0")
+      consumers.start
+
+      // the second message of ssp1 is not a byte array and can not be deserialized
+      consumer.setNextResponse(Map[SystemStreamPartition, java.util.List[IncomingMessageEnvelope]](
+        systemStreamPartition1 -> rawEnvelopes(systemStreamPartition1, Seq("a".getBytes, "b", "c".getBytes)),
+        systemStreamPartition2 -> rawEnvelopes(systemStreamPartition2, Seq("x".getBytes, "y".getBytes))))
+
+      // Choose to trigger a refresh with data.
+      assertNull(consumers.choose())
+
+      val chosen = (1 to 4).map(_ => consumers.choose())
+      assertTrue(chosen.forall(_ != null))
+      assertTrue(chooser.getEnvelopes.isEmpty)
+
+      assertEquals(Seq("a", "c"), chosen.filter(_.getSystemStreamPartition == systemStreamPartition1).map(_.getMessage))
+      assertEquals(Seq("x", "y"), chosen.filter(_.getSystemStreamPartition == systemStreamPartition2).map(_.getMessage))
+      assertEquals(1, metrics.deserializationError.getCount)
+      assertEquals(0, consumers.totalUnprocessedMessages)
+    } finally {
+      consumers.stop
+      executor.shutdownNow()
+    }
+  }
+
+  @Test
+  def testDeserializationOnExecutorOverlapsWithChoose {
+    val system = "test-system"
+    val stream = "some-stream"
+    val systemStreamPartition = new SystemStreamPartition(system, stream, new Partition(1))
+    val consumer = new CustomPollResponseSystemConsumer(null)
+    val deserializationAllowed = new CountDownLatch(1)
+    val blockingSerde = new Serde[Object] {
+      override def fromBytes(bytes: Array[Byte]) = {
+        deserializationAllowed.await()
+        new String(bytes, "UTF-8")
+      }
+
+      override def toBytes(obj: Object) = obj.asInstanceOf[String].getBytes("UTF-8")
+    }
+    val serdeManager = new SerdeManager(systemMessageSerdes = Map(system -> blockingSerde))
+    val systemAdmins = Mockito.mock(classOf[SystemAdmins])
+    Mockito.when(systemAdmins.getSystemAdmin(system)).thenReturn(Mockito.mock(classOf[SystemAdmin]))
+    val executor = Executors.newSingleThreadExecutor()
+    val consumers = new SystemConsumers(new MockMessageChooser, Map(system -> consumer),
+      systemAdmins, serdeManager, new SystemConsumersMetrics,
+      SystemConsumers.DEFAULT_NO_NEW_MESSAGES_TIMEOUT,
+      SystemConsumers.DEFAULT_DROP_SERIALIZATION_ERROR,
+      TaskConfig.DEFAULT_POLL_INTERVAL_MS, clock = () => 0,
+      deserializationExecutor = executor)
+
+    try {
+      consumers.register(systemStreamPartition, "0")
+      consumers.start
+
+      consumer.setNextResponse(Map[SystemStreamPartition, java.util.List[IncomingMessageEnvelope]](
+        systemStreamPartition -> Collections.singletonList(
+          new IncomingMessageEnvelope(systemStreamPartition, "0", null, "a".getBytes("UTF-8")))))
+
+      // The poll triggered by this choose must not wait for the batch it submitted to be deserialized.
+      assertNull(consumers.choose())
+      assertEquals(1, consumers.totalUnprocessedMessages)
+
+      deserializationAllowed.countDown()
+
+      // The chooser has nothing else to offer, so the pending batch is awaited.
+      val envelope = consumers.choose()
+      assertNotNull(envelope)
+      assertEquals("a", envelope.getMessage)
+      assertEquals(0, consumers.totalUnprocessedMessages)
+    } finally {
+      deserializationAllowed.countDown()
+      consumers.stop
+      executor.shutdownNow()
+    }
+  }
+
   @Test
   def testSystemConsumersShouldNotPollEndOfStreamSSPs {
     val system = "test-system"
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.system.chooser
+
+import java.util.concurrent.TimeUnit
+
+import com.google.common.collect.{ImmutableMap, ImmutableSet}
+import org.apache.samza.Partition
+import org.apache.samza.container.TaskName
+import org.apache.samza.system.{IncomingMessageEnvelope, SystemStreamPartition}
+import org.junit.Assert._
+import org.junit.Test
+
+class TestEventTimeChooser {
+  val ssp0 = new SystemStreamPartition("kafka", "stream", new Partition(0))
+  val ssp1 = new SystemStreamPartition("kafka", "stream1", new Partition(0))
+  val ssp2 = new SystemStreamPartition("kafka", "stream", new Partition(1))
+  val ssp3 = new SystemStreamPartition("kafka", "stream1", new Partition(1))
+  var now = 0L
+
+  private def envelope(ssp: SystemStreamPartition, eventTime: Long) =
+    new IncomingMessageEnvelope(ssp, eventTime.toString, null, null, 0, eventTime, 0)
+
+  private def getChooser(maxSkewMs: Long, metrics: EventTimeChooserMetrics = new EventTimeChooserMetrics) = {
+    val chooser = new EventTimeChooser(maxSkewMs, 1000, metrics, () => now)
+    chooser.register(ssp0, null)
+    chooser.register(ssp1, null)
+    chooser.start
+    chooser
+  }
+
+  @Test
+  def testChoosesLowestEventTimeFirst {
+    val chooser = getChooser(Long.MaxValue / 2)
+    val envelope0 = envelope(ssp0, 200)
+    val envelope1 = envelope(ssp1, 100)
+
+    assertNull(chooser.choose)
+    chooser.update(envelope0)
+    chooser.update(envelope1)
+    assertEquals(envelope1, chooser.choose)
+    assertEquals(envelope0, chooser.choose)
+    assertNull(chooser.choose)
+  }
+
+  @Test
+  def testHoldsBackPartitionsAheadOfTheSkewBound {
+    val metrics = new EventTimeChooserMetrics
+    val chooser = getChooser(20, metrics)
+    val envelope0 = envelope(ssp0, 100)
+
+    // Nothing is known about ssp1 yet, so it may still deliver older envelopes.
+    chooser.update(envelope0)
+    assertNull(chooser.choose)
+    assertEquals(1, metrics.heldBack.getCount)
+
+    val envelope1 = envelope(ssp1, 50)
+    chooser.update(envelope1)
+    assertEquals(envelope1, chooser.choose)
+    // ssp1 is at 50, and 100 is more than 20 ahead of it.
+    assertNull(chooser.choose)
+
+    val envelope2 = envelope(ssp1, 90)
+    chooser.update(envelope2)
+    assertEquals(envelope2, chooser.choose)
+    // ssp1 is at 90, so 100 is within the skew bound.
+    assertEquals(envelope0, chooser.choose)
+    assertNull(chooser.choose)
+    assertEquals(2, metrics.heldBack.getCount)
+  }
+
+  @Test
+  def testStopsWaitingForIdlePartitions {
+    val metrics = new EventTimeChooserMetrics
+    val chooser = getChooser(0, metrics)
+    val envelope0 = envelope(ssp0, 100)
+
+    chooser.update(envelope0)
+    now += TimeUnit.MILLISECONDS.toNanos(1000)
+    assertNull(chooser.choose)
+    now += 1
+    assertEquals(envelope0, chooser.choose)
+    assertEquals(1, metrics.idlePartitions.getCount)
+
+    // An idle partition is aligned again once it delivers an envelope.
+    val envelope1 = envelope(ssp1, 100)
+    chooser.update(envelope1)
+    assertEquals(envelope1, chooser.choose)
+    val envelope2 = envelope(ssp0, 200)
+    chooser.update(envelope2)
+    assertNull(chooser.choose)
+  }
+
+  @Test
+  def testNeverHoldsBackUntimedOrEndOfStreamEnvelopes {
+    val chooser = getChooser(0)
+    val untimed = envelope(ssp0, 0)
+    val endOfStream = IncomingMessageEnvelope.buildEndOfStreamEnvelope(ssp1)
+
+    chooser.update(untimed)
+    assertEquals(untimed, chooser.choose)
+    chooser.update(endOfStream)
+    assertEquals(endOfStream, chooser.choose)
+
+    // Neither partition holds the other back any more.
+    val envelope0 = envelope(ssp0, 100)
+    chooser.update(envelope0)
+    assertEquals(envelope0, chooser.choose)
+  }
+
+  @Test
+  def testRealignsPartitionOnceItDeliversEventTimesAgain {
+    val chooser = getChooser(0)
+    val untimed = envelope(ssp0, 0)
+    chooser.update(untimed)
+    assertEquals(untimed, chooser.choose)
+
+    // ssp0 delivered no event time, so it does not hold back ssp1.
+    val envelope1 = envelope(ssp1, 100)
+    chooser.update(envelope1)
+    assertEquals(envelope1, chooser.choose)
+
+    // Once ssp0 delivers an event time again, it holds back ssp1 until it catches up.
+    val envelope0 = envelope(ssp0, 50)
+    chooser.update(envelope0)
+    assertEquals(envelope0, chooser.choose)
+    val envelope2 = envelope(ssp1, 200)
+    chooser.update(envelope2)
+    assertNull(chooser.choose)
+
+    val envelope3 = envelope(ssp0, 200)
+    chooser.update(envelope3)
+    assertEquals(envelope2, chooser.choose)
+    assertEquals(envelope3, chooser.choose)
+  }
+
+  @Test
+  def testAlignsPartitionsPerTask {
+    val task0 = new TaskName("Partition 0")
+    val task1 = new TaskName("Partition 1")
+    val chooser = new EventTimeChooser(0, 1000, clock = () => now,
+      taskSystemStreamPartitions = ImmutableMap.of[TaskName, java.util.Set[SystemStreamPartition]](
+        task0, ImmutableSet.of(ssp0, ssp1),
+        task1, ImmutableSet.of(ssp2, ssp3)))
+    List(ssp0, ssp1, ssp2, ssp3).foreach(chooser.register(_, null))
+    chooser.start
+
+    val envelope0 = envelope(ssp0, 100)
+    val envelope1 = envelope(ssp1, 100)
+    val envelope2 = envelope(ssp2, 200)
+    chooser.update(envelope0)
+    chooser.update(envelope2)
+    // Nothing is known about ssp1 and ssp3 yet, so both tasks are held back.
+    assertNull(chooser.choose)
+
+    // Task 0 is aligned, but does not hold back task 1, which still waits for ssp3.
+    chooser.update(envelope1)
+    assertEquals(envelope0, chooser.choose)
+    assertEquals(envelope1, chooser.choose)
+    assertNull(chooser.choose)
+
+    // ssp1 of task 0 is still at 100, which holds back ssp0 but not task 1, even though its envelopes are later.
+    val envelope3 = envelope(ssp3, 200)
+    chooser.update(envelope3)
+    chooser.update(envelope(ssp0, 150))
+    assertEquals(envelope2, chooser.choose)
+    assertEquals(envelope3, chooser.choose)
+    assertNull(chooser.choose)
+  }
+
+  @Test
+  def testAlignsSharedPartitionsWithEachOfTheirTasks {
+    val task0 = new TaskName("Partition 0")
+    val task1 = new TaskName("Partition 1")
+    val chooser = new EventTimeChooser(0, 1000, clock = () => now,
+      taskSystemStreamPartitions = ImmutableMap.of[TaskName, java.util.Set[SystemStreamPartition]](
+        task0, ImmutableSet.of(ssp0, ssp1),
+        task1, ImmutableSet.of(ssp1, ssp2)))
+    List(ssp0, ssp1, ssp2).foreach(chooser.register(_, null))
+    chooser.start
+
+    chooser.update(envelope(ssp0, 100))
+    chooser.update(envelope(ssp2, 100))
+    val envelope1 = envelope(ssp1, 100)
+    chooser.update(envelope1)
+    assertEquals(ssp0, chooser.choose.getSystemStreamPartition)
+    assertEquals(ssp2, chooser.choose.getSystemStreamPartition)
+    assertEquals(envelope1, chooser.choose)
+
+    // Both tasks wait for ssp1 before they move on.
+    chooser.update(envelope(ssp0, 200))
+    chooser.update(envelope(ssp2, 200))
+    assertNull(chooser.choose)
+    chooser.update(envelope(ssp1, 200))
+    assertEquals(3, (1 to 3).map(_ => chooser.choose).count(_ != null))
+  }
+}
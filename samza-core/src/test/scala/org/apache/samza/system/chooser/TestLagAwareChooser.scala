@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.system.chooser
+
+import java.util
+
+import org.apache.samza.Partition
+import org.apache.samza.system.SystemStreamMetadata.SystemStreamPartitionMetadata
+import org.apache.samza.system.{IncomingMessageEnvelope, SystemAdmins, SystemStreamPartition}
+import org.junit.Assert._
+import org.junit.Test
+
+import scala.collection.JavaConverters._
+
+class TestLagAwareChooser {
+  val ssp0 = new SystemStreamPartition("kafka", "stream", new Partition(0))
+  val ssp1 = new SystemStreamPartition("kafka", "stream", new Partition(1))
+
+  private def envelope(ssp: SystemStreamPartition, offset: String) = new IncomingMessageEnvelope(ssp, offset, null, null)
+
+  private def getChooser(upcomingOffsets: Map[SystemStreamPartition, String], metrics: LagAwareChooserMetrics = new LagAwareChooserMetrics) = {
+    val admin = new MockSystemAdmin {
+      override def getSSPMetadata(ssps: util.Set[SystemStreamPartition]) = {
+        if (upcomingOffsets == null) {
+          throw new RuntimeException("Metadata is unavailable.")
+        }
+        upcomingOffsets
+          .filterKeys(ssps.contains(_))
+          .mapValues(upcomingOffset => new SystemStreamPartitionMetadata("0", upcomingOffset, upcomingOffset))
+          .asJava
+      }
+    }
+    val chooser = new LagAwareChooser(new SystemAdmins(Map[String, org.apache.samza.system.SystemAdmin]("kafka" -> admin).asJava), 0, metrics)
+    chooser.register(ssp0, null)
+    chooser.register(ssp1, null)
+    chooser.start
+    chooser
+  }
+
+  @Test
+  def testPrefersLaggingPartitions {
+    val chooser = getChooser(Map(ssp0 -> "1000", ssp1 -> "11"))
+    var offsets = Map(ssp0 -> 0L, ssp1 -> 10L)
+    offsets.foreach { case (ssp, offset) => chooser.update(envelope(ssp, offset.toString)) }
+
+    // ssp1 is caught up, so ssp0, which is 999 messages behind, is chosen first.
+    for (i <- 0 until 100) {
+      val chosen = chooser.choose
+      assertEquals(ssp0, chosen.getSystemStreamPartition)
+      offsets += ssp0 -> (offsets(ssp0) + 1)
+      chooser.update(envelope(ssp0, offsets(ssp0).toString))
+    }
+  }
+
+  @Test
+  def testRoundRobinWithoutLag {
+    val chooser = getChooser(Map(ssp0 -> "1", ssp1 -> "1"))
+    chooser.update(envelope(ssp0, "0"))
+    chooser.update(envelope(ssp1, "0"))
+    val first = chooser.choose
+    chooser.update(first)
+    val second = chooser.choose
+    chooser.update(second)
+    assertNotEquals(first.getSystemStreamPartition, second.getSystemStreamPartition)
+    assertEquals(first, chooser.choose)
+    assertEquals(second, chooser.choose)
+    assertNull(chooser.choose)
+  }
+
+  @Test
+  def testNonNumericOffsetsHaveNoLag {
+    val chooser = getChooser(Map(ssp0 -> "z", ssp1 -> "z"))
+    val envelope0 = envelope(ssp0, "a")
+    val envelope1 = envelope(ssp1, "b")
+    chooser.update(envelope0)
+    chooser.update(envelope1)
+    assertEquals(envelope0, chooser.choose)
+    assertEquals(envelope1, chooser.choose)
+    assertNull(chooser.choose)
+  }
+
+  @Test
+  def testRefreshFailuresAreCounted {
+    val metrics = new LagAwareChooserMetrics
+    val chooser = getChooser(null, metrics)
+    assertEquals(1, metrics.refreshFailures.getCount)
+
+    val envelope0 = envelope(ssp0, "0")
+    chooser.update(envelope0)
+    assertEquals(envelope0, chooser.choose)
+    chooser.stop
+  }
+}
@@ -41,6 +41,9 @@ public class ElasticsearchConfig extends MapConfig {
   public static final String CONFIG_KEY_BULK_FLUSH_MAX_ACTIONS = "bulk.flush.max.actions";
   public static final String CONFIG_KEY_BULK_FLUSH_MAX_SIZE_MB = "bulk.flush.max.size.mb";
   public static final String CONFIG_KEY_BULK_FLUSH_INTERVALS_MS = "bulk.flush.interval.ms";
+  public static final String CONFIG_KEY_BULK_MAX_IN_FLIGHT_REQUESTS = "bulk.max.in.flight.requests";
+  public static final String CONFIG_KEY_BULK_MAX_IN_FLIGHT_BYTES = "bulk.max.in.flight.bytes";
+  public static final String CONFIG_KEY_BULK_TARGET_LATENCY_MS = "bulk.target.latency.ms";
 
   public static final String CONFIG_KEY_CLIENT_TRANSPORT_HOST = "client.transport.host";
   public static final String CONFIG_KEY_CLIENT_TRANSPORT_PORT = "client.transport.port";
@@ -108,6 +111,38 @@ public class ElasticsearchConfig extends MapConfig {
     }
   }
 
+  /**
+   * The number of bulk requests of a source that may be executing while documents are added to the next one.
+   * Documents of a source may be indexed out of order when this is larger than 0.
+   */
+  public int getBulkMaxInFlightRequests() {
+    return getInt(CONFIG_KEY_BULK_MAX_IN_FLIGHT_REQUESTS, 0);
+  }
+
+  /**
+   * The maximum size of the documents of a source that are buffered or being indexed. Sends block once the limit is
+   * reached, until enough documents have been indexed.
+   */
+  public Optional<Long> getBulkMaxInFlightBytes() {
+    if (containsKey(CONFIG_KEY_BULK_MAX_IN_FLIGHT_BYTES)) {
+      return Optional.of(getLong(CONFIG_KEY_BULK_MAX_IN_FLIGHT_BYTES));
+    } else {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * The bulk latency to aim for. When set, the number of actions per bulk request is adapted to the observed latency,
+   * up to the configured maximum number of actions.
+   */
+  public Optional<Integer> getBulkTargetLatencyMS() {
+    if (containsKey(CONFIG_KEY_BULK_TARGET_LATENCY_MS)) {
+      return Optional.of(getInt(CONFIG_KEY_BULK_TARGET_LATENCY_MS));
+    } else {
+      return Optional.empty();
+    }
+  }
+
   private void logAllSettings(Config config) {
     StringBuilder b = new StringBuilder();
     b.append("Elasticsearch System settings: ");
@@ -39,9 +39,11 @@ public class BulkProcessorFactory {
   public BulkProcessor getBulkProcessor(Client client, BulkProcessor.Listener listener) {
     BulkProcessor.Builder builder = BulkProcessor.builder(client, listener);
 
-    // Concurrent requests set to 0 to ensure ordering of documents is maintained in batches.
-    // This also means BulkProcessor#flush() is blocking as is also required.
-    builder.setConcurrentRequests(0);
+    // Concurrent requests default to 0 to ensure ordering of documents is maintained in batches.
+    // This also means BulkProcessor#flush() is blocking as is also required. Otherwise adding documents
+    // blocks once the configured number of bulk requests is executing, and flush() waits for their completion
+    // in ElasticsearchSystemProducer.
+    builder.setConcurrentRequests(config.getBulkMaxInFlightRequests());
 
     config.getBulkFlushMaxActions().ifPresent(builder::setBulkActions);
     config.getBulkFlushMaxSizeMB().ifPresent(size ->
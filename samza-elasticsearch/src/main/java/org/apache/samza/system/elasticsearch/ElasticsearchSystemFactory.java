@@ -55,7 +55,8 @@ public class ElasticsearchSystemFactory implements SystemFactory {
                                            getBulkProcessorFactory(elasticsearchConfig),
                                            getClient(elasticsearchConfig),
                                            getIndexRequestFactory(elasticsearchConfig),
-                                           new ElasticsearchSystemProducerMetrics(name, metricsRegistry));
+                                           new ElasticsearchSystemProducerMetrics(name, metricsRegistry),
+                                           elasticsearchConfig);
   }
 
   @Override
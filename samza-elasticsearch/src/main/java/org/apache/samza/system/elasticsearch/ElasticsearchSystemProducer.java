@@ -20,9 +20,12 @@
 package org.apache.samza.system.elasticsearch;
 
 import org.apache.samza.SamzaException;
+import org.apache.samza.config.ElasticsearchConfig;
+import org.apache.samza.config.MapConfig;
 import org.apache.samza.system.OutgoingMessageEnvelope;
 import org.apache.samza.system.SystemProducer;
 import org.apache.samza.system.elasticsearch.indexrequest.IndexRequestFactory;
+import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionResponse;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
@@ -36,8 +39,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /** A {@link SystemProducer} for Elasticsearch that builds on top of the {@link BulkProcessor}
@@ -54,12 +63,24 @@ import java.util.concurrent.atomic.AtomicReference;
  * are pluggable so the implementation of these can be changed if required.
  * </p>
  *
+ * <p>
+ * The size of the documents that are buffered or being indexed can be bounded per source, in which case
+ * {@link #send(String, OutgoingMessageEnvelope)} blocks until enough documents have been indexed. The number
+ * of actions per bulk request can also be adapted to the observed bulk latency, so that bulk requests get
+ * smaller while Elasticsearch is slow.
+ * </p>
+ *
  * */
 public class ElasticsearchSystemProducer implements SystemProducer {
   private static final Logger LOGGER = LoggerFactory.getLogger(ElasticsearchSystemProducer.class);
+  // Default number of actions per bulk request of the BulkProcessor
+  private static final int DEFAULT_BULK_ACTIONS = 1000;
+  private static final int MIN_ADAPTIVE_BULK_ACTIONS = 10;
+  private static final long WAIT_MS = 100;
 
   private final String system;
   private final Map<String, BulkProcessor> sourceBulkProcessor;
+  private final Map<String, BulkState> sourceBulkState;
   private final AtomicBoolean sendFailed = new AtomicBoolean(false);
   private final AtomicReference<Throwable> thrown = new AtomicReference<>();
 
@@ -69,15 +90,30 @@ public class ElasticsearchSystemProducer implements SystemProducer {
 
   private final Client client;
 
+  private final long maxInFlightBytes;
+  private final long targetBulkLatencyNs;
+  private final int maxBulkActions;
+
   public ElasticsearchSystemProducer(String system, BulkProcessorFactory bulkProcessorFactory,
                                      Client client, IndexRequestFactory indexRequestFactory,
                                      ElasticsearchSystemProducerMetrics metrics) {
+    this(system, bulkProcessorFactory, client, indexRequestFactory, metrics,
+         new ElasticsearchConfig(system, new MapConfig()));
+  }
+
+  public ElasticsearchSystemProducer(String system, BulkProcessorFactory bulkProcessorFactory,
+                                     Client client, IndexRequestFactory indexRequestFactory,
+                                     ElasticsearchSystemProducerMetrics metrics, ElasticsearchConfig config) {
     this.system = system;
     this.sourceBulkProcessor = new HashMap<>();
+    this.sourceBulkState = new HashMap<>();
     this.bulkProcessorFactory = bulkProcessorFactory;
     this.client = client;
     this.indexRequestFactory = indexRequestFactory;
     this.metrics = metrics;
+    this.maxInFlightBytes = config.getBulkMaxInFlightBytes().orElse(0L);
+    this.targetBulkLatencyNs = TimeUnit.MILLISECONDS.toNanos(config.getBulkTargetLatencyMS().orElse(0));
+    this.maxBulkActions = config.getBulkFlushMaxActions().orElse(DEFAULT_BULK_ACTIONS);
   }
 
 
@@ -98,10 +134,14 @@ public class ElasticsearchSystemProducer implements SystemProducer {
 
   @Override
   public void register(final String source) {
+    final BulkState state = new BulkState(maxBulkActions);
     BulkProcessor.Listener listener = new BulkProcessor.Listener() {
         @Override
         public void beforeBulk(long executionId, BulkRequest request) {
-          // Nothing to do.
+          state.bulkStartNs.put(executionId, System.nanoTime());
+          state.inFlightBulks.incrementAndGet();
+          int actions = request.numberOfActions();
+          state.pendingActions.updateAndGet(pending -> Math.max(0, pending - actions));
         }
 
         @Override
@@ -125,6 +165,7 @@ public class ElasticsearchSystemProducer implements SystemProducer {
           } else {
             updateSuccessMetrics(response);
           }
+          onBulkComplete(state, executionId, request, false);
         }
 
         @Override
@@ -132,6 +173,7 @@ public class ElasticsearchSystemProducer implements SystemProducer {
           LOGGER.error(failure.getMessage());
           thrown.compareAndSet(null, failure);
           sendFailed.set(true);
+          onBulkComplete(state, executionId, request, true);
         }
 
         private void updateSuccessMetrics(BulkResponse response) {
@@ -161,19 +203,122 @@ public class ElasticsearchSystemProducer implements SystemProducer {
         }
     };
 
+    sourceBulkState.put(source, state);
     sourceBulkProcessor.put(source, bulkProcessorFactory.getBulkProcessor(client, listener));
   }
 
   @Override
   public void send(String source, OutgoingMessageEnvelope envelope) {
     IndexRequest indexRequest = indexRequestFactory.getIndexRequest(envelope);
-    sourceBulkProcessor.get(source).add(indexRequest);
+    BulkProcessor bulkProcessor = sourceBulkProcessor.get(source);
+    BulkState state = sourceBulkState.get(source);
+    long size = sizeOf(indexRequest);
+    if (maxInFlightBytes > 0) {
+      awaitInFlightBytes(source, bulkProcessor, state, size);
+    }
+    state.inFlightBytes.addAndGet(size);
+    bulkProcessor.add(indexRequest);
+
+    if (targetBulkLatencyNs > 0 && state.pendingActions.incrementAndGet() >= state.bulkActions) {
+      bulkProcessor.flush();
+    }
   }
 
   @Override
   public void flush(String source) {
     sourceBulkProcessor.get(source).flush();
+    // bulk requests are executed asynchronously when more than one may be in flight
+    awaitInFlightBulks(source, sourceBulkState.get(source));
+
+    checkForFailure(source);
+
+    LOGGER.info(String.format("Flushed %s to %s.", source, system));
+  }
+
+  /**
+   * Blocks until the documents of the source that are buffered or being indexed leave room for a document of the
+   * given size. A document larger than the limit is only sent once nothing else is in flight.
+   */
+  private void awaitInFlightBytes(String source, BulkProcessor bulkProcessor, BulkState state, long size) {
+    if (state.inFlightBytes.get() == 0 || state.inFlightBytes.get() + size <= maxInFlightBytes) {
+      return;
+    }
+    long startNs = System.nanoTime();
+    // the buffered documents count against the limit too, so send them out instead of waiting for the next bulk
+    bulkProcessor.flush();
+    synchronized (state) {
+      while (state.inFlightBytes.get() > 0 && state.inFlightBytes.get() + size > maxInFlightBytes) {
+        checkForFailure(source);
+        waitFor(source, state);
+      }
+    }
+    metrics.sendBlockedNs.inc(System.nanoTime() - startNs);
+  }
+
+  private void awaitInFlightBulks(String source, BulkState state) {
+    synchronized (state) {
+      while (state.inFlightBulks.get() > 0) {
+        waitFor(source, state);
+      }
+    }
+  }
+
+  private void waitFor(String source, BulkState state) {
+    try {
+      state.wait(WAIT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SamzaException(String.format("Interrupted while waiting for %s to be indexed in %s.", source, system), e);
+    }
+  }
+
+  /**
+   * Releases the documents of a completed bulk request, records its latency for each of its indexes and adapts the
+   * number of actions of the next bulk requests: halved if the latency was above the target or the request failed,
+   * increased by a tenth of the maximum if the latency was below half of the target.
+   */
+  private void onBulkComplete(BulkState state, long executionId, BulkRequest request, boolean failed) {
+    Long startNs = state.bulkStartNs.remove(executionId);
+    long latencyNs = startNs != null ? System.nanoTime() - startNs : 0;
+    if (request != null) {
+      long size = 0;
+      Set<String> indexes = new HashSet<>();
+      for (ActionRequest actionRequest : request.requests()) {
+        size += sizeOf(actionRequest);
+        if (actionRequest instanceof IndexRequest && ((IndexRequest) actionRequest).index() != null) {
+          indexes.add(((IndexRequest) actionRequest).index());
+        }
+      }
+      state.inFlightBytes.addAndGet(-size);
+      if (startNs != null) {
+        indexes.forEach(index -> metrics.bulkLatencyNs(index).update(latencyNs));
+      }
+    }
+
+    if (targetBulkLatencyNs > 0 && startNs != null) {
+      if (failed || latencyNs > targetBulkLatencyNs) {
+        state.bulkActions = Math.max(Math.min(MIN_ADAPTIVE_BULK_ACTIONS, maxBulkActions), state.bulkActions / 2);
+      } else if (latencyNs < targetBulkLatencyNs / 2) {
+        state.bulkActions = Math.min(maxBulkActions, state.bulkActions + Math.max(1, maxBulkActions / 10));
+      }
+    }
 
+    synchronized (state) {
+      if (startNs != null) {
+        state.inFlightBulks.decrementAndGet();
+      }
+      state.notifyAll();
+    }
+  }
+
+  private static long sizeOf(ActionRequest request) {
+    if (request instanceof IndexRequest && ((IndexRequest) request).source() != null) {
+      return ((IndexRequest) request).source().length();
+    }
+    return 0;
+  }
+
+  private void checkForFailure(String source) {
     if (sendFailed.get()) {
       String message = String.format("Unable to send message from %s to system %s.", source,
                                      system);
@@ -186,8 +331,21 @@ public class ElasticsearchSystemProducer implements SystemProducer {
         throw new SamzaException(message);
       }
     }
+  }
 
-    LOGGER.info(String.format("Flushed %s to %s.", source, system));
+  /**
+   * The documents of a source that are buffered or being indexed, and the number of actions of its next bulk request.
+   */
+  private static class BulkState {
+    private final Map<Long, Long> bulkStartNs = new ConcurrentHashMap<>();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final AtomicInteger inFlightBulks = new AtomicInteger();
+    private final AtomicInteger pendingActions = new AtomicInteger();
+    private volatile int bulkActions;
+
+    BulkState(int bulkActions) {
+      this.bulkActions = bulkActions;
+    }
   }
 
 }
@@ -18,15 +18,20 @@
  */
 package org.apache.samza.system.elasticsearch;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.samza.metrics.Counter;
 import org.apache.samza.metrics.MetricsBase;
 import org.apache.samza.metrics.MetricsRegistry;
+import org.apache.samza.metrics.Timer;
 
 public class ElasticsearchSystemProducerMetrics extends MetricsBase {
   public final Counter bulkSendSuccess;
   public final Counter inserts;
   public final Counter updates;
   public final Counter conflicts;
+  public final Counter sendBlockedNs;
+  private final Map<String, Timer> indexBulkLatencyNs = new ConcurrentHashMap<>();
 
   public ElasticsearchSystemProducerMetrics(String systemName, MetricsRegistry registry) {
     super(systemName + "-", registry);
@@ -35,5 +40,13 @@ public class ElasticsearchSystemProducerMetrics extends MetricsBase {
     inserts = newCounter("docs-inserted");
     updates = newCounter("docs-updated");
     conflicts = newCounter("version-conflicts");
+    sendBlockedNs = newCounter("send-blocked-ns");
+  }
+
+  /**
+   * The latency of the bulk requests that contained documents of the given index.
+   */
+  public Timer bulkLatencyNs(String index) {
+    return indexBulkLatencyNs.computeIfAbsent(index, name -> newTimer(name + "-bulk-latency-ns"));
   }
 }
@@ -105,6 +105,28 @@ public class ElasticsearchConfigTest {
     assertEquals(Integer.valueOf(10), config.getBulkFlushIntervalMS().get());
   }
 
+  @Test
+  public void testGetBulkMaxInFlight() throws Exception {
+    assertEquals(0, EMPTY_CONFIG.getBulkMaxInFlightRequests());
+    assertFalse(EMPTY_CONFIG.getBulkMaxInFlightBytes().isPresent());
+
+    assertEquals(2, configForProperty("systems.es.bulk.max.in.flight.requests", "2").getBulkMaxInFlightRequests());
+    ElasticsearchConfig config = configForProperty("systems.es.bulk.max.in.flight.bytes", "10485760");
+
+    assertTrue(config.getBulkMaxInFlightBytes().isPresent());
+    assertEquals(Long.valueOf(10485760), config.getBulkMaxInFlightBytes().get());
+  }
+
+  @Test
+  public void testGetBulkTargetLatencyMS() throws Exception {
+    assertFalse(EMPTY_CONFIG.getBulkTargetLatencyMS().isPresent());
+
+    ElasticsearchConfig config = configForProperty("systems.es.bulk.target.latency.ms", "500");
+
+    assertTrue(config.getBulkTargetLatencyMS().isPresent());
+    assertEquals(Integer.valueOf(500), config.getBulkTargetLatencyMS().get());
+  }
+
   @Test
   public void testGetIndexRequestFactoryClassName() throws Exception {
     assertFalse(EMPTY_CONFIG.getIndexRequestFactoryClassName().isPresent());
@@ -39,17 +39,21 @@ public class ElasticsearchSystemProducerMetricsTest {
     metrics.inserts.inc();
     metrics.updates.inc(7L);
     metrics.conflicts.inc(3L);
+    metrics.sendBlockedNs.inc(11L);
+    metrics.bulkLatencyNs("index").update(13L);
 
     Set<String> groups = registry.getGroups();
     assertEquals(1, groups.size());
     assertEquals(GRP_NAME, groups.toArray()[0]);
 
     Map<String, Metric> metricMap = registry.getGroup(GRP_NAME);
-    assertEquals(4, metricMap.size());
+    assertEquals(6, metricMap.size());
     assertEquals(29L, ((Counter) metricMap.get("es-bulk-send-success")).getCount());
     assertEquals(1L, ((Counter) metricMap.get("es-docs-inserted")).getCount());
     assertEquals(7L, ((Counter) metricMap.get("es-docs-updated")).getCount());
     assertEquals(3L, ((Counter) metricMap.get("es-version-conflicts")).getCount());
+    assertEquals(11L, ((Counter) metricMap.get("es-send-blocked-ns")).getCount());
+    assertEquals(1, ((Timer) metricMap.get("es-index-bulk-latency-ns")).getSnapshot().getSize());
   }
 
 }
\ No newline at end of file
@@ -19,16 +19,26 @@
 
 package org.apache.samza.system.elasticsearch;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.samza.SamzaException;
+import org.apache.samza.config.ElasticsearchConfig;
+import org.apache.samza.config.MapConfig;
 import org.apache.samza.metrics.MetricsRegistryMap;
 import org.apache.samza.system.OutgoingMessageEnvelope;
 import org.apache.samza.system.SystemProducer;
 import org.apache.samza.system.elasticsearch.indexrequest.IndexRequestFactory;
+import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.rest.RestStatus;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,8 +47,10 @@ import org.mockito.ArgumentCaptor;
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -155,6 +167,118 @@ public class ElasticsearchSystemProducerTest {
     producer.flush(SOURCE_ONE);
   }
 
+  @Test
+  public void testSendBlocksOnMaxInFlightBytes() throws Exception {
+    Map<String, String> config = new HashMap<>();
+    config.put("systems.es.bulk.max.in.flight.bytes", "10");
+    ArgumentCaptor<BulkProcessor.Listener> listenerCaptor = ArgumentCaptor.forClass(BulkProcessor.Listener.class);
+    producer = registerWithConfig(config, listenerCaptor);
+
+    OutgoingMessageEnvelope envelope = mock(OutgoingMessageEnvelope.class);
+    IndexRequest indexRequest = mock(IndexRequest.class);
+    when(indexRequest.source()).thenReturn(new BytesArray(new byte[8]));
+    when(INDEX_REQUEST_FACTORY.getIndexRequest(envelope)).thenReturn(indexRequest);
+    // flushing the buffered document completes its bulk request, which makes room for the next document
+    BulkRequest request = getBulkRequest(indexRequest);
+    BulkResponse response = getSuccessfulResp();
+    doAnswer(invocation -> {
+      listenerCaptor.getValue().beforeBulk(1, request);
+      listenerCaptor.getValue().afterBulk(1, request, response);
+      return null;
+    }).when(processorOne).flush();
+
+    producer.send(SOURCE_ONE, envelope);
+    verify(processorOne, never()).flush();
+    producer.send(SOURCE_ONE, envelope);
+
+    verify(processorOne).flush();
+    verify(processorOne, times(2)).add(indexRequest);
+    assertTrue(metrics.sendBlockedNs.getCount() > 0);
+  }
+
+  @Test
+  public void testFlushWaitsForInFlightBulks() throws Exception {
+    Map<String, String> config = new HashMap<>();
+    config.put("systems.es.bulk.max.in.flight.requests", "1");
+    ArgumentCaptor<BulkProcessor.Listener> listenerCaptor = ArgumentCaptor.forClass(BulkProcessor.Listener.class);
+    producer = registerWithConfig(config, listenerCaptor);
+
+    // the bulk request completes asynchronously after the processor has been flushed
+    BulkRequest request = getBulkRequest();
+    BulkResponse response = getSuccessfulResp();
+    doAnswer(invocation -> {
+      listenerCaptor.getValue().beforeBulk(1, request);
+      new Thread(() -> {
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        listenerCaptor.getValue().afterBulk(1, request, response);
+      }).start();
+      return null;
+    }).when(processorOne).flush();
+
+    producer.flush(SOURCE_ONE);
+
+    assertEquals(1, metrics.bulkSendSuccess.getCount());
+  }
+
+  @Test
+  public void testAdaptiveBulkSize() throws Exception {
+    Map<String, String> config = new HashMap<>();
+    config.put("systems.es.bulk.flush.max.actions", "40");
+    config.put("systems.es.bulk.target.latency.ms", "1");
+    ArgumentCaptor<BulkProcessor.Listener> listenerCaptor = ArgumentCaptor.forClass(BulkProcessor.Listener.class);
+    producer = registerWithConfig(config, listenerCaptor);
+
+    OutgoingMessageEnvelope envelope = mock(OutgoingMessageEnvelope.class);
+    when(INDEX_REQUEST_FACTORY.getIndexRequest(envelope)).thenReturn(mock(IndexRequest.class));
+
+    // a bulk request slower than the target halves the number of actions of the next bulk requests
+    BulkRequest request = getBulkRequest();
+    listenerCaptor.getValue().beforeBulk(1, request);
+    Thread.sleep(5);
+    listenerCaptor.getValue().afterBulk(1, request, getSuccessfulResp());
+
+    for (int i = 0; i < 19; i++) {
+      producer.send(SOURCE_ONE, envelope);
+    }
+    verify(processorOne, never()).flush();
+    producer.send(SOURCE_ONE, envelope);
+    verify(processorOne).flush();
+  }
+
+  private SystemProducer registerWithConfig(Map<String, String> config,
+      ArgumentCaptor<BulkProcessor.Listener> listenerCaptor) {
+    SystemProducer producer = new ElasticsearchSystemProducer(SYSTEM_NAME,
+                                                              BULK_PROCESSOR_FACTORY,
+                                                              CLIENT,
+                                                              INDEX_REQUEST_FACTORY,
+                                                              metrics,
+                                                              new ElasticsearchConfig(SYSTEM_NAME, new MapConfig(config)));
+    when(BULK_PROCESSOR_FACTORY.getBulkProcessor(eq(CLIENT), listenerCaptor.capture()))
+        .thenReturn(processorOne);
+    producer.register(SOURCE_ONE);
+    return producer;
+  }
+
+  private BulkRequest getBulkRequest(IndexRequest... indexRequests) {
+    BulkRequest request = mock(BulkRequest.class);
+    when(request.numberOfActions()).thenReturn(indexRequests.length);
+    List<ActionRequest> requests = new ArrayList<>();
+    Collections.addAll(requests, indexRequests);
+    when(request.requests()).thenReturn(requests);
+    return request;
+  }
+
+  private BulkResponse getSuccessfulResp() {
+    BulkResponse response = mock(BulkResponse.class);
+    when(response.hasFailures()).thenReturn(false);
+    when(response.getItems()).thenReturn(new BulkItemResponse[0]);
+    return response;
+  }
+
   private BulkResponse getRespWithFailedDocument(RestStatus status) {
     BulkResponse response = mock(BulkResponse.class);
     when(response.hasFailures()).thenReturn(true);
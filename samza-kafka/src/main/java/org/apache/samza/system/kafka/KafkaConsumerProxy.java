@@ -18,7 +18,6 @@
  */
 package org.apache.samza.system.kafka;
 
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -35,7 +34,6 @@ import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.Metric;
 import org.apache.kafka.common.MetricName;
-import org.apache.samza.Partition;
 import org.apache.samza.SamzaException;
 import org.apache.samza.system.IncomingMessageEnvelope;
 import org.apache.samza.system.SystemStreamPartition;
@@ -67,6 +65,8 @@ public class KafkaConsumerProxy<K, V> {
   private final Map<SystemStreamPartition, Long> nextOffsets = new ConcurrentHashMap<>();
   // lags behind the high water mark, as reported by the Kafka consumer.
   private final Map<SystemStreamPartition, Long> latestLags = new HashMap<>();
+  // the time of the current poll, used as the arrival time of all the records it returned
+  private long pollTimeMs;
 
   private volatile boolean isRunning = false;
   private volatile Throwable failureCause = null;
@@ -301,20 +301,26 @@ public class KafkaConsumerProxy<K, V> {
       throw new SamzaException("Received null 'records' after polling consumer in KafkaConsumerProxy " + this);
     }
 
-    Map<SystemStreamPartition, List<IncomingMessageEnvelope>> results = new HashMap<>(records.count());
-    // Parse the returned records and convert them into the IncomingMessageEnvelope.
-    for (ConsumerRecord<K, V> record : records) {
-      int partition = record.partition();
-      String topic = record.topic();
-      TopicPartition tp = new TopicPartition(topic, partition);
-
-      updateMetrics(record, tp);
-
+    pollTimeMs = System.currentTimeMillis();
+    Map<SystemStreamPartition, List<IncomingMessageEnvelope>> results = new HashMap<>(records.partitions().size());
+    // Parse the returned records and convert them into the IncomingMessageEnvelope, one partition at a time
+    // so that the SSP of the partition is looked up and its metrics are updated once per poll.
+    for (TopicPartition tp : records.partitions()) {
+      List<ConsumerRecord<K, V>> partitionRecords = records.records(tp);
+      if (partitionRecords.isEmpty()) {
+        continue;
+      }
       SystemStreamPartition ssp = topicPartitionToSSP.get(tp);
-      List<IncomingMessageEnvelope> messages = results.computeIfAbsent(ssp, k -> new ArrayList<>());
+      List<IncomingMessageEnvelope> messages = new ArrayList<>(partitionRecords.size());
+      long bytes = 0;
+      for (ConsumerRecord<K, V> record : partitionRecords) {
+        IncomingMessageEnvelope incomingMessageEnvelope = handleNewRecord(record, ssp);
+        bytes += incomingMessageEnvelope.getSize();
+        messages.add(incomingMessageEnvelope);
+      }
 
-      IncomingMessageEnvelope incomingMessageEnvelope = handleNewRecord(record, ssp);
-      messages.add(incomingMessageEnvelope);
+      updateMetrics(tp, ssp, partitionRecords.get(partitionRecords.size() - 1).offset(), partitionRecords.size(), bytes);
+      results.put(ssp, messages);
     }
     if (LOG.isDebugEnabled()) {
       LOG.debug("# records per SSP:");
@@ -329,7 +335,8 @@ public class KafkaConsumerProxy<K, V> {
 
   /**
    * Convert a {@link ConsumerRecord} to an {@link IncomingMessageEnvelope}. This may also execute some other custom
-   * logic for each new {@link IncomingMessageEnvelope}.
+   * logic for each new {@link IncomingMessageEnvelope}. The default implementation returns a
+   * {@link KafkaIncomingMessageEnvelope}, which keeps the offset as a long, with the time of the poll as arrival time.
    *
    * This has a protected visibility so that {@link KafkaConsumerProxy} can be extended to add special handling logic
    * for custom Kafka systems.
@@ -340,9 +347,9 @@ public class KafkaConsumerProxy<K, V> {
    */
   protected IncomingMessageEnvelope handleNewRecord(ConsumerRecord<K, V> consumerRecord,
       SystemStreamPartition systemStreamPartition) {
-    return new IncomingMessageEnvelope(systemStreamPartition, String.valueOf(consumerRecord.offset()),
+    return new KafkaIncomingMessageEnvelope(systemStreamPartition, consumerRecord.offset(),
         consumerRecord.key(), consumerRecord.value(), getRecordSize(consumerRecord), consumerRecord.timestamp(),
-        Instant.now().toEpochMilli());
+        pollTimeMs);
   }
 
   /**
@@ -355,9 +362,7 @@ public class KafkaConsumerProxy<K, V> {
     return keySize + r.serializedValueSize();
   }
 
-  private void updateMetrics(ConsumerRecord<K, V> r, TopicPartition tp) {
-    SystemStreamPartition ssp = new SystemStreamPartition(systemName, tp.topic(), new Partition(tp.partition()));
-
+  private void updateMetrics(TopicPartition tp, SystemStreamPartition ssp, long lastOffset, int reads, long bytes) {
     Long lag = latestLags.get(ssp);
     if (lag == null) {
       throw new SamzaException("Unknown/unregistered ssp in latestLags. ssp=" + ssp + "; system=" + systemName);
@@ -367,28 +372,32 @@ public class KafkaConsumerProxy<K, V> {
       return;
     }
 
-    long recordOffset = r.offset();
-    long highWatermark = recordOffset + currentSSPLag; // derived value for the highwatermark
+    long highWatermark = lastOffset + currentSSPLag; // derived value for the highwatermark
 
-    int size = getRecordSize(r);
-    kafkaConsumerMetrics.incReads(tp);
-    kafkaConsumerMetrics.incBytesReads(tp, size);
-    kafkaConsumerMetrics.setOffsets(tp, recordOffset);
-    kafkaConsumerMetrics.incClientBytesReads(metricName, size);
+    kafkaConsumerMetrics.incReads(tp, reads);
+    kafkaConsumerMetrics.incBytesReads(tp, bytes);
+    kafkaConsumerMetrics.setOffsets(tp, lastOffset);
+    kafkaConsumerMetrics.incClientBytesReads(metricName, bytes);
     kafkaConsumerMetrics.setHighWatermarkValue(tp, highWatermark);
   }
 
   private void moveMessagesToTheirQueue(SystemStreamPartition ssp, List<IncomingMessageEnvelope> envelopes) {
-    long nextOffset = nextOffsets.get(ssp);
-
     for (IncomingMessageEnvelope env : envelopes) {
       sink.addMessage(ssp, env);  // move message to the BlockingEnvelopeMap's queue
 
-      LOG.trace("IncomingMessageEnvelope. got envelope with offset:{} for ssp={}", env.getOffset(), ssp);
-      nextOffset = Long.valueOf(env.getOffset()) + 1;
+      if (LOG.isTraceEnabled()) {
+        // only create the String offset when it is needed
+        LOG.trace("IncomingMessageEnvelope. got envelope with offset:{} for ssp={}", env.getOffset(), ssp);
+      }
     }
 
-    nextOffsets.put(ssp, nextOffset);
+    if (!envelopes.isEmpty()) {
+      IncomingMessageEnvelope lastEnvelope = envelopes.get(envelopes.size() - 1);
+      long lastOffset = lastEnvelope instanceof KafkaIncomingMessageEnvelope
+          ? ((KafkaIncomingMessageEnvelope) lastEnvelope).getLongOffset()
+          : Long.parseLong(lastEnvelope.getOffset());
+      nextOffsets.put(ssp, lastOffset + 1);
+    }
   }
 
   // The only way to figure out lag for the KafkaConsumer is to look at the metrics after each poll() call.
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.system.kafka;
+
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.SystemStreamPartition;
+
+
+/**
+ * An {@link IncomingMessageEnvelope} for a Kafka record, which keeps the offset of the record as a long.
+ * The String offset is only created when it is requested, e.g. to checkpoint it.
+ */
+public class KafkaIncomingMessageEnvelope extends IncomingMessageEnvelope {
+  private final long offset;
+  // racy but safe, as every thread computes the same String
+  private String offsetString;
+
+  public KafkaIncomingMessageEnvelope(SystemStreamPartition systemStreamPartition, long offset, Object key,
+      Object message, int size, long eventTime, long arrivalTime) {
+    super(systemStreamPartition, null, key, message, size, eventTime, arrivalTime);
+    this.offset = offset;
+  }
+
+  /**
+   * @return the offset of the record in its Kafka partition
+   */
+  public long getLongOffset() {
+    return offset;
+  }
+
+  @Override
+  public String getOffset() {
+    String offsetString = this.offsetString;
+    if (offsetString == null) {
+      offsetString = String.valueOf(offset);
+      this.offsetString = offsetString;
+    }
+    return offsetString;
+  }
+
+  @Override
+  public KafkaIncomingMessageEnvelope withKeyAndMessage(Object key, Object message) {
+    return new KafkaIncomingMessageEnvelope(getSystemStreamPartition(), offset, key, message, getSize(), getEventTime(),
+        getArrivalTime());
+  }
+
+  @Override
+  public boolean isEndOfStream() {
+    // end-of-stream envelopes are built with a reserved, non-numeric offset
+    return false;
+  }
+}
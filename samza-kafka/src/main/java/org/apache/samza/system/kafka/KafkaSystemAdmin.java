@@ -781,6 +781,11 @@ public class KafkaSystemAdmin implements SystemAdmin {
     return startpoint.apply(systemStreamPartition, kafkaStartpointToOffsetResolver);
   }
 
+  @Override
+  public Map<SystemStreamPartition, String> resolveStartpointsToOffsets(Map<SystemStreamPartition, Startpoint> startpoints) {
+    return kafkaStartpointToOffsetResolver.resolve(startpoints);
+  }
+
   /**
    * Container for metadata about offsets.
    */
@@ -890,6 +895,91 @@ public class KafkaSystemAdmin implements SystemAdmin {
       return getEndOffset(systemStreamPartition);
     }
 
+    /**
+     * Resolves the startpoints of several system stream partitions together. Rather than one request per partition,
+     * at most one offsetsForTimes, one beginningOffsets and one endOffsets request is issued to the brokers.
+     * @param startpoints the startpoints to resolve, keyed by their system stream partition.
+     * @return the resolved offsets, keyed by system stream partition.
+     */
+    Map<SystemStreamPartition, String> resolve(Map<SystemStreamPartition, Startpoint> startpoints) {
+      Map<SystemStreamPartition, String> resolvedOffsets = new HashMap<>();
+      Map<TopicPartition, SystemStreamPartition> topicPartitionToSSP = new HashMap<>();
+      Map<TopicPartition, Long> topicPartitionToTimestamp = new HashMap<>();
+      Set<TopicPartition> oldestTopicPartitions = new HashSet<>();
+      Set<TopicPartition> upcomingTopicPartitions = new HashSet<>();
+
+      // group the startpoints by the request that resolves them
+      StartpointVisitor<SystemStreamPartition, TopicPartition> startpointGrouper = new StartpointVisitor<SystemStreamPartition, TopicPartition>() {
+        @Override
+        public TopicPartition visit(SystemStreamPartition systemStreamPartition, StartpointSpecific startpointSpecific) {
+          resolvedOffsets.put(systemStreamPartition, startpointSpecific.getSpecificOffset());
+          return null;
+        }
+
+        @Override
+        public TopicPartition visit(SystemStreamPartition systemStreamPartition, StartpointTimestamp startpointTimestamp) {
+          Preconditions.checkNotNull(startpointTimestamp.getTimestampOffset(), "Timestamp field in startpoint cannot be null");
+          TopicPartition topicPartition = toTopicPartition(systemStreamPartition);
+          topicPartitionToTimestamp.put(topicPartition, startpointTimestamp.getTimestampOffset());
+          return topicPartition;
+        }
+
+        @Override
+        public TopicPartition visit(SystemStreamPartition systemStreamPartition, StartpointOldest startpointOldest) {
+          TopicPartition topicPartition = toTopicPartition(systemStreamPartition);
+          oldestTopicPartitions.add(topicPartition);
+          return topicPartition;
+        }
+
+        @Override
+        public TopicPartition visit(SystemStreamPartition systemStreamPartition, StartpointUpcoming startpointUpcoming) {
+          TopicPartition topicPartition = toTopicPartition(systemStreamPartition);
+          upcomingTopicPartitions.add(topicPartition);
+          return topicPartition;
+        }
+      };
+      startpoints.forEach((systemStreamPartition, startpoint) -> {
+        Preconditions.checkNotNull(startpoint, "Startpoint cannot be null");
+        TopicPartition topicPartition = startpoint.apply(systemStreamPartition, startpointGrouper);
+        if (topicPartition != null) {
+          topicPartitionToSSP.put(topicPartition, systemStreamPartition);
+        }
+      });
+
+      if (!topicPartitionToTimestamp.isEmpty()) {
+        LOG.info("Finding offsets for timestamps: {}.", topicPartitionToTimestamp);
+        Map<TopicPartition, OffsetAndTimestamp> topicPartitionToOffsetTimestamps =
+            threadSafeKafkaConsumer.execute(consumer -> consumer.offsetsForTimes(topicPartitionToTimestamp));
+        topicPartitionToTimestamp.forEach((topicPartition, timestamp) -> {
+          OffsetAndTimestamp offsetAndTimestamp = topicPartitionToOffsetTimestamps.get(topicPartition);
+          if (offsetAndTimestamp != null) {
+            resolvedOffsets.put(topicPartitionToSSP.get(topicPartition), String.valueOf(offsetAndTimestamp.offset()));
+          } else {
+            LOG.info("Offset for timestamp: {} does not exist for partition: {}. Falling back to end offset.", timestamp, topicPartition);
+            upcomingTopicPartitions.add(topicPartition);
+          }
+        });
+      }
+
+      if (!oldestTopicPartitions.isEmpty()) {
+        Map<TopicPartition, Long> topicPartitionToOffsets =
+            threadSafeKafkaConsumer.execute(consumer -> consumer.beginningOffsets(oldestTopicPartitions));
+        LOG.info("Beginning offsets for topic partitions: {}.", topicPartitionToOffsets);
+        oldestTopicPartitions.forEach(topicPartition ->
+            resolvedOffsets.put(topicPartitionToSSP.get(topicPartition), String.valueOf(topicPartitionToOffsets.get(topicPartition))));
+      }
+
+      if (!upcomingTopicPartitions.isEmpty()) {
+        Map<TopicPartition, Long> topicPartitionToOffsets =
+            threadSafeKafkaConsumer.execute(consumer -> consumer.endOffsets(upcomingTopicPartitions));
+        LOG.info("End offsets for topic partitions: {}.", topicPartitionToOffsets);
+        upcomingTopicPartitions.forEach(topicPartition ->
+            resolvedOffsets.put(topicPartitionToSSP.get(topicPartition), String.valueOf(topicPartitionToOffsets.get(topicPartition))));
+      }
+
+      return resolvedOffsets;
+    }
+
     /**
      * Converts the {@link SystemStreamPartition} to {@link TopicPartition}.
      * @param systemStreamPartition the input system stream partition.
@@ -18,6 +18,10 @@
  */
 package org.apache.samza.system.kafka;
 
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -60,9 +64,15 @@ public class KafkaSystemConsumer<K, V> extends BlockingEnvelopeMap implements Sy
   // This sink is used to transfer the messages from the proxy/consumer to the BlockingEnvelopeMap.
   final KafkaConsumerMessageSink messageSink;
 
-  // This proxy contains a separate thread, which reads kafka messages (with consumer.poll()) and populates
+  // The kafka consumers that fetch the registered partitions. Each of them is used by its own proxy.
+  private final List<Consumer<K, V>> kafkaConsumers;
+
+  // Each proxy contains a separate thread, which reads kafka messages (with consumer.poll()) and populates
   // BlockingEnvelopMap's buffers.
-  private final KafkaConsumerProxy<K, V> proxy;
+  private final List<KafkaConsumerProxy<K, V>> proxies;
+
+  // The proxies that have been assigned partitions and started.
+  private final List<KafkaConsumerProxy<K, V>> startedProxies = new ArrayList<>();
 
   // Holds the mapping between the registered TopicPartition and offset until the consumer is started.
   Map<TopicPartition, String> topicPartitionsToOffset = new HashMap<>();
@@ -82,9 +92,33 @@ public class KafkaSystemConsumer<K, V> extends BlockingEnvelopeMap implements Sy
    */
   public KafkaSystemConsumer(Consumer<K, V> kafkaConsumer, String systemName, Config config, String clientId,
       KafkaConsumerProxyFactory<K, V> kafkaConsumerProxyFactory, KafkaSystemConsumerMetrics metrics, Clock clock) {
+    this(Collections.singletonList(kafkaConsumer), systemName, config, clientId,
+        Collections.singletonList(kafkaConsumerProxyFactory), metrics, clock);
+  }
+
+  /**
+   * Create a KafkaSystemConsumer for the provided {@code systemName}, which fetches the registered partitions with
+   * several kafka consumers in parallel. The partitions are spread evenly among the consumers, and the messages of all
+   * of them are buffered in this consumer.
+   * @param kafkaConsumers kafka Consumer objects to be used by this system consumer
+   * @param systemName system name for which we create the consumer
+   * @param config application config
+   * @param clientId clientId prefix of the kafka consumers
+   * @param kafkaConsumerProxyFactories factories for creating the KafkaConsumerProxy of each of the kafka consumers,
+   *                                    in the same order as {@code kafkaConsumers}
+   * @param metrics metrics for this KafkaSystemConsumer
+   * @param clock system clock
+   */
+  public KafkaSystemConsumer(List<? extends Consumer<K, V>> kafkaConsumers, String systemName, Config config,
+      String clientId, List<? extends KafkaConsumerProxyFactory<K, V>> kafkaConsumerProxyFactories,
+      KafkaSystemConsumerMetrics metrics, Clock clock) {
     super(metrics.registry(), clock, metrics.getClass().getName());
+    Preconditions.checkArgument(!kafkaConsumers.isEmpty(), "At least one kafka consumer is required");
+    Preconditions.checkArgument(kafkaConsumers.size() == kafkaConsumerProxyFactories.size(),
+        "Each kafka consumer requires a proxy factory");
 
-    this.kafkaConsumer = kafkaConsumer;
+    this.kafkaConsumers = new ArrayList<>(kafkaConsumers);
+    this.kafkaConsumer = this.kafkaConsumers.get(0);
     this.clientId = clientId;
     this.systemName = systemName;
     this.config = config;
@@ -95,9 +129,13 @@ public class KafkaSystemConsumer<K, V> extends BlockingEnvelopeMap implements Sy
     // create a sink for passing the messages between the proxy and the consumer
     messageSink = new KafkaConsumerMessageSink();
 
-    // Create the proxy to do the actual message reading.
-    proxy = kafkaConsumerProxyFactory.create(this);
-    LOG.info("{}: Created proxy {} ", this, proxy);
+    // Create the proxies to do the actual message reading.
+    proxies = new ArrayList<>(kafkaConsumerProxyFactories.size());
+    for (KafkaConsumerProxyFactory<K, V> kafkaConsumerProxyFactory : kafkaConsumerProxyFactories) {
+      KafkaConsumerProxy<K, V> proxy = kafkaConsumerProxyFactory.create(this);
+      LOG.info("{}: Created proxy {} ", this, proxy);
+      proxies.add(proxy);
+    }
   }
 
   /**
@@ -133,18 +171,44 @@ public class KafkaSystemConsumer<K, V> extends BlockingEnvelopeMap implements Sy
   }
 
   private void startSubscription() {
-    //subscribe to all the registered TopicPartitions
-    LOG.info("{}: Consumer subscribes to {}", this, topicPartitionsToOffset.keySet());
-    try {
-      synchronized (kafkaConsumer) {
-        // we are using assign (and not subscribe), so we need to specify both topic and partition
-        kafkaConsumer.assign(topicPartitionsToOffset.keySet());
+    //subscribe each consumer to its share of the registered TopicPartitions
+    List<List<TopicPartition>> assignments = getConsumerAssignments();
+    for (int i = 0; i < kafkaConsumers.size(); i++) {
+      Consumer<K, V> consumer = kafkaConsumers.get(i);
+      List<TopicPartition> assignment = assignments.get(i);
+      if (assignment.isEmpty()) {
+        continue;
+      }
+      LOG.info("{}: Consumer {} subscribes to {}", this, i, assignment);
+      try {
+        synchronized (consumer) {
+          // we are using assign (and not subscribe), so we need to specify both topic and partition
+          consumer.assign(assignment);
+        }
+      } catch (Exception e) {
+        throw new SamzaException("Consumer subscription failed for " + this, e);
       }
-    } catch (Exception e) {
-      throw new SamzaException("Consumer subscription failed for " + this, e);
     }
   }
 
+  /**
+   * Spreads the registered TopicPartitions round robin among the kafka consumers, in topic and partition order,
+   * so that each consumer fetches about the same number of partitions of each topic.
+   */
+  List<List<TopicPartition>> getConsumerAssignments() {
+    List<TopicPartition> topicPartitions = new ArrayList<>(topicPartitionsToOffset.keySet());
+    topicPartitions.sort(Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition));
+
+    List<List<TopicPartition>> assignments = new ArrayList<>(kafkaConsumers.size());
+    for (int i = 0; i < kafkaConsumers.size(); i++) {
+      assignments.add(new ArrayList<>());
+    }
+    for (int i = 0; i < topicPartitions.size(); i++) {
+      assignments.get(i % kafkaConsumers.size()).add(topicPartitions.get(i));
+    }
+    return assignments;
+  }
+
   /**
    * Set the offsets to start from.
    * Register the TopicPartitions with the proxy.
@@ -156,31 +220,43 @@ public class KafkaSystemConsumer<K, V> extends BlockingEnvelopeMap implements Sy
       LOG.error("{}: Consumer is not subscribed to any SSPs", this);
     }
 
-    topicPartitionsToOffset.forEach((topicPartition, startingOffsetString) -> {
-      long startingOffset = Long.valueOf(startingOffsetString);
+    List<List<TopicPartition>> assignments = getConsumerAssignments();
+    for (int i = 0; i < kafkaConsumers.size(); i++) {
+      Consumer<K, V> consumer = kafkaConsumers.get(i);
+      KafkaConsumerProxy<K, V> proxy = proxies.get(i);
+      // a single consumer is always started, even without partitions, to keep the previous behavior
+      if (assignments.get(i).isEmpty() && i > 0) {
+        continue;
+      }
 
-      try {
-        synchronized (kafkaConsumer) {
-          kafkaConsumer.seek(topicPartition, startingOffset);
+      for (TopicPartition topicPartition : assignments.get(i)) {
+        String startingOffsetString = topicPartitionsToOffset.get(topicPartition);
+        long startingOffset = Long.valueOf(startingOffsetString);
+
+        try {
+          synchronized (consumer) {
+            consumer.seek(topicPartition, startingOffset);
+          }
+        } catch (Exception e) {
+          // all recoverable execptions are handled by the client.
+          // if we get here there is nothing left to do but bail out.
+          String msg = String.format("%s: Got Exception while seeking to %s for partition %s", this, startingOffsetString, topicPartition);
+          LOG.error(msg, e);
+          throw new SamzaException(msg, e);
         }
-      } catch (Exception e) {
-        // all recoverable execptions are handled by the client.
-        // if we get here there is nothing left to do but bail out.
-        String msg = String.format("%s: Got Exception while seeking to %s for partition %s", this, startingOffsetString, topicPartition);
-        LOG.error(msg, e);
-        throw new SamzaException(msg, e);
-      }
 
-      LOG.info("{}: Changing consumer's starting offset for partition {} to {}", this, topicPartition, startingOffsetString);
+        LOG.info("{}: Changing consumer's starting offset for partition {} to {}", this, topicPartition, startingOffsetString);
 
-      // add the partition to the proxy
-      proxy.addTopicPartition(KafkaUtil.toSystemStreamPartition(systemName, topicPartition), startingOffset);
-    });
+        // add the partition to the proxy
+        proxy.addTopicPartition(KafkaUtil.toSystemStreamPartition(systemName, topicPartition), startingOffset);
+      }
 
-    // start the proxy thread
-    if (proxy != null && !proxy.isRunning()) {
-      LOG.info("{}: Starting proxy {}", this, proxy);
-      proxy.start();
+      // start the proxy thread
+      if (proxy != null && !proxy.isRunning()) {
+        LOG.info("{}: Starting proxy {}", this, proxy);
+        proxy.start();
+      }
+      startedProxies.add(proxy);
     }
   }
 
@@ -232,19 +308,23 @@ public class KafkaSystemConsumer<K, V> extends BlockingEnvelopeMap implements Sy
 
     LOG.info("{}: Stopping Samza kafkaConsumer ", this);
 
-    // stop the proxy (with 1 minute timeout)
-    if (proxy != null) {
-      LOG.info("{}: Stopping proxy {}", this, proxy);
-      proxy.stop(TimeUnit.SECONDS.toMillis(60));
+    // stop the proxies (with 1 minute timeout)
+    for (KafkaConsumerProxy<K, V> proxy : proxies) {
+      if (proxy != null) {
+        LOG.info("{}: Stopping proxy {}", this, proxy);
+        proxy.stop(TimeUnit.SECONDS.toMillis(60));
+      }
     }
 
-    try {
-      synchronized (kafkaConsumer) {
-        LOG.info("{}: Closing kafkaSystemConsumer {}", this, kafkaConsumer);
-        kafkaConsumer.close();
+    for (Consumer<K, V> consumer : kafkaConsumers) {
+      try {
+        synchronized (consumer) {
+          LOG.info("{}: Closing kafkaSystemConsumer {}", this, consumer);
+          consumer.close();
+        }
+      } catch (Exception e) {
+        LOG.warn("{}: Failed to stop KafkaSystemConsumer.", this, e);
       }
-    } catch (Exception e) {
-      LOG.warn("{}: Failed to stop KafkaSystemConsumer.", this, e);
     }
   }
 
@@ -297,12 +377,14 @@ public class KafkaSystemConsumer<K, V> extends BlockingEnvelopeMap implements Sy
   public Map<SystemStreamPartition, List<IncomingMessageEnvelope>> poll(
       Set<SystemStreamPartition> systemStreamPartitions, long timeout) throws InterruptedException {
 
-    // check if the proxy is running
-    if (!proxy.isRunning()) {
-      LOG.info("{}: KafkaConsumerProxy is not running. Stopping the consumer.", this);
-      stop();
-      String message = String.format("%s: KafkaConsumerProxy has stopped.", this);
-      throw new SamzaException(message, proxy.getFailureCause());
+    // check if the proxies are running
+    for (KafkaConsumerProxy<K, V> proxy : startedProxies) {
+      if (!proxy.isRunning()) {
+        LOG.info("{}: KafkaConsumerProxy {} is not running. Stopping the consumer.", this, proxy);
+        stop();
+        String message = String.format("%s: KafkaConsumerProxy has stopped.", this);
+        throw new SamzaException(message, proxy.getFailureCause());
+      }
     }
 
     return super.poll(systemStreamPartitions, timeout);
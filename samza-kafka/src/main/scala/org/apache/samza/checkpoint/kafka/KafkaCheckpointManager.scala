@@ -20,10 +20,11 @@
 package org.apache.samza.checkpoint.kafka
 
 import java.util.Collections
-import java.util.concurrent.TimeUnit
+import java.util.concurrent.{Callable, ConcurrentLinkedQueue, ExecutionException, ExecutorService, Executors, Future, TimeUnit}
 import java.util.concurrent.atomic.AtomicReference
 import com.google.common.annotations.VisibleForTesting
 import com.google.common.base.Preconditions
+import com.google.common.util.concurrent.ThreadFactoryBuilder
 import org.apache.samza.checkpoint.{Checkpoint, CheckpointManager, CheckpointV1, CheckpointV2}
 import org.apache.samza.config.{Config, JobConfig, TaskConfig}
 import org.apache.samza.container.TaskName
@@ -46,6 +47,11 @@ import scala.collection.mutable
   *
   * <p> This class is thread safe for writing but not for reading checkpoints. This is currently OK since checkpoints
   * are only read on the main thread.
+  *
+  * <p> Checkpoints written concurrently by different tasks are group committed: the checkpoints queued while a write
+  * is in progress are sent together and made durable with a single producer flush, instead of one flush per task.
+  * This is opportunistic. It saves flushes when the commits of several tasks overlap, e.g. on the commit thread
+  * pool, while checkpoints written one after the other are still flushed one at a time.
   */
 class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
                              systemFactory: SystemFactory,
@@ -83,6 +89,14 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
 
   val checkpointReadVersions: util.List[lang.Short] = new TaskConfig(config).getCheckpointReadVersions
 
+  // if positive, only the latest checkpoint of each task is deserialized, using this many threads. See readCheckpoints.
+  val checkpointReadThreads: Int = new TaskConfig(config).getCheckpointReadThreads
+  val checkpointReadBatchSize: Int = 10000
+
+  // Checkpoints waiting to be written by the next group commit. See writeCheckpoint.
+  private val pendingWrites = new ConcurrentLinkedQueue[PendingCheckpointWrite]()
+  private val groupCommitLock = new Object
+
   /**
     * Create checkpoint stream prior to start.
     *
@@ -159,9 +173,61 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
 
   /**
     * @inheritdoc
+    *
+    * <p> The checkpoint is queued and written by whichever caller acquires the group commit lock next, together with
+    * all the other checkpoints queued by then. The call returns once its own checkpoint has been written.
     */
   override def writeCheckpoint(taskName: TaskName, checkpoint: Checkpoint) {
-    val envelope = buildOutgoingMessageEnvelope(taskName, checkpoint)
+    val pendingWrite = new PendingCheckpointWrite(taskName, checkpoint)
+    pendingWrites.add(pendingWrite)
+
+    groupCommitLock.synchronized {
+      // another caller may have written this checkpoint in its batch while we were waiting for the lock
+      if (!pendingWrite.completed) {
+        val batch = mutable.ArrayBuffer[PendingCheckpointWrite]()
+        var next = pendingWrites.poll()
+        while (next != null) {
+          batch += next
+          next = pendingWrites.poll()
+        }
+
+        try {
+          val failures = writeCheckpointBatch(batch.map(write => (write.taskName, write.checkpoint)))
+          batch.foreach(write => write.complete(failures.getOrElse(write.taskName, null)))
+        } catch {
+          case e: Exception =>
+            batch.foreach(write => write.complete(e))
+            throw e
+        }
+      }
+    }
+
+    if (pendingWrite.failure != null) {
+      throw pendingWrite.failure
+    }
+  }
+
+  /**
+    * Sends the checkpoints in order and flushes the producer once, retrying the whole batch with exponential backoff
+    * on failure. Resending a checkpoint is safe since only the last checkpoint of each task is read back.
+    *
+    * @return the tasks whose checkpoint could not be written, mapped to the cause of the failure
+    */
+  private def writeCheckpointBatch(checkpoints: Seq[(TaskName, Checkpoint)]): Map[TaskName, Exception] = {
+    val failures = mutable.Map[TaskName, Exception]()
+    // serialization failures are not retriable, and only fail the checkpoint of their own task
+    val envelopes = checkpoints.flatMap { case (taskName, checkpoint) =>
+      try {
+        Some((taskName, checkpoint, buildOutgoingMessageEnvelope(taskName, checkpoint)))
+      } catch {
+        case e: Exception =>
+          failures.put(taskName, e)
+          None
+      }
+    }
+    if (envelopes.isEmpty) {
+      return failures.toMap
+    }
 
     // Used for exponential backoff retries on failure in sending messages through producer.
     val startTimeInMillis: Long = System.currentTimeMillis()
@@ -171,14 +237,15 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
     while ((System.currentTimeMillis() - startTimeInMillis) <= MaxRetryDurationInMillis) {
       val currentProducer = producerRef.get()
       try {
-        currentProducer.send(taskName.getTaskName, envelope)
-        currentProducer.flush(taskName.getTaskName) // make sure it is written
-        debug(s"Wrote checkpoint: $checkpoint for task: $taskName")
-        return
+        envelopes.foreach { case (taskName, _, envelope) => currentProducer.send(taskName.getTaskName, envelope) }
+        // the checkpoint producer flushes all the messages sent so far, regardless of their source
+        currentProducer.flush(envelopes.last._1.getTaskName) // make sure it is written
+        envelopes.foreach { case (taskName, checkpoint, _) => debug(s"Wrote checkpoint: $checkpoint for task: $taskName") }
+        return failures.toMap
       } catch {
         case exception: Exception => {
           producerException = exception
-          warn(s"Retrying failed write for checkpoint: $checkpoint for task: $taskName", exception)
+          warn(s"Retrying failed write for checkpoints of tasks: ${envelopes.map(_._1).mkString(", ")}", exception)
           // TODO: Remove this producer recreation logic after SAMZA-1393.
           val newProducer: SystemProducer = getSystemProducer()
           producerCreationLock.synchronized {
@@ -204,7 +271,11 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
       sleepTimeInMillis = Math.min(sleepTimeInMillis * 2, maxSleepTimeInMillis)
       Thread.sleep(sleepTimeInMillis)
     }
-    throw new SamzaException(s"Exception when writing checkpoint: $checkpoint for task: $taskName.", producerException)
+    envelopes.foreach { case (taskName, checkpoint, _) =>
+      failures.put(taskName,
+        new SamzaException(s"Exception when writing checkpoint: $checkpoint for task: $taskName.", producerException))
+    }
+    failures.toMap
   }
 
   /**
@@ -240,8 +311,15 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
     *
     * <p> The underlying [[SystemConsumer]] is stateful and tracks its offsets. Hence, each invocation of this method
     * will read the log from where it left off previously. This allows for multiple efficient calls to [[readLastCheckpoint()]]
+    *
+    * <p> If checkpoint read threads are configured, only the checkpoint that wins for each task is deserialized,
+    * see [[readLatestCheckpoints()]]. Otherwise every checkpoint in the log is deserialized in order.
     */
   private def readCheckpoints(): Map[TaskName, Checkpoint] = {
+    if (checkpointReadThreads > 0) {
+      return readLatestCheckpoints()
+    }
+
     val checkpoints = mutable.Map[TaskName, Checkpoint]()
 
     val iterator = new SystemStreamPartitionIterator(systemConsumer, checkpointSsp)
@@ -256,34 +334,10 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
         info(s"Read $numMessagesRead from topic: $checkpointTopic. Current offset: $offset")
       }
 
-      val keyBytes = checkpointEnvelope.getKey.asInstanceOf[Array[Byte]]
-      if (keyBytes == null) {
-        throw new SamzaException("Encountered a checkpoint message with null key. Topic:$checkpointTopic " +
-          s"Offset:$offset")
-      }
-
-      val checkpointKey = try {
-        checkpointKeySerde.fromBytes(keyBytes)
-      } catch {
-        case e: Exception => if (validateCheckpoint) {
-          throw new SamzaException(s"Exception while deserializing checkpoint-key. " +
-            s"Topic: $checkpointTopic Offset: $offset", e)
-        } else {
-          warn(s"Ignoring exception while deserializing checkpoint-key. Topic: $checkpointTopic Offset: $offset", e)
-          null
-        }
-      }
+      val checkpointKey = deserializeCheckpointKey(checkpointEnvelope)
 
       if (checkpointKey != null) {
-        // If the grouper in the key is not equal to the configured grouper, error out.
-        val actualGrouperFactory = checkpointKey.getGrouperFactoryClassName
-        if (!expectedGrouperFactory.equals(actualGrouperFactory)) {
-          warn(s"Grouper mismatch. Configured: $expectedGrouperFactory Actual: $actualGrouperFactory ")
-          if (validateCheckpoint) {
-            throw new SamzaException("SSPGrouperFactory in the checkpoint topic does not match the configured value" +
-              s"Configured value: $expectedGrouperFactory; Actual value: $actualGrouperFactory Offset: $offset")
-          }
-        }
+        validateGrouperFactory(checkpointKey, offset)
 
         val msgBytes = checkpointEnvelope.getMessage.asInstanceOf[Array[Byte]]
         try {
@@ -314,6 +368,128 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
     checkpoints.toMap
   }
 
+  /**
+    * Returns the checkpoints from the log, like [[readCheckpoints()]], without deserializing the checkpoints that are
+    * superseded by a later checkpoint of the same task. The keys of each batch of messages read from the log are
+    * deserialized in parallel, and the winning checkpoint of each task is deserialized in parallel once the log has
+    * been read.
+    *
+    * <p> Unlike [[readCheckpoints()]], a winning checkpoint that fails to deserialize always fails the read, since the
+    * checkpoint it superseded is not available anymore.
+    */
+  private def readLatestCheckpoints(): Map[TaskName, Checkpoint] = {
+    val executor = Executors.newFixedThreadPool(checkpointReadThreads,
+      new ThreadFactoryBuilder().setNameFormat("Samza-KafkaCheckpointManager-read-%d").setDaemon(true).build())
+    try {
+      // the winning checkpoint message of each task so far, along with its key
+      val latestCheckpoints = mutable.Map[TaskName, (KafkaCheckpointLogKey, IncomingMessageEnvelope)]()
+
+      val iterator = new SystemStreamPartitionIterator(systemConsumer, checkpointSsp)
+      val batch = mutable.ArrayBuffer[IncomingMessageEnvelope]()
+      var numMessagesRead = 0
+
+      while (iterator.hasNext) {
+        batch += iterator.next
+        numMessagesRead += 1
+        if (numMessagesRead % 100000 == 0) {
+          info(s"Read $numMessagesRead from topic: $checkpointTopic. Current offset: ${batch.last.getOffset}")
+        }
+
+        if (batch.size >= checkpointReadBatchSize || !iterator.hasNext) {
+          val checkpointKeys = parallelMap(batch, executor)(deserializeCheckpointKey)
+          batch.zip(checkpointKeys).foreach { case (checkpointEnvelope, checkpointKey) =>
+            if (checkpointKey != null) {
+              validateGrouperFactory(checkpointKey, checkpointEnvelope.getOffset)
+
+              // if checkpoint key version does not match configured checkpoint version to read, skip the message.
+              if (checkpointReadVersions.contains(
+                KafkaCheckpointLogKey.CHECKPOINT_KEY_VERSIONS.get(checkpointKey.getType))) {
+                val latestCheckpoint = latestCheckpoints.get(checkpointKey.getTaskName)
+                if (latestCheckpoint.isEmpty || shouldOverrideCheckpointKey(latestCheckpoint.get._1, checkpointKey)) {
+                  latestCheckpoints.put(checkpointKey.getTaskName, (checkpointKey, checkpointEnvelope))
+                } // else ignore the de-prioritized checkpoint
+              } else {
+                warn(s"Ignoring unknown checkpoint key type for checkpoint key: $checkpointKey")
+              }
+            }
+          }
+          batch.clear()
+        }
+      }
+      info(s"Read $numMessagesRead messages from system:$checkpointSystem topic:$checkpointTopic. " +
+        s"Deserializing the latest checkpoints of ${latestCheckpoints.size} tasks")
+
+      parallelMap(latestCheckpoints.toSeq, executor) { case (taskName, (checkpointKey, checkpointEnvelope)) =>
+        val msgBytes = checkpointEnvelope.getMessage.asInstanceOf[Array[Byte]]
+        try {
+          (taskName, deserializeCheckpoint(checkpointKey, msgBytes))
+        } catch {
+          case e: Exception =>
+            throw new SamzaException(s"Exception while deserializing checkpoint-message. " +
+              s"Topic: $checkpointTopic Offset: ${checkpointEnvelope.getOffset}", e)
+        }
+      }.toMap
+    } finally {
+      executor.shutdownNow()
+    }
+  }
+
+  /**
+    * Deserializes the key of a checkpoint message. Returns null if the key could not be deserialized and checkpoint
+    * validation is disabled.
+    */
+  private def deserializeCheckpointKey(checkpointEnvelope: IncomingMessageEnvelope): KafkaCheckpointLogKey = {
+    val offset = checkpointEnvelope.getOffset
+    val keyBytes = checkpointEnvelope.getKey.asInstanceOf[Array[Byte]]
+    if (keyBytes == null) {
+      throw new SamzaException("Encountered a checkpoint message with null key. Topic:$checkpointTopic " +
+        s"Offset:$offset")
+    }
+
+    try {
+      checkpointKeySerde.fromBytes(keyBytes)
+    } catch {
+      case e: Exception => if (validateCheckpoint) {
+        throw new SamzaException(s"Exception while deserializing checkpoint-key. " +
+          s"Topic: $checkpointTopic Offset: $offset", e)
+      } else {
+        warn(s"Ignoring exception while deserializing checkpoint-key. Topic: $checkpointTopic Offset: $offset", e)
+        null
+      }
+    }
+  }
+
+  /**
+    * If the grouper in the key is not equal to the configured grouper, error out.
+    */
+  private def validateGrouperFactory(checkpointKey: KafkaCheckpointLogKey, offset: String): Unit = {
+    val actualGrouperFactory = checkpointKey.getGrouperFactoryClassName
+    if (!expectedGrouperFactory.equals(actualGrouperFactory)) {
+      warn(s"Grouper mismatch. Configured: $expectedGrouperFactory Actual: $actualGrouperFactory ")
+      if (validateCheckpoint) {
+        throw new SamzaException("SSPGrouperFactory in the checkpoint topic does not match the configured value" +
+          s"Configured value: $expectedGrouperFactory; Actual value: $actualGrouperFactory Offset: $offset")
+      }
+    }
+  }
+
+  /**
+    * Applies the function to the items on the executor, split in one chunk per checkpoint read thread, and returns
+    * the results in the order of the items.
+    */
+  private def parallelMap[A, B](items: Seq[A], executor: ExecutorService)(function: A => B): Seq[B] = {
+    val chunkSize = Math.max(1, (items.size + checkpointReadThreads - 1) / checkpointReadThreads)
+    val futures: Seq[Future[Seq[B]]] = items.grouped(chunkSize).map(chunk => executor.submit(new Callable[Seq[B]] {
+      override def call(): Seq[B] = chunk.map(function)
+    })).toList
+
+    futures.flatMap(future => try {
+      future.get()
+    } catch {
+      case e: ExecutionException => throw e.getCause
+    })
+  }
+
   /**
     * Returns the oldest available offset for the provided [[SystemStreamPartition]].
     */
@@ -390,6 +566,13 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
         checkpointReadVersions.indexOf(currentCheckpoint.get.getVersion)
   }
 
+  private def shouldOverrideCheckpointKey(currentCheckpointKey: KafkaCheckpointLogKey,
+    newCheckpointKey: KafkaCheckpointLogKey): Boolean = {
+    // same priority rule as shouldOverrideCheckpoint, since the version of a checkpoint is the version of its key
+    checkpointReadVersions.indexOf(KafkaCheckpointLogKey.CHECKPOINT_KEY_VERSIONS.get(newCheckpointKey.getType)) <=
+      checkpointReadVersions.indexOf(KafkaCheckpointLogKey.CHECKPOINT_KEY_VERSIONS.get(currentCheckpointKey.getType))
+  }
+
   private def deserializeCheckpoint(checkpointKey: KafkaCheckpointLogKey, checkpointMsgBytes: Array[Byte]): Checkpoint = {
     if (KafkaCheckpointLogKey.CHECKPOINT_V1_KEY_TYPE.equals(checkpointKey.getType)) {
       checkpointV1MsgSerde.fromBytes(checkpointMsgBytes)
@@ -400,3 +583,17 @@ class KafkaCheckpointManager(checkpointSpec: KafkaStreamSpec,
     }
   }
 }
+
+/**
+  * A checkpoint queued for the next group commit of a [[KafkaCheckpointManager]]. Its state is only accessed while
+  * holding the group commit lock.
+  */
+private class PendingCheckpointWrite(val taskName: TaskName, val checkpoint: Checkpoint) {
+  var completed: Boolean = false
+  var failure: Exception = _
+
+  def complete(failure: Exception): Unit = {
+    this.failure = failure
+    completed = true
+  }
+}
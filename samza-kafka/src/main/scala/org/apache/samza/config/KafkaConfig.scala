@@ -86,6 +86,13 @@ object KafkaConfig {
     */
   val CONSUMER_FETCH_THRESHOLD_BYTES = SystemConfig.SYSTEM_ID_PREFIX + "samza.fetch.threshold.bytes"
 
+  /**
+    * Defines how many Kafka consumers, each with its own poll thread, fetch the partitions of a system
+    * consumed by a container. The partitions are spread evenly among them.
+    */
+  val CONSUMER_FETCHERS = SystemConfig.SYSTEM_ID_PREFIX + "samza.fetchers"
+  val DEFAULT_CONSUMER_FETCHERS = 1
+
   val DEFAULT_RETENTION_MS_FOR_BATCH = TimeUnit.DAYS.toMillis(1)
 
   implicit def Config2Kafka(config: Config) = new KafkaConfig(config)
@@ -209,6 +216,14 @@ class KafkaConfig(config: Config) extends ScalaMapConfig(config) {
 
   def isConsumerFetchThresholdBytesEnabled(name: String): Boolean = getConsumerFetchThresholdBytes(name).getOrElse("-1").toLong > 0
 
+  def getConsumerFetchers(name: String): Int = {
+    val fetchers = getInt(KafkaConfig.CONSUMER_FETCHERS format name, KafkaConfig.DEFAULT_CONSUMER_FETCHERS)
+    if (fetchers <= 0) {
+      throw new ConfigException("%s must be positive, but is %d" format(KafkaConfig.CONSUMER_FETCHERS format name, fetchers))
+    }
+    fetchers
+  }
+
   /**
     * Returns a map of topic -> fetch.message.max.bytes value for all streams that
     * are defined with this property in the config.
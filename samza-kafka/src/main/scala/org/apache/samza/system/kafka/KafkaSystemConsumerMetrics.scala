@@ -76,6 +76,10 @@ class KafkaSystemConsumerMetrics(val systemName: String = "unknown", val registr
     reads.get(topicPartition).inc;
   }
 
+  def incReads(topicPartition: TopicPartition, inc: Long) {
+    reads.get(topicPartition).inc(inc)
+  }
+
   def incBytesReads(topicPartition: TopicPartition, inc: Long) {
     bytesRead.get(topicPartition).inc(inc);
   }
@@ -43,16 +43,23 @@ class KafkaSystemFactory extends SystemFactory with Logging {
     val metrics = new KafkaSystemConsumerMetrics(systemName, registry)
 
     val clientId = KafkaConsumerConfig.createClientId(KafkaSystemFactory.CLIENTID_CONSUMER_PREFIX, config);
-    val kafkaConsumerConfig = KafkaConsumerConfig.getKafkaSystemConsumerConfig(config, systemName, clientId);
-
-    val kafkaConsumer = KafkaSystemConsumer.createKafkaConsumerImpl[Array[Byte], Array[Byte]](systemName, kafkaConsumerConfig)
-    info("Created kafka consumer for system %s, clientId %s: %s" format (systemName, clientId, kafkaConsumer))
-
-    val kafkaConsumerProxyFactory =
-      new KafkaConsumerProxy.BaseFactory[Array[Byte], Array[Byte]](kafkaConsumer, systemName, clientId, metrics)
+    val fetchers = config.getConsumerFetchers(systemName)
+
+    // Each fetcher has its own kafka consumer, with a distinct client id so that their kafka metrics do not collide.
+    val fetcherClientIds = if (fetchers == 1) Seq(clientId) else (0 until fetchers).map(i => clientId + "-" + i)
+    val kafkaConsumers = fetcherClientIds.map(fetcherClientId => {
+      val kafkaConsumerConfig = KafkaConsumerConfig.getKafkaSystemConsumerConfig(config, systemName, fetcherClientId);
+      val kafkaConsumer = KafkaSystemConsumer.createKafkaConsumerImpl[Array[Byte], Array[Byte]](systemName, kafkaConsumerConfig)
+      info("Created kafka consumer for system %s, clientId %s: %s" format (systemName, fetcherClientId, kafkaConsumer))
+      kafkaConsumer
+    })
+
+    val kafkaConsumerProxyFactories = kafkaConsumers.zip(fetcherClientIds).map { case (kafkaConsumer, fetcherClientId) =>
+      new KafkaConsumerProxy.BaseFactory[Array[Byte], Array[Byte]](kafkaConsumer, systemName, fetcherClientId, metrics)
+    }
 
-    val kafkaSystemConsumer = new KafkaSystemConsumer(kafkaConsumer, systemName, config, clientId,
-      kafkaConsumerProxyFactory, metrics, new SystemClock)
+    val kafkaSystemConsumer = new KafkaSystemConsumer[Array[Byte], Array[Byte]](kafkaConsumers.asJava, systemName,
+      config, clientId, kafkaConsumerProxyFactories.asJava, metrics, new SystemClock)
     info("Created samza system consumer for system %s, config %s: %s" format(systemName, config, kafkaSystemConsumer))
 
     kafkaSystemConsumer
@@ -27,12 +27,15 @@ import org.apache.samza.SamzaException;
 import org.apache.samza.checkpoint.CheckpointV1;
 import org.apache.samza.config.Config;
 import org.apache.samza.config.JobConfig;
+import org.apache.samza.config.MapConfig;
+import org.apache.samza.config.TaskConfig;
 import org.apache.samza.container.TaskName;
 import org.apache.samza.container.grouper.stream.GroupByPartitionFactory;
 import org.apache.samza.metrics.MetricsRegistry;
 import org.apache.samza.serializers.CheckpointV1Serde;
 import org.apache.samza.serializers.CheckpointV2Serde;
 import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.OutgoingMessageEnvelope;
 import org.apache.samza.system.StreamValidationException;
 import org.apache.samza.system.SystemAdmin;
 import org.apache.samza.system.SystemConsumer;
@@ -50,11 +53,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.mockito.Mockito.*;
 
 public class TestKafkaCheckpointManagerJava {
   private static final TaskName TASK1 = new TaskName("task1");
+  private static final TaskName TASK2 = new TaskName("task2");
+  private static final TaskName TASK3 = new TaskName("task3");
   private static final String CHECKPOINT_TOPIC = "topic-1";
   private static final String CHECKPOINT_SYSTEM = "system-1";
   private static final Partition CHECKPOINT_PARTITION = new Partition(0);
@@ -218,6 +226,161 @@ public class TestKafkaCheckpointManagerJava {
     Assert.assertEquals(checkpoint.getOffsets(), ImmutableMap.of(ssp, Integer.toString(newestOffset)));
   }
 
+  @Test
+  public void testOnlyLatestCheckpointsAreDeserializedWithReadThreads() throws Exception {
+    KafkaStreamSpec checkpointSpec = new KafkaStreamSpec(CHECKPOINT_TOPIC, CHECKPOINT_TOPIC,
+        CHECKPOINT_SYSTEM, 1);
+    Config config = new MapConfig(ImmutableMap.of(
+        JobConfig.SSP_GROUPER_FACTORY, GROUPER_FACTORY_CLASS,
+        TaskConfig.CHECKPOINT_READ_THREADS, "2"));
+
+    SystemStreamPartition ssp = new SystemStreamPartition("system-1", "input-topic", new Partition(0));
+    int newestOffset = 10;
+    List<IncomingMessageEnvelope> envelopes = new ArrayList<>();
+    for (int offset = 0; offset <= newestOffset; offset++) {
+      envelopes.add(newCheckpointEnvelope(offset % 2 == 0 ? TASK1 : TASK2, ssp, Integer.toString(offset)));
+    }
+    SystemConsumer mockConsumer = newConsumer(ImmutableList.of(envelopes));
+    SystemAdmin mockAdmin = newAdmin("0", Integer.toString(newestOffset));
+    SystemFactory factory = newFactory(mock(SystemProducer.class), mockConsumer, mockAdmin);
+
+    AtomicInteger numDeserialized = new AtomicInteger();
+    CheckpointV1Serde countingSerde = new CheckpointV1Serde() {
+      @Override
+      public CheckpointV1 fromBytes(byte[] bytes) {
+        numDeserialized.incrementAndGet();
+        return super.fromBytes(bytes);
+      }
+    };
+    KafkaCheckpointManager checkpointManager = new KafkaCheckpointManager(checkpointSpec, factory,
+        true, config, mock(MetricsRegistry.class), countingSerde, new CheckpointV2Serde(),
+        new KafkaCheckpointLogKeySerde());
+    checkpointManager.register(TASK1);
+    checkpointManager.register(TASK2);
+    checkpointManager.start();
+
+    CheckpointV1 checkpoint1 = (CheckpointV1) checkpointManager.readLastCheckpoint(TASK1);
+    CheckpointV1 checkpoint2 = (CheckpointV1) checkpointManager.readLastCheckpoint(TASK2);
+    Assert.assertEquals(ImmutableMap.of(ssp, "10"), checkpoint1.getOffsets());
+    Assert.assertEquals(ImmutableMap.of(ssp, "9"), checkpoint2.getOffsets());
+    // the superseded checkpoints are never deserialized
+    Assert.assertEquals(2, numDeserialized.get());
+  }
+
+  @Test
+  public void testConcurrentWritesAreGroupCommitted() throws Exception {
+    SystemProducer mockProducer = mock(SystemProducer.class);
+    CountDownLatch firstFlushStarted = new CountDownLatch(1);
+    CountDownLatch firstFlushReleased = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      if (firstFlushStarted.getCount() > 0) {
+        firstFlushStarted.countDown();
+        firstFlushReleased.await();
+      }
+      return null;
+    }).when(mockProducer).flush(anyString());
+    KafkaCheckpointManager checkpointManager = newWriteCheckpointManager(mockProducer, new KafkaCheckpointLogKeySerde());
+
+    Thread writer1 = new Thread(() -> checkpointManager.writeCheckpoint(TASK1, newCheckpoint("1")));
+    writer1.start();
+    firstFlushStarted.await();
+
+    // the checkpoints written while the first flush is in progress are queued for the next group commit
+    Thread writer2 = new Thread(() -> checkpointManager.writeCheckpoint(TASK2, newCheckpoint("2")));
+    Thread writer3 = new Thread(() -> checkpointManager.writeCheckpoint(TASK3, newCheckpoint("3")));
+    writer2.start();
+    writer3.start();
+    while (writer2.getState() != Thread.State.BLOCKED || writer3.getState() != Thread.State.BLOCKED) {
+      Thread.sleep(10);
+    }
+    firstFlushReleased.countDown();
+
+    writer1.join();
+    writer2.join();
+    writer3.join();
+    verify(mockProducer, times(3)).send(anyString(), any(OutgoingMessageEnvelope.class));
+    verify(mockProducer, times(2)).flush(anyString());
+  }
+
+  @Test
+  public void testGroupCommitFailsOnlyTheFailedCheckpoints() throws Exception {
+    SystemProducer mockProducer = mock(SystemProducer.class);
+    CountDownLatch firstFlushStarted = new CountDownLatch(1);
+    CountDownLatch firstFlushReleased = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      if (firstFlushStarted.getCount() > 0) {
+        firstFlushStarted.countDown();
+        firstFlushReleased.await();
+      }
+      return null;
+    }).when(mockProducer).flush(anyString());
+    KafkaCheckpointManager checkpointManager = newWriteCheckpointManager(mockProducer, new KafkaCheckpointLogKeySerde() {
+      @Override
+      public byte[] toBytes(KafkaCheckpointLogKey key) {
+        if (key.getTaskName().equals(TASK2)) {
+          throw new KafkaException("exception");
+        }
+        return super.toBytes(key);
+      }
+    });
+
+    Thread writer1 = new Thread(() -> checkpointManager.writeCheckpoint(TASK1, newCheckpoint("1")));
+    writer1.start();
+    firstFlushStarted.await();
+
+    // the checkpoints of task2 and task3 are written in the same group commit, but only task2 fails
+    AtomicReference<Exception> failure2 = new AtomicReference<>();
+    AtomicReference<Exception> failure3 = new AtomicReference<>();
+    Thread writer2 = new Thread(() -> writeCheckpoint(checkpointManager, TASK2, failure2));
+    Thread writer3 = new Thread(() -> writeCheckpoint(checkpointManager, TASK3, failure3));
+    writer2.start();
+    writer3.start();
+    while (writer2.getState() != Thread.State.BLOCKED || writer3.getState() != Thread.State.BLOCKED) {
+      Thread.sleep(10);
+    }
+    firstFlushReleased.countDown();
+
+    writer1.join();
+    writer2.join();
+    writer3.join();
+    Assert.assertTrue(failure2.get() instanceof SamzaException);
+    Assert.assertNull(failure3.get());
+    verify(mockProducer, never()).send(eq(TASK2.getTaskName()), any(OutgoingMessageEnvelope.class));
+    verify(mockProducer).send(eq(TASK3.getTaskName()), any(OutgoingMessageEnvelope.class));
+    verify(mockProducer, times(2)).flush(anyString());
+  }
+
+  private void writeCheckpoint(KafkaCheckpointManager checkpointManager, TaskName taskName,
+      AtomicReference<Exception> failure) {
+    try {
+      checkpointManager.writeCheckpoint(taskName, newCheckpoint(taskName.getTaskName()));
+    } catch (Exception e) {
+      failure.set(e);
+    }
+  }
+
+  private KafkaCheckpointManager newWriteCheckpointManager(SystemProducer producer,
+      KafkaCheckpointLogKeySerde checkpointKeySerde) {
+    KafkaStreamSpec checkpointSpec = new KafkaStreamSpec(CHECKPOINT_TOPIC, CHECKPOINT_TOPIC,
+        CHECKPOINT_SYSTEM, 1);
+    Config mockConfig = mock(Config.class);
+    when(mockConfig.get(JobConfig.SSP_GROUPER_FACTORY)).thenReturn(GROUPER_FACTORY_CLASS);
+    SystemFactory factory = newFactory(producer, mock(SystemConsumer.class), newAdmin("0", "1"));
+
+    KafkaCheckpointManager checkpointManager = new KafkaCheckpointManager(checkpointSpec, factory,
+        true, mockConfig, mock(MetricsRegistry.class), new CheckpointV1Serde(), new CheckpointV2Serde(),
+        checkpointKeySerde);
+    checkpointManager.register(TASK1);
+    checkpointManager.register(TASK2);
+    checkpointManager.register(TASK3);
+    checkpointManager.start();
+    return checkpointManager;
+  }
+
+  private CheckpointV1 newCheckpoint(String offset) {
+    return new CheckpointV1(ImmutableMap.of(new SystemStreamPartition("system-1", "input-topic", new Partition(0)), offset));
+  }
+
   /**
    * Create a new {@link SystemConsumer} that returns a list of messages sequentially at each subsequent poll.
    *
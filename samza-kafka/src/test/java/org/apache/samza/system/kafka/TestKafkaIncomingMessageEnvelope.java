@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.system.kafka;
+
+import org.apache.samza.Partition;
+import org.apache.samza.system.IncomingMessageEnvelope;
+import org.apache.samza.system.SystemStreamPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+
+public class TestKafkaIncomingMessageEnvelope {
+  private static final SystemStreamPartition SSP = new SystemStreamPartition("kafka", "topic", new Partition(0));
+
+  @Test
+  public void testOffset() {
+    KafkaIncomingMessageEnvelope envelope = new KafkaIncomingMessageEnvelope(SSP, 1234L, "key", "value", 10, 1L, 2L);
+
+    assertEquals(1234L, envelope.getLongOffset());
+    assertEquals("1234", envelope.getOffset());
+    assertSame(envelope.getOffset(), envelope.getOffset());
+    assertFalse(envelope.isEndOfStream());
+    assertEquals(10, envelope.getSize());
+    assertEquals(1L, envelope.getEventTime());
+    assertEquals(2L, envelope.getArrivalTime());
+  }
+
+  @Test
+  public void testWithKeyAndMessageKeepsTheLongOffset() {
+    KafkaIncomingMessageEnvelope envelope = new KafkaIncomingMessageEnvelope(SSP, 1234L, "key", "value", 10, 1L, 2L);
+
+    KafkaIncomingMessageEnvelope copy = envelope.withKeyAndMessage("newKey", "newValue");
+    assertEquals(1234L, copy.getLongOffset());
+    assertEquals("newKey", copy.getKey());
+    assertEquals("newValue", copy.getMessage());
+    assertEquals(10, copy.getSize());
+    assertEquals(1L, copy.getEventTime());
+    assertEquals(2L, copy.getArrivalTime());
+  }
+
+  @Test
+  public void testEqualsUsesOffset() {
+    KafkaIncomingMessageEnvelope envelope = new KafkaIncomingMessageEnvelope(SSP, 1234L, "key", "value", 10, 1L, 2L);
+
+    assertEquals(new KafkaIncomingMessageEnvelope(SSP, 1234L, "key", "value", 10, 1L, 2L), envelope);
+    assertEquals(new KafkaIncomingMessageEnvelope(SSP, 1234L, "key", "value", 10, 1L, 2L).hashCode(),
+        envelope.hashCode());
+    assertFalse(envelope.equals(new KafkaIncomingMessageEnvelope(SSP, 1235L, "key", "value", 10, 1L, 2L)));
+    assertEquals(new IncomingMessageEnvelope(SSP, "1234", "key", "value").hashCode(), envelope.hashCode());
+  }
+}
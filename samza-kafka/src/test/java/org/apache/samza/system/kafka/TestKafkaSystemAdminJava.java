@@ -38,6 +38,7 @@ import org.apache.samza.config.ApplicationConfig;
 import org.apache.samza.config.Config;
 import org.apache.samza.config.JobConfig;
 import org.apache.samza.config.MapConfig;
+import org.apache.samza.startpoint.Startpoint;
 import org.apache.samza.startpoint.StartpointOldest;
 import org.apache.samza.startpoint.StartpointSpecific;
 import org.apache.samza.startpoint.StartpointTimestamp;
@@ -500,4 +501,51 @@ public class TestKafkaSystemAdminJava extends TestKafkaSystemAdmin {
     String resolvedOffset = kafkaStartpointToOffsetResolver.visit(TEST_SYSTEM_STREAM_PARTITION, testStartpointSpecific);
     Assert.assertEquals(TEST_OFFSET, resolvedOffset);
   }
+
+  @Test
+  public void testResolveStartpointsIssuesOneRequestPerType() {
+    final KafkaConsumer consumer = Mockito.mock(KafkaConsumer.class);
+    final KafkaStartpointToOffsetResolver kafkaStartpointToOffsetResolver = new KafkaStartpointToOffsetResolver(consumer);
+
+    SystemStreamPartition[] ssps = new SystemStreamPartition[6];
+    TopicPartition[] topicPartitions = new TopicPartition[6];
+    for (int i = 0; i < ssps.length; i++) {
+      ssps[i] = new SystemStreamPartition(TEST_SYSTEM, TEST_STREAM, new Partition(i));
+      topicPartitions[i] = new TopicPartition(TEST_STREAM, i);
+    }
+    Map<SystemStreamPartition, Startpoint> startpoints = new HashMap<>();
+    startpoints.put(ssps[0], new StartpointSpecific("5"));
+    startpoints.put(ssps[1], new StartpointTimestamp(10L));
+    startpoints.put(ssps[2], new StartpointTimestamp(20L));
+    startpoints.put(ssps[3], new StartpointOldest());
+    startpoints.put(ssps[4], new StartpointUpcoming());
+    startpoints.put(ssps[5], new StartpointOldest());
+
+    // the second timestamp does not exist, so its partition falls back to the end offset
+    final Map<TopicPartition, OffsetAndTimestamp> offsetForTimesResult = new HashMap<>();
+    offsetForTimesResult.put(topicPartitions[1], new OffsetAndTimestamp(11L, 10L));
+    offsetForTimesResult.put(topicPartitions[2], null);
+    Mockito.when(consumer.offsetsForTimes(ImmutableMap.of(topicPartitions[1], 10L, topicPartitions[2], 20L)))
+        .thenReturn(offsetForTimesResult);
+    Mockito.when(consumer.beginningOffsets(ImmutableSet.of(topicPartitions[3], topicPartitions[5])))
+        .thenReturn(ImmutableMap.of(topicPartitions[3], 3L, topicPartitions[5], 5L));
+    Mockito.when(consumer.endOffsets(ImmutableSet.of(topicPartitions[2], topicPartitions[4])))
+        .thenReturn(ImmutableMap.of(topicPartitions[2], 22L, topicPartitions[4], 44L));
+
+    Map<SystemStreamPartition, String> resolvedOffsets = kafkaStartpointToOffsetResolver.resolve(startpoints);
+
+    Map<SystemStreamPartition, String> expectedOffsets = new HashMap<>();
+    expectedOffsets.put(ssps[0], "5");
+    expectedOffsets.put(ssps[1], "11");
+    expectedOffsets.put(ssps[2], "22");
+    expectedOffsets.put(ssps[3], "3");
+    expectedOffsets.put(ssps[4], "44");
+    expectedOffsets.put(ssps[5], "5");
+    Assert.assertEquals(expectedOffsets, resolvedOffsets);
+
+    // Mock verifications.
+    Mockito.verify(consumer, Mockito.times(1)).offsetsForTimes(Mockito.anyMap());
+    Mockito.verify(consumer, Mockito.times(1)).beginningOffsets(Mockito.anyCollection());
+    Mockito.verify(consumer, Mockito.times(1)).endOffsets(Mockito.anyCollection());
+  }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.samza.system.kafka;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.Consumer;
@@ -233,6 +234,83 @@ public class TestKafkaSystemConsumer {
     Mockito.verify(kafkaConsumerProxy).addTopicPartition(testSystemStreamPartition2, Long.valueOf(testOffset));
   }
 
+  @Test
+  public void testStartConsumerWithMultipleFetchers() {
+    final Consumer consumer1 = Mockito.mock(Consumer.class);
+    final Consumer consumer2 = Mockito.mock(Consumer.class);
+    final Consumer consumer3 = Mockito.mock(Consumer.class);
+    final KafkaConsumerProxy kafkaConsumerProxy1 = Mockito.mock(KafkaConsumerProxy.class);
+    final KafkaConsumerProxy kafkaConsumerProxy2 = Mockito.mock(KafkaConsumerProxy.class);
+    final KafkaConsumerProxy kafkaConsumerProxy3 = Mockito.mock(KafkaConsumerProxy.class);
+    final KafkaConsumerProxyFactory kafkaConsumerProxyFactory1 = messageSink -> kafkaConsumerProxy1;
+    final KafkaConsumerProxyFactory kafkaConsumerProxyFactory2 = messageSink -> kafkaConsumerProxy2;
+    final KafkaConsumerProxyFactory kafkaConsumerProxyFactory3 = messageSink -> kafkaConsumerProxy3;
+
+    final KafkaSystemConsumerMetrics kafkaSystemConsumerMetrics = new KafkaSystemConsumerMetrics(TEST_SYSTEM, new NoOpMetricsRegistry());
+    final SystemStreamPartition ssp0 = new SystemStreamPartition(TEST_SYSTEM, TEST_STREAM, new Partition(0));
+    final SystemStreamPartition ssp1 = new SystemStreamPartition(TEST_SYSTEM, TEST_STREAM, new Partition(1));
+    final SystemStreamPartition ssp2 = new SystemStreamPartition(TEST_SYSTEM, TEST_STREAM, new Partition(2));
+    final SystemStreamPartition ssp3 = new SystemStreamPartition(TEST_SYSTEM, TEST_STREAM, new Partition(3));
+
+    KafkaSystemConsumer kafkaSystemConsumer = new KafkaSystemConsumer(Arrays.asList(consumer1, consumer2, consumer3),
+        TEST_SYSTEM, new MapConfig(), TEST_CLIENT_ID,
+        Arrays.asList(kafkaConsumerProxyFactory1, kafkaConsumerProxyFactory2, kafkaConsumerProxyFactory3),
+        kafkaSystemConsumerMetrics, new SystemClock());
+    kafkaSystemConsumer.register(ssp3, "3");
+    kafkaSystemConsumer.register(ssp2, "2");
+    kafkaSystemConsumer.register(ssp1, "1");
+    kafkaSystemConsumer.register(ssp0, "0");
+
+    kafkaSystemConsumer.startConsumer();
+
+    // the partitions are spread round robin among the fetchers
+    Mockito.verify(consumer1).seek(new TopicPartition(TEST_STREAM, 0), 0);
+    Mockito.verify(consumer1).seek(new TopicPartition(TEST_STREAM, 3), 3);
+    Mockito.verify(consumer2).seek(new TopicPartition(TEST_STREAM, 1), 1);
+    Mockito.verify(consumer3).seek(new TopicPartition(TEST_STREAM, 2), 2);
+    Mockito.verify(kafkaConsumerProxy1).addTopicPartition(ssp0, 0L);
+    Mockito.verify(kafkaConsumerProxy1).addTopicPartition(ssp3, 3L);
+    Mockito.verify(kafkaConsumerProxy2).addTopicPartition(ssp1, 1L);
+    Mockito.verify(kafkaConsumerProxy3).addTopicPartition(ssp2, 2L);
+    Mockito.verify(kafkaConsumerProxy1).start();
+    Mockito.verify(kafkaConsumerProxy2).start();
+    Mockito.verify(kafkaConsumerProxy3).start();
+
+    kafkaSystemConsumer.stop();
+
+    Mockito.verify(kafkaConsumerProxy1).stop(Mockito.anyLong());
+    Mockito.verify(kafkaConsumerProxy2).stop(Mockito.anyLong());
+    Mockito.verify(kafkaConsumerProxy3).stop(Mockito.anyLong());
+    Mockito.verify(consumer1).close();
+    Mockito.verify(consumer2).close();
+    Mockito.verify(consumer3).close();
+  }
+
+  @Test
+  public void testFetchersWithoutPartitionsAreNotStarted() {
+    final Consumer consumer1 = Mockito.mock(Consumer.class);
+    final Consumer consumer2 = Mockito.mock(Consumer.class);
+    final KafkaConsumerProxy kafkaConsumerProxy1 = Mockito.mock(KafkaConsumerProxy.class);
+    final KafkaConsumerProxy kafkaConsumerProxy2 = Mockito.mock(KafkaConsumerProxy.class);
+    final KafkaConsumerProxyFactory kafkaConsumerProxyFactory1 = messageSink -> kafkaConsumerProxy1;
+    final KafkaConsumerProxyFactory kafkaConsumerProxyFactory2 = messageSink -> kafkaConsumerProxy2;
+
+    final KafkaSystemConsumerMetrics kafkaSystemConsumerMetrics = new KafkaSystemConsumerMetrics(TEST_SYSTEM, new NoOpMetricsRegistry());
+    final SystemStreamPartition ssp0 = new SystemStreamPartition(TEST_SYSTEM, TEST_STREAM, new Partition(0));
+
+    KafkaSystemConsumer kafkaSystemConsumer = new KafkaSystemConsumer(Arrays.asList(consumer1, consumer2),
+        TEST_SYSTEM, new MapConfig(), TEST_CLIENT_ID, Arrays.asList(kafkaConsumerProxyFactory1, kafkaConsumerProxyFactory2),
+        kafkaSystemConsumerMetrics, new SystemClock());
+    kafkaSystemConsumer.register(ssp0, "0");
+
+    kafkaSystemConsumer.startConsumer();
+
+    Mockito.verify(kafkaConsumerProxy1).addTopicPartition(ssp0, 0L);
+    Mockito.verify(kafkaConsumerProxy1).start();
+    Mockito.verify(kafkaConsumerProxy2, Mockito.never()).start();
+    Mockito.verify(consumer2, Mockito.never()).seek(Mockito.any(), Mockito.anyLong());
+  }
+
   // mock kafkaConsumer and SystemConsumer
   static class MockKafkaConsumer extends KafkaConsumer {
     public MockKafkaConsumer(Map<String, Object> configs) {
@@ -62,6 +62,10 @@ public class TestKafkaSystemConsumerMetrics {
     metrics.incReads(tp1); // total 2
     expectedValues.put(metrics.reads().get(tp1).getName(), "2");
 
+    metrics.incReads(tp2, 5);
+    metrics.incReads(tp2, 3); // total 8
+    expectedValues.put(metrics.reads().get(tp2).getName(), "8");
+
     metrics.setHighWatermarkValue(tp2, 1000);
     metrics.setHighWatermarkValue(tp2, 1001); // final value 1001
     expectedValues.put(metrics.highWatermark().get(tp2).getName(), "1001");
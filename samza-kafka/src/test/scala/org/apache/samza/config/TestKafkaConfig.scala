@@ -445,4 +445,19 @@ class TestKafkaConfig {
     assertEquals("4096000", kafkaConfig.getCoordinatorMaxMessageByte)
     assertEquals("8675309", kafkaConfig.getCoordinatorSegmentBytes)
   }
+
+  @Test
+  def testGetConsumerFetchers() {
+    val kafkaConfig = new KafkaConfig(new MapConfig(props.asScala.asJava))
+    assertEquals(KafkaConfig.DEFAULT_CONSUMER_FETCHERS, kafkaConfig.getConsumerFetchers("kafka"))
+
+    props.setProperty("systems.kafka.samza.fetchers", "4")
+    assertEquals(4, new KafkaConfig(new MapConfig(props.asScala.asJava)).getConsumerFetchers("kafka"))
+  }
+
+  @Test(expected = classOf[ConfigException])
+  def testGetConsumerFetchersMustBePositive() {
+    props.setProperty("systems.kafka.samza.fetchers", "0")
+    new KafkaConfig(new MapConfig(props.asScala.asJava)).getConsumerFetchers("kafka")
+  }
 }
@@ -19,12 +19,15 @@
 package org.apache.samza.storage.kv.inmemory;
 
 import java.io.File;
+import org.apache.samza.config.StorageConfig;
 import org.apache.samza.context.ContainerContext;
 import org.apache.samza.context.JobContext;
 import org.apache.samza.metrics.MetricsRegistry;
 import org.apache.samza.storage.kv.BaseKeyValueStorageEngineFactory;
 import org.apache.samza.storage.kv.KeyValueStore;
 import org.apache.samza.storage.kv.KeyValueStoreMetrics;
+import org.apache.samza.storage.kv.MergeFunction;
+import org.apache.samza.storage.kv.MergeFunctions;
 
 
 public class InMemoryKeyValueStorageEngineFactory<K, V> extends BaseKeyValueStorageEngineFactory<K, V> {
@@ -36,6 +39,9 @@ public class InMemoryKeyValueStorageEngineFactory<K, V> extends BaseKeyValueStor
       ContainerContext containerContext,
       StoreMode storeMode) {
     KeyValueStoreMetrics metrics = new KeyValueStoreMetrics(storeName, registry);
-    return new InMemoryKeyValueStore(metrics);
+    MergeFunction mergeFunction = new StorageConfig(jobContext.getConfig()).getMergeOperator(storeName)
+        .map(MergeFunctions::fromName)
+        .orElse(null);
+    return new InMemoryKeyValueStore(metrics, mergeFunction);
   }
 }
@@ -33,23 +33,35 @@ import org.apache.samza.storage.kv.KeyValueIterator;
 import org.apache.samza.storage.kv.KeyValueSnapshot;
 import org.apache.samza.storage.kv.KeyValueStore;
 import org.apache.samza.storage.kv.KeyValueStoreMetrics;
+import org.apache.samza.storage.kv.MergeFunction;
 
 
 /**
  * In-memory implementation of a {@link KeyValueStore}.
  *
  * This uses a {@link ConcurrentSkipListMap} to store the keys in order.
+ * Merges are applied by reading the current value and writing the merged value back.
  */
 public class InMemoryKeyValueStore implements KeyValueStore<byte[], byte[]> {
   private final KeyValueStoreMetrics metrics;
   private final ConcurrentSkipListMap<byte[], byte[]> underlying;
+  private final MergeFunction mergeFunction;
 
   /**
    * @param metrics A metrics instance to publish key-value store related statistics
    */
   public InMemoryKeyValueStore(KeyValueStoreMetrics metrics) {
+    this(metrics, null);
+  }
+
+  /**
+   * @param metrics A metrics instance to publish key-value store related statistics
+   * @param mergeFunction The function used to merge values, or null if merges are not supported
+   */
+  public InMemoryKeyValueStore(KeyValueStoreMetrics metrics, MergeFunction mergeFunction) {
     this.metrics = metrics;
     this.underlying = new ConcurrentSkipListMap<>(UnsignedBytes.lexicographicalComparator());
+    this.mergeFunction = mergeFunction;
   }
 
   @Override
@@ -85,11 +97,31 @@ public class InMemoryKeyValueStore implements KeyValueStore<byte[], byte[]> {
     }
   }
 
+  @Override
+  public void merge(byte[] key, byte[] delta) {
+    this.metrics.merges().inc();
+    Preconditions.checkArgument(key != null, "Null argument 'key' not allowed");
+    Preconditions.checkArgument(delta != null, "Null argument 'delta' not allowed");
+    if (this.mergeFunction == null) {
+      throw new UnsupportedOperationException("No merge operator is configured for this store.");
+    }
+    this.metrics.bytesWritten().inc(key.length + delta.length);
+    this.underlying.compute(key, (k, existingValue) -> this.mergeFunction.merge(existingValue, delta));
+  }
+
   @Override
   public void delete(byte[] key) {
     put(key, null);
   }
 
+  @Override
+  public void deleteRange(byte[] from, byte[] to) {
+    this.metrics.deleteRanges().inc();
+    Preconditions.checkArgument(from != null, "Null argument 'from' not allowed");
+    Preconditions.checkArgument(to != null, "Null argument 'to' not allowed");
+    this.underlying.subMap(from, to).clear();
+  }
+
   @Override
   public KeyValueIterator<byte[], byte[]> range(byte[] from, byte[] to) {
     this.metrics.ranges().inc();
@@ -27,10 +27,12 @@ import com.google.common.collect.Iterators;
 import com.google.common.primitives.Ints;
 import org.apache.samza.SamzaException;
 import org.apache.samza.metrics.Counter;
+import org.apache.samza.serializers.LongSerde;
 import org.apache.samza.storage.kv.Entry;
 import org.apache.samza.storage.kv.KeyValueIterator;
 import org.apache.samza.storage.kv.KeyValueSnapshot;
 import org.apache.samza.storage.kv.KeyValueStoreMetrics;
+import org.apache.samza.storage.kv.MergeFunctions;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -80,6 +82,10 @@ public class TestInMemoryKeyValueStore {
   private Counter bytesWrittenCounter;
   @Mock
   private Counter deletesCounter;
+  @Mock
+  private Counter mergesCounter;
+  @Mock
+  private Counter deleteRangesCounter;
 
   private InMemoryKeyValueStore inMemoryKeyValueStore;
 
@@ -91,6 +97,8 @@ public class TestInMemoryKeyValueStore {
     when(this.keyValueStoreMetrics.puts()).thenReturn(this.putsCounter);
     when(this.keyValueStoreMetrics.bytesWritten()).thenReturn(this.bytesWrittenCounter);
     when(this.keyValueStoreMetrics.deletes()).thenReturn(this.deletesCounter);
+    when(this.keyValueStoreMetrics.merges()).thenReturn(this.mergesCounter);
+    when(this.keyValueStoreMetrics.deleteRanges()).thenReturn(this.deleteRangesCounter);
     this.inMemoryKeyValueStore = new InMemoryKeyValueStore(this.keyValueStoreMetrics);
   }
 
@@ -106,6 +114,31 @@ public class TestInMemoryKeyValueStore {
     verify(this.bytesReadCounter).inc(value(OTHER_VALUE_PREFIX, 1).length);
   }
 
+  @Test
+  public void testMerge() {
+    InMemoryKeyValueStore store = new InMemoryKeyValueStore(this.keyValueStoreMetrics, MergeFunctions.fromName("append"));
+    store.merge(key(0), "a".getBytes());
+    store.merge(key(0), "b".getBytes());
+
+    assertArrayEquals("a,b".getBytes(), store.get(key(0)));
+    verify(this.mergesCounter, times(2)).inc();
+  }
+
+  @Test
+  public void testMergeLongAdd() {
+    InMemoryKeyValueStore store = new InMemoryKeyValueStore(this.keyValueStoreMetrics, MergeFunctions.fromName("long-add"));
+    store.merge(key(0), longValue(5));
+    store.merge(key(0), longValue(-2));
+
+    assertArrayEquals(longValue(3), store.get(key(0)));
+    assertEquals(Long.valueOf(3), new LongSerde().fromBytes(store.get(key(0))));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testMergeWithoutMergeOperator() {
+    this.inMemoryKeyValueStore.merge(key(0), value(0));
+  }
+
   @Test
   public void testGetEmpty() {
     assertNull(this.inMemoryKeyValueStore.get(key(0)));
@@ -123,6 +156,19 @@ public class TestInMemoryKeyValueStore {
     verifyZeroInteractions(this.bytesReadCounter);
   }
 
+  @Test
+  public void testDeleteRange() {
+    this.inMemoryKeyValueStore.put(key(0), value(0));
+    this.inMemoryKeyValueStore.put(key(1), value(1));
+    this.inMemoryKeyValueStore.put(key(2), value(2));
+    this.inMemoryKeyValueStore.deleteRange(key(0), key(2));
+
+    assertNull(this.inMemoryKeyValueStore.get(key(0)));
+    assertNull(this.inMemoryKeyValueStore.get(key(1)));
+    assertArrayEquals(value(2), this.inMemoryKeyValueStore.get(key(2)));
+    verify(this.deleteRangesCounter).inc();
+  }
+
   @Test
   public void testPut() {
     this.inMemoryKeyValueStore.put(key(0), value(0));
@@ -533,6 +579,13 @@ public class TestInMemoryKeyValueStore {
     return value(DEFAULT_VALUE_PREFIX, i);
   }
 
+  /**
+   * Encodes {@code l} the way the long-add merge operator expects.
+   */
+  private static byte[] longValue(long l) {
+    return new LongSerde().toBytes(l);
+  }
+
   /**
    * Concatenates bytes for {@code prefix} with bytes for {@code i}.
    * If this is called multiple times with the same {@code prefix} and any {@code i}, then this needs to return a byte[]
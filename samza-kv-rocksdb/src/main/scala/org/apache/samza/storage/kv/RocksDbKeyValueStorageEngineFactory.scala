@@ -43,7 +43,10 @@ class RocksDbKeyValueStorageEngineFactory [K, V] extends BaseKeyValueStorageEngi
     jobContext: JobContext,
     containerContext: ContainerContext, storeMode: StoreMode): KeyValueStore[Array[Byte], Array[Byte]] = {
     val storageConfigSubset = jobContext.getConfig.subset("stores." + storeName + ".", true)
-    val isLoggedStore = new StorageConfig(jobContext.getConfig).getChangelogStream(storeName).isPresent
+    val storageConfig = new StorageConfig(jobContext.getConfig)
+    val isLoggedStore = storageConfig.getChangelogStream(storeName).isPresent
+    val mergeOperator = storageConfig.getMergeOperator(storeName)
+    val mergeFunction = if (mergeOperator.isPresent) MergeFunctions.fromName(mergeOperator.get) else null
     val rocksDbMetrics = new KeyValueStoreMetrics(storeName, registry)
     val numTasksForContainer = containerContext.getContainerModel.getTasks.keySet().size()
     rocksDbMetrics.newGauge("rocksdb.block-cache-size",
@@ -66,7 +69,8 @@ class RocksDbKeyValueStorageEngineFactory [K, V] extends BaseKeyValueStorageEngi
       storeName,
       rocksDbWriteOptions,
       rocksDbFlushOptions,
-      rocksDbMetrics)
+      rocksDbMetrics,
+      mergeFunction)
     rocksDb
   }
 }
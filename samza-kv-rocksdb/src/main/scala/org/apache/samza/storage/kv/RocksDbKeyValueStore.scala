@@ -25,7 +25,7 @@ import java.io.File
 import java.nio.file.{Path, Paths}
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.locks.ReentrantReadWriteLock
-import java.util.{Comparator, Optional}
+import java.util.{Collections, Comparator, Optional}
 import org.apache.samza.SamzaException
 import org.apache.samza.checkpoint.CheckpointId
 import org.apache.samza.config.Config
@@ -34,6 +34,9 @@ import org.apache.samza.util.{FileUtil, Logging}
 import org.rocksdb.{TtlDB, _}
 
 object RocksDbKeyValueStore extends Logging {
+  val ROCKSDB_BULK_INGEST_ENABLED = "rocksdb.restore.bulk.ingest.enabled"
+  val ROCKSDB_BULK_INGEST_CHUNK_SIZE = "rocksdb.restore.bulk.ingest.chunk.size"
+  val DEFAULT_ROCKSDB_BULK_INGEST_CHUNK_SIZE = 500000
 
   def openDB(dir: File, options: Options, storeConfig: Config, isLoggedStore: Boolean,
              storeName: String, metrics: KeyValueStoreMetrics): RocksDB = {
@@ -123,7 +126,27 @@ class RocksDbKeyValueStore(
   val storeName: String,
   val writeOptions: WriteOptions = new WriteOptions(),
   val flushOptions: FlushOptions = new FlushOptions(),
-  val metrics: KeyValueStoreMetrics = new KeyValueStoreMetrics) extends KeyValueStore[Array[Byte], Array[Byte]] with Logging {
+  val metrics: KeyValueStoreMetrics = new KeyValueStoreMetrics,
+  val mergeFunction: MergeFunction = null) extends BulkIngestibleKeyValueStore with Logging {
+
+  // For Java callers, which cannot use the default for mergeFunction
+  def this(dir: File, options: Options, storeConfig: Config, isLoggedStore: Boolean, storeName: String,
+    writeOptions: WriteOptions, flushOptions: FlushOptions, metrics: KeyValueStoreMetrics) =
+    this(dir, options, storeConfig, isLoggedStore, storeName, writeOptions, flushOptions, metrics, null)
+
+  /**
+    * The RocksDB merge operator with the same semantics as the merge function, if there is one. It must be set before
+    * the db is opened. Merges with any other function are applied by reading the current value and writing the
+    * merged value back, since RocksDB does not support merge operators implemented in Java. Such merges are not atomic
+    * with respect to concurrent writes of the same key.
+    */
+  private val nativeMergeOperator: MergeOperator = mergeFunction match {
+    case append: MergeFunctions.Append => new StringAppendOperator(append.getDelimiter)
+    case _ => null
+  }
+  if (nativeMergeOperator != null) {
+    options.setMergeOperator(nativeMergeOperator)
+  }
 
   // lazy val here is important because the store directories do not exist yet, it can only be opened
   // after the directories are created, which happens much later from now.
@@ -138,6 +161,18 @@ class RocksDbKeyValueStore(
   private var stackAtFirstClose: Exception = null
   private val stateChangeLock = new ReentrantReadWriteLock()
 
+  /**
+    * Bulk ingestion is not supported for TTL stores, since their values carry a timestamp suffix that is only added
+    * by writes through TtlDB.
+    */
+  private val bulkIngestEnabled = storeConfig.getBoolean(RocksDbKeyValueStore.ROCKSDB_BULK_INGEST_ENABLED, false) &&
+    !storeConfig.containsKey("rocksdb.ttl.ms")
+  private val bulkIngestChunkSize = storeConfig.getInt(RocksDbKeyValueStore.ROCKSDB_BULK_INGEST_CHUNK_SIZE,
+    RocksDbKeyValueStore.DEFAULT_ROCKSDB_BULK_INGEST_CHUNK_SIZE)
+  /** entries added by bulkIngest that have not been written to an SST file yet, in the order they were added */
+  private val bulkIngestChunk = new java.util.ArrayList[Entry[Array[Byte], Array[Byte]]]()
+  private var bulkIngestedFiles = 0
+
   def get(key: Array[Byte]): Array[Byte] = ifOpen {
     metrics.gets.inc
     require(key != null, "Null key not allowed.")
@@ -203,6 +238,30 @@ class RocksDbKeyValueStore(
     metrics.deletes.inc(deletes)
   }
 
+  /**
+    * Deletes the range with a single range tombstone, without reading the keys in it.
+    */
+  override def deleteRange(from: Array[Byte], to: Array[Byte]): Unit = ifOpen {
+    require(from != null && to != null, "Null bound not allowed.")
+    metrics.deleteRanges.inc
+    db.deleteRange(writeOptions, from, to)
+  }
+
+  override def merge(key: Array[Byte], delta: Array[Byte]): Unit = ifOpen {
+    require(key != null, "Null key not allowed.")
+    require(delta != null, "Null delta not allowed.")
+    if (mergeFunction == null) {
+      throw new UnsupportedOperationException("No merge operator is configured for store %s." format storeName)
+    }
+    metrics.merges.inc
+    metrics.bytesWritten.inc(key.length + delta.length)
+    if (nativeMergeOperator != null) {
+      db.merge(writeOptions, key, delta)
+    } else {
+      db.put(writeOptions, key, mergeFunction.merge(db.get(key), delta))
+    }
+  }
+
   def delete(key: Array[Byte]): Unit = ifOpen {
     put(key, null)
   }
@@ -268,6 +327,11 @@ class RocksDbKeyValueStore(
       if (stackAtFirstClose == null) { // first close
         stackAtFirstClose = new Exception()
         db.close()
+        // the native merge operator is owned by the options, so release both once the db no longer uses them
+        options.close()
+        if (nativeMergeOperator != null) {
+          nativeMergeOperator.close()
+        }
       } else {
         warn(new SamzaException("Close called again on a closed store: %s. Ignoring this close." +
           "Stack at first close is under 'Caused By'." format storeName, stackAtFirstClose))
@@ -277,6 +341,89 @@ class RocksDbKeyValueStore(
     }
   }
 
+  override def isBulkIngestEnabled: Boolean = bulkIngestEnabled
+
+  /**
+    * Buffers the entries and writes them to a sorted SST file that is ingested into the db once the buffer reaches
+    * the configured chunk size. Since each ingested file is assigned a newer sequence number than existing data,
+    * entries in later chunks override those in earlier ones.
+    */
+  override def bulkIngest(entries: java.util.List[Entry[Array[Byte], Array[Byte]]]): Unit = ifOpen {
+    bulkIngestChunk.addAll(entries)
+    if (bulkIngestChunk.size >= bulkIngestChunkSize) {
+      ingestChunk()
+    }
+  }
+
+  /**
+    * Ingests the remaining buffered entries and compacts the db once. If auto compactions are disabled, e.g. when
+    * bulk-loading, the compaction is left to close.
+    */
+  override def finishBulkIngest(): Unit = ifOpen {
+    ingestChunk()
+    if (bulkIngestedFiles > 0 && !options.disableAutoCompactions()) {
+      info("Compacting store: %s after ingesting %d files." format (storeName, bulkIngestedFiles))
+      db.compactRange()
+    }
+    bulkIngestedFiles = 0
+  }
+
+  /**
+    * Writes the buffered entries, sorted by key and keeping only the last entry for each key, to an SST file and
+    * ingests it into the db. The file is moved into the db by the ingestion.
+    */
+  private def ingestChunk(): Unit = {
+    if (!bulkIngestChunk.isEmpty) {
+      // the sort is stable, so the last entry for each key is the latest one
+      Collections.sort(bulkIngestChunk, new Comparator[Entry[Array[Byte], Array[Byte]]] {
+        override def compare(e1: Entry[Array[Byte], Array[Byte]], e2: Entry[Array[Byte], Array[Byte]]): Int =
+          lexicographic.compare(e1.getKey, e2.getKey)
+      })
+
+      val sstFile = new File(dir, "bulk-ingest-%d.sst" format bulkIngestedFiles)
+      val envOptions = new EnvOptions()
+      val sstFileWriter = new SstFileWriter(envOptions, options)
+      val ingestOptions = new IngestExternalFileOptions().setMoveFiles(true)
+      var wrote = 0
+      var deletes = 0
+      try {
+        sstFileWriter.open(sstFile.getAbsolutePath)
+        val size = bulkIngestChunk.size
+        var i = 0
+        while (i < size) {
+          val curr = bulkIngestChunk.get(i)
+          if (i + 1 == size || lexicographic.compare(curr.getKey, bulkIngestChunk.get(i + 1).getKey) != 0) {
+            if (curr.getValue == null) {
+              deletes += 1
+              sstFileWriter.delete(curr.getKey)
+            } else {
+              wrote += 1
+              metrics.bytesWritten.inc(curr.getKey.length + curr.getValue.length)
+              sstFileWriter.put(curr.getKey, curr.getValue)
+            }
+          }
+          i += 1
+        }
+        sstFileWriter.finish()
+        db.ingestExternalFile(Collections.singletonList(sstFile.getAbsolutePath), ingestOptions)
+      } catch {
+        case e: RocksDBException =>
+          throw new SamzaException("Error ingesting SST file %s into RocksDB store %s" format (sstFile, storeName), e)
+      } finally {
+        sstFileWriter.close()
+        envOptions.close()
+        ingestOptions.close()
+      }
+
+      debug("Ingested %d entries into store: %s from file: %s" format (bulkIngestChunk.size, storeName, sstFile))
+      metrics.puts.inc(wrote)
+      metrics.deletes.inc(deletes)
+      metrics.bulkIngestedFiles.inc()
+      bulkIngestedFiles += 1
+      bulkIngestChunk.clear()
+    }
+  }
+
   private def ifOpen[T](fn: => T): T = {
     stateChangeLock.readLock().lock()
     try {
@@ -21,9 +21,11 @@ package org.apache.samza.storage.kv;
 
 import com.google.common.collect.Iterators;
 import com.google.common.primitives.Ints;
+import com.google.common.collect.ImmutableMap;
 import org.apache.samza.config.Config;
 import org.apache.samza.config.MapConfig;
 import org.apache.samza.metrics.MetricsRegistryMap;
+import org.apache.samza.serializers.LongSerde;
 import org.junit.Test;
 import org.rocksdb.FlushOptions;
 import org.rocksdb.Options;
@@ -39,7 +41,10 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class TestRocksDbKeyValueStoreJava {
@@ -82,6 +87,139 @@ public class TestRocksDbKeyValueStoreJava {
     store.close();
   }
 
+  @Test
+  public void testBulkIngest() throws Exception {
+    Config config = new MapConfig(ImmutableMap.of(
+        RocksDbKeyValueStore.ROCKSDB_BULK_INGEST_ENABLED(), "true",
+        RocksDbKeyValueStore.ROCKSDB_BULK_INGEST_CHUNK_SIZE(), "3"));
+    Options options = new Options();
+    options.setCreateIfMissing(true);
+
+    File dbDir = new File(System.getProperty("java.io.tmpdir") + "/dbStore" + System.currentTimeMillis());
+    RocksDbKeyValueStore store = new RocksDbKeyValueStore(dbDir, options, config, false, "dbStore",
+        new WriteOptions(), new FlushOptions(), new KeyValueStoreMetrics("dbStore", new MetricsRegistryMap()));
+    assertTrue(store.isBulkIngestEnabled());
+
+    store.put("k0".getBytes(), "existing".getBytes());
+    // the first chunk overrides an existing key and contains duplicate keys out of order
+    store.bulkIngest(Arrays.asList(
+        new Entry<>("k2".getBytes(), "v1".getBytes()),
+        new Entry<>("k0".getBytes(), "v1".getBytes()),
+        new Entry<>("k2".getBytes(), "v2".getBytes())));
+    // the second chunk deletes a key from the first chunk, and is ingested on finish
+    store.bulkIngest(Arrays.asList(
+        new Entry<>("k1".getBytes(), "v1".getBytes()),
+        new Entry<>("k0".getBytes(), null)));
+    store.finishBulkIngest();
+
+    assertNull(store.get("k0".getBytes()));
+    assertArrayEquals("v1".getBytes(), store.get("k1".getBytes()));
+    assertArrayEquals("v2".getBytes(), store.get("k2".getBytes()));
+    assertEquals(2, store.metrics().bulkIngestedFiles().getCount());
+
+    KeyValueIterator<byte[], byte[]> iterator = store.all();
+    assertEquals(2, Iterators.size(iterator));
+    iterator.close();
+    // ingested files are moved into the db
+    assertFalse(new File(dbDir, "bulk-ingest-0.sst").exists());
+    store.close();
+  }
+
+  @Test
+  public void testNativeMerge() {
+    Options options = new Options();
+    options.setCreateIfMissing(true);
+
+    File dbDir = new File(System.getProperty("java.io.tmpdir") + "/dbStore" + System.currentTimeMillis());
+    RocksDbKeyValueStore store = new RocksDbKeyValueStore(dbDir, options, new MapConfig(), false, "dbStore",
+        new WriteOptions(), new FlushOptions(), new KeyValueStoreMetrics("dbStore", new MetricsRegistryMap()),
+        MergeFunctions.fromName(MergeFunctions.APPEND));
+
+    store.merge("k1".getBytes(), "a".getBytes());
+    store.merge("k1".getBytes(), "b".getBytes());
+    store.put("k2".getBytes(), "c".getBytes());
+    store.merge("k2".getBytes(), "d".getBytes());
+
+    assertArrayEquals("a,b".getBytes(), store.get("k1".getBytes()));
+    assertArrayEquals("c,d".getBytes(), store.get("k2".getBytes()));
+    assertEquals(3, store.metrics().merges().getCount());
+    store.close();
+    // closing the store releases the options along with the native merge operator set on them
+    assertFalse(options.isOwningHandle());
+  }
+
+  @Test
+  public void testMergeLongAddUsesLongSerdeEncoding() {
+    Options options = new Options();
+    options.setCreateIfMissing(true);
+
+    File dbDir = new File(System.getProperty("java.io.tmpdir") + "/dbStore" + System.currentTimeMillis());
+    RocksDbKeyValueStore store = new RocksDbKeyValueStore(dbDir, options, new MapConfig(), false, "dbStore",
+        new WriteOptions(), new FlushOptions(), new KeyValueStoreMetrics("dbStore", new MetricsRegistryMap()),
+        MergeFunctions.fromName(MergeFunctions.LONG_ADD));
+    LongSerde serde = new LongSerde();
+
+    store.merge("k1".getBytes(), serde.toBytes(5L));
+    store.merge("k1".getBytes(), serde.toBytes(-2L));
+    store.put("k2".getBytes(), serde.toBytes(10L));
+    store.merge("k2".getBytes(), serde.toBytes(1L));
+
+    assertEquals(Long.valueOf(3), serde.fromBytes(store.get("k1".getBytes())));
+    assertEquals(Long.valueOf(11), serde.fromBytes(store.get("k2".getBytes())));
+    store.close();
+  }
+
+  @Test
+  public void testMergeWithMergeFunction() {
+    Options options = new Options();
+    options.setCreateIfMissing(true);
+
+    File dbDir = new File(System.getProperty("java.io.tmpdir") + "/dbStore" + System.currentTimeMillis());
+    MergeFunction max = (existingValue, delta) ->
+        existingValue == null || Ints.fromByteArray(delta) > Ints.fromByteArray(existingValue) ? delta : existingValue;
+    RocksDbKeyValueStore store = new RocksDbKeyValueStore(dbDir, options, new MapConfig(), false, "dbStore",
+        new WriteOptions(), new FlushOptions(), new KeyValueStoreMetrics("dbStore", new MetricsRegistryMap()), max);
+
+    store.merge("k1".getBytes(), Ints.toByteArray(2));
+    store.merge("k1".getBytes(), Ints.toByteArray(7));
+    store.merge("k1".getBytes(), Ints.toByteArray(4));
+
+    assertArrayEquals(Ints.toByteArray(7), store.get("k1".getBytes()));
+    store.close();
+  }
+
+  @Test
+  public void testDeleteRange() {
+    Options options = new Options();
+    options.setCreateIfMissing(true);
+
+    File dbDir = new File(System.getProperty("java.io.tmpdir") + "/dbStore" + System.currentTimeMillis());
+    RocksDbKeyValueStore store = new RocksDbKeyValueStore(dbDir, options, new MapConfig(), false, "dbStore",
+        new WriteOptions(), new FlushOptions(), new KeyValueStoreMetrics("dbStore", new MetricsRegistryMap()));
+
+    store.put("a".getBytes(), "1".getBytes());
+    store.put("b".getBytes(), "2".getBytes());
+    store.put("c".getBytes(), "3".getBytes());
+    store.deleteRange("a".getBytes(), "c".getBytes());
+
+    assertNull(store.get("a".getBytes()));
+    assertNull(store.get("b".getBytes()));
+    assertArrayEquals("3".getBytes(), store.get("c".getBytes()));
+    assertEquals(1, store.metrics().deleteRanges().getCount());
+    store.close();
+  }
+
+  @Test
+  public void testBulkIngestIsDisabledForTtlStores() {
+    Config config = new MapConfig(ImmutableMap.of(
+        RocksDbKeyValueStore.ROCKSDB_BULK_INGEST_ENABLED(), "true",
+        "rocksdb.ttl.ms", "60000"));
+    File dbDir = new File(System.getProperty("java.io.tmpdir") + "/dbStore" + System.currentTimeMillis());
+    RocksDbKeyValueStore store = new RocksDbKeyValueStore(dbDir, new Options(), config, false, "dbStore",
+        new WriteOptions(), new FlushOptions(), new KeyValueStoreMetrics("dbStore", new MetricsRegistryMap()));
+    assertFalse(store.isBulkIngestEnabled());
+  }
+
   @Test
   public void testPerf() throws Exception {
     Config config = new MapConfig();
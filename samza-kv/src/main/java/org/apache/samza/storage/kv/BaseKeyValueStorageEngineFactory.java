@@ -53,6 +53,11 @@ public abstract class BaseKeyValueStorageEngineFactory<K, V> implements StorageE
   private static final int DEFAULT_WRITE_BATCH_SIZE = 500;
   private static final String OBJECT_CACHE_SIZE = "object.cache.size";
   private static final int DEFAULT_OBJECT_CACHE_SIZE = 1000;
+  private static final String OBJECT_CACHE_TYPE = "object.cache.type";
+  private static final String OBJECT_CACHE_TYPE_LRU = "lru";
+  private static final String OBJECT_CACHE_TYPE_SEGMENTED = "segmented";
+  private static final String OBJECT_CACHE_SEGMENTS = "object.cache.segments";
+  private static final int DEFAULT_OBJECT_CACHE_SEGMENTS = 16;
 
   /**
    * Implement this to return a KeyValueStore instance for the given store name, which will be used as the underlying
@@ -116,6 +121,13 @@ public abstract class BaseKeyValueStorageEngineFactory<K, V> implements StorageE
           String.format("cache.size for store %s cannot be less than batch.size as batched values reside in cache.",
               storeName));
     }
+    String cacheType = storageConfigSubset.get(OBJECT_CACHE_TYPE, OBJECT_CACHE_TYPE_LRU);
+    if (!OBJECT_CACHE_TYPE_LRU.equals(cacheType) && !OBJECT_CACHE_TYPE_SEGMENTED.equals(cacheType)) {
+      throw new SamzaException(
+          String.format("Unknown object.cache.type %s for store %s. Supported types are %s and %s.", cacheType,
+              storeName, OBJECT_CACHE_TYPE_LRU, OBJECT_CACHE_TYPE_SEGMENTED));
+    }
+    int cacheSegments = storageConfigSubset.getInt(OBJECT_CACHE_SEGMENTS, DEFAULT_OBJECT_CACHE_SEGMENTS);
     if (keySerde == null) {
       throw new SamzaException(
           String.format("Must define a key serde when using key value storage for store %s.", storeName));
@@ -128,10 +140,11 @@ public abstract class BaseKeyValueStorageEngineFactory<K, V> implements StorageE
     KeyValueStore<byte[], byte[]> rawStore =
         getKVStore(storeName, storeDir, registry, jobContext, containerContext, storeMode);
     KeyValueStore<byte[], byte[]> maybeLoggedStore = buildMaybeLoggedStore(changelogSSP,
-        storeName, registry, storePropertiesBuilder, rawStore, changelogCollector);
+        storeName, registry, storePropertiesBuilder, rawStore, changelogCollector,
+        storageConfig.getChangelogCoalesceWrites(storeName));
     // this also applies serialization and caching layers
     KeyValueStore<K, V> toBeAccessLoggedStore = buildStoreWithLargeMessageHandling(storeName, registry,
-        maybeLoggedStore, storageConfig, cacheSize, batchSize, keySerde, msgSerde);
+        maybeLoggedStore, storageConfig, cacheSize, batchSize, cacheType, cacheSegments, keySerde, msgSerde);
     KeyValueStore<K, V> maybeAccessLoggedStore =
         buildMaybeAccessLoggedStore(storeName, toBeAccessLoggedStore, changelogCollector, changelogSSP, storageConfig,
             keySerde);
@@ -147,19 +160,21 @@ public abstract class BaseKeyValueStorageEngineFactory<K, V> implements StorageE
   /**
    * Wraps {@code storeToWrap} into a {@link LoggedStore} if {@code changelogSSP} is defined.
    * Otherwise, returns the original {@code storeToWrap}.
+   * If {@code coalesceWrites} is set, the logged store only sends the latest value of each changed key on flush.
    */
   private static KeyValueStore<byte[], byte[]> buildMaybeLoggedStore(SystemStreamPartition changelogSSP,
       String storeName,
       MetricsRegistry registry,
       StoreProperties.StorePropertiesBuilder storePropertiesBuilder,
       KeyValueStore<byte[], byte[]> storeToWrap,
-      MessageCollector changelogCollector) {
+      MessageCollector changelogCollector,
+      boolean coalesceWrites) {
     if (changelogSSP == null) {
       return storeToWrap;
     } else {
       LoggedStoreMetrics loggedStoreMetrics = new LoggedStoreMetrics(storeName, registry);
       storePropertiesBuilder.setLoggedStore(true);
-      return new LoggedStore<>(storeToWrap, changelogSSP, changelogCollector, loggedStoreMetrics);
+      return new LoggedStore<>(storeToWrap, changelogSSP, changelogCollector, loggedStoreMetrics, coalesceWrites);
     }
   }
 
@@ -176,6 +191,8 @@ public abstract class BaseKeyValueStorageEngineFactory<K, V> implements StorageE
       StorageConfig storageConfig,
       int cacheSize,
       int batchSize,
+      String cacheType,
+      int cacheSegments,
       Serde<T> keySerde,
       Serde<U> msgSerde) {
     int maxMessageSize = storageConfig.getChangelogMaxMsgSizeBytes(storeName);
@@ -186,7 +203,7 @@ public abstract class BaseKeyValueStorageEngineFactory<K, V> implements StorageE
        * deserialized even when cached.
        */
       KeyValueStore<byte[], byte[]> maybeCachedStore =
-          buildMaybeCachedStore(storeName, registry, storeToWrap, cacheSize, batchSize);
+          buildMaybeCachedStore(storeName, registry, storeToWrap, cacheSize, batchSize, cacheType, cacheSegments);
       // this will throw a RecordTooLargeException when a large message is encountered
       LargeMessageSafeStore largeMessageSafeKeyValueStore =
           new LargeMessageSafeStore(maybeCachedStore, storeName, false, maxMessageSize);
@@ -204,18 +221,23 @@ public abstract class BaseKeyValueStorageEngineFactory<K, V> implements StorageE
        * Allows deserialized entries to be stored in the cache, but it means that a large message may end up in the
        * cache even though it was not persisted to the logged store.
        */
-      return buildMaybeCachedStore(storeName, registry, serializedStore, cacheSize, batchSize);
+      return buildMaybeCachedStore(storeName, registry, serializedStore, cacheSize, batchSize, cacheType,
+          cacheSegments);
     }
   }
 
   /**
-   * Wraps {@code storeToWrap} with a {@link CachedStore} if caching is enabled.
+   * Wraps {@code storeToWrap} with a {@link CachedStore}, or a {@link SegmentedCachedStore} if the "segmented" cache
+   * type is configured, if caching is enabled.
    * Otherwise, returns the {@code storeToWrap}.
    */
   private static <T, U> KeyValueStore<T, U> buildMaybeCachedStore(String storeName, MetricsRegistry registry,
-      KeyValueStore<T, U> storeToWrap, int cacheSize, int batchSize) {
+      KeyValueStore<T, U> storeToWrap, int cacheSize, int batchSize, String cacheType, int cacheSegments) {
     if (cacheSize > 0) {
       CachedStoreMetrics cachedStoreMetrics = new CachedStoreMetrics(storeName, registry);
+      if (OBJECT_CACHE_TYPE_SEGMENTED.equals(cacheType)) {
+        return new SegmentedCachedStore<>(storeToWrap, cacheSize, batchSize, cacheSegments, cachedStoreMetrics);
+      }
       return new CachedStore<>(storeToWrap, cacheSize, batchSize, cachedStoreMetrics);
     } else {
       return storeToWrap;
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.storage.kv;
+
+import java.util.List;
+
+
+/**
+ * A raw key-value store that can ingest large amounts of data more efficiently than through
+ * {@link KeyValueStore#putAll(List)}, e.g. when restoring the store from its changelog.
+ *
+ * Entries passed to {@link #bulkIngest(List)} are not guaranteed to be visible in the store until
+ * {@link #finishBulkIngest()} returns. No other writes may be made to the store between the first call to
+ * {@link #bulkIngest(List)} and the call to {@link #finishBulkIngest()}.
+ */
+public interface BulkIngestibleKeyValueStore extends KeyValueStore<byte[], byte[]> {
+
+  /**
+   * @return true if bulk ingestion is enabled for this store
+   */
+  boolean isBulkIngestEnabled();
+
+  /**
+   * Adds entries to the bulk ingestion. Entries are applied in order, so later entries for a key override earlier
+   * ones, including those from previous calls. An entry with a null value deletes its key.
+   *
+   * @param entries the entries to ingest
+   */
+  void bulkIngest(List<Entry<byte[], byte[]>> entries);
+
+  /**
+   * Makes all entries passed to {@link #bulkIngest(List)} visible in the store.
+   */
+  void finishBulkIngest();
+}
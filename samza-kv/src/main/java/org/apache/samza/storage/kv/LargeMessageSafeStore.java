@@ -92,6 +92,25 @@ public class LargeMessageSafeStore implements KeyValueStore<byte[], byte[]> {
     store.putAll(largeMessageSafeEntries);
   }
 
+  /**
+   * This function merges a delta into a message in the store after validating the size of the delta.
+   * Only the delta is validated, since the size of the merged message is not known without reading it.
+   *
+   * @param key the key with whose value the specified {@code delta} is to be merged.
+   * @param delta the value to merge into the value associated with the specified {@code key}.
+   */
+  @Override
+  public void merge(byte[] key, byte[] delta) {
+    validateMessageSize(delta);
+    if (!isLargeMessage(delta)) {
+      store.merge(key, delta);
+    } else {
+      LOG.info("Ignoring a large merge delta with size " + delta.length + " since it is greater than "
+          + "the maximum allowed value of " + maxMessageSize);
+      largeMessageSafeStoreMetrics.ignoredLargeMessages().inc();
+    }
+  }
+
   @Override
   public void delete(byte[] key) {
     store.delete(key);
@@ -102,6 +121,11 @@ public class LargeMessageSafeStore implements KeyValueStore<byte[], byte[]> {
     store.deleteAll(keys);
   }
 
+  @Override
+  public void deleteRange(byte[] from, byte[] to) {
+    store.deleteRange(from, to);
+  }
+
   @Override
   public KeyValueIterator<byte[], byte[]> range(byte[] from, byte[] to) {
     return store.range(from, to);
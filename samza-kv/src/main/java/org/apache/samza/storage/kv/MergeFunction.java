@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.storage.kv;
+
+/**
+ * An associative function used by {@link KeyValueStore#merge(Object, Object)} to combine a serialized delta with the
+ * serialized value currently associated with a key.
+ *
+ * Stores may apply merges lazily and in any grouping, e.g. by combining several deltas before they are merged into the
+ * stored value, so implementations must be associative and must not depend on when they are called.
+ *
+ * Implementations must have a public no-argument constructor to be configured with stores.store-name.merge.operator.
+ */
+public interface MergeFunction {
+
+  /**
+   * Merges the {@code delta} into the {@code existingValue}.
+   *
+   * @param existingValue the value currently associated with the key, or {@code null} if there is none
+   * @param delta the delta to merge into the existing value
+   * @return the merged value
+   */
+  byte[] merge(byte[] existingValue, byte[] delta);
+}
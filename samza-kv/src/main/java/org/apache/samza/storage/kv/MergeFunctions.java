@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.storage.kv;
+
+import java.nio.ByteBuffer;
+import org.apache.samza.SamzaException;
+import org.apache.samza.util.ReflectionUtil;
+
+
+/**
+ * The built-in {@link MergeFunction}s.
+ */
+public final class MergeFunctions {
+  /** Adds 8 byte big-endian longs. This is the encoding used by {@link org.apache.samza.serializers.LongSerde}. */
+  public static final String LONG_ADD = "long-add";
+  /**
+   * Appends values, separated by a comma. This is the default behavior of the RocksDB stringappend merge operator, so
+   * RocksDB stores apply it natively.
+   */
+  public static final String APPEND = "append";
+
+  private MergeFunctions() { }
+
+  /**
+   * Gets the merge function for a configured merge operator.
+   *
+   * @param mergeOperator the name of a built-in merge operator, or the class name of a {@link MergeFunction}
+   * @return the merge function
+   * @throws SamzaException if the merge function could not be created
+   */
+  public static MergeFunction fromName(String mergeOperator) {
+    switch (mergeOperator) {
+      case LONG_ADD:
+        return new LongAdd();
+      case APPEND:
+        return new Append(',');
+      default:
+        return ReflectionUtil.getObj(mergeOperator, MergeFunction.class);
+    }
+  }
+
+  /**
+   * Adds 8 byte big-endian longs, treating a missing value as 0. RocksDB's uint64add merge operator uses little-endian
+   * longs instead, so RocksDB stores apply this function by reading the current value.
+   */
+  public static final class LongAdd implements MergeFunction {
+    @Override
+    public byte[] merge(byte[] existingValue, byte[] delta) {
+      long sum = toLong(delta) + (existingValue == null ? 0 : toLong(existingValue));
+      return ByteBuffer.allocate(Long.BYTES).putLong(sum).array();
+    }
+
+    private static long toLong(byte[] bytes) {
+      if (bytes.length != Long.BYTES) {
+        throw new SamzaException("Expected a value of " + Long.BYTES + " bytes for merge operator " + LONG_ADD
+            + " but found " + bytes.length + " bytes.");
+      }
+      return ByteBuffer.wrap(bytes).getLong();
+    }
+  }
+
+  /**
+   * Appends the delta to the existing value, separated by a delimiter.
+   */
+  public static final class Append implements MergeFunction {
+    private final char delimiter;
+
+    public Append(char delimiter) {
+      this.delimiter = delimiter;
+    }
+
+    public char getDelimiter() {
+      return delimiter;
+    }
+
+    @Override
+    public byte[] merge(byte[] existingValue, byte[] delta) {
+      if (existingValue == null) {
+        return delta;
+      }
+      byte[] merged = new byte[existingValue.length + 1 + delta.length];
+      System.arraycopy(existingValue, 0, merged, 0, existingValue.length);
+      merged[existingValue.length] = (byte) delimiter;
+      System.arraycopy(delta, 0, merged, existingValue.length + 1, delta.length);
+      return merged;
+    }
+  }
+}
@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.storage.kv;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.apache.samza.checkpoint.CheckpointId;
+import org.apache.samza.util.ScalaJavaUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A write-behind caching layer with the same semantics as {@link CachedStore}, designed for stores that are
+ * accessed concurrently by multiple task threads (e.g. with task.max.concurrency &gt; 1).
+ *
+ * Instead of guarding the whole cache with a single lock, keys are hashed onto a fixed number of independent segments.
+ * Each segment is an access ordered LRU map with its own lock and its own set of dirty entries, so operations on keys in
+ * different segments do not contend with each other. Eviction is approximate LRU: each segment evicts its own least
+ * recently used entry once it holds more than its share of the cache size. Dirty entries of a segment are written to
+ * the underlying store when the segment has accumulated its share of the write batch size, when a dirty entry is about
+ * to be evicted, and on {@link #flush()}, which writes out one segment at a time without blocking the others.
+ *
+ * All reads of and writes to the underlying store for a key happen under the lock of its segment, or are discarded
+ * from the cache if the segment was modified concurrently, so the cache never holds a value older than the store.
+ *
+ * This class is thread safe.
+ *
+ * @param <K> the type of keys maintained by this store
+ * @param <V> the type of values maintained by this store
+ */
+public class SegmentedCachedStore<K, V> implements KeyValueStore<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(SegmentedCachedStore.class);
+
+  private final KeyValueStore<K, V> store;
+  private final CachedStoreMetrics metrics;
+  private final List<Segment> segments;
+  private final AtomicInteger dirtyCount = new AtomicInteger();
+  private final AtomicInteger cacheCount = new AtomicInteger();
+
+  /** tracks whether an array has been used as a key. since this is dangerous with hash maps, we want to warn on it. **/
+  private volatile boolean containsArrayKeys = false;
+
+  /**
+   * @param store the store to cache
+   * @param cacheSize the number of entries to hold in the in memory cache, across all segments
+   * @param writeBatchSize the number of entries to batch together before forcing a write, across all segments
+   * @param numSegments the number of independently locked segments
+   * @param metrics the metrics recording object for this cached store
+   */
+  public SegmentedCachedStore(KeyValueStore<K, V> store, int cacheSize, int writeBatchSize, int numSegments,
+      CachedStoreMetrics metrics) {
+    Preconditions.checkArgument(cacheSize > 0, "Cache size must be positive.");
+    Preconditions.checkArgument(numSegments > 0, "Number of cache segments must be positive.");
+    this.store = store;
+    this.metrics = metrics;
+
+    int segmentCount = Math.min(numSegments, cacheSize);
+    int segmentCacheSize = (cacheSize + segmentCount - 1) / segmentCount;
+    int segmentWriteBatchSize = Math.max(1, writeBatchSize / segmentCount);
+    this.segments = new ArrayList<>(segmentCount);
+    for (int i = 0; i < segmentCount; i++) {
+      this.segments.add(new Segment(segmentCacheSize, segmentWriteBatchSize));
+    }
+
+    metrics.setDirtyCount(ScalaJavaUtil.toScalaFunction(() -> dirtyCount.get()));
+    metrics.setCacheSize(ScalaJavaUtil.toScalaFunction(() -> cacheCount.get()));
+  }
+
+  @Override
+  public V get(K key) {
+    metrics.gets().inc();
+    Segment segment = segmentFor(key);
+
+    long version;
+    synchronized (segment) {
+      CacheEntry<K, V> entry = segment.cache.get(key);
+      if (entry != null) {
+        metrics.cacheHits().inc();
+        return entry.value;
+      }
+      version = segment.version;
+    }
+
+    // read from the store without holding the segment lock
+    V value = store.get(key);
+    synchronized (segment) {
+      segment.cacheIfUnmodified(key, value, version);
+    }
+    return value;
+  }
+
+  @Override
+  public Map<K, V> getAll(List<K> keys) {
+    metrics.gets().inc(keys.size());
+    Map<K, V> returnValue = new HashMap<>(keys.size());
+    List<K> misses = new ArrayList<>();
+    Map<Segment, Long> versions = new HashMap<>();
+
+    for (K key : keys) {
+      Segment segment = segmentFor(key);
+      synchronized (segment) {
+        CacheEntry<K, V> entry = segment.cache.get(key);
+        if (entry != null) {
+          metrics.cacheHits().inc();
+          returnValue.put(key, entry.value);
+        } else {
+          misses.add(key);
+          versions.putIfAbsent(segment, segment.version);
+        }
+      }
+    }
+
+    if (!misses.isEmpty()) {
+      for (Map.Entry<K, V> entry : store.getAll(misses).entrySet()) {
+        Segment segment = segmentFor(entry.getKey());
+        returnValue.put(entry.getKey(), entry.getValue());
+        synchronized (segment) {
+          segment.cacheIfUnmodified(entry.getKey(), entry.getValue(), versions.get(segment));
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    metrics.puts().inc();
+    checkKeyIsArray(key);
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      segment.put(key, value);
+      // Flush every time for array keys to support the legacy behavior of CachedStore:
+      // get() will always miss the cache because of array equality semantics, and fall back to the underlying store.
+      if (segment.dirty.size() >= segment.writeBatchSize || containsArrayKeys) {
+        segment.putAllDirtyEntries();
+      }
+    }
+  }
+
+  @Override
+  public void putAll(List<Entry<K, V>> entries) {
+    for (Entry<K, V> entry : entries) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public void delete(K key) {
+    metrics.deletes().inc();
+    put(key, null);
+  }
+
+  /**
+   * Range deletes are applied by the underlying store. Since the segments are not ordered, the dirty entries of all
+   * segments are written out first and all segments are cleared afterwards.
+   */
+  @Override
+  public void deleteRange(K from, K to) {
+    metrics.deletes().inc();
+    putAllDirtyEntries();
+    store.deleteRange(from, to);
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        // entries written concurrently with the range delete are kept in the underlying store
+        segment.putAllDirtyEntries();
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * Merges are applied by the underlying store, since the cache holds whole values. If the key is cached, the dirty
+   * entries of its segment are written out first and the key is removed from the cache.
+   */
+  @Override
+  public void merge(K key, V delta) {
+    metrics.merges().inc();
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      segment.invalidate(key);
+      store.merge(key, delta);
+    }
+  }
+
+  @Override
+  public KeyValueIterator<K, V> range(K from, K to) {
+    metrics.ranges().inc();
+    putAllDirtyEntries();
+    return new SegmentedCachedStoreIterator<>(store.range(from, to));
+  }
+
+  @Override
+  public KeyValueIterator<K, V> all() {
+    metrics.alls().inc();
+    putAllDirtyEntries();
+    return new SegmentedCachedStoreIterator<>(store.all());
+  }
+
+  @Override
+  public KeyValueSnapshot<K, V> snapshot(K from, K to) {
+    return store.snapshot(from, to);
+  }
+
+  @Override
+  public void flush() {
+    LOG.trace("Purging dirty entries from SegmentedCachedStore.");
+    metrics.flushes().inc();
+    putAllDirtyEntries();
+    store.flush();
+    LOG.trace("Flushed store.");
+  }
+
+  @Override
+  public void close() {
+    LOG.trace("Closing.");
+    flush();
+    store.close();
+  }
+
+  @Override
+  public Optional<Path> checkpoint(CheckpointId id) {
+    return store.checkpoint(id);
+  }
+
+  public boolean hasArrayKeys() {
+    return containsArrayKeys;
+  }
+
+  @VisibleForTesting
+  int getNumSegments() {
+    return segments.size();
+  }
+
+  @VisibleForTesting
+  KeyValueStore<K, V> getStore() {
+    return store;
+  }
+
+  /**
+   * Writes out the dirty entries of each segment in turn, holding only the lock of the segment being written.
+   */
+  private void putAllDirtyEntries() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.putAllDirtyEntries();
+      }
+    }
+  }
+
+  private Segment segmentFor(K key) {
+    int h = key.hashCode();
+    // spread the higher bits, since segments are selected by the lower bits of the hash
+    h ^= h >>> 16;
+    return segments.get((h & Integer.MAX_VALUE) % segments.size());
+  }
+
+  private void checkKeyIsArray(K key) {
+    if (!containsArrayKeys && key.getClass().isArray()) {
+      // Warn the first time that we see an array key.
+      LOG.warn("Using arrays as keys results in unpredictable behavior since cache is implemented with a map. "
+          + "Consider using ByteBuffer, or a different key type, or turn off the cache altogether.");
+      containsArrayKeys = true;
+    }
+  }
+
+  /**
+   * A single LRU segment of the cache. All access to a segment must be synchronized on the segment.
+   */
+  private final class Segment {
+    private final int cacheSize;
+    private final int writeBatchSize;
+    /** the dirty entries of this segment, in the order they were first written since the last putAll */
+    private final List<CacheEntry<K, V>> dirty = new ArrayList<>();
+    private final LinkedHashMap<K, CacheEntry<K, V>> cache;
+    /** incremented on every write, to detect writes that happen while reading from the store without the lock */
+    private long version = 0;
+
+    Segment(int cacheSize, int writeBatchSize) {
+      this.cacheSize = cacheSize;
+      this.writeBatchSize = writeBatchSize;
+      this.cache = new LinkedHashMap<K, CacheEntry<K, V>>((int) (cacheSize * 1.2), 1.0f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<K, V>> eldest) {
+          boolean evict = size() > Segment.this.cacheSize;
+          if (evict) {
+            // if this entry hasn't been written out yet, write it and all other dirty entries of this segment
+            if (eldest.getValue().dirty) {
+              LOG.debug("Found a dirty entry. Calling putAll() on all dirty entries of the segment.");
+              Segment.this.putAllDirtyEntries();
+            }
+            cacheCount.decrementAndGet();
+          }
+          return evict;
+        }
+      };
+    }
+
+    void put(K key, V value) {
+      version++;
+      CacheEntry<K, V> entry = cache.get(key);
+      if (entry == null) {
+        entry = new CacheEntry<>(key, value);
+        cacheCount.incrementAndGet();
+        cache.put(key, entry);
+      } else {
+        entry.value = value;
+      }
+      if (!entry.dirty) {
+        entry.dirty = true;
+        dirty.add(entry);
+        dirtyCount.incrementAndGet();
+      }
+    }
+
+    void invalidate(K key) {
+      version++;
+      CacheEntry<K, V> entry = cache.get(key);
+      if (entry != null) {
+        if (entry.dirty) {
+          putAllDirtyEntries();
+        }
+        cache.remove(key);
+        cacheCount.decrementAndGet();
+      }
+    }
+
+    void clear() {
+      version++;
+      cacheCount.addAndGet(-cache.size());
+      cache.clear();
+    }
+
+    void cacheIfUnmodified(K key, V value, long readVersion) {
+      if (version == readVersion && !cache.containsKey(key)) {
+        cacheCount.incrementAndGet();
+        cache.put(key, new CacheEntry<>(key, value));
+      }
+    }
+
+    void putAllDirtyEntries() {
+      if (dirty.isEmpty()) {
+        return;
+      }
+      LOG.trace("Calling putAll() on dirty entries.");
+      List<Entry<K, V>> batch = new ArrayList<>(dirty.size());
+      for (CacheEntry<K, V> entry : dirty) {
+        entry.dirty = false; // not dirty any more
+        batch.add(new Entry<>(entry.key, entry.value));
+      }
+      store.putAll(batch);
+      metrics.putAllDirtyEntriesBatchSize().inc(batch.size());
+      dirtyCount.addAndGet(-batch.size());
+      dirty.clear();
+    }
+  }
+
+  private static final class CacheEntry<K, V> {
+    private final K key;
+    private V value;
+    private boolean dirty = false;
+
+    CacheEntry(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private static final class SegmentedCachedStoreIterator<K, V> implements KeyValueIterator<K, V> {
+    private final KeyValueIterator<K, V> iter;
+
+    SegmentedCachedStoreIterator(KeyValueIterator<K, V> iter) {
+      this.iter = iter;
+    }
+
+    @Override
+    public void close() {
+      iter.close();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("SegmentedCachedStore iterator doesn't support remove");
+    }
+
+    @Override
+    public Entry<K, V> next() {
+      return iter.next();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iter.hasNext();
+    }
+  }
+}
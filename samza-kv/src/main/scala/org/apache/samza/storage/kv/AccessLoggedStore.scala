@@ -82,6 +82,19 @@ class AccessLoggedStore[K, V](
     logAccess(DBOperation.DELETE, list, store.delete(key))
   }
 
+  override def deleteRange(from: K, to: K): Unit = {
+    val list : util.ArrayList[K] = new util.ArrayList[K]()
+    list.add(from)
+    list.add(to)
+    logAccess(DBOperation.DELETE, serializeKeys(list), store.deleteRange(from, to))
+  }
+
+  override def merge(key: K, delta: V): Unit = {
+    val list = new util.ArrayList[Array[Byte]]
+    list.add(toBytesOrNull(key))
+    logAccess(DBOperation.WRITE, list, store.merge(key, delta))
+  }
+
   override def deleteAll(keys: util.List[K]): Unit = {
     logAccess(DBOperation.DELETE, serializeKeys(keys), store.deleteAll(keys))
   }
@@ -240,6 +240,39 @@ class CachedStore[K, V](
     })
   }
 
+  /**
+   * Range deletes are applied by the underlying store. Since the cache is not ordered, all dirty entries are written
+   * out first and the whole cache is cleared afterwards.
+   */
+  override def deleteRange(from: K, to: K) {
+    lock.synchronized({
+      metrics.deletes.inc
+      putAllDirtyEntries()
+      store.deleteRange(from, to)
+      cache.clear()
+      cacheCount = 0
+    })
+  }
+
+  /**
+   * Merges are applied by the underlying store, since the cache holds whole values. If the key is cached, any dirty
+   * entries are written out first and the key is removed from the cache, so the next get() reads the merged value.
+   */
+  override def merge(key: K, delta: V) {
+    lock.synchronized({
+      metrics.merges.inc
+      val found = cache.get(key)
+      if (found != null) {
+        if (found.dirty != null) {
+          putAllDirtyEntries()
+        }
+        cache.remove(key)
+        cacheCount = cache.size
+      }
+      store.merge(key, delta)
+    })
+  }
+
   override def close() {
     lock.synchronized({
       trace("Closing.")
@@ -33,6 +33,7 @@ class CachedStoreMetrics(
   val cacheHits = newCounter("cache-hits")
   val puts = newCounter("puts")
   val deletes = newCounter("deletes")
+  val merges = newCounter("merges")
   val flushes = newCounter("flushes")
   val putAllDirtyEntriesBatchSize = newCounter("put-all-dirty-entries-batch-size")
 
@@ -96,6 +96,20 @@ class KeyValueStorageEngine[K, V](
     }
   }
 
+  override def deleteRange(from: K, to: K) = {
+    updateTimer(metrics.deleteRangeNs) {
+      metrics.deleteRanges.inc
+      wrapperStore.deleteRange(from, to)
+    }
+  }
+
+  override def merge(key: K, delta: V) = {
+    updateTimer(metrics.mergeNs) {
+      metrics.merges.inc
+      wrapperStore.merge(key, delta)
+    }
+  }
+
   def range(from: K, to: K) = {
     updateTimer(metrics.rangeNs) {
       metrics.ranges.inc
@@ -116,9 +130,31 @@ class KeyValueStorageEngine[K, V](
    *
    * With transactional state disabled, iterator mode will always be 'restore'. With transactional state enabled,
    * iterator mode may switch from 'restore' to 'trim' at some point, but will not switch back to 'restore'.
+   *
+   * If the raw store is a [[BulkIngestibleKeyValueStore]] with bulk ingestion enabled, restored entries are bulk
+   * ingested instead of written with putAll. Side input stores are not restored here, so they are always written
+   * with putAll: their entries must be readable as soon as they are written, which bulk ingestion does not allow.
    */
   def restore(iterator: ChangelogSSPIterator) {
     info("Restoring entries for store: " + storeName + " in directory: " + storeDir.toString)
+    val bulkIngestStore = rawStore match {
+      case store: BulkIngestibleKeyValueStore if store.isBulkIngestEnabled =>
+        info("Using bulk ingestion to restore store: " + storeName)
+        Some(store)
+      case _ => None
+    }
+    def writeBatch(batch: java.util.List[Entry[Array[Byte], Array[Byte]]]) {
+      bulkIngestStore match {
+        case Some(store) => updateTimer(metrics.bulkIngestNs) { store.bulkIngest(batch) }
+        case None => doPutAll(rawStore, batch)
+      }
+    }
+    def finishBatches() {
+      bulkIngestStore.foreach(store => updateTimer(metrics.bulkIngestFinishNs) {
+        store.finishBulkIngest()
+      })
+    }
+
     var restoredMessages = 0
     var restoredBytes = 0
     var trimmedMessages = 0
@@ -143,7 +179,7 @@ class KeyValueStorageEngine[K, V](
         batch.add(new Entry(keyBytes, valBytes))
 
         if (batch.size >= batchSize) {
-          doPutAll(rawStore, batch)
+          writeBatch(batch)
           batch.clear()
         }
 
@@ -163,9 +199,10 @@ class KeyValueStorageEngine[K, V](
         if (!lastBatchFlushed) {
           info(restoredMessages + " total entries restored for store: " + storeName + " in directory: " + storeDir.toString + ".")
           if (batch.size > 0) {
-            doPutAll(rawStore, batch)
+            writeBatch(batch)
             batch.clear()
           }
+          finishBatches()
           lastBatchFlushed = true
         }
 
@@ -195,9 +232,10 @@ class KeyValueStorageEngine[K, V](
     if (!lastBatchFlushed) {
       info(restoredMessages + " total entries restored for store: " + storeName + " in directory: " + storeDir.toString + ".")
       if (batch.size > 0) {
-        doPutAll(rawStore, batch)
+        writeBatch(batch)
         batch.clear()
       }
+      finishBatches()
       lastBatchFlushed = true
     }
     info(trimmedMessages + " entries trimmed for store: " + storeName + " in directory: " + storeDir.toString + ".")
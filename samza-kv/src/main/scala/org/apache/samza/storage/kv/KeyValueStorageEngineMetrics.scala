@@ -33,6 +33,8 @@ class KeyValueStorageEngineMetrics(
   val putAlls = newCounter("put-alls")
   val deletes = newCounter("deletes")
   val deleteAlls = newCounter("delete-alls")
+  val deleteRanges = newCounter("delete-ranges")
+  val merges = newCounter("merges")
   val flushes = newCounter("flushes")
   val checkpoints = newCounter("checkpoints")
   val alls = newCounter("alls")
@@ -45,11 +47,15 @@ class KeyValueStorageEngineMetrics(
   val putAllNs = newTimer("put-all-ns")
   val deleteNs = newTimer("delete-ns")
   val deleteAllNs = newTimer("delete-all-ns")
+  val deleteRangeNs = newTimer("delete-range-ns")
+  val mergeNs = newTimer("merge-ns")
   val flushNs = newTimer("flush-ns")
   val checkpointNs = newTimer("checkpoint-ns")
   val allNs = newTimer("all-ns")
   val rangeNs = newTimer("range-ns")
   val snapshotNs = newTimer("snapshot-ns")
+  val bulkIngestNs = newTimer("bulk-ingest-ns")
+  val bulkIngestFinishNs = newTimer("bulk-ingest-finish-ns")
 
   val restoredMessagesGauge = newGauge("restored-messages", 0)
   val trimmedMessagesGauge = newGauge("trimmed-messages", 0)
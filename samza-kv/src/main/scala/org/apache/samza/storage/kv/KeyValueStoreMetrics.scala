@@ -31,11 +31,14 @@ class KeyValueStoreMetrics(
   val putAlls = newCounter("putAlls")
   val deletes = newCounter("deletes")
   val deleteAlls = newCounter("deleteAlls")
+  val deleteRanges = newCounter("deleteRanges")
+  val merges = newCounter("merges")
   val alls = newCounter("alls")
   val ranges = newCounter("ranges")
   val flushes = newCounter("flushes")
   val bytesWritten = newCounter("bytes-written")
   val bytesRead = newCounter("bytes-read")
+  val bulkIngestedFiles = newCounter("bulk-ingested-files")
 
   override def getPrefix = storeName + "-"
 }
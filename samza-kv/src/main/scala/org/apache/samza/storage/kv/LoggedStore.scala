@@ -19,6 +19,7 @@
 
 package org.apache.samza.storage.kv
 
+import java.nio.ByteBuffer
 import java.nio.file.Path
 import java.util.Optional
 
@@ -26,20 +27,40 @@ import com.google.common.annotations.VisibleForTesting
 import org.apache.samza.checkpoint.CheckpointId
 import org.apache.samza.util.Logging
 import org.apache.samza.system.{OutgoingMessageEnvelope, SystemStreamPartition}
-import org.apache.samza.task.MessageCollector
+import org.apache.samza.task.{MessageCollector, TaskInstanceCollector}
 
 /**
   * A key/value store decorator that adds a changelog for any changes made to the underlying store
+  *
+  * If coalesceWrites is set, changes are not sent to the changelog as they are made. Instead, the store tracks the
+  * keys that were changed since the last flush, and on flush sends a single changelog record per key with its latest
+  * value in the underlying store (or a tombstone if it was deleted). Since a commit flushes the task's producers before
+  * it flushes its stores, the records sent on flush are flushed to the changelog by the store itself, so that they are
+  * included in the changelog offsets snapshotted for the checkpoint.
   */
 class LoggedStore[K, V](
   val store: KeyValueStore[K, V],
   val systemStreamPartition: SystemStreamPartition,
   val collector: MessageCollector,
-  val metrics: LoggedStoreMetrics = new LoggedStoreMetrics) extends KeyValueStore[K, V] with Logging {
+  val metrics: LoggedStoreMetrics = new LoggedStoreMetrics,
+  val coalesceWrites: Boolean = false) extends KeyValueStore[K, V] with Logging {
+
+  // For Java callers, which cannot use the default for coalesceWrites
+  def this(store: KeyValueStore[K, V], systemStreamPartition: SystemStreamPartition, collector: MessageCollector,
+    metrics: LoggedStoreMetrics) = this(store, systemStreamPartition, collector, metrics, false)
 
   val systemStream = systemStreamPartition.getSystemStream
   val partitionId = systemStreamPartition.getPartition.getPartitionId
 
+  /**
+    * The keys changed since the last flush, in the order they were first changed, if coalesceWrites is set.
+    * Array keys are tracked by their contents. Access must be synchronized on the map.
+    */
+  private val dirtyKeys = new java.util.LinkedHashMap[Any, K]()
+
+  /** the number of changes made since the last flush, if coalesceWrites is set */
+  private var pendingChanges = 0L
+
   /* pass through methods */
   def get(key: K) = {
     metrics.gets.inc
@@ -66,7 +87,7 @@ class LoggedStore[K, V](
     */
   def put(key: K, value: V) {
     metrics.puts.inc
-    collector.send(new OutgoingMessageEnvelope(systemStream, partitionId, key, value))
+    log(key, value)
     store.put(key, value)
   }
 
@@ -78,7 +99,7 @@ class LoggedStore[K, V](
     val iter = entries.iterator
     while (iter.hasNext) {
       val curr = iter.next
-      collector.send(new OutgoingMessageEnvelope(systemStream, partitionId, curr.getKey, curr.getValue))
+      log(curr.getKey, curr.getValue)
     }
     store.putAll(entries)
   }
@@ -88,7 +109,7 @@ class LoggedStore[K, V](
     */
   def delete(key: K) {
     metrics.deletes.inc
-    collector.send(new OutgoingMessageEnvelope(systemStream, partitionId, key, null))
+    log(key, null.asInstanceOf[V])
     store.delete(key)
   }
 
@@ -99,16 +120,52 @@ class LoggedStore[K, V](
     metrics.deletes.inc(keys.size)
     val keysIterator = keys.iterator
     while (keysIterator.hasNext) {
-      collector.send(new OutgoingMessageEnvelope(systemStream, partitionId, keysIterator.next, null))
+      log(keysIterator.next, null.asInstanceOf[V])
     }
     store.deleteAll(keys)
   }
 
+  /**
+    * Log out a delete for every key in the range to the changelog, then perform the local range delete. Unlike the
+    * local range delete, this reads the keys in the range, since the changelog needs a tombstone for each of them, so
+    * it costs O(keys in the range) reads and changelog messages, like deleting them one by one.
+    */
+  override def deleteRange(from: K, to: K) {
+    val iter = store.range(from, to)
+    try {
+      while (iter.hasNext) {
+        metrics.deletes.inc
+        log(iter.next.getKey, null.asInstanceOf[V])
+      }
+    } finally {
+      iter.close()
+    }
+    store.deleteRange(from, to)
+  }
+
+  /**
+    * Perform the local merge and log the merged value out to the changelog. Unless coalesceWrites is set, this reads
+    * the merged value back from the underlying store.
+    */
+  override def merge(key: K, delta: V) {
+    metrics.merges.inc
+    store.merge(key, delta)
+    if (coalesceWrites) {
+      // the merged value is read from the underlying store when the dirty keys are sent on flush
+      log(key, null.asInstanceOf[V])
+    } else {
+      send(key, store.get(key))
+    }
+  }
+
   def flush {
     trace("Flushing store.")
 
     metrics.flushes.inc
 
+    if (sendDirtyKeys()) {
+      flushCollector()
+    }
     store.flush
     trace("Flushed store.")
   }
@@ -116,9 +173,73 @@ class LoggedStore[K, V](
   def close {
     trace("Closing.")
 
+    sendDirtyKeys()
     store.close
   }
 
+  /**
+    * Sends the change to the changelog, or marks the key as dirty if coalesceWrites is set.
+    */
+  private def log(key: K, value: V) {
+    if (coalesceWrites) {
+      val dirtyKey = key match {
+        case bytes: Array[Byte] => ByteBuffer.wrap(bytes)
+        case _ => key
+      }
+      dirtyKeys.synchronized {
+        dirtyKeys.put(dirtyKey, key)
+        pendingChanges += 1
+      }
+    } else {
+      send(key, value)
+    }
+  }
+
+  /**
+    * Sends the latest value of every key changed since the last flush to the changelog.
+    *
+    * @return true if any changelog records were sent
+    */
+  private def sendDirtyKeys(): Boolean = {
+    if (!coalesceWrites) {
+      return false
+    }
+    dirtyKeys.synchronized {
+      if (dirtyKeys.isEmpty) {
+        false
+      } else {
+        trace("Sending %s dirty keys to the changelog." format dirtyKeys.size)
+        val keysIterator = dirtyKeys.values.iterator
+        while (keysIterator.hasNext) {
+          val key = keysIterator.next
+          send(key, store.get(key))
+        }
+        metrics.changelogRecordsCoalesced.inc(pendingChanges - dirtyKeys.size)
+        dirtyKeys.clear()
+        pendingChanges = 0
+        true
+      }
+    }
+  }
+
+  /**
+    * Flushes the records sent to the changelog by a flush of this store, which happens after the commit flushed the
+    * task's producers. Collectors that cannot be flushed, e.g. during restore, are left alone.
+    */
+  private def flushCollector() {
+    collector match {
+      case taskInstanceCollector: TaskInstanceCollector =>
+        trace("Flushing changelog records sent on flush.")
+        taskInstanceCollector.flush
+      case _ =>
+    }
+  }
+
+  private def send(key: K, value: V) {
+    metrics.changelogRecordsSent.inc
+    collector.send(new OutgoingMessageEnvelope(systemStream, partitionId, key, value))
+  }
+
   override def snapshot(from: K, to: K): KeyValueSnapshot[K, V] = {
     store.snapshot(from, to)
   }
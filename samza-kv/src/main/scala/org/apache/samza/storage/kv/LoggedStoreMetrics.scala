@@ -32,7 +32,10 @@ class LoggedStoreMetrics(
   val alls = newCounter("alls")
   val puts = newCounter("puts")
   val deletes = newCounter("deletes")
+  val merges = newCounter("merges")
   val flushes = newCounter("flushes")
+  val changelogRecordsSent = newCounter("changelog-records-sent")
+  val changelogRecordsCoalesced = newCounter("changelog-records-coalesced")
 
   override def getPrefix = storeName + "-"
 }
\ No newline at end of file
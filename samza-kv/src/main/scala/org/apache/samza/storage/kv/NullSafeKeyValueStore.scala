@@ -31,6 +31,7 @@ object NullSafeKeyValueStore {
   val NullKeyErrorMessage = "Null is not a valid key."
   val NullKeysErrorMessage = "Null is not a valid keys list."
   val NullValueErrorMessage = "Null is not a valid value."
+  val NullDeltaErrorMessage = "Null is not a valid merge delta."
 }
 
 class NullSafeKeyValueStore[K, V](store: KeyValueStore[K, V]) extends KeyValueStore[K, V] {
@@ -72,6 +73,18 @@ class NullSafeKeyValueStore[K, V](store: KeyValueStore[K, V]) extends KeyValueSt
     store.deleteAll(keys)
   }
 
+  override def deleteRange(from: K, to: K) {
+    notNull(from, NullKeyErrorMessage)
+    notNull(to, NullKeyErrorMessage)
+    store.deleteRange(from, to)
+  }
+
+  override def merge(key: K, delta: V) {
+    notNull(key, NullKeyErrorMessage)
+    notNull(delta, NullDeltaErrorMessage)
+    store.merge(key, delta)
+  }
+
   def range(from: K, to: K): KeyValueIterator[K, V] = {
     notNull(from, NullKeyErrorMessage)
     notNull(to, NullKeyErrorMessage)
@@ -102,6 +102,20 @@ class SerializedKeyValueStore[K, V](
     store.deleteAll(serializeKeys(keys))
   }
 
+  override def deleteRange(from: K, to: K) {
+    metrics.deletes.inc
+    val fromBytes = toBytesOrNull(from, keySerde)
+    val toBytes = toBytesOrNull(to, keySerde)
+    store.deleteRange(fromBytes, toBytes)
+  }
+
+  override def merge(key: K, delta: V) {
+    metrics.merges.inc
+    val keyBytes = toBytesOrNull(key, keySerde)
+    val deltaBytes = toBytesOrNull(delta, msgSerde)
+    store.merge(keyBytes, deltaBytes)
+  }
+
   def range(from: K, to: K): KeyValueIterator[K, V] = {
     metrics.ranges.inc
     val fromBytes = toBytesOrNull(from, keySerde)
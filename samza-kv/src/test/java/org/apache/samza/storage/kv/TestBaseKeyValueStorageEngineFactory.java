@@ -62,6 +62,8 @@ public class TestBaseKeyValueStorageEngineFactory {
       ImmutableMap.of(String.format(StorageConfig.DISALLOW_LARGE_MESSAGES, STORE_NAME), "true");
   private static final Map<String, String> DROP_LARGE_MESSAGES =
       ImmutableMap.of(String.format(StorageConfig.DROP_LARGE_MESSAGES, STORE_NAME), "true");
+  private static final Map<String, String> SEGMENTED_CACHE =
+      ImmutableMap.of(String.format("stores.%s.object.cache.type", STORE_NAME), "segmented");
   private static final Map<String, String> ACCESS_LOG_ENABLED =
       ImmutableMap.of(String.format("stores.%s.accesslog.enabled", STORE_NAME), "true");
 
@@ -198,6 +200,31 @@ public class TestBaseKeyValueStorageEngineFactory {
     assertEquals(this.rawKeyValueStore, loggedStore.getStore());
   }
 
+  @Test
+  public void testWithLoggedStoreAndSegmentedCachedStore() {
+    Config config = new MapConfig(BASE_CONFIG, SEGMENTED_CACHE);
+    StorageEngine storageEngine = callGetStorageEngine(config, CHANGELOG_SSP);
+    KeyValueStorageEngine<?, ?> keyValueStorageEngine = baseStorageEngineValidation(storageEngine);
+    assertStoreProperties(keyValueStorageEngine.getStoreProperties(), true, true, false);
+    NullSafeKeyValueStore<?, ?> nullSafeKeyValueStore =
+        assertAndCast(keyValueStorageEngine.getWrapperStore(), NullSafeKeyValueStore.class);
+    SegmentedCachedStore<?, ?> cachedStore =
+        assertAndCast(nullSafeKeyValueStore.getStore(), SegmentedCachedStore.class);
+    SerializedKeyValueStore<?, ?> serializedKeyValueStore =
+        assertAndCast(cachedStore.getStore(), SerializedKeyValueStore.class);
+    LoggedStore<?, ?> loggedStore = assertAndCast(serializedKeyValueStore.getStore(), LoggedStore.class);
+    // type generics don't match due to wildcard type, but checking reference equality, so type generics don't matter
+    // noinspection AssertEqualsBetweenInconvertibleTypes
+    assertEquals(this.rawKeyValueStore, loggedStore.getStore());
+  }
+
+  @Test(expected = SamzaException.class)
+  public void testInvalidCacheType() {
+    Config config = new MapConfig(BASE_CONFIG,
+        ImmutableMap.of(String.format("stores.%s.object.cache.type", STORE_NAME), "lfu"));
+    callGetStorageEngine(config, null);
+  }
+
   @Test
   public void testDisallowLargeMessages() {
     Config config = new MapConfig(BASE_CONFIG, DISABLE_CACHE, DISALLOW_LARGE_MESSAGES);
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.samza.storage.kv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.samza.metrics.MetricsRegistryMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+public class TestSegmentedCachedStore {
+
+  private static CachedStoreMetrics newMetrics() {
+    return new CachedStoreMetrics("store", new MetricsRegistryMap());
+  }
+
+  @Test
+  public void testArrayCheck() {
+    KeyValueStore<byte[], byte[]> kv = mock(KeyValueStore.class);
+    SegmentedCachedStore<byte[], byte[]> store = new SegmentedCachedStore<>(kv, 100, 100, 4, newMetrics());
+
+    assertFalse(store.hasArrayKeys());
+    store.put("test1-key".getBytes(), "test1-value".getBytes());
+    assertTrue(store.hasArrayKeys());
+  }
+
+  @Test
+  public void testNumSegmentsIsBoundedByCacheSize() {
+    SegmentedCachedStore<String, String> store =
+        new SegmentedCachedStore<>(new MockKeyValueStore(), 4, 4, 16, newMetrics());
+    assertEquals(4, store.getNumSegments());
+  }
+
+  @Test
+  public void testWriteBehind() {
+    MockKeyValueStore kv = spy(new MockKeyValueStore());
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 100, 100, 1, newMetrics());
+
+    store.put("k1", "v1");
+    store.put("k1", "v2");
+    store.put("k2", "v1");
+    assertEquals("v2", store.get("k1"));
+    assertNull(kv.get("k1"));
+    verify(kv, never()).putAll(any());
+
+    store.flush();
+    verify(kv, times(1)).putAll(any());
+    // only the latest value of each dirty key is written out
+    assertEquals("v2", kv.get("k1"));
+    assertEquals("v1", kv.get("k2"));
+
+    store.delete("k1");
+    assertNull(store.get("k1"));
+    store.flush();
+    assertNull(kv.get("k1"));
+  }
+
+  @Test
+  public void testBatchSizeIsPerSegment() {
+    MockKeyValueStore kv = new MockKeyValueStore();
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 100, 2, 1, newMetrics());
+
+    store.put("k1", "v1");
+    assertFalse("Entries should not have been purged yet", kv.all().hasNext());
+    store.put("k2", "v2");
+    assertEquals("v1", kv.get("k1"));
+    assertEquals("v2", kv.get("k2"));
+  }
+
+  @Test
+  public void testDirtyEntryIsWrittenBeforeEviction() {
+    MockKeyValueStore kv = new MockKeyValueStore();
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 2, 10, 1, newMetrics());
+
+    store.put("k1", "v1");
+    store.put("k2", "v2");
+    assertNull(kv.get("k1"));
+    // k1 is the eldest and dirty, so it must be written out before it is evicted
+    store.put("k3", "v3");
+    assertEquals("v1", kv.get("k1"));
+    assertEquals("v1", store.get("k1"));
+  }
+
+  @Test
+  public void testMergeWritesDirtyEntriesAndInvalidatesCache() {
+    MockKeyValueStore kv = new MockKeyValueStore();
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 100, 100, 1, newMetrics());
+
+    store.put("k1", "a");
+    store.merge("k1", "b");
+    assertEquals("ab", kv.get("k1"));
+    assertEquals("ab", store.get("k1"));
+  }
+
+  @Test
+  public void testDeleteRangeWritesDirtyEntriesAndClearsSegments() {
+    MockKeyValueStore kv = new MockKeyValueStore();
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 100, 100, 4, newMetrics());
+
+    store.putAll(Arrays.asList(new Entry<>("a", "1"), new Entry<>("b", "2"), new Entry<>("c", "3")));
+    store.deleteRange("a", "c");
+
+    assertNull(store.get("a"));
+    assertNull(store.get("b"));
+    assertEquals("3", store.get("c"));
+    assertEquals("3", kv.get("c"));
+  }
+
+  @Test
+  public void testRangeAndAllSeeDirtyEntries() {
+    MockKeyValueStore kv = new MockKeyValueStore();
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 100, 100, 4, newMetrics());
+
+    store.putAll(Arrays.asList(new Entry<>("a", "1"), new Entry<>("b", "2"), new Entry<>("c", "3")));
+
+    KeyValueIterator<String, String> range = store.range("a", "c");
+    List<String> keys = new ArrayList<>();
+    while (range.hasNext()) {
+      keys.add(range.next().getKey());
+    }
+    range.close();
+    assertEquals(Arrays.asList("a", "b"), keys);
+
+    KeyValueIterator<String, String> all = store.all();
+    int count = 0;
+    while (all.hasNext()) {
+      all.next();
+      count++;
+    }
+    all.close();
+    assertEquals(3, count);
+  }
+
+  @Test
+  public void testGetAllCachesMisses() {
+    MockKeyValueStore kv = spy(new MockKeyValueStore());
+    kv.put("k1", "v1");
+    kv.put("k2", "v2");
+    CachedStoreMetrics metrics = newMetrics();
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 100, 100, 4, metrics);
+
+    store.put("k3", "v3");
+    Map<String, String> values = store.getAll(Arrays.asList("k1", "k2", "k3"));
+    assertEquals(3, values.size());
+    assertEquals("v1", values.get("k1"));
+    assertEquals("v3", values.get("k3"));
+    assertEquals(1, metrics.cacheHits().getCount());
+
+    store.getAll(Arrays.asList("k1", "k2"));
+    assertEquals(3, metrics.cacheHits().getCount());
+    verify(kv, times(1)).getAll(any());
+  }
+
+  @Test
+  public void testConcurrentPuts() throws Exception {
+    MockKeyValueStore kv = new MockKeyValueStore() {
+      @Override
+      public synchronized void putAll(List<Entry<String, String>> entries) {
+        super.putAll(entries);
+      }
+    };
+    SegmentedCachedStore<String, String> store = new SegmentedCachedStore<>(kv, 64, 16, 8, newMetrics());
+    int numThreads = 4;
+    int numKeys = 1000;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < numThreads; t++) {
+      int thread = t;
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < numKeys; i++) {
+          store.put("t" + thread + "-" + i, String.valueOf(i));
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    store.flush();
+    assertEquals(numThreads * numKeys, kv.kvMap().size());
+    for (int t = 0; t < numThreads; t++) {
+      assertEquals(String.valueOf(numKeys - 1), store.get("t" + t + "-" + (numKeys - 1)));
+    }
+  }
+}
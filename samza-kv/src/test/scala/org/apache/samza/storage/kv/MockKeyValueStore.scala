@@ -49,6 +49,15 @@ class MockKeyValueStore extends KeyValueStore[String, String] {
     kvMap.remove(key)
   }
 
+  /**
+   * Appends the delta to the existing value.
+   */
+  override def merge(key: String, delta: String) {
+    kvMap.merge(key, delta, new java.util.function.BiFunction[String, String, String] {
+      override def apply(existingValue: String, delta: String): String = existingValue + delta
+    })
+  }
+
   private class MockIterator(val iter: util.Iterator[util.Map.Entry[String, String]])
     extends KeyValueIterator[String, String] {
 
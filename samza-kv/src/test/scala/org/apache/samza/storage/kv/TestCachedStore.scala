@@ -41,6 +41,42 @@ class TestCachedStore {
     assertTrue(store.hasArrayKeys)
   }
 
+  @Test
+  def testMergeWritesDirtyEntriesAndInvalidatesCache() {
+    val kv = new MockKeyValueStore()
+    val store = new CachedStore[String, String](kv, 100, 100)
+
+    store.put("k1", "a")
+    store.put("k2", "x")
+    store.merge("k1", "b")
+    // the dirty value must reach the underlying store before the merge
+    assertEquals("ab", kv.get("k1"))
+    assertEquals("x", kv.get("k2"))
+    assertEquals("ab", store.get("k1"))
+
+    // keys that are not cached are merged without being cached
+    store.merge("k3", "c")
+    assertEquals("c", kv.get("k3"))
+    assertEquals(2, store.metrics.merges.getCount)
+  }
+
+  @Test
+  def testDeleteRangeWritesDirtyEntriesAndClearsCache() {
+    val kv = new MockKeyValueStore()
+    val store = new CachedStore[String, String](kv, 100, 100)
+
+    store.put("a", "1")
+    store.put("b", "2")
+    store.put("c", "3")
+    store.deleteRange("a", "c")
+
+    assertNull(store.get("a"))
+    assertNull(store.get("b"))
+    assertEquals("3", store.get("c"))
+    assertEquals("3", kv.get("c"))
+    assertNull(kv.get("a"))
+  }
+
   @Test
   def testLRUCacheEviction() {
     val kv = spy(new MockKeyValueStore())
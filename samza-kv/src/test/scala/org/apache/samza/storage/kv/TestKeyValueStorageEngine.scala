@@ -31,6 +31,7 @@ import org.apache.samza.system.{ChangelogSSPIterator, IncomingMessageEnvelope, S
 import org.apache.samza.task.MessageCollector
 import org.junit.Assert._
 import org.junit.{After, Before, Test}
+import org.mockito.Matchers.anyObject
 import org.mockito.Mockito._
 import org.mockito.invocation.InvocationOnMock
 import org.mockito.stubbing.Answer
@@ -167,6 +168,34 @@ class TestKeyValueStorageEngine {
     assertEquals(15, metrics.restoredBytesGauge.getValue) // 3 keys * 2 bytes/key +  3 msgs * 3 bytes/msg
   }
 
+  @Test
+  def testRestoreUsesBulkIngestWhenEnabled(): Unit = {
+    val changelogSSP = new SystemStreamPartition("TestSystem", "TestStream", new Partition(0))
+    val rawKv = mock(classOf[BulkIngestibleKeyValueStore])
+    when(rawKv.isBulkIngestEnabled).thenReturn(true)
+    val bulkIngestEngine = new KeyValueStorageEngine[String, String]("test-storeName", mock(classOf[File]),
+      mock(classOf[StoreProperties]), new MockKeyValueStore(), rawKv, changelogSSP, mock(classOf[MessageCollector]),
+      new KeyValueStorageEngineMetrics, batchSize = 2)
+    val iterator = mock(classOf[ChangelogSSPIterator])
+    when(iterator.hasNext)
+      .thenReturn(true)
+      .thenReturn(true)
+      .thenReturn(true)
+      .thenReturn(false)
+    when(iterator.next())
+      .thenReturn(new IncomingMessageEnvelope(changelogSSP, "0", Array[Byte](1, 2), Array[Byte](3, 4, 5)))
+      .thenReturn(new IncomingMessageEnvelope(changelogSSP, "1", Array[Byte](2, 3), Array[Byte](4, 5, 6)))
+      .thenReturn(new IncomingMessageEnvelope(changelogSSP, "2", Array[Byte](3, 4), Array[Byte](5, 6, 7)))
+    when(iterator.getMode).thenReturn(Mode.RESTORE)
+
+    bulkIngestEngine.restore(iterator)
+
+    val ordered = inOrder(rawKv)
+    ordered.verify(rawKv, times(2)).bulkIngest(anyObject())
+    ordered.verify(rawKv).finishBulkIngest()
+    verify(rawKv, never()).putAll(anyObject())
+  }
+
   @Test
   def testRestoreInterruptedThrowsInterruptException(): Unit = {
     val changelogSSP = new SystemStreamPartition("TestSystem", "TestStream", new Partition(0))
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.samza.storage.kv
+
+import java.nio.file.Path
+import java.util.{Arrays, Optional}
+
+import org.apache.samza.Partition
+import org.apache.samza.checkpoint.CheckpointId
+import org.apache.samza.system.{OutgoingMessageEnvelope, SystemProducers, SystemStreamPartition}
+import org.apache.samza.task.{MessageCollector, TaskInstanceCollector}
+import org.junit.Assert._
+import org.junit.Test
+import org.mockito.Matchers.{any, anyString}
+import org.mockito.Mockito.{inOrder, mock, never, spy, verify}
+
+import scala.collection.mutable.ArrayBuffer
+
+class TestLoggedStore {
+  val changelogSSP = new SystemStreamPartition("system", "changelog", new Partition(0))
+
+  class RecordingCollector extends MessageCollector {
+    val envelopes = ArrayBuffer[OutgoingMessageEnvelope]()
+
+    override def send(envelope: OutgoingMessageEnvelope) {
+      envelopes += envelope
+    }
+  }
+
+  @Test
+  def testEveryChangeIsLoggedByDefault() {
+    val collector = new RecordingCollector
+    val store = new LoggedStore[String, String](new MockKeyValueStore, changelogSSP, collector)
+
+    store.put("k1", "v1")
+    store.put("k1", "v2")
+    store.delete("k1")
+    assertEquals(3, collector.envelopes.size)
+
+    store.flush()
+    assertEquals(3, collector.envelopes.size)
+    assertNull(collector.envelopes.last.getMessage)
+  }
+
+  @Test
+  def testCoalescedChangesAreLoggedOnFlush() {
+    val collector = new RecordingCollector
+    val metrics = new LoggedStoreMetrics
+    val store = new LoggedStore[String, String](new MockKeyValueStore, changelogSSP, collector, metrics,
+      coalesceWrites = true)
+
+    store.put("k1", "v1")
+    store.put("k2", "v1")
+    store.put("k1", "v2")
+    store.putAll(Arrays.asList(new Entry("k1", "v3"), new Entry("k3", "v1")))
+    store.delete("k2")
+    assertTrue(collector.envelopes.isEmpty)
+
+    store.flush()
+    assertEquals(Seq("k1", "k2", "k3"), collector.envelopes.map(_.getKey))
+    assertEquals(Seq("v3", null, "v1"), collector.envelopes.map(_.getMessage))
+    assertTrue(collector.envelopes.forall(_.getSystemStream == changelogSSP.getSystemStream))
+    assertEquals(3, metrics.changelogRecordsSent.getCount)
+    assertEquals(3, metrics.changelogRecordsCoalesced.getCount)
+
+    // nothing is logged if nothing changed since the last flush
+    store.flush()
+    assertEquals(3, collector.envelopes.size)
+  }
+
+  @Test
+  def testCoalescedChangesAreFlushedBeforeChangelogOffsetsAreSnapshotted() {
+    val producers = mock(classOf[SystemProducers])
+    val collector = new TaskInstanceCollector(producers)
+    val store = new LoggedStore[String, String](new MockKeyValueStore, changelogSSP, collector,
+      coalesceWrites = true)
+
+    store.put("k1", "v1")
+    // a commit flushes the task's producers, and only then flushes the stores before snapshotting changelog offsets
+    collector.flush
+    store.flush()
+
+    val commitOrder = inOrder(producers)
+    commitOrder.verify(producers).flush(anyString)
+    commitOrder.verify(producers).send(anyString, any[OutgoingMessageEnvelope])
+    commitOrder.verify(producers).flush(anyString)
+  }
+
+  @Test
+  def testMergedValueIsLogged() {
+    val collector = new RecordingCollector
+    val metrics = new LoggedStoreMetrics
+    val store = new LoggedStore[String, String](new MockKeyValueStore, changelogSSP, collector, metrics)
+
+    store.merge("k1", "a")
+    store.merge("k1", "b")
+
+    assertEquals(Seq("a", "ab"), collector.envelopes.map(_.getMessage))
+    assertEquals(2, metrics.merges.getCount)
+  }
+
+  @Test
+  def testDeleteRangeLogsTombstonesForKeysInRange() {
+    val collector = new RecordingCollector
+    val kv = new MockKeyValueStore
+    kv.put("a", "1")
+    kv.put("b", "2")
+    kv.put("c", "3")
+    val store = new LoggedStore[String, String](kv, changelogSSP, collector)
+
+    store.deleteRange("a", "c")
+
+    assertEquals(Seq("a", "b"), collector.envelopes.map(_.getKey))
+    assertTrue(collector.envelopes.forall(_.getMessage == null))
+    assertNull(kv.get("a"))
+    assertEquals("3", kv.get("c"))
+  }
+
+  @Test
+  def testCoalescedDeleteRangeLogsATombstonePerKeyAndDeletesTheRangeLocally() {
+    val collector = new RecordingCollector
+    val rangeDeletes = ArrayBuffer[(String, String)]()
+    val deletes = ArrayBuffer[String]()
+    val kv = new MockKeyValueStore {
+      override def delete(key: String) {
+        deletes += key
+        super.delete(key)
+      }
+
+      override def deleteRange(from: String, to: String) {
+        rangeDeletes += ((from, to))
+        kvMap.subMap(from, to).clear()
+      }
+    }
+    kv.put("a", "1")
+    kv.put("b", "2")
+    kv.put("c", "3")
+    val metrics = new LoggedStoreMetrics
+    val store = new LoggedStore[String, String](kv, changelogSSP, collector, metrics, coalesceWrites = true)
+
+    store.deleteRange("a", "c")
+    assertTrue(collector.envelopes.isEmpty)
+    // every key in the range is logged, but the local delete is a single range delete
+    assertEquals(Seq(("a", "c")), rangeDeletes)
+    assertTrue(deletes.isEmpty)
+    assertEquals(2, metrics.deletes.getCount)
+
+    store.flush()
+    assertEquals(Seq("a", "b"), collector.envelopes.map(_.getKey))
+    assertTrue(collector.envelopes.forall(_.getMessage == null))
+    assertNull(kv.get("b"))
+    assertEquals("3", kv.get("c"))
+  }
+
+  @Test
+  def testCoalescedMergedValueIsLoggedOnFlush() {
+    val collector = new RecordingCollector
+    val kv = spy(new MockKeyValueStore)
+    val store = new LoggedStore[String, String](kv, changelogSSP, collector, coalesceWrites = true)
+
+    store.merge("k1", "a")
+    store.merge("k1", "b")
+    // merges do not read the merged value until flush
+    verify(kv, never).get(anyString)
+
+    store.flush()
+    assertEquals(Seq("ab"), collector.envelopes.map(_.getMessage))
+  }
+
+  @Test
+  def testCoalescedArrayKeysAreComparedByContents() {
+    val collector = new RecordingCollector
+    val underlying = new java.util.TreeMap[String, Array[Byte]]()
+    val kv = new KeyValueStore[Array[Byte], Array[Byte]] {
+      override def get(key: Array[Byte]) = underlying.get(new String(key))
+      override def put(key: Array[Byte], value: Array[Byte]) { underlying.put(new String(key), value) }
+      override def putAll(entries: java.util.List[Entry[Array[Byte], Array[Byte]]]) {}
+      override def delete(key: Array[Byte]) { underlying.remove(new String(key)) }
+      override def range(from: Array[Byte], to: Array[Byte]): KeyValueIterator[Array[Byte], Array[Byte]] =
+        throw new UnsupportedOperationException
+      override def all(): KeyValueIterator[Array[Byte], Array[Byte]] = throw new UnsupportedOperationException
+      override def close() {}
+      override def flush() {}
+      override def checkpoint(id: CheckpointId): Optional[Path] = Optional.empty()
+    }
+    val store = new LoggedStore[Array[Byte], Array[Byte]](kv, changelogSSP, collector, coalesceWrites = true)
+
+    store.put("k".getBytes, "v1".getBytes)
+    store.put("k".getBytes, "v2".getBytes)
+    store.flush()
+
+    assertEquals(1, collector.envelopes.size)
+    assertArrayEquals("v2".getBytes, collector.envelopes.head.getMessage.asInstanceOf[Array[Byte]])
+  }
+}
@@ -50,16 +50,18 @@ public class ConfigBasedIOResolverFactory implements SqlIOResolverFactory {
 
   @Override
   public SqlIOResolver create(Config resolverConfig, Config fullConfig) {
-    return new ConfigBasedIOResolver(resolverConfig);
+    return new ConfigBasedIOResolver(resolverConfig, fullConfig);
   }
 
   private class ConfigBasedIOResolver implements SqlIOResolver {
     private static final String SAMZA_SQL_QUERY_TABLE_KEYWORD = "$table";
     private final Config config;
+    private final Config fullConfig;
     private final String changeLogStorePrefix;
 
-    public ConfigBasedIOResolver(Config config) {
+    public ConfigBasedIOResolver(Config config, Config fullConfig) {
       this.config = config;
+      this.fullConfig = fullConfig;
       String metadataTopicPrefix = config.get(CFG_METADATA_TOPIC_PREFIX, DEFAULT_METADATA_TOPIC_PREFIX);
       this.changeLogStorePrefix = metadataTopicPrefix + (metadataTopicPrefix.isEmpty() ? "" : "_");
     }
@@ -106,10 +108,10 @@ public class ConfigBasedIOResolverFactory implements SqlIOResolverFactory {
       TableDescriptor tableDescriptor = null;
       if (isTable) {
         String tableId = changeLogStorePrefix + "InputTable-" + name.replace(".", "-").replace("$", "-");
-        SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde keySerde =
-            (SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde) new SamzaSqlRelRecordSerdeFactory().getSerde(null, null);
+        SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde keySerde = SamzaSqlRelRecordSerdeFactory.getKeySerde();
         SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde valueSerde =
-            (SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde) new SamzaSqlRelMessageSerdeFactory().getSerde(null, null);
+            (SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde) new SamzaSqlRelMessageSerdeFactory().getSerde(null,
+                fullConfig);
         tableDescriptor = new RocksDbTableDescriptor(tableId, KVSerde.of(keySerde, valueSerde))
             .withChangelogEnabled();
       }
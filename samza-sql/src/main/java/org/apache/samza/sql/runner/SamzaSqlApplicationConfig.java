@@ -91,6 +91,10 @@ public class SamzaSqlApplicationConfig {
   public static final String CFG_GROUPBY_WINDOW_DURATION_MS = "samza.sql.groupby.window.ms";
   public static final String CFG_SQL_PROCESS_SYSTEM_EVENTS = "samza.sql.processSystemEvents";
   public static final String CFG_SQL_ENABLE_PLAN_OPTIMIZER = "samza.sql.enablePlanOptimizer";
+  public static final String CFG_SQL_SERDE_WRITE_FORMAT = "samza.sql.serde.writeFormat";
+
+  public static final String SERDE_WRITE_FORMAT_JSON = "json";
+  public static final String SERDE_WRITE_FORMAT_BINARY = "binary";
 
   public static final String SAMZA_SYSTEM_LOG = "log";
 
@@ -119,6 +123,7 @@ public class SamzaSqlApplicationConfig {
   private final long windowDurationMs;
   private final boolean processSystemEvents;
   private final boolean enableQueryPlanOptimizer;
+  private final boolean binarySerdeWriteFormat;
 
   public SamzaSqlApplicationConfig(Config staticConfig, List<String> inputSystemStreams,
       List<String> outputSystemStreams) {
@@ -173,6 +178,22 @@ public class SamzaSqlApplicationConfig {
     processSystemEvents = staticConfig.getBoolean(CFG_SQL_PROCESS_SYSTEM_EVENTS, true);
     windowDurationMs = staticConfig.getLong(CFG_GROUPBY_WINDOW_DURATION_MS, DEFAULT_GROUPBY_WINDOW_DURATION_MS);
     enableQueryPlanOptimizer = staticConfig.getBoolean(CFG_SQL_ENABLE_PLAN_OPTIMIZER, true);
+    binarySerdeWriteFormat = isBinarySerdeWriteFormat(staticConfig);
+  }
+
+  /**
+   * Returns whether the serdes of SamzaSqlRelMessages and SamzaSqlRelRecords in intermediate streams and stores write
+   * the binary format instead of the JSON format. Both formats are always read.
+   *
+   * @param config the job config
+   * @return true if {@link #CFG_SQL_SERDE_WRITE_FORMAT} is {@link #SERDE_WRITE_FORMAT_BINARY}
+   */
+  public static boolean isBinarySerdeWriteFormat(Config config) {
+    String writeFormat = config.get(CFG_SQL_SERDE_WRITE_FORMAT, SERDE_WRITE_FORMAT_JSON);
+    Validate.isTrue(SERDE_WRITE_FORMAT_JSON.equals(writeFormat) || SERDE_WRITE_FORMAT_BINARY.equals(writeFormat),
+        String.format("Invalid value %s for %s, expected %s or %s", writeFormat, CFG_SQL_SERDE_WRITE_FORMAT,
+            SERDE_WRITE_FORMAT_JSON, SERDE_WRITE_FORMAT_BINARY));
+    return SERDE_WRITE_FORMAT_BINARY.equals(writeFormat);
   }
 
   public static <T> T initializePlugin(String pluginName, String plugin, Config staticConfig,
@@ -340,6 +361,10 @@ public class SamzaSqlApplicationConfig {
     return processSystemEvents;
   }
 
+  public boolean isBinarySerdeWriteFormat() {
+    return binarySerdeWriteFormat;
+  }
+
   public boolean isQueryPlanOptimizerEnabled() {
     return enableQueryPlanOptimizer;
   }
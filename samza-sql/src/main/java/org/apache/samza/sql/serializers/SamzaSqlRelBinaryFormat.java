@@ -0,0 +1,434 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements.  See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership.  The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+package org.apache.samza.sql.serializers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.calcite.avatica.util.ByteString;
+import org.apache.samza.SamzaException;
+import org.apache.samza.sql.SamzaSqlRelRecord;
+import org.apache.samza.sql.data.SamzaSqlRelMessage;
+import org.apache.samza.sql.data.SamzaSqlRelMsgMetadata;
+
+
+/**
+ * The binary format used by the {@link SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde} and the
+ * {@link SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde} if the job is configured to write it, and the JSON
+ * format they write otherwise.
+ *
+ * <p>
+ * A serialized message or record starts with a format version byte, followed by the record and, for messages, the
+ * message metadata. A record is written as its field count, its field names and its field values. Each value is
+ * written as a one byte type tag followed by its binary encoding. Nested records, lists and maps are written
+ * recursively. Values of any other type are written as JSON with their type information, like the JSON format did.
+ *
+ * <p>
+ * If the field names of a record are the field names of the expected row type that the serde was created with,
+ * they are not written. Instead, a flag indicates that the row type's field names apply.
+ *
+ * <p>
+ * Bytes written in the JSON format start with '{', which is never a format version, so both formats are read
+ * regardless of the format that is written.
+ */
+final class SamzaSqlRelBinaryFormat {
+
+  static final byte FORMAT_VERSION = 1;
+  private static final byte JSON_FORMAT_START = '{';
+
+  private static final byte NAMES_INCLUDED = 0;
+  private static final byte NAMES_FROM_ROW_TYPE = 1;
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte FLOAT = 5;
+  private static final byte BOOLEAN = 6;
+  private static final byte BYTE_STRING = 7;
+  private static final byte BYTES = 8;
+  private static final byte RECORD = 9;
+  private static final byte LIST = 10;
+  private static final byte MAP = 11;
+  private static final byte SHORT = 12;
+  private static final byte BYTE = 13;
+  private static final byte BIG_DECIMAL = 14;
+  private static final byte JSON = 15;
+
+  private static final int INITIAL_BUFFER_SIZE = 256;
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+  // ObjectMapper is thread-safe once configured
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+  static {
+    // Enable object typing to handle nested records
+    JSON_MAPPER.enableDefaultTyping();
+  }
+
+  private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(Output::new);
+
+  private SamzaSqlRelBinaryFormat() {
+  }
+
+  static byte[] writeMessage(SamzaSqlRelMessage message, List<String> rowTypeFieldNames) {
+    Output out = OUTPUT.get();
+    try {
+      out.writeByte(FORMAT_VERSION);
+      writeRecord(out, message.getSamzaSqlRelRecord(), rowTypeFieldNames);
+      SamzaSqlRelMsgMetadata metadata = message.getSamzaSqlRelMsgMetadata();
+      out.writeLong(metadata.getEventTime());
+      out.writeLong(metadata.getArrivalTime());
+      out.writeLong(metadata.getScanTimeNanos());
+      out.writeLong(metadata.getScanTimeMillis());
+      out.writeByte(metadata.isNewInputMessage ? 1 : 0);
+      out.writeLong(metadata.joinStartTimeMs);
+      return out.toByteArray();
+    } finally {
+      out.reset();
+    }
+  }
+
+  static SamzaSqlRelMessage readMessage(byte[] bytes, List<String> rowTypeFieldNames) {
+    if (isJsonFormat(bytes)) {
+      return readJson(bytes, new TypeReference<SamzaSqlRelMessage>() { });
+    }
+    ByteBuffer in = readVersion(bytes);
+    SamzaSqlRelRecord record = readRecord(in, rowTypeFieldNames);
+    long eventTime = in.getLong();
+    long arrivalTime = in.getLong();
+    long scanTimeNanos = in.getLong();
+    long scanTimeMillis = in.getLong();
+    boolean isNewInputMessage = in.get() != 0;
+    SamzaSqlRelMsgMetadata metadata =
+        new SamzaSqlRelMsgMetadata(eventTime, arrivalTime, scanTimeNanos, scanTimeMillis, isNewInputMessage);
+    metadata.joinStartTimeMs = in.getLong();
+    return new SamzaSqlRelMessage(record, metadata);
+  }
+
+  static byte[] writeRecord(SamzaSqlRelRecord record, List<String> rowTypeFieldNames) {
+    Output out = OUTPUT.get();
+    try {
+      out.writeByte(FORMAT_VERSION);
+      writeRecord(out, record, rowTypeFieldNames);
+      return out.toByteArray();
+    } finally {
+      out.reset();
+    }
+  }
+
+  static SamzaSqlRelRecord readRecord(byte[] bytes, List<String> rowTypeFieldNames) {
+    if (isJsonFormat(bytes)) {
+      return readJson(bytes, new TypeReference<SamzaSqlRelRecord>() { });
+    }
+    return readRecord(readVersion(bytes), rowTypeFieldNames);
+  }
+
+  private static boolean isJsonFormat(byte[] bytes) {
+    return bytes.length > 0 && bytes[0] == JSON_FORMAT_START;
+  }
+
+  static byte[] writeJson(Object value) {
+    try {
+      return JSON_MAPPER.writeValueAsBytes(value);
+    } catch (IOException e) {
+      throw new SamzaException(e);
+    }
+  }
+
+  private static <T> T readJson(byte[] bytes, TypeReference<T> type) {
+    try {
+      return JSON_MAPPER.readValue(bytes, type);
+    } catch (IOException e) {
+      throw new SamzaException(e);
+    }
+  }
+
+  private static ByteBuffer readVersion(byte[] bytes) {
+    ByteBuffer in = ByteBuffer.wrap(bytes);
+    byte version = in.get();
+    if (version != FORMAT_VERSION) {
+      throw new SamzaException(String.format("Unsupported format version: %d. Expected version: %d", version,
+          FORMAT_VERSION));
+    }
+    return in;
+  }
+
+  private static void writeRecord(Output out, SamzaSqlRelRecord record, List<String> rowTypeFieldNames) {
+    List<String> fieldNames = record.getFieldNames();
+    List<Object> fieldValues = record.getFieldValues();
+    out.writeVarInt(fieldNames.size());
+    if (rowTypeFieldNames != null && rowTypeFieldNames.equals(fieldNames)) {
+      out.writeByte(NAMES_FROM_ROW_TYPE);
+    } else {
+      out.writeByte(NAMES_INCLUDED);
+      for (String fieldName : fieldNames) {
+        out.writeString(fieldName);
+      }
+    }
+    for (Object fieldValue : fieldValues) {
+      writeValue(out, fieldValue);
+    }
+  }
+
+  private static SamzaSqlRelRecord readRecord(ByteBuffer in, List<String> rowTypeFieldNames) {
+    int fieldCount = readVarInt(in);
+    List<String> fieldNames;
+    if (in.get() == NAMES_FROM_ROW_TYPE) {
+      if (rowTypeFieldNames == null || rowTypeFieldNames.size() != fieldCount) {
+        throw new SamzaException("Record was written with the field names of a row type that is not known to this serde");
+      }
+      // records own their field name lists, and callers may modify them
+      fieldNames = new ArrayList<>(rowTypeFieldNames);
+    } else {
+      fieldNames = new ArrayList<>(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        fieldNames.add(readString(in));
+      }
+    }
+    List<Object> fieldValues = new ArrayList<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      fieldValues.add(readValue(in));
+    }
+    return new SamzaSqlRelRecord(fieldNames, fieldValues);
+  }
+
+  private static void writeValue(Output out, Object value) {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      out.writeString((String) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INT);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeLong(Double.doubleToLongBits((Double) value));
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeInt(Float.floatToIntBits((Float) value));
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeByte((Boolean) value ? 1 : 0);
+    } else if (value instanceof ByteString) {
+      out.writeByte(BYTE_STRING);
+      out.writeBytes(((ByteString) value).getBytes());
+    } else if (value instanceof byte[]) {
+      out.writeByte(BYTES);
+      out.writeBytes((byte[]) value);
+    } else if (value instanceof SamzaSqlRelRecord) {
+      out.writeByte(RECORD);
+      writeRecord(out, (SamzaSqlRelRecord) value, null);
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      out.writeByte(LIST);
+      out.writeVarInt(list.size());
+      for (Object element : list) {
+        writeValue(out, element);
+      }
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      out.writeByte(MAP);
+      out.writeVarInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(out, entry.getKey());
+        writeValue(out, entry.getValue());
+      }
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeInt((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof BigDecimal) {
+      BigDecimal decimal = (BigDecimal) value;
+      out.writeByte(BIG_DECIMAL);
+      out.writeInt(decimal.scale());
+      out.writeBytes(decimal.unscaledValue().toByteArray());
+    } else if (value instanceof CharSequence) {
+      // e.g. Avro strings
+      out.writeByte(STRING);
+      out.writeString(value.toString());
+    } else {
+      out.writeByte(JSON);
+      try {
+        // wrapped in a list so that the value is written with its type
+        ArrayList<Object> wrapper = new ArrayList<>(1);
+        wrapper.add(value);
+        out.writeBytes(JSON_MAPPER.writeValueAsBytes(wrapper));
+      } catch (IOException e) {
+        throw new SamzaException(e);
+      }
+    }
+  }
+
+  private static Object readValue(ByteBuffer in) {
+    byte type = in.get();
+    switch (type) {
+      case NULL:
+        return null;
+      case STRING:
+        return readString(in);
+      case INT:
+        return in.getInt();
+      case LONG:
+        return in.getLong();
+      case DOUBLE:
+        return Double.longBitsToDouble(in.getLong());
+      case FLOAT:
+        return Float.intBitsToFloat(in.getInt());
+      case BOOLEAN:
+        return in.get() != 0;
+      case BYTE_STRING:
+        return new ByteString(readBytes(in));
+      case BYTES:
+        return readBytes(in);
+      case RECORD:
+        return readRecord(in, null);
+      case LIST: {
+        int size = readVarInt(in);
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readValue(in));
+        }
+        return list;
+      }
+      case MAP: {
+        int size = readVarInt(in);
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+          map.put(readValue(in), readValue(in));
+        }
+        return map;
+      }
+      case SHORT:
+        return (short) in.getInt();
+      case BYTE:
+        return in.get();
+      case BIG_DECIMAL: {
+        int scale = in.getInt();
+        return new BigDecimal(new BigInteger(readBytes(in)), scale);
+      }
+      case JSON:
+        return readJson(readBytes(in), new TypeReference<ArrayList<Object>>() { }).get(0);
+      default:
+        throw new SamzaException("Unknown value type: " + type);
+    }
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = readVarInt(in);
+    String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+    in.position(in.position() + length);
+    return value;
+  }
+
+  private static byte[] readBytes(ByteBuffer in) {
+    byte[] bytes = new byte[readVarInt(in)];
+    in.get(bytes);
+    return bytes;
+  }
+
+  private static int readVarInt(ByteBuffer in) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = in.get();
+      value |= (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  /**
+   * A growable output buffer that is reused across calls on the same thread.
+   */
+  private static final class Output {
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int position = 0;
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[position++] = (byte) value;
+    }
+
+    void writeInt(int value) {
+      ensureCapacity(4);
+      buffer[position++] = (byte) (value >>> 24);
+      buffer[position++] = (byte) (value >>> 16);
+      buffer[position++] = (byte) (value >>> 8);
+      buffer[position++] = (byte) value;
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    void writeVarInt(int value) {
+      while ((value & ~0x7f) != 0) {
+        writeByte((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      writeByte(value);
+    }
+
+    void writeBytes(byte[] bytes) {
+      writeVarInt(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+
+    void writeString(String value) {
+      writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, position);
+    }
+
+    void reset() {
+      position = 0;
+      if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+        buffer = new byte[INITIAL_BUFFER_SIZE];
+      }
+    }
+
+    private void ensureCapacity(int length) {
+      if (position + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+      }
+    }
+  }
+}
@@ -19,48 +19,64 @@
 
 package org.apache.samza.sql.serializers;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.samza.SamzaException;
+import java.util.List;
 import org.apache.samza.config.Config;
 import org.apache.samza.serializers.Serde;
 import org.apache.samza.serializers.SerdeFactory;
 import org.apache.samza.sql.data.SamzaSqlRelMessage;
+import org.apache.samza.sql.runner.SamzaSqlApplicationConfig;
 
 /**
  * A serializer for {@link SamzaSqlRelMessage}. This serializer preserves the type information as
  * {@link SamzaSqlRelMessage} contains nested {@link org.apache.samza.sql.SamzaSqlRelRecord}
- * records.
+ * records. Messages are written in JSON, or in a compact binary format if
+ * {@link SamzaSqlApplicationConfig#CFG_SQL_SERDE_WRITE_FORMAT} is set to binary. Both formats can be read.
+ * Keys are always written in JSON, see {@link #getKeySerde()}.
  */
 public final class SamzaSqlRelMessageSerdeFactory implements SerdeFactory<SamzaSqlRelMessage> {
   public Serde<SamzaSqlRelMessage> getSerde(String name, Config config) {
+    boolean binaryFormat = config != null && SamzaSqlApplicationConfig.isBinarySerdeWriteFormat(config);
+    return new SamzaSqlRelMessageSerde(null, binaryFormat);
+  }
+
+  /**
+   * Returns a serde for messages used as keys of window stores. Keys are always written in JSON, whatever the
+   * configured write format is, so that keys written before a change of the write format still match.
+   *
+   * @return a serde that writes messages in JSON
+   */
+  public static SamzaSqlRelMessageSerde getKeySerde() {
     return new SamzaSqlRelMessageSerde();
   }
 
   public final static class SamzaSqlRelMessageSerde implements Serde<SamzaSqlRelMessage> {
+    private final List<String> fieldNames;
+    private final boolean binaryFormat;
+
+    public SamzaSqlRelMessageSerde() {
+      this(null, false);
+    }
+
+    /**
+     * Creates a serde for messages of a known row type. If it writes the binary format, the field names of
+     * records that have exactly these field names are not written.
+     *
+     * @param fieldNames the field names of the row type, or null if it is not known
+     * @param binaryFormat whether to write the binary format instead of the JSON format. Both are read.
+     */
+    public SamzaSqlRelMessageSerde(List<String> fieldNames, boolean binaryFormat) {
+      this.fieldNames = fieldNames;
+      this.binaryFormat = binaryFormat;
+    }
 
     @Override
     public SamzaSqlRelMessage fromBytes(byte[] bytes) {
-      try {
-        ObjectMapper mapper = new ObjectMapper();
-        // Enable object typing to handle nested records
-        mapper.enableDefaultTyping();
-        return mapper.readValue(new String(bytes, "UTF-8"), new TypeReference<SamzaSqlRelMessage>() { });
-      } catch (Exception e) {
-        throw new SamzaException(e);
-      }
+      return SamzaSqlRelBinaryFormat.readMessage(bytes, fieldNames);
     }
 
     @Override
     public byte[] toBytes(SamzaSqlRelMessage p) {
-      try {
-        ObjectMapper mapper = new ObjectMapper();
-        // Enable object typing to handle nested records
-        mapper.enableDefaultTyping();
-        return mapper.writeValueAsString(p).getBytes("UTF-8");
-      } catch (Exception e) {
-        throw new SamzaException(e);
-      }
+      return binaryFormat ? SamzaSqlRelBinaryFormat.writeMessage(p, fieldNames) : SamzaSqlRelBinaryFormat.writeJson(p);
     }
   }
 }
@@ -19,49 +19,66 @@
 
 package org.apache.samza.sql.serializers;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.samza.SamzaException;
+import java.util.List;
 import org.apache.samza.config.Config;
 import org.apache.samza.serializers.Serde;
 import org.apache.samza.serializers.SerdeFactory;
 import org.apache.samza.sql.SamzaSqlRelRecord;
+import org.apache.samza.sql.runner.SamzaSqlApplicationConfig;
 
 
 /**
  * A serializer for {@link SamzaSqlRelRecord}. This serializer preserves the type information as
  * {@link SamzaSqlRelRecord} and contains nested {@link SamzaSqlRelRecord}
- * records.
+ * records. Records are written in JSON, or in a compact binary format if
+ * {@link SamzaSqlApplicationConfig#CFG_SQL_SERDE_WRITE_FORMAT} is set to binary. Both formats can be read.
+ * Keys are always written in JSON, see {@link #getKeySerde()}.
  */
 public final class SamzaSqlRelRecordSerdeFactory implements SerdeFactory<SamzaSqlRelRecord> {
   public Serde<SamzaSqlRelRecord> getSerde(String name, Config config) {
+    boolean binaryFormat = config != null && SamzaSqlApplicationConfig.isBinarySerdeWriteFormat(config);
+    return new SamzaSqlRelRecordSerde(null, binaryFormat);
+  }
+
+  /**
+   * Returns a serde for records used as keys of tables and repartitioned streams. Keys are always written in JSON,
+   * whatever the configured write format is: stores look keys up and streams are partitioned by their serialized
+   * bytes, so keys written before a change of the write format would no longer match.
+   *
+   * @return a serde that writes records in JSON
+   */
+  public static SamzaSqlRelRecordSerde getKeySerde() {
     return new SamzaSqlRelRecordSerde();
   }
 
   public final static class SamzaSqlRelRecordSerde implements Serde<SamzaSqlRelRecord> {
+    private final List<String> fieldNames;
+    private final boolean binaryFormat;
+
+    public SamzaSqlRelRecordSerde() {
+      this(null, false);
+    }
+
+    /**
+     * Creates a serde for records of a known row type. If it writes the binary format, the field names of
+     * records that have exactly these field names are not written.
+     *
+     * @param fieldNames the field names of the row type, or null if it is not known
+     * @param binaryFormat whether to write the binary format instead of the JSON format. Both are read.
+     */
+    public SamzaSqlRelRecordSerde(List<String> fieldNames, boolean binaryFormat) {
+      this.fieldNames = fieldNames;
+      this.binaryFormat = binaryFormat;
+    }
 
     @Override
     public SamzaSqlRelRecord fromBytes(byte[] bytes) {
-      try {
-        ObjectMapper mapper = new ObjectMapper();
-        // Enable object typing to handle nested records
-        mapper.enableDefaultTyping();
-        return mapper.readValue(new String(bytes, "UTF-8"), new TypeReference<SamzaSqlRelRecord>() { });
-      } catch (Exception e) {
-        throw new SamzaException(e);
-      }
+      return SamzaSqlRelBinaryFormat.readRecord(bytes, fieldNames);
     }
 
     @Override
     public byte[] toBytes(SamzaSqlRelRecord p) {
-      try {
-        ObjectMapper mapper = new ObjectMapper();
-        // Enable object typing to handle nested records
-        mapper.enableDefaultTyping();
-        return mapper.writeValueAsString(p).getBytes("UTF-8");
-      } catch (Exception e) {
-        throw new SamzaException(e);
-      }
+      return binaryFormat ? SamzaSqlRelBinaryFormat.writeRecord(p, fieldNames) : SamzaSqlRelBinaryFormat.writeJson(p);
     }
   }
 }
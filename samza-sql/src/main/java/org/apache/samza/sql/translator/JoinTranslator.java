@@ -177,10 +177,10 @@ class JoinTranslator {
 
     StreamTableJoinFunction joinFn = new SamzaSqlLocalTableJoinFunction(streamNode, tableNode, join.getJoinType());
 
-    SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde keySerde =
-        (SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde) new SamzaSqlRelRecordSerdeFactory().getSerde(null, null);
+    boolean binarySerdeFormat = context.getExecutionContext().getSamzaSqlApplicationConfig().isBinarySerdeWriteFormat();
+    SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde keySerde = SamzaSqlRelRecordSerdeFactory.getKeySerde();
     SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde valueSerde =
-        (SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde) new SamzaSqlRelMessageSerdeFactory().getSerde(null, null);
+        new SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde(null, binarySerdeFormat);
 
     // Always re-partition the messages from the input stream by the composite key and then join the messages
     // with the table. For the composite key, provide the corresponding table names in the key instead of using
@@ -419,10 +419,10 @@ class JoinTranslator {
 
     MessageStream<SamzaSqlRelMessage> relOutputStream = context.getMessageStream(tableNode.getRelNode().getId());
 
-    SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde keySerde =
-        (SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde) new SamzaSqlRelRecordSerdeFactory().getSerde(null, null);
+    boolean binarySerdeFormat = context.getExecutionContext().getSamzaSqlApplicationConfig().isBinarySerdeWriteFormat();
+    SamzaSqlRelRecordSerdeFactory.SamzaSqlRelRecordSerde keySerde = SamzaSqlRelRecordSerdeFactory.getKeySerde();
     SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde valueSerde =
-        (SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde) new SamzaSqlRelMessageSerdeFactory().getSerde(null, null);
+        new SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde(null, binarySerdeFormat);
 
     List<Integer> tableKeyIds = tableNode.getKeyIds();
 
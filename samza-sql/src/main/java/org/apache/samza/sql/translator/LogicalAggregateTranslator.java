@@ -71,7 +71,7 @@ class LogicalAggregateTranslator {
                 Duration.ofMillis(context.getExecutionContext().getSamzaSqlApplicationConfig().getWindowDurationMs()),
                 initialValue,
                 foldCountFn,
-                new SamzaSqlRelMessageSerdeFactory.SamzaSqlRelMessageSerde(),
+                SamzaSqlRelMessageSerdeFactory.getKeySerde(),
                 new LongSerde())
                 .setAccumulationMode(
                     AccumulationMode.DISCARDING), changeLogStorePrefix + "_tumblingWindow_" + logicalOpId)
@@ -19,16 +19,22 @@
 
 package org.apache.samza.sql.serializers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.calcite.avatica.util.ByteString;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.samza.config.MapConfig;
 import org.apache.samza.operators.KV;
+import org.apache.samza.sql.SamzaSqlRelRecord;
 import org.apache.samza.sql.avro.AvroRelConverter;
 import org.apache.samza.sql.avro.AvroRelSchemaProvider;
 import org.apache.samza.sql.avro.ConfigBasedAvroRelSchemaProviderFactory;
@@ -37,6 +43,7 @@ import org.apache.samza.sql.avro.schemas.Profile;
 import org.apache.samza.sql.avro.schemas.StreetNumRecord;
 import org.apache.samza.sql.data.SamzaSqlRelMessage;
 import org.apache.samza.sql.data.SamzaSqlRelMsgMetadata;
+import org.apache.samza.sql.runner.SamzaSqlApplicationConfig;
 import org.apache.samza.system.SystemStream;
 import org.junit.Assert;
 import org.junit.Test;
@@ -59,6 +66,118 @@ public class TestSamzaSqlRelMessageSerde {
     Assert.assertEquals(values, resultMsg.getSamzaSqlRelRecord().getFieldValues());
   }
 
+  @Test
+  public void testMetadataRoundTrip() {
+    SamzaSqlRelMsgMetadata metadata = new SamzaSqlRelMsgMetadata(10L, 20L, 30L, 40L, false);
+    metadata.joinStartTimeMs = 50L;
+    SamzaSqlRelMessage message = new SamzaSqlRelMessage(names, values, metadata);
+    SamzaSqlRelMessageSerde serde = new SamzaSqlRelMessageSerde(null, true);
+    byte[] bytes = serde.toBytes(message);
+    Assert.assertEquals(SamzaSqlRelBinaryFormat.FORMAT_VERSION, bytes[0]);
+
+    SamzaSqlRelMsgMetadata resultMetadata = serde.fromBytes(bytes).getSamzaSqlRelMsgMetadata();
+    Assert.assertEquals(10L, resultMetadata.getEventTime());
+    Assert.assertEquals(20L, resultMetadata.getArrivalTime());
+    Assert.assertEquals(30L, resultMetadata.getScanTimeNanos());
+    Assert.assertEquals(40L, resultMetadata.getScanTimeMillis());
+    Assert.assertFalse(resultMetadata.isNewInputMessage);
+    Assert.assertEquals(50L, resultMetadata.joinStartTimeMs);
+  }
+
+  @Test
+  public void testAllValueTypes() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("k1", "v1");
+    map.put("k2", null);
+    SamzaSqlRelRecord nested = new SamzaSqlRelRecord(Arrays.asList("n1", "n2"), Arrays.asList("nested", 2L));
+    List<String> fieldNames = Arrays.asList(SamzaSqlRelMessage.KEY_NAME, "string", "int", "long", "double", "float",
+        "boolean", "byteString", "decimal", "short", "byte", "record", "list", "map", "null");
+    List<Object> fieldValues = Arrays.asList("key", "string", 1, 2L, 3.5d, 4.5f, true,
+        new ByteString(new byte[]{1, 2, 3}), new BigDecimal("123.456"), (short) 5, (byte) 6, nested,
+        new ArrayList<>(Arrays.asList(1, "two", null)), map, null);
+    SamzaSqlRelMessage message = new SamzaSqlRelMessage(fieldNames, fieldValues, new SamzaSqlRelMsgMetadata(0L, 0L));
+    SamzaSqlRelMessageSerde serde = new SamzaSqlRelMessageSerde(null, true);
+    SamzaSqlRelMessage resultMsg = serde.fromBytes(serde.toBytes(message));
+    Assert.assertEquals(message, resultMsg);
+    Assert.assertEquals("key", resultMsg.getKey());
+  }
+
+  @Test
+  public void testFieldNamesOfRowTypeAreNotWritten() {
+    SamzaSqlRelMessage message = new SamzaSqlRelMessage(names, values, new SamzaSqlRelMsgMetadata(0L, 0L));
+    SamzaSqlRelMessageSerde serde = new SamzaSqlRelMessageSerde(null, true);
+    SamzaSqlRelMessageSerde rowTypeSerde = new SamzaSqlRelMessageSerde(names, true);
+    byte[] bytes = rowTypeSerde.toBytes(message);
+    Assert.assertTrue(bytes.length < serde.toBytes(message).length);
+
+    SamzaSqlRelMessage resultMsg = rowTypeSerde.fromBytes(bytes);
+    Assert.assertEquals(names, resultMsg.getSamzaSqlRelRecord().getFieldNames());
+    Assert.assertEquals(values, resultMsg.getSamzaSqlRelRecord().getFieldValues());
+    // the decoded field names can be modified without affecting the serde
+    resultMsg.getSamzaSqlRelRecord().getFieldNames().add("field4");
+    Assert.assertEquals(names, rowTypeSerde.fromBytes(bytes).getSamzaSqlRelRecord().getFieldNames());
+
+    // records with other field names are written with their field names
+    SamzaSqlRelMessageSerde otherRowTypeSerde = new SamzaSqlRelMessageSerde(Arrays.asList("f1", "f2", "f3"), true);
+    resultMsg = otherRowTypeSerde.fromBytes(otherRowTypeSerde.toBytes(message));
+    Assert.assertEquals(names, resultMsg.getSamzaSqlRelRecord().getFieldNames());
+    Assert.assertEquals(values, resultMsg.getSamzaSqlRelRecord().getFieldValues());
+  }
+
+  @Test
+  public void testWriteFormatIsConfigurable() {
+    SamzaSqlRelMessage message = new SamzaSqlRelMessage(names, values, new SamzaSqlRelMsgMetadata(0L, 0L));
+    SamzaSqlRelMessageSerde jsonSerde =
+        (SamzaSqlRelMessageSerde) new SamzaSqlRelMessageSerdeFactory().getSerde(null, new MapConfig());
+    SamzaSqlRelMessageSerde binarySerde = (SamzaSqlRelMessageSerde) new SamzaSqlRelMessageSerdeFactory().getSerde(null,
+        new MapConfig(Collections.singletonMap(SamzaSqlApplicationConfig.CFG_SQL_SERDE_WRITE_FORMAT,
+            SamzaSqlApplicationConfig.SERDE_WRITE_FORMAT_BINARY)));
+
+    // JSON is written by default
+    byte[] jsonBytes = jsonSerde.toBytes(message);
+    Assert.assertEquals('{', jsonBytes[0]);
+    byte[] binaryBytes = binarySerde.toBytes(message);
+    Assert.assertEquals(SamzaSqlRelBinaryFormat.FORMAT_VERSION, binaryBytes[0]);
+
+    // both formats are read regardless of the format that is written
+    Assert.assertEquals(message, jsonSerde.fromBytes(binaryBytes));
+    Assert.assertEquals(message, binarySerde.fromBytes(jsonBytes));
+  }
+
+  @Test
+  public void testKeySerdeMatchesKeysWrittenInJsonFormat() throws Exception {
+    SamzaSqlRelMessage key = new SamzaSqlRelMessage(names, values, new SamzaSqlRelMsgMetadata(0L, 0L));
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enableDefaultTyping();
+    // a window key written before the job switched to the binary write format
+    byte[] storedKey = mapper.writeValueAsString(key).getBytes("UTF-8");
+
+    SamzaSqlRelMessageSerde keySerde = SamzaSqlRelMessageSerdeFactory.getKeySerde();
+    Assert.assertArrayEquals(storedKey, keySerde.toBytes(key));
+    Assert.assertEquals(key, keySerde.fromBytes(storedKey));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWriteFormat() {
+    new SamzaSqlRelMessageSerdeFactory().getSerde(null,
+        new MapConfig(Collections.singletonMap(SamzaSqlApplicationConfig.CFG_SQL_SERDE_WRITE_FORMAT, "avro")));
+  }
+
+  @Test
+  public void testReadJsonFormat() throws Exception {
+    SamzaSqlRelMsgMetadata metadata = new SamzaSqlRelMsgMetadata(10L, 20L);
+    SamzaSqlRelMessage message = new SamzaSqlRelMessage(names, values, metadata);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enableDefaultTyping();
+    byte[] jsonBytes = mapper.writeValueAsString(message).getBytes("UTF-8");
+
+    SamzaSqlRelMessage resultMsg = new SamzaSqlRelMessageSerde().fromBytes(jsonBytes);
+    Assert.assertEquals(names, resultMsg.getSamzaSqlRelRecord().getFieldNames());
+    Assert.assertEquals(values, resultMsg.getSamzaSqlRelRecord().getFieldValues());
+    Assert.assertEquals(10L, resultMsg.getSamzaSqlRelMsgMetadata().getEventTime());
+    Assert.assertEquals(20L, resultMsg.getSamzaSqlRelMsgMetadata().getArrivalTime());
+  }
+
   @Test
   public void testNestedRecordConversion() {
     Map<String, String> props = new HashMap<>();
@@ -19,7 +19,10 @@
 
 package org.apache.samza.sql.serializers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +38,7 @@ import org.apache.samza.sql.avro.ConfigBasedAvroRelSchemaProviderFactory;
 import org.apache.samza.sql.avro.schemas.Profile;
 import org.apache.samza.sql.data.SamzaSqlRelMessage;
 import org.apache.samza.sql.data.SamzaSqlRelMsgMetadata;
+import org.apache.samza.sql.runner.SamzaSqlApplicationConfig;
 import org.apache.samza.system.SystemStream;
 import org.junit.Assert;
 import org.junit.Test;
@@ -58,6 +62,50 @@ public class TestSamzaSqlRelRecordSerde {
     Assert.assertEquals(values, resultRecord.getFieldValues());
   }
 
+  @Test
+  public void testFieldNamesOfRowTypeAreNotWritten() {
+    SamzaSqlRelRecord record = new SamzaSqlRelRecord(names, values);
+    SamzaSqlRelRecordSerde rowTypeSerde = new SamzaSqlRelRecordSerde(names, true);
+    byte[] bytes = rowTypeSerde.toBytes(record);
+    Assert.assertEquals(SamzaSqlRelBinaryFormat.FORMAT_VERSION, bytes[0]);
+    Assert.assertTrue(bytes.length < new SamzaSqlRelRecordSerde(null, true).toBytes(record).length);
+    Assert.assertEquals(record, rowTypeSerde.fromBytes(bytes));
+  }
+
+  @Test
+  public void testReadBothFormats() {
+    SamzaSqlRelRecord record = new SamzaSqlRelRecord(names, values);
+    SamzaSqlRelRecordSerde jsonSerde = new SamzaSqlRelRecordSerde();
+    SamzaSqlRelRecordSerde binarySerde = new SamzaSqlRelRecordSerde(null, true);
+    Assert.assertEquals(record, binarySerde.fromBytes(jsonSerde.toBytes(record)));
+    Assert.assertEquals(record, jsonSerde.fromBytes(binarySerde.toBytes(record)));
+  }
+
+  @Test
+  public void testReadJsonFormat() throws Exception {
+    SamzaSqlRelRecord record = new SamzaSqlRelRecord(names, values);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enableDefaultTyping();
+    byte[] jsonBytes = mapper.writeValueAsString(record).getBytes("UTF-8");
+    Assert.assertEquals(record, new SamzaSqlRelRecordSerde().fromBytes(jsonBytes));
+  }
+
+  @Test
+  public void testKeySerdeMatchesKeysWrittenInJsonFormat() throws Exception {
+    SamzaSqlRelRecord key = new SamzaSqlRelRecord(names, values);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enableDefaultTyping();
+    // a table written before the job switched to the binary write format
+    Map<ByteBuffer, String> table = new HashMap<>();
+    table.put(ByteBuffer.wrap(mapper.writeValueAsString(key).getBytes("UTF-8")), "value");
+
+    SamzaSqlRelRecordSerde valueSerde = (SamzaSqlRelRecordSerde) new SamzaSqlRelRecordSerdeFactory().getSerde(null,
+        new MapConfig(Collections.singletonMap(SamzaSqlApplicationConfig.CFG_SQL_SERDE_WRITE_FORMAT,
+            SamzaSqlApplicationConfig.SERDE_WRITE_FORMAT_BINARY)));
+    Assert.assertNull(table.get(ByteBuffer.wrap(valueSerde.toBytes(key))));
+    Assert.assertEquals("value", table.get(ByteBuffer.wrap(SamzaSqlRelRecordSerdeFactory.getKeySerde().toBytes(key))));
+  }
+
   @Test
   public void testNestedRecordConversion() {
     Map<String, String> props = new HashMap<>();